@@ -36,7 +36,16 @@ public enum ConfigKey implements Config.Key {
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_ENABLED("repo.meta.analyzer.cacheStampedeBlocker.enabled", true),
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_LOCK_BUCKETS("repo.meta.analyzer.cacheStampedeBlocker.lock.buckets", 1000),
     REPO_META_ANALYZER_CACHE_STAMPEDE_BLOCKER_MAX_ATTEMPTS("repo.meta.analyzer.cacheStampedeBlocker.max.attempts", 10),
-    SYSTEM_REQUIREMENT_CHECK_ENABLED("system.requirement.check.enabled", true);
+    SYSTEM_REQUIREMENT_CHECK_ENABLED("system.requirement.check.enabled", true),
+    BOM_UPLOAD_BATCH_MODE_ENABLED("bom.upload.batch.mode.enabled", false),
+    BOM_UPLOAD_BATCH_SIZE("bom.upload.batch.size", 1000),
+    METRICS_INCREMENTAL_UPDATE_ENABLED("metrics.incremental.update.enabled", true),
+    METRICS_FULL_UPDATE_INTERVAL_HOURS("metrics.full.update.interval.hours", 24),
+    SCANNER_INTERNAL_INDEX_ENABLED("scanner.internal.index.enabled", false),
+    VULNERABILITY_ANALYSIS_THREAD_POOL_SIZE("vulnerability.analysis.thread.pool.size", 8),
+    NVD_MIRROR_THREAD_POOL_SIZE("nvd.mirror.thread.pool.size", 4),
+    NVD_MIRROR_UNCOMPRESSED_FEEDS_ENABLED("nvd.mirror.uncompressed.feeds.enabled", true),
+    OSV_MIRROR_THREAD_POOL_SIZE("osv.mirror.thread.pool.size", 4);
 
     private final String propertyName;
     private final Object defaultValue;
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.metrics;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps track of {@link Project}s whose metrics may be outdated.
+ * <p>
+ * Write operations that affect metrics (new findings, analysis decisions, policy violations, BOM uploads)
+ * mark the respective project as dirty. Periodic metrics updates can then limit themselves to
+ * recalculating metrics of dirty projects only.
+ * <p>
+ * Dirty state is held in memory. Because changes that happen before application startup cannot
+ * be known, all projects are considered to be dirty initially. To make up for changes that are not
+ * tracked (e.g. updated vulnerability aliases), all projects are periodically considered dirty as well.
+ *
+ * @since 4.10.0
+ */
+public final class MetricsDirtyTracker {
+
+    private static final MetricsDirtyTracker INSTANCE = new MetricsDirtyTracker();
+
+    private final Set<Long> dirtyProjectIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean allDirty = new AtomicBoolean(true);
+    private volatile long lastAllDirtyDrainedAt;
+
+    MetricsDirtyTracker() { }
+
+    public static MetricsDirtyTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Mark the {@link Project} with the given ID as dirty.
+     * @param projectId ID of the {@link Project}
+     */
+    public void markDirty(final long projectId) {
+        dirtyProjectIds.add(projectId);
+    }
+
+    /**
+     * Mark a {@link Project} as dirty.
+     * @param project The {@link Project} to mark as dirty; May be {@code null}
+     */
+    public void markDirty(final Project project) {
+        if (project != null) {
+            markDirty(project.getId());
+        }
+    }
+
+    /**
+     * Mark the {@link Project} a {@link Component} belongs to as dirty.
+     * @param component The {@link Component} whose {@link Project} to mark as dirty; May be {@code null}
+     */
+    public void markDirty(final Component component) {
+        if (component != null) {
+            markDirty(component.getProject());
+        }
+    }
+
+    /**
+     * Mark all {@link Project}s as dirty.
+     */
+    public void markAllDirty() {
+        allDirty.set(true);
+    }
+
+    /**
+     * Retrieve the current dirty state, and reset it.
+     * <p>
+     * Projects marked as dirty while the returned {@link DirtyState} is being processed
+     * will be included in the next invocation of this method.
+     * Callers are expected to mark projects as dirty again if updating their metrics fails.
+     *
+     * @param fullUpdateInterval Interval after which all {@link Project}s are considered dirty again
+     * @return The {@link DirtyState} as of the time of invocation
+     */
+    public DirtyState drain(final Duration fullUpdateInterval) {
+        final long now = System.currentTimeMillis();
+        final boolean wasAllDirty = allDirty.getAndSet(false)
+                || now - lastAllDirtyDrainedAt >= fullUpdateInterval.toMillis();
+        if (wasAllDirty) {
+            lastAllDirtyDrainedAt = now;
+        }
+
+        final Set<Long> projectIds = new HashSet<>();
+        for (final Long projectId : dirtyProjectIds) {
+            if (dirtyProjectIds.remove(projectId)) {
+                projectIds.add(projectId);
+            }
+        }
+
+        return new DirtyState(wasAllDirty, projectIds);
+    }
+
+    /**
+     * @param allDirty   Whether all {@link Project}s are to be considered dirty
+     * @param projectIds IDs of the {@link Project}s that have been marked as dirty
+     */
+    public record DirtyState(boolean allDirty, Set<Long> projectIds) {
+
+        public boolean isDirty(final Project project) {
+            return allDirty || projectIds.contains(project.getId());
+        }
+
+    }
+
+}
@@ -83,6 +83,7 @@ import java.util.Set;
         @FetchGroup(name = "METRICS_UPDATE", members = {
                 @Persistent(name = "id"),
                 @Persistent(name = "lastInheritedRiskScore"),
+                @Persistent(name = "project"),
                 @Persistent(name = "uuid")
         })
 })
@@ -0,0 +1,103 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.model;
+
+import javax.jdo.annotations.Column;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.Index;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * Model class for an edge of a {@link Project}'s dependency graph.
+ * <p>
+ * An edge without a parent {@link Component} denotes a direct dependency of the {@link Project}.
+ * Edges mirror {@link Project#getDirectDependencies()} and {@link Component#getDirectDependencies()},
+ * but allow for the graph to be traversed using indexed lookups.
+ *
+ * @since 4.10.0
+ */
+@PersistenceCapable
+@Index(name = "COMPONENTDEPENDENCY_PROJECT_PARENT_IDX", members = {"project", "parent"})
+public class ComponentDependency implements Serializable {
+
+    private static final long serialVersionUID = 5043528764583176912L;
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.NATIVE)
+    private long id;
+
+    @Persistent(defaultFetchGroup = "false")
+    @Column(name = "PROJECT_ID", allowsNull = "false")
+    @NotNull
+    private Project project;
+
+    @Persistent(defaultFetchGroup = "true")
+    @Column(name = "PARENT_COMPONENT_ID", allowsNull = "true")
+    private Component parent;
+
+    @Persistent(defaultFetchGroup = "true")
+    @Index(name = "COMPONENTDEPENDENCY_CHILD_IDX")
+    @Column(name = "CHILD_COMPONENT_ID", allowsNull = "false")
+    @NotNull
+    private Component child;
+
+    public ComponentDependency() {}
+
+    public ComponentDependency(Project project, Component parent, Component child) {
+        this.project = project;
+        this.parent = parent;
+        this.child = child;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public void setProject(Project project) {
+        this.project = project;
+    }
+
+    public Component getParent() {
+        return parent;
+    }
+
+    public void setParent(Component parent) {
+        this.parent = parent;
+    }
+
+    public Component getChild() {
+        return child;
+    }
+
+    public void setChild(Component child) {
+        this.child = child;
+    }
+}
@@ -44,6 +44,7 @@ import java.util.UUID;
  * @since 4.0.0
  */
 @PersistenceCapable
+@Unique(name = "POLICYVIOLATION_COMPOSITE_IDX", members = {"type", "component", "policyCondition"})
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class PolicyViolation implements Serializable {
@@ -34,6 +34,7 @@ import org.dependencytrack.model.AnalysisResponse;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
 import org.dependencytrack.model.ComponentIdentity;
 import org.dependencytrack.model.Cwe;
 import org.dependencytrack.model.DataClassification;
@@ -54,7 +55,6 @@ import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.InternalComponentIdentificationUtil;
 import org.dependencytrack.util.PurlUtil;
 import org.dependencytrack.util.VulnerabilityUtil;
-import org.json.JSONArray;
 
 import javax.json.Json;
 import javax.json.JsonArray;
@@ -66,10 +66,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class ModelConverter {
 
@@ -86,21 +93,61 @@ public class ModelConverter {
      * @return a List of Component object
      */
     public static List<Component> convertComponents(final QueryManager qm, final Bom bom, final Project project) {
+        return convertComponents(qm, bom, project, new ConversionContext(
+                identity -> qm.matchSingleIdentity(project, identity),
+                component -> InternalComponentIdentificationUtil.isInternalComponent(component, qm),
+                null));
+    }
+
+    /**
+     * Converts a parsed Bom to a native list of Dependency-Track component objects.
+     * <p>
+     * Unlike {@link #convertComponents(QueryManager, Bom, Project)}, identities of BOM components are
+     * resolved against the provided {@code existingComponents} in memory, rather than by querying the
+     * datastore once per component. Internal component identification and license resolution are
+     * performed with a single lookup per distinct value as well.
+     *
+     * @param qm                 The {@link QueryManager} to use
+     * @param bom                The Bom to convert
+     * @param project            The {@link Project} the BOM was uploaded to
+     * @param existingComponents All {@link Component}s currently belonging to {@code project}
+     * @return a List of Component object
+     * @since 4.10.0
+     */
+    public static List<Component> convertComponents(final QueryManager qm, final Bom bom, final Project project,
+                                                    final List<Component> existingComponents) {
+        final var identityIndex = new ComponentIdentityIndex(existingComponents);
+        return convertComponents(qm, bom, project, new ConversionContext(
+                identityIndex::match,
+                InternalComponentIdentificationUtil.internalComponentPredicate(qm),
+                new HashMap<>()));
+    }
+
+    private static List<Component> convertComponents(final QueryManager qm, final Bom bom, final Project project,
+                                                     final ConversionContext ctx) {
         final List<Component> components = new ArrayList<>();
         if (bom.getComponents() != null) {
             for (int i = 0; i < bom.getComponents().size(); i++) {
                 final org.cyclonedx.model.Component cycloneDxComponent = bom.getComponents().get(i);
                 if (cycloneDxComponent != null) {
-                    components.add(convert(qm, cycloneDxComponent, project));
+                    components.add(convert(qm, cycloneDxComponent, project, ctx));
                 }
             }
         }
         return components;
     }
 
-    @SuppressWarnings("deprecation")
     public static Component convert(final QueryManager qm, final org.cyclonedx.model.Component cycloneDxComponent, final Project project) {
-        Component component = qm.matchSingleIdentity(project, new ComponentIdentity(cycloneDxComponent));
+        return convert(qm, cycloneDxComponent, project, new ConversionContext(
+                identity -> qm.matchSingleIdentity(project, identity),
+                component -> InternalComponentIdentificationUtil.isInternalComponent(component, qm),
+                null));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Component convert(final QueryManager qm, final org.cyclonedx.model.Component cycloneDxComponent,
+                                     final Project project, final ConversionContext ctx) {
+        Component component = ctx.identityResolver().apply(new ComponentIdentity(cycloneDxComponent));
         if (component == null) {
             component = new Component();
             component.setProject(project);
@@ -129,7 +176,7 @@ public class ModelConverter {
             }
         }
 
-        component.setInternal(InternalComponentIdentificationUtil.isInternalComponent(component, qm));
+        component.setInternal(ctx.internalComponentPredicate().test(component));
 
         if (cycloneDxComponent.getType() != null) {
             component.setClassifier(Classifier.valueOf(cycloneDxComponent.getType().name()));
@@ -195,14 +242,16 @@ public class ModelConverter {
                 for (final org.cyclonedx.model.License cycloneLicense : licenseOptions) {
                     if (cycloneLicense != null) {
                         if (StringUtils.isNotBlank(cycloneLicense.getId())) {
-                            final License license = qm.getLicense(StringUtils.trimToNull(cycloneLicense.getId()));
+                            final License license = ctx.resolveLicense("id:" + StringUtils.trimToNull(cycloneLicense.getId()),
+                                    () -> qm.getLicense(StringUtils.trimToNull(cycloneLicense.getId())));
                             if (license != null) {
                                 component.setResolvedLicense(license);
                             }
                         }
                         else if (StringUtils.isNotBlank(cycloneLicense.getName()))
                         {
-                            final License license = qm.getCustomLicense(StringUtils.trimToNull(cycloneLicense.getName()));
+                            final License license = ctx.resolveLicense("name:" + StringUtils.trimToNull(cycloneLicense.getName()),
+                                    () -> qm.getCustomLicense(StringUtils.trimToNull(cycloneLicense.getName())));
                             if (license != null) {
                                 component.setResolvedLicense(license);
                             }
@@ -233,7 +282,7 @@ public class ModelConverter {
             for (int i = 0; i < cycloneDxComponent.getComponents().size(); i++) {
                 final org.cyclonedx.model.Component cycloneDxChildComponent = cycloneDxComponent.getComponents().get(i);
                 if (cycloneDxChildComponent != null) {
-                    components.add(convert(qm, cycloneDxChildComponent, project));
+                    components.add(convert(qm, cycloneDxChildComponent, project, ctx));
                 }
             }
             if (CollectionUtils.isNotEmpty(components)) {
@@ -717,33 +766,40 @@ public class ModelConverter {
     }
 
     /**
-     * Converts a parsed Bom to a native list of Dependency-Track component objects
+     * Converts the dependency graph of a parsed Bom to {@link Project#getDirectDependencies()} and
+     * {@link Component#getDirectDependencies()} references, as well as to {@link ComponentDependency} edges.
      *
      * @param bom        the Bom to convert
      * @param project    The project based on the BOM
      * @param components All known {@link Component}s from the BOM
-     * @return a List of Component object
+     * @return the {@link ComponentDependency} edges of the dependency graph
      */
-    public static void generateDependencies(final Bom bom, final Project project, final List<Component> components) {
+    public static List<ComponentDependency> generateDependencies(final Bom bom, final Project project, final List<Component> components) {
+        final List<ComponentDependency> edges = new ArrayList<>();
+        // Index the dependency graph and components by bom-ref once, so that the graph can be built in a single pass
+        final Map<String, org.cyclonedx.model.Dependency> dependenciesByBomRef = indexDependencies(bom.getDependencies());
+        final Map<Component, String> identitiesJson = new IdentityHashMap<>();
+
         // Get direct dependencies first
         if (bom.getMetadata() != null && bom.getMetadata().getComponent() != null && bom.getMetadata().getComponent().getBomRef() != null) {
-            final String targetBomRef = bom.getMetadata().getComponent().getBomRef();
-            final org.cyclonedx.model.Dependency targetDep = getDependencyFromBomRef(targetBomRef, bom.getDependencies());
-            final JSONArray jsonArray = new JSONArray();
+            final Map<String, Component> componentsByBomRef = new HashMap<>(components.size());
+            for (final Component component : components) {
+                if (component.getBomRef() != null) {
+                    componentsByBomRef.putIfAbsent(component.getBomRef(), component);
+                }
+            }
+            final org.cyclonedx.model.Dependency targetDep = dependenciesByBomRef.get(bom.getMetadata().getComponent().getBomRef());
+            final StringJoiner jsonArray = new StringJoiner(",", "[", "]").setEmptyValue("");
             if (targetDep != null && targetDep.getDependencies() != null) {
                 for (final org.cyclonedx.model.Dependency directDep : targetDep.getDependencies()) {
-                    final Component c = getComponentFromBomRef(directDep.getRef(), components, false);
+                    final Component c = directDep.getRef() != null ? componentsByBomRef.get(directDep.getRef()) : null;
                     if (c != null) {
-                        final ComponentIdentity ci = new ComponentIdentity(c);
-                        jsonArray.put(ci.toJSON());
+                        jsonArray.add(identitiesJson.computeIfAbsent(c, ModelConverter::toIdentityJson));
+                        edges.add(new ComponentDependency(project, null, c));
                     }
                 }
             }
-            if (jsonArray.isEmpty()) {
-                project.setDirectDependencies(null);
-            } else {
-                project.setDirectDependencies(jsonArray.toString());
-            }
+            project.setDirectDependencies(jsonArray.length() == 0 ? null : jsonArray.toString());
         }
         // Get transitive last. It is possible that some CycloneDX implementations may not properly specify direct
         // dependencies. As a result, it is not possible to distinguish between direct and transitive.
@@ -753,24 +809,46 @@ public class ModelConverter {
 
         for (final Map.Entry<String, Component> c1: flatComponents.entrySet()) {
             if (c1.getKey() != null) {
-                final JSONArray jsonArray = new JSONArray();
-                final org.cyclonedx.model.Dependency d1 = getDependencyFromBomRef(c1.getKey(), bom.getDependencies());
+                final StringJoiner jsonArray = new StringJoiner(",", "[", "]").setEmptyValue("");
+                final org.cyclonedx.model.Dependency d1 = dependenciesByBomRef.get(c1.getKey());
                 if (d1 != null && d1.getDependencies() != null) {
                     for (final org.cyclonedx.model.Dependency d2: d1.getDependencies()) {
                         final Component c2 = flatComponents.get(d2.getRef());
                         if (c2 != null) {
-                            final ComponentIdentity ci = new ComponentIdentity(c2);
-                            jsonArray.put(ci.toJSON());
+                            jsonArray.add(identitiesJson.computeIfAbsent(c2, ModelConverter::toIdentityJson));
+                            edges.add(new ComponentDependency(project, c1.getValue(), c2));
                         }
                     }
                 }
-                if (jsonArray.isEmpty()) {
-                    c1.getValue().setDirectDependencies(null);
-                } else {
-                    c1.getValue().setDirectDependencies(jsonArray.toString());
-                }
+                c1.getValue().setDirectDependencies(jsonArray.length() == 0 ? null : jsonArray.toString());
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Indexes the dependencies of a BOM by their bom-ref. If a bom-ref occurs multiple times,
+     * its first occurrence is used.
+     */
+    private static Map<String, org.cyclonedx.model.Dependency> indexDependencies(final List<org.cyclonedx.model.Dependency> dependencies) {
+        if (dependencies == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, org.cyclonedx.model.Dependency> dependenciesByBomRef = new HashMap<>(dependencies.size());
+        for (final org.cyclonedx.model.Dependency dependency : dependencies) {
+            if (dependency.getRef() != null) {
+                dependenciesByBomRef.putIfAbsent(dependency.getRef(), dependency);
             }
         }
+        return dependenciesByBomRef;
+    }
+
+    /**
+     * Serializes the {@link ComponentIdentity} of a {@link Component}, as used for
+     * {@link Project#getDirectDependencies()} and {@link Component#getDirectDependencies()} references.
+     */
+    private static String toIdentityJson(final Component component) {
+        return new ComponentIdentity(component).toJSON().toString();
     }
 
     /**
@@ -786,21 +864,26 @@ public class ModelConverter {
             return Collections.emptyList();
         }
 
+        final Set<String> componentUuids = new HashSet<>(components.size());
+        for (final Component component : components) {
+            componentUuids.add(component.getUuid().toString());
+        }
+
         final var dependencies = new ArrayList<Dependency>();
         final var rootDependency = new Dependency(project.getUuid().toString());
-        rootDependency.setDependencies(convertDirectDependencies(project.getDirectDependencies(), components));
+        rootDependency.setDependencies(convertDirectDependencies(project.getDirectDependencies(), componentUuids));
         dependencies.add(rootDependency);
 
         for (final Component component : components) {
             final var dependency = new Dependency(component.getUuid().toString());
-            dependency.setDependencies(convertDirectDependencies(component.getDirectDependencies(), components));
+            dependency.setDependencies(convertDirectDependencies(component.getDirectDependencies(), componentUuids));
             dependencies.add(dependency);
         }
 
         return dependencies;
     }
 
-    private static List<Dependency> convertDirectDependencies(final String directDependenciesRaw, final List<Component> components) {
+    private static List<Dependency> convertDirectDependencies(final String directDependenciesRaw, final Set<String> componentUuids) {
         if (directDependenciesRaw == null || directDependenciesRaw.isBlank()) {
             return Collections.emptyList();
         }
@@ -813,7 +896,7 @@ public class ModelConverter {
             for (final JsonValue directDependency : directDependenciesJsonArray) {
                 if (directDependency instanceof final JsonObject directDependencyObject) {
                     final String componentUuid = directDependencyObject.getString("uuid", null);
-                    if (componentUuid != null && components.stream().map(Component::getUuid).map(UUID::toString).anyMatch(componentUuid::equals)) {
+                    if (componentUuid != null && componentUuids.contains(componentUuid)) {
                         dependencies.add(new Dependency(directDependencyObject.getString("uuid")));
                     }
                 }
@@ -844,40 +927,6 @@ public class ModelConverter {
         }
     }
 
-    /**
-     * Attempts to find a component from the bom-ref, optionally scanning through and children to do so
-     * @param bomRef The bom-ref to search for
-     * @param components The list of components to search within
-     * @param recursive Whether to recurse through any child components
-     * @return The component with the target bom-ref, or <code>null</code> is it is not found
-     */
-    private static Component getComponentFromBomRef(final String bomRef, final Collection<Component> components, boolean recursive) {
-        if (components != null && bomRef != null) {
-            for (Component c : components) {
-                if (bomRef.equals(c.getBomRef())) {
-                    return c;
-                } else if (recursive) {
-                    Component result = getComponentFromBomRef(bomRef, c.getChildren(), false);
-                    if (result != null) {
-                        return result;
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
-    private static org.cyclonedx.model.Dependency getDependencyFromBomRef(final String bomRef, final List<org.cyclonedx.model.Dependency> dependencies) {
-        if (dependencies != null) {
-            for (Dependency o : dependencies) {
-                if (bomRef != null && bomRef.equals(o.getRef())) {
-                    return o;
-                }
-            }
-        }
-        return null;
-    }
-
     private static org.cyclonedx.model.vulnerability.Vulnerability.Rating.Severity convertDtSeverityToCdxSeverity(final Severity severity) {
         switch (severity) {
             case CRITICAL:
@@ -1066,4 +1115,81 @@ public class ModelConverter {
 
         return result;
     }
+
+    /**
+     * Holds the strategies used while converting CycloneDX components.
+     *
+     * @param identityResolver           Resolves a {@link ComponentIdentity} to an existing {@link Component}
+     * @param internalComponentPredicate Determines whether a {@link Component} is internal
+     * @param licenseCache               Cache of resolved {@link License}s, or {@code null} to disable caching
+     */
+    private record ConversionContext(Function<ComponentIdentity, Component> identityResolver,
+                                     Predicate<Component> internalComponentPredicate,
+                                     Map<String, Optional<License>> licenseCache) {
+
+        private License resolveLicense(final String cacheKey, final Supplier<License> licenseSupplier) {
+            if (licenseCache == null) {
+                return licenseSupplier.get();
+            }
+            return licenseCache.computeIfAbsent(cacheKey, key -> Optional.ofNullable(licenseSupplier.get())).orElse(null);
+        }
+
+    }
+
+    /**
+     * An in-memory index of {@link Component}s, matching identities the same way
+     * {@link QueryManager#matchSingleIdentity(Project, ComponentIdentity)} does.
+     */
+    private static final class ComponentIdentityIndex {
+
+        private final Map<String, Component> byPurl = new HashMap<>();
+        private final Map<String, Component> byPurlCoordinates = new HashMap<>();
+        private final Map<String, Component> bySwidTagId = new HashMap<>();
+        private final Map<String, Component> byCpe = new HashMap<>();
+        private final Map<List<String>, Component> byCoordinates = new HashMap<>();
+
+        private ComponentIdentityIndex(final Collection<Component> components) {
+            if (components == null) {
+                return;
+            }
+            for (final Component component : components) {
+                final PackageURL purl = component.getPurl();
+                if (purl != null) {
+                    byPurl.putIfAbsent(purl.canonicalize(), component);
+                }
+                final PackageURL purlCoordinates = component.getPurlCoordinates();
+                if (purlCoordinates != null) {
+                    byPurlCoordinates.putIfAbsent(purlCoordinates.canonicalize(), component);
+                }
+                if (component.getSwidTagId() != null) {
+                    bySwidTagId.putIfAbsent(component.getSwidTagId(), component);
+                }
+                if (component.getCpe() != null) {
+                    byCpe.putIfAbsent(component.getCpe(), component);
+                }
+                byCoordinates.putIfAbsent(Arrays.asList(component.getGroup(), component.getName(), component.getVersion()), component);
+            }
+        }
+
+        private Component match(final ComponentIdentity identity) {
+            Component component = null;
+            if (identity.getPurl() != null) {
+                component = byPurl.get(identity.getPurl().canonicalize());
+                if (component == null && identity.getPurlCoordinates() != null) {
+                    component = byPurlCoordinates.get(identity.getPurlCoordinates().canonicalize());
+                }
+            }
+            if (component == null && identity.getSwidTagId() != null) {
+                component = bySwidTagId.get(identity.getSwidTagId());
+            }
+            if (component == null && identity.getCpe() != null) {
+                component = byCpe.get(identity.getCpe());
+            }
+            if (component == null) {
+                component = byCoordinates.get(Arrays.asList(identity.getGroup(), identity.getName(), identity.getVersion()));
+            }
+            return component;
+        }
+
+    }
 }
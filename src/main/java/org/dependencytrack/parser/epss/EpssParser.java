@@ -19,14 +19,18 @@
 package org.dependencytrack.parser.epss;
 
 import alpine.common.logging.Logger;
-import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.persistence.QueryManager;
+
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Parser and processor of EPSS data.
@@ -38,36 +42,87 @@ public final class EpssParser {
 
     private static final Logger LOGGER = Logger.getLogger(EpssParser.class);
 
+    /**
+     * Number of scores to apply per batched update.
+     */
+    private static final int BATCH_SIZE = 1000;
+
     public void parse(final File file) {
-        if (!file.getName().endsWith(".csv")) {
+        final boolean compressed = file.getName().endsWith(".csv.gz");
+        if (!compressed && !file.getName().endsWith(".csv")) {
             return;
         }
         LOGGER.info("Parsing " + file.getName());
-        try (final Scanner scanner = new Scanner(file)) {
-            while (scanner.hasNextLine()) {
-                final List<String> values = new ArrayList<>();
-                try (final Scanner rowScanner = new Scanner(scanner.nextLine())) {
-                    rowScanner.useDelimiter(",");
-                    while (rowScanner.hasNext()) {
-                        values.add(rowScanner.next());
-                    }
+        try (final InputStream in = Files.newInputStream(file.toPath())) {
+            parse(compressed ? new GZIPInputStream(in) : in);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while parsing EPSS data", e);
+        }
+    }
+
+    /**
+     * Parse EPSS data in CSV format, and apply the scores to all matching vulnerabilities.
+     * <p>
+     * Rows are read in a single pass, and scores are applied in batches of {@value #BATCH_SIZE}.
+     *
+     * @param in the uncompressed CSV data
+     * @throws IOException when reading the data failed
+     * @since 4.10.0
+     */
+    public void parse(final InputStream in) throws IOException {
+        final long startTimeMs = System.currentTimeMillis();
+        int rows = 0;
+        int updated = 0;
+        try (final var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             final var qm = new QueryManager()) {
+            final var batch = new ArrayList<EpssScore>(BATCH_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final EpssScore score = parseLine(line);
+                if (score == null) {
+                    continue;
                 }
-                if (values.get(0).startsWith("CVE-")) {
-                    final String cveId = values.get(0);
-                    final BigDecimal epssScore = new BigDecimal(values.get(1));
-                    final BigDecimal percentile = new BigDecimal(values.get(2));
-                    try (final QueryManager qm = new QueryManager().withL2CacheDisabled()) {
-                        final Vulnerability vuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, cveId);
-                        if (vuln != null) {
-                            vuln.setEpssScore(epssScore);
-                            vuln.setEpssPercentile(percentile);
-                            qm.persist(vuln);
-                        }
-                    }
+                rows++;
+                batch.add(score);
+                if (batch.size() == BATCH_SIZE) {
+                    updated += qm.updateEpssScores(batch);
+                    batch.clear();
                 }
             }
-        } catch (FileNotFoundException e) {
-            LOGGER.error("An error occurred while parsing EPSS data", e);
+            updated += qm.updateEpssScores(batch);
         }
+        final long durationMs = Math.max(System.currentTimeMillis() - startTimeMs, 1);
+        LOGGER.info("Processed %d EPSS scores in %dms (%d rows/s); Updated %d vulnerabilities"
+                .formatted(rows, durationMs, rows * 1000L / durationMs, updated));
     }
+
+    /**
+     * Parse a row of the form {@code CVE-2023-1234,0.00043,0.07392}.
+     *
+     * @param line the row to parse
+     * @return the {@link EpssScore}, or {@code null} when the row is a comment, a header, or malformed
+     */
+    static EpssScore parseLine(final String line) {
+        if (!line.startsWith("CVE-")) {
+            return null;
+        }
+        final int firstComma = line.indexOf(',');
+        final int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+        if (secondComma < 0) {
+            return null;
+        }
+        int end = line.indexOf(',', secondComma + 1);
+        if (end < 0) {
+            end = line.length();
+        }
+        try {
+            return new EpssScore(line.substring(0, firstComma),
+                    new BigDecimal(line.substring(firstComma + 1, secondComma)),
+                    new BigDecimal(line.substring(secondComma + 1, end).trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.debug("Skipping malformed EPSS row: " + line);
+            return null;
+        }
+    }
+
 }
@@ -0,0 +1,32 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.epss;
+
+import java.math.BigDecimal;
+
+/**
+ * EPSS score and percentile of a CVE, as published by FIRST.
+ *
+ * @param cveId      ID of the CVE
+ * @param score      the EPSS score
+ * @param percentile the percentile of the EPSS score
+ * @since 4.10.0
+ */
+public record EpssScore(String cveId, BigDecimal score, BigDecimal percentile) {
+}
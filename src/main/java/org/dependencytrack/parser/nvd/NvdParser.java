@@ -18,16 +18,21 @@
  */
 package org.dependencytrack.parser.nvd;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.Striped;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.datanucleus.PropertyNames;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.IndexEvent;
 import org.dependencytrack.model.Cpe;
 import org.dependencytrack.model.Cwe;
@@ -35,11 +40,16 @@ import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.parser.common.resolver.CweResolver;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 import us.springett.cvss.Cvss;
 import us.springett.parsers.cpe.exceptions.CpeEncodingException;
 import us.springett.parsers.cpe.exceptions.CpeParsingException;
 import us.springett.parsers.cpe.values.Part;
 
+import javax.jdo.JDOHelper;
+import javax.jdo.JDOObjectNotFoundException;
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
 import java.io.File;
 import java.io.InputStream;
 import java.math.BigDecimal;
@@ -50,10 +60,29 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Parser and processor of NVD data feeds.
+ * <p>
+ * CVE items are streamed from the feed by the calling thread, and handed in batches to a pool
+ * of worker threads for processing. Each batch is processed using a single {@link QueryManager}.
+ * <p>
+ * {@link VulnerableSoftware} is resolved through a lookup map that is loaded from the database
+ * once per {@link NvdParser} instance, such that feeds parsed with the same instance do not require
+ * a query per {@code cpe_match}.
  *
  * @author Steve Springett
  * @since 3.0.0
@@ -61,25 +90,95 @@ import java.util.Optional;
 public final class NvdParser {
 
     private static final Logger LOGGER = Logger.getLogger(NvdParser.class);
+    private static final int BATCH_SIZE = 100;
+    private static final int PAGE_SIZE = 10_000;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final List<ObjectNode> END_OF_FEED = List.of();
     private enum Operator {
         AND,
         OR,
         NONE
     }
 
+    /**
+     * Identity of a {@link VulnerableSoftware} as reported in NVD data feeds.
+     */
+    private record VulnerableSoftwareKey(String cpe23, String versionEndExcluding, String versionEndIncluding,
+                                         String versionStartExcluding, String versionStartIncluding) {
+    }
+
     // TODO: Use global ObjectMapper instance once
     // https://github.com/DependencyTrack/dependency-track/pull/2520
     // is merged.
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int threadPoolSize;
+    private final Map<VulnerableSoftwareKey, Long> vulnerableSoftwareIds = new ConcurrentHashMap<>();
+
+    // Guards the creation of VulnerableSoftware, so that concurrently processed
+    // CVEs sharing the same, new VulnerableSoftware do not create duplicates of it.
+    private final Striped<Lock> vulnerableSoftwareLocks = Striped.lock(64);
+    private final Consumer<List<ObjectNode>> batchProcessor;
+
+    // Number of CVE items of the current feed that could not be processed. Such failures do not stop
+    // processing of the remaining CVE items, but the feed must not be reported as processed completely,
+    // so that it is retried even if its content does not change.
+    private final AtomicInteger failedCveItemCount = new AtomicInteger();
+    private boolean vulnerableSoftwareIdsLoaded;
 
-    public void parse(final File file) {
-        if (!file.getName().endsWith(".json")) {
-            return;
+    public NvdParser() {
+        this(Config.getInstance().getPropertyAsInt(ConfigKey.NVD_MIRROR_THREAD_POOL_SIZE));
+    }
+
+    NvdParser(final int threadPoolSize) {
+        this.threadPoolSize = Math.max(1, threadPoolSize);
+        this.batchProcessor = this::processBatch;
+    }
+
+    /**
+     * Constructs a parser that hands batches of CVE items to the given processor instead of persisting them.
+     */
+    NvdParser(final int threadPoolSize, final Consumer<List<ObjectNode>> batchProcessor) {
+        this.threadPoolSize = Math.max(1, threadPoolSize);
+        this.batchProcessor = batchProcessor;
+    }
+
+    /**
+     * Parse and process an NVD data feed.
+     * <p>
+     * GZIP compressed feeds ({@code .json.gz}) are decompressed while they are being parsed.
+     *
+     * @param file the feed to parse
+     * @return {@code true} if the feed has been parsed and processed completely; otherwise {@code false}
+     */
+    public boolean parse(final File file) {
+        final boolean compressed = file.getName().endsWith(".json.gz");
+        if (!compressed && !file.getName().endsWith(".json")) {
+            return false;
         }
 
         LOGGER.info("Parsing " + file.getName());
+        final long startTimeMs = System.currentTimeMillis();
+        failedCveItemCount.set(0);
+        if (!vulnerableSoftwareIdsLoaded) {
+            loadVulnerableSoftwareIds();
+            vulnerableSoftwareIdsLoaded = true;
+        }
 
-        try (final InputStream in = Files.newInputStream(file.toPath());
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern(NvdParser.class.getSimpleName() + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize, threadFactory);
+        final BlockingQueue<List<ObjectNode>> queue = new ArrayBlockingQueue<>(threadPoolSize * 2);
+        final var processedCount = new AtomicInteger();
+        final var workerFailure = new AtomicReference<Throwable>();
+        for (int i = 0; i < threadPoolSize; i++) {
+            executor.execute(() -> processBatches(queue, processedCount, workerFailure));
+        }
+
+        boolean parsedCompletely = false;
+        try (final InputStream fileIn = Files.newInputStream(file.toPath());
+             final InputStream in = compressed ? new GZIPInputStream(fileIn, GZIP_BUFFER_SIZE) : fileIn;
              final JsonParser jsonParser = objectMapper.createParser(in)) {
             jsonParser.nextToken(); // Position cursor at first token
 
@@ -93,9 +192,16 @@ public final class NvdParser {
                 currentToken = jsonParser.nextToken();
                 if ("CVE_Items".equals(fieldName)) {
                     if (currentToken == JsonToken.START_ARRAY) {
+                        var batch = new ArrayList<ObjectNode>(BATCH_SIZE);
                         while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-                            final ObjectNode cveItem = jsonParser.readValueAsTree();
-                            parseCveItem(cveItem);
+                            batch.add(jsonParser.readValueAsTree());
+                            if (batch.size() == BATCH_SIZE) {
+                                putBatch(queue, batch, workerFailure);
+                                batch = new ArrayList<>(BATCH_SIZE);
+                            }
+                        }
+                        if (!batch.isEmpty()) {
+                            putBatch(queue, batch, workerFailure);
                         }
                     } else {
                         jsonParser.skipChildren();
@@ -104,135 +210,305 @@ public final class NvdParser {
                     jsonParser.skipChildren();
                 }
             }
+            parsedCompletely = true;
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while parsing NVD JSON data");
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             LOGGER.error("An error occurred while parsing NVD JSON data", e);
+        } finally {
+            awaitWorkers(executor, queue);
+        }
+        LOGGER.info("Processed %d CVEs of %s in %dms"
+                .formatted(processedCount.get(), file.getName(), System.currentTimeMillis() - startTimeMs));
+        if (failedCveItemCount.get() > 0) {
+            LOGGER.warn("%d CVEs of %s could not be processed".formatted(failedCveItemCount.get(), file.getName()));
         }
         Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Vulnerability.class));
         Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Cpe.class));
+        return parsedCompletely && workerFailure.get() == null && failedCveItemCount.get() == 0;
     }
 
-    private void parseCveItem(final ObjectNode cveItem) {
-        try (QueryManager qm = new QueryManager().withL2CacheDisabled()) {
-            qm.getPersistenceManager().setProperty(PropertyNames.PROPERTY_PERSISTENCE_BY_REACHABILITY_AT_COMMIT, "false");
+    /**
+     * Signal the end of the feed to all workers, and wait for them to process the remaining batches.
+     */
+    private void awaitWorkers(final ExecutorService executor, final BlockingQueue<List<ObjectNode>> queue) {
+        try {
+            if (!Thread.currentThread().isInterrupted()) {
+                for (int i = 0; i < threadPoolSize; i++) {
+                    queue.put(END_OF_FEED);
+                }
+                executor.shutdown();
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.debug("Waiting for the processing of NVD JSON data to complete");
+                }
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
 
-            final Vulnerability vulnerability = new Vulnerability();
-            vulnerability.setSource(Vulnerability.Source.NVD);
+    /**
+     * Hand a batch to the workers, unless one of them has failed already.
+     */
+    private static void putBatch(final BlockingQueue<List<ObjectNode>> queue, final List<ObjectNode> batch,
+                                 final AtomicReference<Throwable> workerFailure) throws InterruptedException {
+        if (workerFailure.get() != null) {
+            throw new IllegalStateException("Processing of NVD JSON data failed in a worker thread", workerFailure.get());
+        }
+        queue.put(batch);
+    }
 
-            // CVE ID
-            final var cve = (ObjectNode) cveItem.get("cve");
-            final var meta0 = (ObjectNode) cve.get("CVE_data_meta");
-            vulnerability.setVulnId(meta0.get("ID").asText());
+    private void processBatches(final BlockingQueue<List<ObjectNode>> queue, final AtomicInteger processedCount,
+                                final AtomicReference<Throwable> workerFailure) {
+        try {
+            List<ObjectNode> batch;
+            while ((batch = queue.take()) != END_OF_FEED) {
+                if (workerFailure.get() != null) {
+                    // The feed has failed already; only keep draining the queue until the end
+                    // of the feed is signaled, so that neither the producer nor awaitWorkers block.
+                    continue;
+                }
+                try {
+                    batchProcessor.accept(batch);
+                    processedCount.addAndGet(batch.size());
+                } catch (Throwable e) {
+                    LOGGER.error("An error occurred while processing a batch of CVE items", e);
+                    workerFailure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            // CVE Published and Modified dates
-            final String publishedDateString = cveItem.get("publishedDate").asText();
-            final String lastModifiedDateString = cveItem.get("lastModifiedDate").asText();
-            try {
-                if (StringUtils.isNotBlank(publishedDateString)) {
-                    vulnerability.setPublished(Date.from(OffsetDateTime.parse(publishedDateString).toInstant()));
+    private void processBatch(final List<ObjectNode> batch) {
+        try (final QueryManager qm = new QueryManager().withL2CacheDisabled()) {
+            qm.getPersistenceManager().setProperty(PropertyNames.PROPERTY_PERSISTENCE_BY_REACHABILITY_AT_COMMIT, "false");
+            for (final ObjectNode cveItem : batch) {
+                try {
+                    parseCveItem(qm, cveItem);
+                } catch (RuntimeException e) {
+                    LOGGER.error("An error occurred while processing CVE item", e);
+                    failedCveItemCount.incrementAndGet();
+                    qm.ensureNoActiveTransaction();
                 }
-                if (StringUtils.isNotBlank(lastModifiedDateString)) {
-                    vulnerability.setUpdated(Date.from(OffsetDateTime.parse(lastModifiedDateString).toInstant()));
+            }
+        }
+    }
+
+    private void loadVulnerableSoftwareIds() {
+        final long startTimeMs = System.currentTimeMillis();
+        try (final QueryManager qm = new QueryManager()) {
+            final PersistenceManager pm = qm.getPersistenceManager();
+            long lastId = 0;
+            List<Object[]> page;
+            do {
+                try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+                    query.setFilter("id > :lastId && cpe23 != null");
+                    query.setParameters(lastId);
+                    query.setResult("id, cpe23, versionEndExcluding, versionEndIncluding, versionStartExcluding, versionStartIncluding");
+                    query.setOrdering("id ASC");
+                    query.setRange(0, PAGE_SIZE);
+                    page = List.copyOf(query.executeResultList(Object[].class));
+                } catch (Exception e) {
+                    // Not fatal, VulnerableSoftware that is missing from the lookup map is queried for before it is created.
+                    LOGGER.error("An error occurred while loading vulnerable software", e);
+                    return;
+                }
+                for (final Object[] row : page) {
+                    final var key = new VulnerableSoftwareKey((String) row[1], (String) row[2],
+                            (String) row[3], (String) row[4], (String) row[5]);
+                    vulnerableSoftwareIds.putIfAbsent(key, (Long) row[0]);
                 }
-            } catch (DateTimeParseException | NullPointerException | IllegalArgumentException e) {
-                LOGGER.error("Unable to parse dates from NVD data feed", e);
+                if (!page.isEmpty()) {
+                    lastId = (Long) page.get(page.size() - 1)[0];
+                }
+            } while (page.size() == PAGE_SIZE);
+        }
+        LOGGER.info("Loaded %d vulnerable software in %dms"
+                .formatted(vulnerableSoftwareIds.size(), System.currentTimeMillis() - startTimeMs));
+    }
+
+    private void parseCveItem(final QueryManager qm, final ObjectNode cveItem) {
+        final Vulnerability vulnerability = new Vulnerability();
+        vulnerability.setSource(Vulnerability.Source.NVD);
+
+        // CVE ID
+        final var cve = (ObjectNode) cveItem.get("cve");
+        final var meta0 = (ObjectNode) cve.get("CVE_data_meta");
+        vulnerability.setVulnId(meta0.get("ID").asText());
+
+        // CVE Published and Modified dates
+        final String publishedDateString = cveItem.get("publishedDate").asText();
+        final String lastModifiedDateString = cveItem.get("lastModifiedDate").asText();
+        try {
+            if (StringUtils.isNotBlank(publishedDateString)) {
+                vulnerability.setPublished(Date.from(OffsetDateTime.parse(publishedDateString).toInstant()));
+            }
+            if (StringUtils.isNotBlank(lastModifiedDateString)) {
+                vulnerability.setUpdated(Date.from(OffsetDateTime.parse(lastModifiedDateString).toInstant()));
             }
+        } catch (DateTimeParseException | NullPointerException | IllegalArgumentException e) {
+            LOGGER.error("Unable to parse dates from NVD data feed", e);
+        }
 
-            // CVE Description
-            final var descO = (ObjectNode) cve.get("description");
-            final var desc1 = (ArrayNode) descO.get("description_data");
-            final StringBuilder descriptionBuilder = new StringBuilder();
-            for (int j = 0; j < desc1.size(); j++) {
-                final var desc2 = (ObjectNode) desc1.get(j);
-                if ("en".equals(desc2.get("lang").asText())) {
-                    descriptionBuilder.append(desc2.get("value").asText());
-                    if (j < desc1.size() - 1) {
-                        descriptionBuilder.append("\n\n");
-                    }
+        // CVE Description
+        final var descO = (ObjectNode) cve.get("description");
+        final var desc1 = (ArrayNode) descO.get("description_data");
+        final StringBuilder descriptionBuilder = new StringBuilder();
+        for (int j = 0; j < desc1.size(); j++) {
+            final var desc2 = (ObjectNode) desc1.get(j);
+            if ("en".equals(desc2.get("lang").asText())) {
+                descriptionBuilder.append(desc2.get("value").asText());
+                if (j < desc1.size() - 1) {
+                    descriptionBuilder.append("\n\n");
                 }
             }
-            vulnerability.setDescription(descriptionBuilder.toString());
-
-            // CVE Impact
-            parseCveImpact(cveItem, vulnerability);
-
-            // CWE
-            final var prob0 = (ObjectNode) cve.get("problemtype");
-            final var prob1 = (ArrayNode) prob0.get("problemtype_data");
-            for (int j = 0; j < prob1.size(); j++) {
-                final var prob2 = (ObjectNode) prob1.get(j);
-                final var prob3 = (ArrayNode) prob2.get("description");
-                for (int k = 0; k < prob3.size(); k++) {
-                    final var prob4 = (ObjectNode) prob3.get(k);
-                    if ("en".equals(prob4.get("lang").asText())) {
-                        final String cweString = prob4.get("value").asText();
-                        if (cweString != null && cweString.startsWith("CWE-")) {
-                            final Cwe cwe = CweResolver.getInstance().resolve(qm, cweString);
-                            if (cwe != null) {
-                                vulnerability.addCwe(cwe);
-                            } else {
-                                LOGGER.warn("CWE " + cweString + " not found in Dependency-Track database. This could signify an issue with the NVD or with Dependency-Track not having advanced knowledge of this specific CWE identifier.");
-                            }
+        }
+        vulnerability.setDescription(descriptionBuilder.toString());
+
+        // CVE Impact
+        parseCveImpact(cveItem, vulnerability);
+
+        // CWE
+        final var prob0 = (ObjectNode) cve.get("problemtype");
+        final var prob1 = (ArrayNode) prob0.get("problemtype_data");
+        for (int j = 0; j < prob1.size(); j++) {
+            final var prob2 = (ObjectNode) prob1.get(j);
+            final var prob3 = (ArrayNode) prob2.get("description");
+            for (int k = 0; k < prob3.size(); k++) {
+                final var prob4 = (ObjectNode) prob3.get(k);
+                if ("en".equals(prob4.get("lang").asText())) {
+                    final String cweString = prob4.get("value").asText();
+                    if (cweString != null && cweString.startsWith("CWE-")) {
+                        final Cwe cwe = CweResolver.getInstance().resolve(qm, cweString);
+                        if (cwe != null) {
+                            vulnerability.addCwe(cwe);
+                        } else {
+                            LOGGER.warn("CWE " + cweString + " not found in Dependency-Track database. This could signify an issue with the NVD or with Dependency-Track not having advanced knowledge of this specific CWE identifier.");
                         }
                     }
                 }
             }
+        }
 
-            // References
-            final var ref0 = (ObjectNode) cve.get("references");
-            final var ref1 = (ArrayNode) ref0.get("reference_data");
-            final StringBuilder sb = new StringBuilder();
-            for (int l = 0; l < ref1.size(); l++) {
-                final var ref2 = (ObjectNode) ref1.get(l);
-                final Iterator<String> fieldNameIter = ref2.fieldNames();
-                while (fieldNameIter.hasNext()) {
-                    final String s = fieldNameIter.next();
-                    if ("url".equals(s)) {
-                        // Convert reference to Markdown format
-                        final String url = ref2.get("url").asText();
-                        sb.append("* [").append(url).append("](").append(url).append(")\n");
-                    }
+        // References
+        final var ref0 = (ObjectNode) cve.get("references");
+        final var ref1 = (ArrayNode) ref0.get("reference_data");
+        final StringBuilder sb = new StringBuilder();
+        for (int l = 0; l < ref1.size(); l++) {
+            final var ref2 = (ObjectNode) ref1.get(l);
+            final Iterator<String> fieldNameIter = ref2.fieldNames();
+            while (fieldNameIter.hasNext()) {
+                final String s = fieldNameIter.next();
+                if ("url".equals(s)) {
+                    // Convert reference to Markdown format
+                    final String url = ref2.get("url").asText();
+                    sb.append("* [").append(url).append("](").append(url).append(")\n");
                 }
             }
-            final String references = sb.toString();
-            if (references.length() > 0) {
-                vulnerability.setReferences(references.substring(0, references.lastIndexOf("\n")));
-            }
+        }
+        final String references = sb.toString();
+        if (references.length() > 0) {
+            vulnerability.setReferences(references.substring(0, references.lastIndexOf("\n")));
+        }
 
-            // Update the vulnerability
-            LOGGER.debug("Synchronizing: " + vulnerability.getVulnId());
-            final Vulnerability synchronizeVulnerability = qm.synchronizeVulnerability(vulnerability, false);
-            final List<VulnerableSoftware> vsListOld = qm.detach(qm.getVulnerableSoftwareByVulnId(synchronizeVulnerability.getSource(), synchronizeVulnerability.getVulnId()));
-
-            // CPE
-            List<VulnerableSoftware> vsList = new ArrayList<>();
-            final var configurations = (ObjectNode) cveItem.get("configurations");
-            final var nodes = (ArrayNode) configurations.get("nodes");
-            for (int j = 0; j < nodes.size(); j++) {
-                final var node = (ObjectNode) nodes.get(j);
-                final List<VulnerableSoftware> vulnerableSoftwareInNode = new ArrayList<>();
-                final Operator nodeOperator = Operator.valueOf(node.get("operator").asText(Operator.NONE.name()));
-                if (node.has("children")) {
-                    // https://github.com/DependencyTrack/dependency-track/issues/1033
-                    final var children = (ArrayNode) node.get("children");
-                    if (children.size() > 0) {
-                        for (int l = 0; l < children.size(); l++) {
-                            final var child = (ObjectNode) children.get(l);
-                            vulnerableSoftwareInNode.addAll(parseCpes(qm, child));
-                        }
-                    } else {
-                        vulnerableSoftwareInNode.addAll(parseCpes(qm, node));
+        // Update the vulnerability
+        LOGGER.debug("Synchronizing: " + vulnerability.getVulnId());
+        final Vulnerability synchronizeVulnerability = qm.synchronizeVulnerability(vulnerability, false);
+        final List<VulnerableSoftware> vsListOld = qm.detach(qm.getVulnerableSoftwareByVulnId(synchronizeVulnerability.getSource(), synchronizeVulnerability.getVulnId()));
+
+        // CPE
+        List<VulnerableSoftware> vsList = new ArrayList<>();
+        final var configurations = (ObjectNode) cveItem.get("configurations");
+        final var nodes = (ArrayNode) configurations.get("nodes");
+        for (int j = 0; j < nodes.size(); j++) {
+            final var node = (ObjectNode) nodes.get(j);
+            final List<VulnerableSoftware> vulnerableSoftwareInNode = new ArrayList<>();
+            final Operator nodeOperator = Operator.valueOf(node.get("operator").asText(Operator.NONE.name()));
+            if (node.has("children")) {
+                // https://github.com/DependencyTrack/dependency-track/issues/1033
+                final var children = (ArrayNode) node.get("children");
+                if (children.size() > 0) {
+                    for (int l = 0; l < children.size(); l++) {
+                        final var child = (ObjectNode) children.get(l);
+                        vulnerableSoftwareInNode.addAll(parseCpes(qm, child));
                     }
                 } else {
                     vulnerableSoftwareInNode.addAll(parseCpes(qm, node));
                 }
-                vsList.addAll(reconcile(vulnerableSoftwareInNode, nodeOperator));
+            } else {
+                vulnerableSoftwareInNode.addAll(parseCpes(qm, node));
+            }
+            vsList.addAll(reconcile(vulnerableSoftwareInNode, nodeOperator));
+        }
+        vsList = persistVulnerableSoftware(qm, vsList);
+        qm.updateAffectedVersionAttributions(synchronizeVulnerability, vsList, Vulnerability.Source.NVD);
+        vsList = qm.reconcileVulnerableSoftware(synchronizeVulnerability, vsListOld, vsList, Vulnerability.Source.NVD);
+        synchronizeVulnerability.setVulnerableSoftware(vsList);
+        qm.persist(synchronizeVulnerability);
+        VulnerableSoftwareIndex.getInstance().invalidate(synchronizeVulnerability);
+    }
+
+    /**
+     * Persist all {@link VulnerableSoftware} of a CVE that do not exist yet.
+     * <p>
+     * Before creating a {@link VulnerableSoftware}, it is checked again whether it has been
+     * created in the meantime, e.g. by another worker processing a CVE that shares it.
+     *
+     * @param qm the {@link QueryManager} to use
+     * @param vsList the {@link VulnerableSoftware} of a CVE
+     * @return the persistent {@link VulnerableSoftware}
+     */
+    private List<VulnerableSoftware> persistVulnerableSoftware(final QueryManager qm, final List<VulnerableSoftware> vsList) {
+        final var persistentVsList = new ArrayList<VulnerableSoftware>(vsList.size());
+        for (final VulnerableSoftware vs : vsList) {
+            if (JDOHelper.isPersistent(vs)) {
+                persistentVsList.add(vs);
+                continue;
+            }
+
+            final VulnerableSoftwareKey key = toKey(vs);
+            final Lock lock = vulnerableSoftwareLocks.get(key);
+            lock.lock();
+            try {
+                VulnerableSoftware persistentVs = getVulnerableSoftware(qm, key);
+                if (persistentVs == null) {
+                    persistentVs = qm.getVulnerableSoftwareByCpe23(key.cpe23(), key.versionEndExcluding(),
+                            key.versionEndIncluding(), key.versionStartExcluding(), key.versionStartIncluding());
+                }
+                if (persistentVs == null) {
+                    persistentVs = qm.persist(vs);
+                }
+                vulnerableSoftwareIds.put(key, persistentVs.getId());
+                persistentVsList.add(persistentVs);
+            } finally {
+                lock.unlock();
             }
-            qm.persist(vsList);
-            qm.updateAffectedVersionAttributions(synchronizeVulnerability, vsList, Vulnerability.Source.NVD);
-            vsList = qm.reconcileVulnerableSoftware(synchronizeVulnerability, vsListOld, vsList, Vulnerability.Source.NVD);
-            synchronizeVulnerability.setVulnerableSoftware(vsList);
-            qm.persist(synchronizeVulnerability);
         }
+        return persistentVsList;
+    }
+
+    private VulnerableSoftware getVulnerableSoftware(final QueryManager qm, final VulnerableSoftwareKey key) {
+        final Long id = vulnerableSoftwareIds.get(key);
+        if (id == null) {
+            return null;
+        }
+        try {
+            return qm.getObjectById(VulnerableSoftware.class, id);
+        } catch (JDOObjectNotFoundException e) {
+            // The VulnerableSoftware has been deleted since it was looked up.
+            vulnerableSoftwareIds.remove(key, id);
+            return null;
+        }
+    }
+
+    private static VulnerableSoftwareKey toKey(final VulnerableSoftware vs) {
+        return new VulnerableSoftwareKey(vs.getCpe23(), vs.getVersionEndExcluding(), vs.getVersionEndIncluding(),
+                vs.getVersionStartExcluding(), vs.getVersionStartIncluding());
     }
 
     /**
@@ -318,8 +594,8 @@ public final class NvdParser {
         final String versionEndIncluding = Optional.ofNullable(cpeMatch.get("versionEndIncluding")).map(JsonNode::asText).orElse(null);
         final String versionStartExcluding = Optional.ofNullable(cpeMatch.get("versionStartExcluding")).map(JsonNode::asText).orElse(null);
         final String versionStartIncluding = Optional.ofNullable(cpeMatch.get("versionStartIncluding")).map(JsonNode::asText).orElse(null);
-        VulnerableSoftware vs = qm.getVulnerableSoftwareByCpe23(cpe23Uri, versionEndExcluding,
-                versionEndIncluding, versionStartExcluding, versionStartIncluding);
+        VulnerableSoftware vs = getVulnerableSoftware(qm, new VulnerableSoftwareKey(cpe23Uri, versionEndExcluding,
+                versionEndIncluding, versionStartExcluding, versionStartIncluding));
         if (vs != null) {
             return vs;
         }
@@ -32,6 +32,7 @@ import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.parser.common.resolver.CweResolver;
 import org.dependencytrack.parser.snyk.model.SnykError;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -107,6 +108,7 @@ public class SnykParser {
             vsList = qm.reconcileVulnerableSoftware(synchronizedVulnerability, vsListOld, vsList, Vulnerability.Source.SNYK);
             synchronizedVulnerability.setVulnerableSoftware(vsList);
             qm.persist(synchronizedVulnerability);
+            VulnerableSoftwareIndex.getInstance().invalidate(synchronizedVulnerability);
         }
         return synchronizedVulnerability;
     }
@@ -156,7 +158,6 @@ public class SnykParser {
                 final VulnerabilityAlias vulnerabilityAlias = new VulnerabilityAlias();
                 vulnerabilityAlias.setSnykId(vulnerability.getVulnId());
                 vulnerabilityAlias.setCveId(id);
-                qm.synchronizeVulnerabilityAlias(vulnerabilityAlias);
                 vulnerabilityAliasList.add(vulnerabilityAlias);
             }
             // Github alias
@@ -164,10 +165,10 @@ public class SnykParser {
                 final VulnerabilityAlias vulnerabilityAlias = new VulnerabilityAlias();
                 vulnerabilityAlias.setSnykId(vulnerability.getVulnId());
                 vulnerabilityAlias.setGhsaId(id);
-                qm.synchronizeVulnerabilityAlias(vulnerabilityAlias);
                 vulnerabilityAliasList.add(vulnerabilityAlias);
             }
         }
+        qm.synchronizeVulnerabilityAliases(vulnerabilityAliasList);
         return vulnerabilityAliasList;
     }
 
@@ -19,17 +19,26 @@
 package org.dependencytrack.persistence;
 
 import alpine.resources.AlpineRequest;
+import com.google.common.collect.Lists;
 import org.dependencytrack.model.ComponentAnalysisCache;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import javax.json.JsonObject;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
 public class CacheQueryManager extends QueryManager implements IQueryManager {
 
+    /**
+     * Maximum number of targets to query for at once.
+     * Kept well below the parameter limits of the supported database systems.
+     */
+    private static final int TARGET_BATCH_SIZE = 1000;
 
     /**
      * Constructs a new QueryManager.
@@ -64,6 +73,31 @@ public class CacheQueryManager extends QueryManager implements IQueryManager {
         return query.executeList();
     }
 
+    /**
+     * Fetch the most recent {@link ComponentAnalysisCache} of multiple targets, using one query per
+     * {@value #TARGET_BATCH_SIZE} targets rather than one query per target.
+     *
+     * @param cacheType  the {@link ComponentAnalysisCache.CacheType}
+     * @param targetHost the target host
+     * @param targetType the target type
+     * @param targets    the targets to fetch cache entries for
+     * @return the most recent {@link ComponentAnalysisCache} for each target that has one, keyed by target
+     * @since 4.10.0
+     */
+    public Map<String, ComponentAnalysisCache> getComponentAnalysisCaches(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, Collection<String> targets) {
+        final var cachesByTarget = new HashMap<String, ComponentAnalysisCache>();
+        for (final List<String> targetsBatch : Lists.partition(List.copyOf(new LinkedHashSet<>(targets)), TARGET_BATCH_SIZE)) {
+            final Query<ComponentAnalysisCache> query = pm.newQuery(ComponentAnalysisCache.class,
+                    "cacheType == :cacheType && targetHost == :targetHost && targetType == :targetType && :targets.contains(target)");
+            query.setNamedParameters(Map.of("cacheType", cacheType, "targetHost", targetHost, "targetType", targetType, "targets", targetsBatch));
+            for (final ComponentAnalysisCache cac : query.executeList()) {
+                cachesByTarget.merge(cac.getTarget(), cac, (existing, candidate) ->
+                        candidate.getLastOccurrence().after(existing.getLastOccurrence()) ? candidate : existing);
+            }
+        }
+        return cachesByTarget;
+    }
+
     public synchronized void updateComponentAnalysisCache(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, String target, Date lastOccurrence, JsonObject result) {
         ComponentAnalysisCache cac = getComponentAnalysisCache(cacheType, targetHost, targetType, target);
         if (cac == null) {
@@ -27,13 +27,21 @@ import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
 import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
 import org.dependencytrack.event.IndexEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
+import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
 import org.dependencytrack.model.ComponentIdentity;
 import org.dependencytrack.model.ConfigPropertyConstants;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
+import org.dependencytrack.model.ViolationAnalysis;
 import org.dependencytrack.resources.v1.vo.DependencyGraphResponse;
 
 import javax.jdo.FetchPlan;
@@ -44,17 +52,34 @@ import javax.json.JsonArray;
 import javax.json.JsonValue;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.StringJoiner;
 import java.util.UUID;
 
 final class ComponentQueryManager extends QueryManager implements IQueryManager {
 
     private static final Logger LOGGER = Logger.getLogger(ComponentQueryManager.class);
 
+    /**
+     * Maximum number of IDs to include in a single bulk delete query.
+     * Kept well below the parameter limits of the supported database systems.
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    /**
+     * Maximum number of components to match identities of in a single query.
+     * Every component contributes up to five query parameters.
+     */
+    private static final int MATCH_IDENTITY_BATCH_SIZE = 200;
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -339,6 +364,7 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
      */
     public Component createComponent(Component component, boolean commitIndex) {
         final Component result = persist(component);
+        MetricsDirtyTracker.getInstance().markDirty(result);
         Event.dispatch(new IndexEvent(IndexEvent.Action.CREATE, pm.detachCopy(result)));
         commitSearchIndex(commitIndex, Component.class);
         return result;
@@ -420,6 +446,7 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
      * @param project the Project to delete components of
      */
     protected void deleteComponents(Project project) {
+        pm.newQuery(ComponentDependency.class, "project == :project").deletePersistentAll(project);
         final Query<Component> query = pm.newQuery(Component.class, "project == :project");
         query.deletePersistentAll(project);
     }
@@ -438,12 +465,14 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         pm.getFetchPlan().setDetachmentOptions(FetchPlan.DETACH_LOAD_FIELDS);
         try {
             final Component result = pm.getObjectById(Component.class, component.getId());
+            MetricsDirtyTracker.getInstance().markDirty(result);
             Event.dispatch(new IndexEvent(IndexEvent.Action.DELETE, pm.detachCopy(result)));
             deleteAnalysisTrail(component);
             deleteViolationAnalysisTrail(component);
             deleteMetrics(component);
             deleteFindingAttributions(component);
             deletePolicyViolations(component);
+            deleteComponentDependencies(component);
             delete(component);
             commitSearchIndex(commitIndex, Component.class);
         } catch (javax.jdo.JDOObjectNotFoundException | org.datanucleus.exceptions.NucleusObjectNotFoundException e) {
@@ -517,6 +546,107 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         return (List<Component>) query.executeWithArray(purlString, purlCoordinates, cid.getSwidTagId(), cid.getCpe(), cid.getGroup(), cid.getName(), cid.getVersion());
     }
 
+    /**
+     * Resolves the projects affected by each of the given components, that is, the projects
+     * containing at least one component that matches the identity of the respective component.
+     * <p>
+     * This is equivalent to calling {@link #matchIdentity(ComponentIdentity)} for every component,
+     * but issues a single query per batch of components, and only fetches the fields required to
+     * match the results back to the components they were requested for.
+     * @param components the components to resolve affected projects for
+     * @return the IDs of the affected projects, keyed by the ID of the respective component
+     * @since 4.10.0
+     */
+    public Map<Long, Set<Long>> getAffectedProjectIds(final Collection<Component> components) {
+        final Map<Long, Set<Long>> projectIdsByComponentId = new HashMap<>();
+        for (final List<Component> batch : Lists.partition(List.copyOf(components), MATCH_IDENTITY_BATCH_SIZE)) {
+            final Map<String, List<Long>> componentIdsByPurl = new HashMap<>();
+            final Map<String, List<Long>> componentIdsByPurlCoordinates = new HashMap<>();
+            final Map<String, List<Long>> componentIdsBySwidTagId = new HashMap<>();
+            final Map<String, List<Long>> componentIdsByCpe = new HashMap<>();
+            final Map<List<String>, List<Long>> componentIdsByCoordinates = new HashMap<>();
+            for (final Component component : batch) {
+                projectIdsByComponentId.putIfAbsent(component.getId(), new HashSet<>());
+                final ComponentIdentity cid = new ComponentIdentity(component);
+                if (cid.getPurl() != null) {
+                    final PackageURL purl = cid.getPurl();
+                    componentIdsByPurl.computeIfAbsent(purl.canonicalize(), ignored -> new ArrayList<>()).add(component.getId());
+                    try {
+                        final String purlCoordinates = new PackageURL(purl.getType(), purl.getNamespace(), purl.getName(), purl.getVersion(), null, null).canonicalize();
+                        componentIdsByPurlCoordinates.computeIfAbsent(purlCoordinates, ignored -> new ArrayList<>()).add(component.getId());
+                    } catch (MalformedPackageURLException e) { // throw it away
+                    }
+                }
+                if (cid.getSwidTagId() != null) {
+                    componentIdsBySwidTagId.computeIfAbsent(cid.getSwidTagId(), ignored -> new ArrayList<>()).add(component.getId());
+                }
+                if (cid.getCpe() != null) {
+                    componentIdsByCpe.computeIfAbsent(cid.getCpe(), ignored -> new ArrayList<>()).add(component.getId());
+                }
+                componentIdsByCoordinates.computeIfAbsent(Arrays.asList(cid.getGroup(), cid.getName(), cid.getVersion()), ignored -> new ArrayList<>()).add(component.getId());
+            }
+
+            // Candidates are narrowed down by name, the exact group and version are compared below.
+            final Set<String> names = new HashSet<>();
+            for (final List<String> coordinates : componentIdsByCoordinates.keySet()) {
+                names.add(coordinates.get(1));
+            }
+            names.remove(null);
+
+            final var filterJoiner = new StringJoiner(" || ");
+            final var params = new HashMap<String, Object>();
+            if (!componentIdsByPurl.isEmpty()) {
+                filterJoiner.add("(purl != null && :purls.contains(purl))");
+                params.put("purls", componentIdsByPurl.keySet());
+            }
+            if (!componentIdsByPurlCoordinates.isEmpty()) {
+                filterJoiner.add("(purlCoordinates != null && :purlCoords.contains(purlCoordinates))");
+                params.put("purlCoords", componentIdsByPurlCoordinates.keySet());
+            }
+            if (!componentIdsBySwidTagId.isEmpty()) {
+                filterJoiner.add("(swidTagId != null && :swidTagIds.contains(swidTagId))");
+                params.put("swidTagIds", componentIdsBySwidTagId.keySet());
+            }
+            if (!componentIdsByCpe.isEmpty()) {
+                filterJoiner.add("(cpe != null && :cpes.contains(cpe))");
+                params.put("cpes", componentIdsByCpe.keySet());
+            }
+            if (!names.isEmpty()) {
+                filterJoiner.add(":names.contains(name)");
+                params.put("names", names);
+            }
+            if (params.isEmpty()) {
+                continue;
+            }
+
+            final Query<Component> query = pm.newQuery(Component.class);
+            query.setFilter(filterJoiner.toString());
+            query.setNamedParameters(params);
+            query.setResult("project.id, purl, purlCoordinates, swidTagId, cpe, group, name, version");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Long projectId = (Long) row[0];
+                final Set<Long> matchingComponentIds = new HashSet<>();
+                if (row[1] != null) {
+                    matchingComponentIds.addAll(componentIdsByPurl.getOrDefault((String) row[1], Collections.emptyList()));
+                }
+                if (row[2] != null) {
+                    matchingComponentIds.addAll(componentIdsByPurlCoordinates.getOrDefault((String) row[2], Collections.emptyList()));
+                }
+                if (row[3] != null) {
+                    matchingComponentIds.addAll(componentIdsBySwidTagId.getOrDefault((String) row[3], Collections.emptyList()));
+                }
+                if (row[4] != null) {
+                    matchingComponentIds.addAll(componentIdsByCpe.getOrDefault((String) row[4], Collections.emptyList()));
+                }
+                matchingComponentIds.addAll(componentIdsByCoordinates.getOrDefault(Arrays.asList((String) row[5], (String) row[6], (String) row[7]), Collections.emptyList()));
+                for (final Long componentId : matchingComponentIds) {
+                    projectIdsByComponentId.get(componentId).add(projectId);
+                }
+            }
+        }
+        return projectIdsByComponentId;
+    }
+
     /**
      * Intelligently adds dependencies for components that are not already a dependency
      * of the specified project and removes the dependency relationship for components
@@ -528,24 +658,97 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
     public void reconcileComponents(Project project, List<Component> existingProjectComponents, List<Component> components) {
         // Removes components as dependencies to the project for all
         // components not included in the list provided
-        List<Component> markedForDeletion = new ArrayList<>();
-        for (final Component existingComponent: existingProjectComponents) {
-            boolean keep = false;
-            for (final Component component: components) {
-                if (component.getId() == existingComponent.getId()) {
-                    keep = true;
-                    break;
-                }
+        final List<List<Component>> markedForDeletion = getComponentsMarkedForDeletion(existingProjectComponents, components);
+        if (!markedForDeletion.isEmpty()) {
+            // Children must be gone before their parents can be deleted,
+            // thus delete the deepest level of the hierarchy first.
+            for (int depth = markedForDeletion.size() - 1; depth >= 0; depth--) {
+                deleteComponents(markedForDeletion.get(depth));
             }
-            if (!keep) {
-                markedForDeletion.add(existingComponent);
+        }
+    }
+
+    /**
+     * Determines which of the existing components are no longer part of the given components,
+     * based on their IDs. Descendants of such components are marked for deletion as well.
+     * <p>
+     * The hierarchy is resolved using the parent relationships of {@code existingProjectComponents},
+     * so that no additional queries are required, and the whole operation runs in linear time.
+     * @param existingProjectComponents the complete list of existing dependent components
+     * @param components the complete list of components that should be dependencies of the project
+     * @return the components marked for deletion, grouped by their depth in the component hierarchy
+     * @since 4.10.0
+     */
+    static List<List<Component>> getComponentsMarkedForDeletion(final List<Component> existingProjectComponents, final List<Component> components) {
+        final Set<Long> idsToKeep = new HashSet<>(components.size());
+        for (final Component component : components) {
+            idsToKeep.add(component.getId());
+        }
+
+        final Map<Long, List<Component>> childrenByParentId = new HashMap<>();
+        final Map<Long, Component> removedComponents = new LinkedHashMap<>();
+        for (final Component existingComponent : existingProjectComponents) {
+            if (existingComponent.getParent() != null) {
+                childrenByParentId.computeIfAbsent(existingComponent.getParent().getId(), ignored -> new ArrayList<>()).add(existingComponent);
+            }
+            if (!idsToKeep.contains(existingComponent.getId())) {
+                removedComponents.put(existingComponent.getId(), existingComponent);
             }
         }
-        if (!markedForDeletion.isEmpty()) {
-            for (Component c: markedForDeletion) {
-                this.recursivelyDelete(c, false);
+
+        // Components may be removed together with their ancestors; track which ones
+        // have been visited already so that each of them is only deleted once.
+        final Set<Long> visitedIds = new HashSet<>();
+        final List<List<Component>> markedForDeletion = new ArrayList<>();
+        List<Component> currentLevel = new ArrayList<>();
+        for (final Component removedComponent : removedComponents.values()) {
+            if (removedComponent.getParent() == null || !removedComponents.containsKey(removedComponent.getParent().getId())) {
+                visitedIds.add(removedComponent.getId());
+                currentLevel.add(removedComponent);
+            }
+        }
+        while (!currentLevel.isEmpty()) {
+            markedForDeletion.add(currentLevel);
+            final List<Component> nextLevel = new ArrayList<>();
+            for (final Component component : currentLevel) {
+                for (final Component child : childrenByParentId.getOrDefault(component.getId(), Collections.emptyList())) {
+                    if (visitedIds.add(child.getId())) {
+                        nextLevel.add(child);
+                    }
+                }
             }
-            //this.delete(markedForDeletion);
+            currentLevel = nextLevel;
+        }
+        return markedForDeletion;
+    }
+
+    /**
+     * Deletes the specified components, along with all objects depending on them,
+     * using a constant number of bulk delete queries per batch of components.
+     * <p>
+     * Components must not have children that are not part of {@code components},
+     * or be a parent of other components in the same list.
+     * @param components the components to delete
+     * @since 4.10.0
+     */
+    void deleteComponents(final List<Component> components) {
+        pm.getFetchPlan().setDetachmentOptions(FetchPlan.DETACH_LOAD_FIELDS);
+        for (final Component component : pm.detachCopyAll(components)) {
+            Event.dispatch(new IndexEvent(IndexEvent.Action.DELETE, component));
+        }
+        components.stream().map(Component::getProject).distinct().forEach(MetricsDirtyTracker.getInstance()::markDirty);
+
+        final List<Long> ids = components.stream().map(Component::getId).toList();
+        for (final List<Long> idsBatch : Lists.partition(ids, DELETE_BATCH_SIZE)) {
+            runInTransaction(() -> {
+                pm.newQuery(Analysis.class, ":ids.contains(component.id)").deletePersistentAll(idsBatch);
+                pm.newQuery(ViolationAnalysis.class, ":ids.contains(component.id)").deletePersistentAll(idsBatch);
+                pm.newQuery(DependencyMetrics.class, ":ids.contains(component.id)").deletePersistentAll(idsBatch);
+                pm.newQuery(FindingAttribution.class, ":ids.contains(component.id)").deletePersistentAll(idsBatch);
+                pm.newQuery(PolicyViolation.class, ":ids.contains(component.id)").deletePersistentAll(idsBatch);
+                pm.newQuery(ComponentDependency.class, ":ids.contains(parent.id) || :ids.contains(child.id)").deletePersistentAll(idsBatch);
+                pm.newQuery(Component.class, ":ids.contains(id)").deletePersistentAll(idsBatch);
+            });
         }
     }
 
@@ -591,11 +794,62 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         }
     }
 
+    /**
+     * Deletes all {@link ComponentDependency} edges from or to the specified {@link Component}.
+     * @param component the Component to delete edges of
+     * @since 4.10.0
+     */
+    void deleteComponentDependencies(final Component component) {
+        final Query<ComponentDependency> query = pm.newQuery(ComponentDependency.class, "parent == :component || child == :component");
+        query.deletePersistentAll(component);
+    }
+
+    /**
+     * Replaces the {@link ComponentDependency} edges of a {@link Project}'s dependency graph.
+     * @param project the Project to replace the edges of
+     * @param dependencies the new edges, as generated from the project's BOM
+     * @since 4.10.0
+     */
+    public void synchronizeComponentDependencies(final Project project, final List<ComponentDependency> dependencies) {
+        runInTransaction(() -> {
+            pm.newQuery(ComponentDependency.class, "project == :project").deletePersistentAll(project);
+            pm.makePersistentAll(dependencies);
+        });
+    }
+
+    /**
+     * Copies the {@link ComponentDependency} edges of a {@link Project} to its clone.
+     * @param source the Project being cloned
+     * @param destination the cloned Project
+     * @param clonedComponents the cloned Components, by the ID of their source Component
+     * @since 4.10.0
+     */
+    void cloneComponentDependencies(final Project source, final Project destination, final Map<Long, Component> clonedComponents) {
+        final Query<ComponentDependency> query = pm.newQuery(ComponentDependency.class, "project == :project");
+        query.setParameters(source);
+        final List<ComponentDependency> clones = new ArrayList<>();
+        for (final ComponentDependency dependency : query.executeList()) {
+            final Component parent = dependency.getParent() != null ? clonedComponents.get(dependency.getParent().getId()) : null;
+            final Component child = clonedComponents.get(dependency.getChild().getId());
+            if (child != null && (dependency.getParent() == null || parent != null)) {
+                clones.add(new ComponentDependency(destination, parent, child));
+            }
+        }
+        if (!clones.isEmpty()) {
+            runInTransaction(() -> pm.makePersistentAll(clones));
+        }
+    }
+
     public Map<String, Component> getDependencyGraphForComponent(Project project, Component component) {
         Map<String, Component> dependencyGraph = new HashMap<>();
         if (project.getDirectDependencies() == null || project.getDirectDependencies().isBlank()) {
             return dependencyGraph;
         }
+        if (hasComponentDependencies(project)) {
+            resolveDependencyGraphForComponent(project, component, dependencyGraph);
+            return reduceDependencyGraph(dependencyGraph);
+        }
+        // Projects whose BOM has not been uploaded since edges were introduced only have JSON references
         String queryUuid = ".*" + component.getUuid().toString() + ".*";
         final Query<Component> query = pm.newQuery(Component.class, "directDependencies.matches(:queryUuid) && project == :project");
         List<Component> components = (List<Component>) query.executeWithArray(queryUuid, project);
@@ -616,6 +870,10 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
             getRootDependencies(dependencyGraph, project);
             getDirectDependenciesForPathDependencies(dependencyGraph);
         }
+        return reduceDependencyGraph(dependencyGraph);
+    }
+
+    private Map<String, Component> reduceDependencyGraph(final Map<String, Component> dependencyGraph) {
         // Reduce size of JSON response
         for (Map.Entry<String, Component> entry : dependencyGraph.entrySet()) {
             Component transientComponent = new Component();
@@ -708,4 +966,85 @@ final class ComponentQueryManager extends QueryManager implements IQueryManager
         }
         dependencyGraph.putAll(addToDependencyGraph);
     }
+
+    private boolean hasComponentDependencies(final Project project) {
+        final Query<ComponentDependency> query = pm.newQuery(ComponentDependency.class, "project == :project");
+        query.setParameters(project);
+        query.setResult("id");
+        query.setRange(0, 1);
+        return !query.executeResultList(Long.class).isEmpty();
+    }
+
+    /**
+     * Resolves all paths from the root of the dependency graph to {@code component}, using the
+     * {@link ComponentDependency} edges of the project.
+     * <p>
+     * The graph is walked upwards one level at a time, so that the number of (indexed) queries
+     * is bound by the depth of the graph, rather than by the number of components on all paths.
+     */
+    private void resolveDependencyGraphForComponent(final Project project, final Component component, final Map<String, Component> dependencyGraph) {
+        final Set<Long> visited = new HashSet<>();
+        visited.add(component.getId());
+        List<Long> level = List.of(component.getId());
+        while (!level.isEmpty()) {
+            final List<Long> nextLevel = new ArrayList<>();
+            for (final ComponentDependency dependency : getComponentDependencies(project, "child", level)) {
+                final Component parent = dependency.getParent();
+                if (parent == null || parent.getId() == component.getId()) {
+                    continue;
+                }
+                parent.setExpandDependencyGraph(true);
+                final Component parentNode = dependencyGraph.computeIfAbsent(parent.getUuid().toString(), uuid -> parent);
+                if (parentNode.getDependencyGraph() == null) {
+                    parentNode.setDependencyGraph(new HashSet<>());
+                }
+                parentNode.getDependencyGraph().add(dependency.getChild().getUuid().toString());
+                if (visited.add(parent.getId())) {
+                    nextLevel.add(parent.getId());
+                }
+            }
+            level = nextLevel;
+        }
+
+        final Query<ComponentDependency> query = pm.newQuery(ComponentDependency.class, "project == :project && parent == null");
+        query.setParameters(project);
+        final List<ComponentDependency> rootDependencies = query.executeList();
+        final boolean isDirectDependency = rootDependencies.stream()
+                .anyMatch(dependency -> dependency.getChild().getId() == component.getId());
+        if (!dependencyGraph.isEmpty() || isDirectDependency) {
+            dependencyGraph.put(component.getUuid().toString(), component);
+            for (final ComponentDependency rootDependency : rootDependencies) {
+                dependencyGraph.putIfAbsent(rootDependency.getChild().getUuid().toString(), rootDependency.getChild());
+            }
+            // Include two levels of direct dependencies below the path, like for JSON references
+            addDirectDependencies(project, dependencyGraph);
+            addDirectDependencies(project, dependencyGraph);
+        }
+    }
+
+    private void addDirectDependencies(final Project project, final Map<String, Component> dependencyGraph) {
+        final Map<Long, Component> nodesById = new HashMap<>();
+        for (final Component node : dependencyGraph.values()) {
+            nodesById.putIfAbsent(node.getId(), node);
+        }
+        for (final ComponentDependency dependency : getComponentDependencies(project, "parent", nodesById.keySet())) {
+            final Component parentNode = nodesById.get(dependency.getParent().getId());
+            if (parentNode.getDependencyGraph() == null) {
+                parentNode.setDependencyGraph(new HashSet<>());
+            }
+            parentNode.getDependencyGraph().add(dependency.getChild().getUuid().toString());
+            dependencyGraph.putIfAbsent(dependency.getChild().getUuid().toString(), dependency.getChild());
+        }
+    }
+
+    private List<ComponentDependency> getComponentDependencies(final Project project, final String member, final Collection<Long> componentIds) {
+        final List<ComponentDependency> dependencies = new ArrayList<>();
+        for (final List<Long> idsBatch : Lists.partition(List.copyOf(componentIds), DELETE_BATCH_SIZE)) {
+            final Query<ComponentDependency> query = pm.newQuery(ComponentDependency.class,
+                    "project == :project && :ids.contains(" + member + ".id)");
+            query.setParameters(project, idsBatch);
+            dependencies.addAll(query.executeList());
+        }
+        return dependencies;
+    }
 }
@@ -19,8 +19,11 @@
 package org.dependencytrack.persistence;
 
 import alpine.resources.AlpineRequest;
+import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
 import org.datanucleus.api.jdo.JDOQuery;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.AnalysisComment;
 import org.dependencytrack.model.AnalysisJustification;
@@ -38,10 +41,21 @@ import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 public class FindingsQueryManager extends QueryManager implements IQueryManager {
 
+    /**
+     * Maximum number of parameters to include in a single query.
+     * Kept well below the parameter limits of the supported database systems.
+     */
+    private static final int MAX_QUERY_PARAMETERS = 1000;
 
     /**
      * Constructs a new QueryManager.
@@ -207,6 +221,7 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
         }
 
         analysis = persist(analysis);
+        MetricsDirtyTracker.getInstance().markDirty(analysis.getComponent());
         return getAnalysis(analysis.getComponent(), analysis.getVulnerability());
     }
 
@@ -259,6 +274,10 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
 
     /**
      * Returns a List of Finding objects for the specified project.
+     * <p>
+     * Findings are retrieved with a single query. Data that cannot be included in that query
+     * (large text fields, aliases, and latest versions of components) is fetched in bulk afterwards,
+     * using a fixed number of queries regardless of the number of findings.
      * @param project the project to retrieve findings for
      * @param includeSuppressed determines if suppressed vulnerabilities should be included or not
      * @return a List of Finding objects
@@ -271,28 +290,120 @@ public class FindingsQueryManager extends QueryManager implements IQueryManager
         final List<Finding> findings = new ArrayList<>();
         for (final Object[] o: list) {
             final Finding finding = new Finding(project.getUuid(), o);
-            final Component component = getObjectByUuid(Component.class, (String)finding.getComponent().get("uuid"));
-            final Vulnerability vulnerability = getObjectByUuid(Vulnerability.class, (String)finding.getVulnerability().get("uuid"));
-            final Analysis analysis = getAnalysis(component, vulnerability);
-            final List<VulnerabilityAlias> aliases = detach(getVulnerabilityAliases(vulnerability));
-            finding.addVulnerabilityAliases(aliases);
-            if (includeSuppressed || analysis == null || !analysis.isSuppressed()) { // do not add globally suppressed findings
-                // These are CLOB fields. Handle these here so that database-specific deserialization doesn't need to be performed (in Finding)
-                finding.getVulnerability().put("description", vulnerability.getDescription());
-                finding.getVulnerability().put("recommendation", vulnerability.getRecommendation());
-                final PackageURL purl = component.getPurl();
-                if (purl != null) {
-                    final RepositoryType type = RepositoryType.resolve(purl);
-                    if (RepositoryType.UNSUPPORTED != type) {
-                        final RepositoryMetaComponent repoMetaComponent = getRepositoryMetaComponent(type, purl.getNamespace(), purl.getName());
-                        if (repoMetaComponent != null) {
-                            finding.getComponent().put("latestVersion", repoMetaComponent.getLatestVersion());
-                        }
-                    }
-                }
+            if (includeSuppressed || !isSuppressed(finding.getAnalysis().get("isSuppressed"))) { // do not add globally suppressed findings
                 findings.add(finding);
             }
         }
+        if (findings.isEmpty()) {
+            return findings;
+        }
+
+        // Fetch the aliases of all vulnerabilities at once, rather than once per finding
+        final Map<String, Set<String>> vulnIdsBySource = new HashMap<>();
+        for (final Finding finding: findings) {
+            vulnIdsBySource.computeIfAbsent((String)finding.getVulnerability().get("source"), ignored -> new HashSet<>())
+                    .add((String)finding.getVulnerability().get("vulnId"));
+        }
+        final VulnerabilityAliasIndex aliasIndex = VulnerabilityAliasIndex.load(pm, vulnIdsBySource);
+
+        final Map<String, Object[]> clobsByVulnUuid = getVulnerabilityClobs(findings);
+        final Map<RepositoryMetaComponentKey, String> latestVersions = getLatestVersions(findings);
+        for (final Finding finding: findings) {
+            final List<VulnerabilityAlias> aliases = detach(aliasIndex.getAliases(
+                    (String)finding.getVulnerability().get("source"), (String)finding.getVulnerability().get("vulnId")));
+            finding.addVulnerabilityAliases(aliases);
+            // These are CLOB fields. Handle these here so that database-specific deserialization doesn't need to be performed (in Finding)
+            final Object[] clobs = clobsByVulnUuid.get((String)finding.getVulnerability().get("uuid"));
+            finding.getVulnerability().put("description", clobs != null ? clobs[0] : null);
+            finding.getVulnerability().put("recommendation", clobs != null ? clobs[1] : null);
+            final RepositoryMetaComponentKey key = RepositoryMetaComponentKey.of((String)finding.getComponent().get("purl"));
+            if (key != null && latestVersions.containsKey(key)) {
+                finding.getComponent().put("latestVersion", latestVersions.get(key));
+            }
+        }
         return findings;
     }
+
+    /**
+     * Fetch the description and recommendation of the vulnerabilities of the given findings.
+     * @param findings the findings to fetch the CLOB fields for
+     * @return the description and recommendation, keyed by vulnerability UUID
+     */
+    private Map<String, Object[]> getVulnerabilityClobs(final List<Finding> findings) {
+        final Set<UUID> vulnUuids = new HashSet<>();
+        for (final Finding finding: findings) {
+            vulnUuids.add(UUID.fromString((String)finding.getVulnerability().get("uuid")));
+        }
+        final Map<String, Object[]> clobsByVulnUuid = new HashMap<>();
+        for (final List<UUID> batch: Lists.partition(List.copyOf(vulnUuids), MAX_QUERY_PARAMETERS)) {
+            final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
+            query.setFilter(":uuids.contains(uuid)");
+            query.setParameters(batch);
+            query.setResult("uuid, description, recommendation");
+            for (final Object[] row: query.executeResultList(Object[].class)) {
+                clobsByVulnUuid.put(row[0].toString(), new Object[]{row[1], row[2]});
+            }
+        }
+        return clobsByVulnUuid;
+    }
+
+    /**
+     * Fetch the latest versions of the components of the given findings.
+     * @param findings the findings to fetch latest versions for
+     * @return the latest versions, keyed by repository type, namespace, and name of the component
+     */
+    private Map<RepositoryMetaComponentKey, String> getLatestVersions(final List<Finding> findings) {
+        final Set<RepositoryMetaComponentKey> keys = new HashSet<>();
+        for (final Finding finding: findings) {
+            final RepositoryMetaComponentKey key = RepositoryMetaComponentKey.of((String)finding.getComponent().get("purl"));
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        final Set<String> names = keys.stream().map(RepositoryMetaComponentKey::name).collect(Collectors.toSet());
+        final Map<RepositoryMetaComponentKey, String> latestVersions = new HashMap<>();
+        for (final List<String> batch: Lists.partition(List.copyOf(names), MAX_QUERY_PARAMETERS)) {
+            final Query<RepositoryMetaComponent> query = pm.newQuery(RepositoryMetaComponent.class);
+            query.setFilter(":names.contains(name)");
+            query.setParameters(batch);
+            query.setResult("repositoryType, namespace, name, latestVersion");
+            for (final Object[] row: query.executeResultList(Object[].class)) {
+                final var key = new RepositoryMetaComponentKey((RepositoryType)row[0], (String)row[1], (String)row[2]);
+                if (keys.contains(key)) {
+                    latestVersions.putIfAbsent(key, (String)row[3]);
+                }
+            }
+        }
+        return latestVersions;
+    }
+
+    private static boolean isSuppressed(final Object value) {
+        if (value instanceof final Boolean suppressed) {
+            return suppressed;
+        } else if (value instanceof final Number suppressed) {
+            return suppressed.intValue() != 0;
+        }
+        return false;
+    }
+
+    private record RepositoryMetaComponentKey(RepositoryType repositoryType, String namespace, String name) {
+
+        private static RepositoryMetaComponentKey of(final String purlString) {
+            if (purlString == null) {
+                return null;
+            }
+            final PackageURL purl;
+            try {
+                purl = new PackageURL(purlString);
+            } catch (MalformedPackageURLException e) {
+                return null;
+            }
+            final RepositoryType type = RepositoryType.resolve(purl);
+            if (RepositoryType.UNSUPPORTED == type) {
+                return null;
+            }
+            return new RepositoryMetaComponentKey(type, purl.getNamespace(), purl.getName());
+        }
+
+    }
 }
@@ -18,8 +18,10 @@
  */
 package org.dependencytrack.persistence;
 
+import alpine.common.logging.Logger;
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.LicenseGroup;
@@ -30,15 +32,23 @@ import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ViolationAnalysis;
 import org.dependencytrack.model.ViolationAnalysisComment;
 import org.dependencytrack.model.ViolationAnalysisState;
+import org.dependencytrack.policy.CoordinatesPolicyEvaluator;
+import org.dependencytrack.policy.Matcher;
 
+import javax.jdo.JDOException;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 final class PolicyQueryManager extends QueryManager implements IQueryManager {
 
+    private static final Logger LOGGER = Logger.getLogger(PolicyQueryManager.class);
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -132,6 +142,7 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
      */
     public PolicyCondition updatePolicyCondition(final PolicyCondition policyCondition) {
         final PolicyCondition pc = getObjectByUuid(PolicyCondition.class, policyCondition.getUuid());
+        invalidateCompiledCondition(pc);
         pc.setSubject(policyCondition.getSubject());
         pc.setOperator(policyCondition.getOperator());
         pc.setValue(policyCondition.getValue());
@@ -139,50 +150,131 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
     }
 
     /**
-     * Intelligently adds dependencies for components that are not already a dependency
-     * of the specified project and removes the dependency relationship for components
-     * that are not in the list of specified components.
-     * @param component the project to bind components to
-     * @param policyViolations the complete list of existing dependent components
-     */
-    public synchronized void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
-        // Removes violations as dependencies to the project for all
-        // components not included in the list provided
-        List<PolicyViolation> markedForDeletion = new ArrayList<>();
-        for (final PolicyViolation existingViolation: getAllPolicyViolations(component)) {
-            boolean keep = false;
-            for (final PolicyViolation violation: policyViolations) {
-                if (violation.getType() == existingViolation.getType()
-                        && violation.getPolicyCondition().getId() == existingViolation.getPolicyCondition().getId()
-                        && violation.getComponent().getId() == existingViolation.getComponent().getId())
-                {
-                    keep = true;
-                    break;
+     * Discards the compiled form of a PolicyCondition's current value, as cached by the policy evaluators.
+     * @param policyCondition the PolicyCondition whose value is about to change or be removed
+     */
+    private static void invalidateCompiledCondition(final PolicyCondition policyCondition) {
+        if (PolicyCondition.Subject.COORDINATES == policyCondition.getSubject()) {
+            CoordinatesPolicyEvaluator.invalidate(policyCondition.getValue());
+        } else {
+            Matcher.invalidate(policyCondition.getValue());
+        }
+    }
+
+    /**
+     * Reconciles the policy violations of a component with the violations identified by a policy evaluation.
+     * <p>
+     * Violations are identified by their type, policy condition, and component. Existing violations that were
+     * not identified again are deleted, along with their analysis trail, and identified violations that do not
+     * exist yet are created. Both happen in bulk, within a single transaction.
+     * <p>
+     * No JVM-wide lock is held. Should a concurrent reconciliation of the same component create a violation first,
+     * the unique constraint on (type, component, policy condition) rejects the duplicate, and reconciliation is
+     * repeated once against the then current state.
+     * @param component the component to reconcile violations for
+     * @param policyViolations the complete list of violations identified for the component
+     * @return the persistent violations matching {@code policyViolations}, and the violations that have been newly created
+     */
+    public PolicyViolationReconciliation reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
+        try {
+            return reconcilePolicyViolationsInTransaction(component, policyViolations);
+        } catch (JDOException e) {
+            LOGGER.debug("Failed to reconcile policy violations of component " + component.getUuid()
+                    + ", possibly due to a concurrent reconciliation; Retrying", e);
+            return reconcilePolicyViolationsInTransaction(component, policyViolations);
+        }
+    }
+
+    private PolicyViolationReconciliation reconcilePolicyViolationsInTransaction(final Component component, final List<PolicyViolation> policyViolations) {
+        final Map<PolicyViolationKey, PolicyViolation> identifiedViolations = new LinkedHashMap<>();
+        for (final PolicyViolation violation : policyViolations) {
+            identifiedViolations.putIfAbsent(PolicyViolationKey.of(violation), violation);
+        }
+
+        return runInTransaction(() -> {
+            final Map<PolicyViolationKey, PolicyViolation> reconciledViolations = new HashMap<>();
+            final List<Long> obsoleteIds = new ArrayList<>();
+            final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "component == :component");
+            query.setParameters(component);
+            for (final PolicyViolation existingViolation : query.executeList()) {
+                final PolicyViolationKey key = PolicyViolationKey.of(existingViolation);
+                if (identifiedViolations.containsKey(key) && reconciledViolations.putIfAbsent(key, existingViolation) == null) {
+                    continue;
                 }
+                obsoleteIds.add(existingViolation.getId());
             }
-            if (!keep) {
-                markedForDeletion.add(existingViolation);
+            if (!obsoleteIds.isEmpty()) {
+                pm.newQuery(ViolationAnalysis.class, ":ids.contains(policyViolation.id)").deletePersistentAll(obsoleteIds);
+                pm.newQuery(PolicyViolation.class, ":ids.contains(id)").deletePersistentAll(obsoleteIds);
             }
+
+            final List<PolicyViolation> newViolations = new ArrayList<>();
+            for (final Map.Entry<PolicyViolationKey, PolicyViolation> entry : identifiedViolations.entrySet()) {
+                if (!reconciledViolations.containsKey(entry.getKey())) {
+                    // Persist copies, so that the given violations stay transient should the transaction fail.
+                    final var newViolation = new PolicyViolation();
+                    newViolation.setType(entry.getValue().getType());
+                    newViolation.setComponent(entry.getValue().getComponent());
+                    newViolation.setPolicyCondition(entry.getValue().getPolicyCondition());
+                    newViolation.setTimestamp(entry.getValue().getTimestamp());
+                    newViolation.setText(entry.getValue().getText());
+                    newViolations.add(newViolation);
+                    reconciledViolations.put(entry.getKey(), newViolation);
+                }
+            }
+            pm.makePersistentAll(newViolations);
+            if (!obsoleteIds.isEmpty() || !newViolations.isEmpty()) {
+                MetricsDirtyTracker.getInstance().markDirty(component);
+            }
+
+            final List<PolicyViolation> violations = new ArrayList<>(policyViolations.size());
+            for (final PolicyViolation violation : policyViolations) {
+                violations.add(reconciledViolations.get(PolicyViolationKey.of(violation)));
+            }
+            return new PolicyViolationReconciliation(violations, newViolations);
+        });
+    }
+
+    /**
+     * Identity of a {@link PolicyViolation}, as enforced by the unique constraint on its table.
+     */
+    private record PolicyViolationKey(PolicyViolation.Type type, long policyConditionId, long componentId) {
+
+        private static PolicyViolationKey of(final PolicyViolation violation) {
+            return new PolicyViolationKey(violation.getType(), violation.getPolicyCondition().getId(), violation.getComponent().getId());
         }
-        if (!markedForDeletion.isEmpty()) {
-            delete(markedForDeletion);
-        }
+
     }
 
     /**
      * Adds a policy violation
      * @param pv the policy violation to add
      */
-    public synchronized PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
-        final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "type == :type && component == :component && policyCondition == :policyCondition");
-        query.setRange(0, 1);
-        PolicyViolation result = singleResult(query.execute(pv.getType(), pv.getComponent(), pv.getPolicyCondition()));
-        if (result == null) {
+    public PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
+        final PolicyViolation existing = getPolicyViolation(pv);
+        if (existing != null) {
+            return existing;
+        }
+        final PolicyViolation result;
+        try {
             result = persist(pv);
+        } catch (JDOException e) {
+            // A violation with the same identity has been created concurrently.
+            // persist does not roll back when the commit fails, thus the transaction must be
+            // rolled back before the existing violation can be queried for.
+            ensureNoActiveTransaction(); // Workaround for https://github.com/DependencyTrack/dependency-track/issues/2677
+            return getPolicyViolation(pv);
         }
+        MetricsDirtyTracker.getInstance().markDirty(result.getComponent());
         return result;
     }
 
+    private PolicyViolation getPolicyViolation(final PolicyViolation pv) {
+        final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class, "type == :type && component == :component && policyCondition == :policyCondition");
+        query.setRange(0, 1);
+        return singleResult(query.execute(pv.getType(), pv.getComponent(), pv.getPolicyCondition()));
+    }
+
     /**
      * Returns a List of all Policy objects.
      * This method if designed NOT to provide paginated results.
@@ -372,6 +464,7 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         }
         violationAnalysis.setViolationAnalysisState(violationAnalysisState);
         violationAnalysis = persist(violationAnalysis);
+        MetricsDirtyTracker.getInstance().markDirty(violationAnalysis.getComponent());
         return getViolationAnalysis(violationAnalysis.getComponent(), violationAnalysis.getPolicyViolation());
     }
 
@@ -511,7 +604,9 @@ final class PolicyQueryManager extends QueryManager implements IQueryManager {
         for (PolicyViolation violation: violations) {
             deleteViolationAnalysisTrail(violation);
         }
+        violations.stream().map(PolicyViolation::getProject).distinct().forEach(MetricsDirtyTracker.getInstance()::markDirty);
         delete(violations);
+        invalidateCompiledCondition(policyCondition);
         delete(policyCondition);
     }
 
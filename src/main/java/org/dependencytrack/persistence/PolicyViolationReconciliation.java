@@ -0,0 +1,35 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.PolicyViolation;
+
+import java.util.List;
+
+/**
+ * Result of reconciling the {@link PolicyViolation}s of a {@link Component}.
+ *
+ * @param violations    The persistent violations matching the identified violations, in the order they were identified.
+ *                      Violations that existed already are returned as stored, including their original timestamp
+ * @param newViolations The violations that have been newly created by the reconciliation
+ * @since 4.10.0
+ */
+public record PolicyViolationReconciliation(List<PolicyViolation> violations, List<PolicyViolation> newViolations) {
+}
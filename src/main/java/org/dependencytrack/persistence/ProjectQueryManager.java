@@ -661,6 +661,7 @@ final class ProjectQueryManager extends QueryManager implements IQueryManager {
                     clonedComponents.put(sourceComponent.getId(), clonedComponent);
                 }
             }
+            cloneComponentDependencies(source, project, clonedComponents);
         }
 
         if (includeServices) {
@@ -43,6 +43,7 @@ import org.dependencytrack.model.Bom;
 import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ComponentAnalysisCache;
+import org.dependencytrack.model.ComponentDependency;
 import org.dependencytrack.model.ComponentIdentity;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Cpe;
@@ -76,6 +77,7 @@ import org.dependencytrack.model.VulnerabilityMetrics;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.notification.publisher.Publisher;
+import org.dependencytrack.parser.epss.EpssScore;
 import org.dependencytrack.resources.v1.vo.DependencyGraphResponse;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
 import javax.jdo.FetchPlan;
@@ -85,6 +87,7 @@ import javax.jdo.Transaction;
 import javax.json.JsonObject;
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -604,11 +607,11 @@ public class QueryManager extends AlpineQueryManager {
         return getPolicyQueryManager().updatePolicyCondition(policyCondition);
     }
 
-    public synchronized void reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
-        getPolicyQueryManager().reconcilePolicyViolations(component, policyViolations);
+    public PolicyViolationReconciliation reconcilePolicyViolations(final Component component, final List<PolicyViolation> policyViolations) {
+        return getPolicyQueryManager().reconcilePolicyViolations(component, policyViolations);
     }
 
-    public synchronized PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
+    public PolicyViolation addPolicyViolationIfNotExist(final PolicyViolation pv) {
         return getPolicyQueryManager().addPolicyViolationIfNotExist(pv);
     }
 
@@ -879,10 +882,22 @@ public class QueryManager extends AlpineQueryManager {
         return getComponentQueryManager().matchIdentity(cid);
     }
 
+    public Map<Long, Set<Long>> getAffectedProjectIds(final Collection<Component> components) {
+        return getComponentQueryManager().getAffectedProjectIds(components);
+    }
+
     public void reconcileComponents(Project project, List<Component> existingProjectComponents, List<Component> components) {
         getComponentQueryManager().reconcileComponents(project, existingProjectComponents, components);
     }
 
+    public void synchronizeComponentDependencies(Project project, List<ComponentDependency> dependencies) {
+        getComponentQueryManager().synchronizeComponentDependencies(project, dependencies);
+    }
+
+    void cloneComponentDependencies(Project source, Project destination, Map<Long, Component> clonedComponents) {
+        getComponentQueryManager().cloneComponentDependencies(source, destination, clonedComponents);
+    }
+
     public List<Component> getAllComponents(Project project) {
         return getComponentQueryManager().getAllComponents(project);
     }
@@ -967,6 +982,10 @@ public class QueryManager extends AlpineQueryManager {
         return getVulnerabilityQueryManager().getVulnerabilityCount(project, includeSuppressed);
     }
 
+    public Map<Long, List<Vulnerability>> getAllVulnerabilities(Collection<Component> components, boolean includeSuppressed) {
+        return getVulnerabilityQueryManager().getAllVulnerabilities(components, includeSuppressed);
+    }
+
     public List<Vulnerability> getVulnerabilities(Project project, boolean includeSuppressed) {
         return getVulnerabilityQueryManager().getVulnerabilities(project, includeSuppressed);
     }
@@ -1011,10 +1030,18 @@ public class QueryManager extends AlpineQueryManager {
         return getVulnerabilityQueryManager().synchronizeVulnerabilityAlias(alias);
     }
 
+    public List<VulnerabilityAlias> synchronizeVulnerabilityAliases(Collection<VulnerabilityAlias> aliases) {
+        return getVulnerabilityQueryManager().synchronizeVulnerabilityAliases(aliases);
+    }
+
     public List<VulnerabilityAlias> getVulnerabilityAliases(Vulnerability vulnerability) {
         return getVulnerabilityQueryManager().getVulnerabilityAliases(vulnerability);
     }
 
+    public VulnerabilityAliasIndex getVulnerabilityAliasIndex(Collection<Vulnerability> vulnerabilities) {
+        return getVulnerabilityQueryManager().getVulnerabilityAliasIndex(vulnerabilities);
+    }
+
     List<Analysis> getAnalyses(Project project) {
         return getFindingsQueryManager().getAnalyses(project);
     }
@@ -1133,6 +1160,10 @@ public class QueryManager extends AlpineQueryManager {
         return getRepositoryQueryManager().getRepositoryMetaComponent(repositoryType, namespace, name);
     }
 
+    public Map<Long, RepositoryMetaComponent> getRepositoryMetaComponents(Collection<Component> components) {
+        return getRepositoryQueryManager().getRepositoryMetaComponents(components);
+    }
+
     public synchronized RepositoryMetaComponent synchronizeRepositoryMetaComponent(final RepositoryMetaComponent transientRepositoryMetaComponent) {
         return getRepositoryQueryManager().synchronizeRepositoryMetaComponent(transientRepositoryMetaComponent);
     }
@@ -1206,6 +1237,14 @@ public class QueryManager extends AlpineQueryManager {
         return getCacheQueryManager().getComponentAnalysisCache(cacheType, targetType, target);
     }
 
+    public int updateEpssScores(final List<EpssScore> scores) {
+        return getVulnerabilityQueryManager().updateEpssScores(scores);
+    }
+
+    public Map<String, ComponentAnalysisCache> getComponentAnalysisCaches(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, Collection<String> targets) {
+        return getCacheQueryManager().getComponentAnalysisCaches(cacheType, targetHost, targetType, targets);
+    }
+
     public synchronized void updateComponentAnalysisCache(ComponentAnalysisCache.CacheType cacheType, String targetHost, String targetType, String target, Date lastOccurrence, JsonObject result) {
         getCacheQueryManager().updateComponentAnalysisCache(cacheType, targetHost, targetType, target, lastOccurrence,  result);
     }
@@ -20,6 +20,8 @@ package org.dependencytrack.persistence;
 
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
+import com.google.common.collect.Lists;
+import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Repository;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
@@ -28,13 +30,22 @@ import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public class RepositoryQueryManager extends QueryManager implements IQueryManager {
 
+    /**
+     * Maximum number of values to include in a single query.
+     */
+    private static final int MAX_QUERY_PARAMETERS = 1000;
 
     /**
      * Constructs a new QueryManager.
@@ -194,6 +205,49 @@ public class RepositoryQueryManager extends QueryManager implements IQueryManage
         return singleResult(query.execute(repositoryType, namespace, name));
     }
 
+    /**
+     * Returns the RepositoryMetaComponents of multiple components at once.
+     * <p>
+     * This is equivalent to calling {@link #getRepositoryMetaComponent(RepositoryType, String, String)}
+     * for the package URL of each component, but issues a single query per batch of
+     * {@value #MAX_QUERY_PARAMETERS} distinct component names.
+     * @param components the components to retrieve RepositoryMetaComponents for
+     * @return the RepositoryMetaComponents, keyed by the ID of the component they belong to
+     * @since 4.10.0
+     */
+    public Map<Long, RepositoryMetaComponent> getRepositoryMetaComponents(final Collection<Component> components) {
+        final Map<List<Object>, List<Long>> componentIdsByKey = new HashMap<>();
+        for (final Component component : components) {
+            if (component.getPurl() == null) {
+                continue;
+            }
+            final RepositoryType repositoryType = RepositoryType.resolve(component.getPurl());
+            if (RepositoryType.UNSUPPORTED == repositoryType) {
+                continue;
+            }
+            final List<Object> key = Arrays.asList(repositoryType, component.getPurl().getNamespace(), component.getPurl().getName());
+            componentIdsByKey.computeIfAbsent(key, ignored -> new ArrayList<>()).add(component.getId());
+        }
+
+        final Set<String> names = new HashSet<>();
+        for (final List<Object> key : componentIdsByKey.keySet()) {
+            names.add((String) key.get(2));
+        }
+        final Map<Long, RepositoryMetaComponent> metaComponentsByComponentId = new HashMap<>();
+        for (final List<String> namesBatch : Lists.partition(List.copyOf(names), MAX_QUERY_PARAMETERS)) {
+            final Query<RepositoryMetaComponent> query = pm.newQuery(RepositoryMetaComponent.class);
+            query.setFilter(":names.contains(name)");
+            query.setParameters(namesBatch);
+            for (final RepositoryMetaComponent metaComponent : query.executeList()) {
+                final List<Object> key = Arrays.asList(metaComponent.getRepositoryType(), metaComponent.getNamespace(), metaComponent.getName());
+                for (final Long componentId : componentIdsByKey.getOrDefault(key, Collections.emptyList())) {
+                    metaComponentsByComponentId.putIfAbsent(componentId, metaComponent);
+                }
+            }
+        }
+        return metaComponentsByComponentId;
+    }
+
     /**
      * Synchronizes a RepositoryMetaComponent, updating it if it needs updating, or creating it if it doesn't exist.
      * @param transientRepositoryMetaComponent the RepositoryMetaComponent object to synchronize
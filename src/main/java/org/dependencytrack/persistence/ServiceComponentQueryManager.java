@@ -30,8 +30,9 @@ import org.dependencytrack.resources.v1.vo.DependencyGraphResponse;
 import javax.jdo.FetchPlan;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 final class ServiceComponentQueryManager extends QueryManager implements IQueryManager {
@@ -76,24 +77,19 @@ final class ServiceComponentQueryManager extends QueryManager implements IQueryM
     public void reconcileServiceComponents(Project project, List<ServiceComponent> existingProjectServices, List<ServiceComponent> services) {
         // Removes components as dependencies to the project for all
         // components not included in the list provided
-        List<ServiceComponent> markedForDeletion = new ArrayList<>();
-        for (final ServiceComponent existingService: existingProjectServices) {
-            boolean keep = false;
-            for (final ServiceComponent service: services) {
-                if (service.getId() == existingService.getId()) {
-                    keep = true;
-                    break;
-                }
-            }
-            if (!keep) {
-                markedForDeletion.add(existingService);
-            }
+        final Set<Long> idsToKeep = new HashSet<>(services.size());
+        for (final ServiceComponent service : services) {
+            idsToKeep.add(service.getId());
         }
-        if (!markedForDeletion.isEmpty()) {
-            for (ServiceComponent sc: markedForDeletion) {
-                this.recursivelyDelete(sc, false);
+        for (final ServiceComponent existingService : existingProjectServices) {
+            if (idsToKeep.contains(existingService.getId())) {
+                continue;
+            }
+            // Children are deleted along with their parent
+            final ServiceComponent parent = existingService.getParent();
+            if (parent == null || idsToKeep.contains(parent.getId())) {
+                this.recursivelyDelete(existingService, false);
             }
-            //this.delete(markedForDeletion);
         }
     }
 
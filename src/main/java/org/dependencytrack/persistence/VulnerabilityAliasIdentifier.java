@@ -0,0 +1,105 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Identifiers of a {@link VulnerabilityAlias}, along with the names of their persistent fields.
+ *
+ * @since 4.10.0
+ */
+enum VulnerabilityAliasIdentifier {
+
+    CVE("cveId", VulnerabilityAlias::getCveId),
+    GHSA("ghsaId", VulnerabilityAlias::getGhsaId),
+    GSD("gsdId", VulnerabilityAlias::getGsdId),
+    INTERNAL("internalId", VulnerabilityAlias::getInternalId),
+    OSV("osvId", VulnerabilityAlias::getOsvId),
+    SNYK("snykId", VulnerabilityAlias::getSnykId),
+    SONATYPE("sonatypeId", VulnerabilityAlias::getSonatypeId),
+    VULNDB("vulnDbId", VulnerabilityAlias::getVulnDbId);
+
+    private final String fieldName;
+    private final Function<VulnerabilityAlias, String> getter;
+
+    VulnerabilityAliasIdentifier(final String fieldName, final Function<VulnerabilityAlias, String> getter) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+    }
+
+    String getFieldName() {
+        return fieldName;
+    }
+
+    String getValue(final VulnerabilityAlias alias) {
+        return getter.apply(alias);
+    }
+
+    /**
+     * Get the identifier under which vulnerabilities of a given source are referenced by a {@link VulnerabilityAlias}.
+     * Sources without a dedicated identifier are referenced by {@link #INTERNAL}.
+     *
+     * @param source The source of the vulnerability
+     * @return The matching {@link VulnerabilityAliasIdentifier}
+     */
+    static VulnerabilityAliasIdentifier forSource(final String source) {
+        if (Vulnerability.Source.NVD.name().equals(source)) {
+            return CVE;
+        } else if (Vulnerability.Source.OSSINDEX.name().equals(source)) {
+            return SONATYPE;
+        } else if (Vulnerability.Source.GITHUB.name().equals(source)) {
+            return GHSA;
+        } else if (Vulnerability.Source.OSV.name().equals(source)) {
+            return OSV;
+        } else if (Vulnerability.Source.SNYK.name().equals(source)) {
+            return SNYK;
+        } else if (Vulnerability.Source.VULNDB.name().equals(source)) {
+            return VULNDB;
+        }
+        return INTERNAL;
+    }
+
+    /**
+     * Get all identifiers of a {@link VulnerabilityAlias} that are set, in the form {@code fieldName|value}.
+     *
+     * @param alias The {@link VulnerabilityAlias}
+     * @return The keys of all identifiers that are set
+     */
+    static List<String> getKeys(final VulnerabilityAlias alias) {
+        final var keys = new ArrayList<String>();
+        for (final VulnerabilityAliasIdentifier identifier : values()) {
+            final String value = identifier.getValue(alias);
+            if (value != null) {
+                keys.add(identifier.getKey(value));
+            }
+        }
+        return keys;
+    }
+
+    String getKey(final String value) {
+        return fieldName + "|" + value;
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import com.google.common.collect.Lists;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * A batched lookup of the {@link VulnerabilityAlias}es of a set of {@link Vulnerability}s.
+ * <p>
+ * The aliases of all vulnerabilities are fetched at once when the index is loaded, so that looking up the aliases
+ * of a vulnerability does not require a query per vulnerability. Lookups have the same semantics as
+ * {@link QueryManager#getVulnerabilityAliases(Vulnerability)}: only aliases that directly reference a vulnerability
+ * are returned, aliases of those aliases are not.
+ * <p>
+ * The index is a snapshot. It does not reflect aliases synchronized after it has been loaded.
+ *
+ * @since 4.10.0
+ */
+public final class VulnerabilityAliasIndex {
+
+    /**
+     * Maximum number of parameters to include in a single query.
+     * Kept well below the parameter limits of the supported database systems.
+     */
+    private static final int MAX_QUERY_PARAMETERS = 1000;
+
+    private final Map<String, List<VulnerabilityAlias>> aliasesByKey = new HashMap<>();
+
+    private VulnerabilityAliasIndex() {
+    }
+
+    /**
+     * Load the {@link VulnerabilityAliasIndex} for a set of {@link Vulnerability}s.
+     *
+     * @param pm              The {@link PersistenceManager} to use
+     * @param vulnerabilities The {@link Vulnerability}s to load aliases for
+     * @return The loaded {@link VulnerabilityAliasIndex}
+     */
+    static VulnerabilityAliasIndex load(final PersistenceManager pm, final Collection<Vulnerability> vulnerabilities) {
+        final var vulnIdsBySource = new HashMap<String, Set<String>>();
+        for (final Vulnerability vulnerability : vulnerabilities) {
+            vulnIdsBySource.computeIfAbsent(vulnerability.getSource(), ignored -> new HashSet<>()).add(vulnerability.getVulnId());
+        }
+        return load(pm, vulnIdsBySource);
+    }
+
+    /**
+     * Load the {@link VulnerabilityAliasIndex} for a set of vulnerabilities, identified by their source and ID.
+     *
+     * @param pm              The {@link PersistenceManager} to use
+     * @param vulnIdsBySource IDs of the vulnerabilities to load aliases for, keyed by their source
+     * @return The loaded {@link VulnerabilityAliasIndex}
+     */
+    public static VulnerabilityAliasIndex load(final PersistenceManager pm, final Map<String, ? extends Collection<String>> vulnIdsBySource) {
+        final Set<List<String>> vulnIdsWithField = new LinkedHashSet<>();
+        for (final Map.Entry<String, ? extends Collection<String>> entry : vulnIdsBySource.entrySet()) {
+            final String fieldName = VulnerabilityAliasIdentifier.forSource(entry.getKey()).getFieldName();
+            for (final String vulnId : entry.getValue()) {
+                vulnIdsWithField.add(List.of(fieldName, vulnId));
+            }
+        }
+
+        final var index = new VulnerabilityAliasIndex();
+        final Set<Long> aliasIdsSeen = new HashSet<>();
+        for (final List<List<String>> batch : Lists.partition(List.copyOf(vulnIdsWithField), MAX_QUERY_PARAMETERS)) {
+            final Map<String, List<String>> vulnIdsByField = new LinkedHashMap<>();
+            for (final List<String> vulnIdWithField : batch) {
+                vulnIdsByField.computeIfAbsent(vulnIdWithField.get(0), ignored -> new ArrayList<>()).add(vulnIdWithField.get(1));
+            }
+
+            final var filterJoiner = new StringJoiner(" || ");
+            final var params = new HashMap<String, Object>();
+            for (final Map.Entry<String, List<String>> entry : vulnIdsByField.entrySet()) {
+                filterJoiner.add(":" + entry.getKey() + "s.contains(" + entry.getKey() + ")");
+                params.put(entry.getKey() + "s", entry.getValue());
+            }
+
+            final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class);
+            query.setFilter(filterJoiner.toString());
+            query.setNamedParameters(params);
+            for (final VulnerabilityAlias alias : query.executeList()) {
+                // Aliases may match vulnerabilities of multiple batches.
+                if (aliasIdsSeen.add(alias.getId())) {
+                    index.add(alias);
+                }
+            }
+        }
+        return index;
+    }
+
+    private void add(final VulnerabilityAlias alias) {
+        for (final String key : VulnerabilityAliasIdentifier.getKeys(alias)) {
+            aliasesByKey.computeIfAbsent(key, ignored -> new ArrayList<>()).add(alias);
+        }
+    }
+
+    /**
+     * Get the {@link VulnerabilityAlias}es of a {@link Vulnerability}.
+     * <p>
+     * This is equivalent to {@link QueryManager#getVulnerabilityAliases(Vulnerability)}.
+     *
+     * @param vulnerability The {@link Vulnerability}
+     * @return The {@link VulnerabilityAlias}es of the {@link Vulnerability}
+     */
+    public List<VulnerabilityAlias> getAliases(final Vulnerability vulnerability) {
+        return getAliases(vulnerability.getSource(), vulnerability.getVulnId());
+    }
+
+    /**
+     * Get the {@link VulnerabilityAlias}es of a vulnerability.
+     *
+     * @param source The source of the vulnerability
+     * @param vulnId The ID of the vulnerability
+     * @return The {@link VulnerabilityAlias}es of the vulnerability
+     */
+    public List<VulnerabilityAlias> getAliases(final String source, final String vulnId) {
+        return List.copyOf(aliasesByKey.getOrDefault(getKey(source, vulnId), List.of()));
+    }
+
+    private static String getKey(final String source, final String vulnId) {
+        return VulnerabilityAliasIdentifier.forSource(source).getKey(vulnId);
+    }
+
+}
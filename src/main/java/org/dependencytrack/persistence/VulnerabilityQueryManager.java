@@ -21,33 +21,87 @@ package org.dependencytrack.persistence;
 import alpine.event.framework.Event;
 import alpine.persistence.PaginatedResult;
 import alpine.resources.AlpineRequest;
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+import org.datanucleus.api.jdo.JDOQuery;
 import org.dependencytrack.event.IndexEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.AffectedVersionAttribution;
 import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.FindingAttribution;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.parser.epss.EpssScore;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 
+import javax.jdo.JDODataStoreException;
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import javax.jdo.datastore.JDOConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 final class VulnerabilityQueryManager extends QueryManager implements IQueryManager {
 
+    /**
+     * Maximum number of IDs to include in a single query.
+     */
+    private static final int MAX_QUERY_PARAMETERS = 1000;
+
+    /**
+     * Selects the IDs of components, and of the vulnerabilities affecting them.
+     */
+    private static final String FINDINGS_QUERY = "SELECT " +
+            "\"COMPONENTS_VULNERABILITIES\".\"COMPONENT_ID\"," +
+            "\"COMPONENTS_VULNERABILITIES\".\"VULNERABILITY_ID\" " +
+            "FROM \"COMPONENT\" " +
+            "INNER JOIN \"COMPONENTS_VULNERABILITIES\" ON (\"COMPONENT\".\"ID\" = \"COMPONENTS_VULNERABILITIES\".\"COMPONENT_ID\") ";
+
+    /**
+     * Joins the suppressing analyses of findings, such that suppressed findings can be excluded
+     * with an {@code "ANALYSIS"."ID" IS NULL} anti-join.
+     */
+    private static final String FINDINGS_QUERY_SUPPRESSED_ANALYSIS_JOIN =
+            "LEFT JOIN \"ANALYSIS\" ON (\"COMPONENT\".\"ID\" = \"ANALYSIS\".\"COMPONENT_ID\") AND (\"COMPONENTS_VULNERABILITIES\".\"VULNERABILITY_ID\" = \"ANALYSIS\".\"VULNERABILITY_ID\") AND (\"COMPONENT\".\"PROJECT_ID\" = \"ANALYSIS\".\"PROJECT_ID\") AND (\"ANALYSIS\".\"SUPPRESSED\" = ?) ";
+
+    private static final String FINDINGS_QUERY_ORDERING =
+            "ORDER BY \"COMPONENT\".\"NAME\", \"COMPONENT\".\"ID\", \"COMPONENTS_VULNERABILITIES\".\"VULNERABILITY_ID\"";
+
+    private static final String PROJECT_FINDINGS_QUERY = FINDINGS_QUERY +
+            "WHERE \"COMPONENT\".\"PROJECT_ID\" = ? " +
+            FINDINGS_QUERY_ORDERING;
+
+    private static final String PROJECT_FINDINGS_QUERY_EXCLUDE_SUPPRESSED = FINDINGS_QUERY +
+            FINDINGS_QUERY_SUPPRESSED_ANALYSIS_JOIN +
+            "WHERE \"COMPONENT\".\"PROJECT_ID\" = ? AND \"ANALYSIS\".\"ID\" IS NULL " +
+            FINDINGS_QUERY_ORDERING;
+
+    // Serializes the synchronization of aliases sharing identifiers, across all QueryManagers.
+    private static final Striped<Lock> ALIAS_LOCKS = Striped.lock(256);
+
+    // Serializes writes of findings of the same component, across all QueryManagers.
+    private static final Striped<Lock> FINDING_LOCKS = Striped.lock(256);
+
     /**
      * Constructs a new QueryManager.
      * @param pm a PersistenceManager object
@@ -92,6 +146,7 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             vulnerability = getVulnerabilityByVulnId(transientVulnerability.getSource(), transientVulnerability.getVulnId());
         }
         if (vulnerability != null) {
+            final Severity previousSeverity = vulnerability.getSeverity();
             vulnerability.setCreated(transientVulnerability.getCreated());
             vulnerability.setPublished(transientVulnerability.getPublished());
             vulnerability.setUpdated(transientVulnerability.getUpdated());
@@ -124,13 +179,33 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
                 vulnerability.setVulnerableSoftware(transientVulnerability.getVulnerableSoftware());
             }
             final Vulnerability result = persist(vulnerability);
+            if (transientVulnerability.getVulnerableSoftware() != null) {
+                VulnerableSoftwareIndex.getInstance().invalidate(result);
+            }
             Event.dispatch(new IndexEvent(IndexEvent.Action.UPDATE, pm.detachCopy(result)));
             commitSearchIndex(commitIndex, Vulnerability.class);
+            if (result.getSeverity() != previousSeverity) {
+                markAffectedProjectsDirty(result);
+            }
             return result;
         }
         return null;
     }
 
+    /**
+     * Marks all projects with components affected by a given vulnerability as dirty,
+     * so that their metrics are recalculated during the next metrics update.
+     * @param vulnerability the vulnerability whose affected projects to mark as dirty
+     */
+    private void markAffectedProjectsDirty(final Vulnerability vulnerability) {
+        final Query<Component> query = pm.newQuery(Component.class, "vulnerabilities.contains(:vulnerability)");
+        query.setParameters(vulnerability);
+        query.setResult("distinct project.id");
+        for (final Long projectId : query.executeResultList(Long.class)) {
+            MetricsDirtyTracker.getInstance().markDirty(projectId);
+        }
+    }
+
     /**
      * Synchronizes a vulnerability. Method first checkes to see if the vulnerability already
      * exists and if so, updates the vulnerability. If the vulnerability does not already exist,
@@ -211,10 +286,30 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      */
     public void addVulnerability(Vulnerability vulnerability, Component component, AnalyzerIdentity analyzerIdentity,
                                  String alternateIdentifier, String referenceUrl) {
-        if (!contains(vulnerability, component)) {
-            component.addVulnerability(vulnerability);
-            component = persist(component);
-            persist(new FindingAttribution(component, vulnerability, analyzerIdentity, alternateIdentifier, referenceUrl));
+        // Analyzers may run concurrently, each with its own QueryManager, and report the same finding.
+        // Findings of a component are thus written while holding a lock, and existing findings are looked up
+        // in the database rather than in the (possibly stale) vulnerabilities of the given component.
+        final Lock lock = FINDING_LOCKS.get(component.getId());
+        lock.lock();
+        try {
+            final Component persistentComponent = runInTransaction(() -> {
+                final Component result = pm.getObjectById(Component.class, component.getId());
+                final Vulnerability persistentVulnerability = pm.getObjectById(Vulnerability.class, vulnerability.getId());
+                final Query<Component> query = pm.newQuery(Component.class, "id == :id && vulnerabilities.contains(:vulnerability)");
+                query.setParameters(component.getId(), persistentVulnerability);
+                query.setResult("count(this)");
+                if (query.executeResultUnique(Long.class) > 0) {
+                    return null;
+                }
+                result.addVulnerability(persistentVulnerability);
+                pm.makePersistent(new FindingAttribution(result, persistentVulnerability, analyzerIdentity, alternateIdentifier, referenceUrl));
+                return result;
+            });
+            if (persistentComponent != null) {
+                MetricsDirtyTracker.getInstance().markDirty(persistentComponent);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -228,6 +323,7 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             pm.currentTransaction().begin();
             component.removeVulnerability(vulnerability);
             pm.currentTransaction().commit();
+            MetricsDirtyTracker.getInstance().markDirty(component);
         }
         final FindingAttribution fa = getFindingAttribution(vulnerability, component);
         if (fa != null) {
@@ -301,9 +397,11 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         } else {
             result = execute(query);
         }
-        for (final Vulnerability vulnerability: result.getList(Vulnerability.class)) {
+        final List<Vulnerability> vulnerabilities = result.getList(Vulnerability.class);
+        final VulnerabilityAliasIndex aliasIndex = getVulnerabilityAliasIndex(vulnerabilities);
+        for (final Vulnerability vulnerability: vulnerabilities) {
             vulnerability.setAffectedProjectCount(this.getProjects(vulnerability).size());
-            vulnerability.setAliases(getVulnerabilityAliases(vulnerability));
+            vulnerability.setAliases(aliasIndex.getAliases(vulnerability));
         }
         return result;
     }
@@ -324,22 +422,24 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      */
     public PaginatedResult getVulnerabilities(Component component, boolean includeSuppressed) {
         PaginatedResult result;
-        final String componentFilter = (includeSuppressed) ? "components.contains(:component)" : "components.contains(:component)" + generateExcludeSuppressed(component.getProject(), component);
+        final Map<String, Object> params = new HashMap<>();
+        final String componentFilter = generateComponentFilter(component, includeSuppressed, params);
         final Query<Vulnerability> query = pm.newQuery(Vulnerability.class);
         if (orderBy == null) {
             query.setOrdering("id asc");
         }
         if (filter != null) {
             query.setFilter(componentFilter + " && vulnId.toLowerCase().matches(:vulnId)");
-            final String filterString = ".*" + filter.toLowerCase() + ".*";
-            result = execute(query, component, filterString);
+            params.put("vulnId", ".*" + filter.toLowerCase() + ".*");
         } else {
             query.setFilter(componentFilter);
-            result = execute(query, component);
         }
-        for (final Vulnerability vulnerability: result.getList(Vulnerability.class)) {
+        result = execute(query, params);
+        final List<Vulnerability> vulnerabilities = result.getList(Vulnerability.class);
+        final VulnerabilityAliasIndex aliasIndex = getVulnerabilityAliasIndex(vulnerabilities);
+        for (final Vulnerability vulnerability: vulnerabilities) {
             //vulnerability.setAffectedProjectCount(this.getProjects(vulnerability).size());
-            vulnerability.setAliases(getVulnerabilityAliases(vulnerability));
+            vulnerability.setAliases(aliasIndex.getAliases(vulnerability));
         }
         return result;
     }
@@ -360,14 +460,15 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      * @param component the Component to retrieve vulnerabilities of
      * @return a List of Vulnerability objects
      */
-    @SuppressWarnings("unchecked")
     public List<Vulnerability> getAllVulnerabilities(Component component, boolean includeSuppressed) {
-        final String filter = includeSuppressed ? "components.contains(:component)" : "components.contains(:component)" + generateExcludeSuppressed(component.getProject(), component);
-        final Query<Vulnerability> query = pm.newQuery(Vulnerability.class, filter);
-        final List<Vulnerability> vulnerabilities = (List<Vulnerability>)query.execute(component);
+        final Map<String, Object> params = new HashMap<>();
+        final Query<Vulnerability> query = pm.newQuery(Vulnerability.class, generateComponentFilter(component, includeSuppressed, params));
+        query.setNamedParameters(params);
+        final List<Vulnerability> vulnerabilities = query.executeList();
+        final VulnerabilityAliasIndex aliasIndex = getVulnerabilityAliasIndex(vulnerabilities);
         for (final Vulnerability vulnerability: vulnerabilities) {
             //vulnerability.setAffectedProjectCount(this.getProjects(vulnerability).size());
-            vulnerability.setAliases(getVulnerabilityAliases(vulnerability));
+            vulnerability.setAliases(aliasIndex.getAliases(vulnerability));
         }
         return vulnerabilities;
     }
@@ -418,52 +519,155 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
      * This method is unique and used by third-party integrations
      * such as ThreadFix for the retrieval of vulnerabilities from
      * a specific project along with the affected component(s).
+     * <p>
+     * Each Vulnerability is detached and holds the affected Component as its only component.
+     * A Vulnerability affecting multiple components is thus returned once per component.
+     * Regardless of the size of the project, a constant number of queries (per batch of
+     * {@value #MAX_QUERY_PARAMETERS} components or vulnerabilities) is executed.
      * @param project the Project to retrieve vulnerabilities of
      * @return a List of Vulnerability objects
      */
     public List<Vulnerability> getVulnerabilities(Project project, boolean includeSuppressed) {
-        final List<Vulnerability> vulnerabilities = new ArrayList<>();
-        final List<Component> components = getAllComponents(project);
-        for (final Component component: components) {
-            final Collection<Vulnerability> componentVulns = pm.detachCopyAll(
-                    getAllVulnerabilities(component, includeSuppressed)
-            );
-            for (final Vulnerability componentVuln: componentVulns) {
-                componentVuln.setComponents(Collections.singletonList(pm.detachCopy(component)));
-                componentVuln.setAliases(new ArrayList<>(pm.detachCopyAll(getVulnerabilityAliases(componentVuln))));
+        // Suppressed findings are excluded via an anti-join on the project's analyses.
+        final String sql = includeSuppressed ? PROJECT_FINDINGS_QUERY : PROJECT_FINDINGS_QUERY_EXCLUDE_SUPPRESSED;
+        final Query<Object[]> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, sql);
+        if (includeSuppressed) {
+            query.setParameters(project.getId());
+        } else {
+            query.setParameters(true, project.getId());
+        }
+        final List<long[]> findings = new ArrayList<>();
+        final Set<Long> componentIds = new LinkedHashSet<>();
+        final Set<Long> vulnerabilityIds = new LinkedHashSet<>();
+        for (final Object[] row : query.executeList()) {
+            final long componentId = ((Number) row[0]).longValue();
+            final long vulnerabilityId = ((Number) row[1]).longValue();
+            findings.add(new long[]{componentId, vulnerabilityId});
+            componentIds.add(componentId);
+            vulnerabilityIds.add(vulnerabilityId);
+        }
+        if (findings.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final Map<Long, Component> detachedComponents = new HashMap<>();
+        for (final Component component : pm.detachCopyAll(getObjectsById(Component.class, componentIds))) {
+            detachedComponents.put(component.getId(), component);
+        }
+        final List<Vulnerability> vulnerabilities = getObjectsById(Vulnerability.class, vulnerabilityIds);
+        final Map<Long, Vulnerability> persistentVulns = new HashMap<>();
+        for (final Vulnerability vulnerability : vulnerabilities) {
+            persistentVulns.put(vulnerability.getId(), vulnerability);
+        }
+        final Map<Long, Vulnerability> detachedVulns = new HashMap<>();
+        for (final Vulnerability vulnerability : pm.detachCopyAll(vulnerabilities)) {
+            detachedVulns.put(vulnerability.getId(), vulnerability);
+        }
+        final VulnerabilityAliasIndex aliasIndex = getVulnerabilityAliasIndex(vulnerabilities);
+
+        final List<Vulnerability> result = new ArrayList<>(findings.size());
+        for (final long[] finding : findings) {
+            final Component component = detachedComponents.get(finding[0]);
+            // Every finding requires its own copy, as the affected component differs
+            Vulnerability vulnerability = detachedVulns.remove(finding[1]);
+            if (vulnerability == null) {
+                vulnerability = pm.detachCopy(persistentVulns.get(finding[1]));
             }
-            vulnerabilities.addAll(componentVulns);
+            vulnerability.setComponents(Collections.singletonList(component));
+            vulnerability.setAliases(new ArrayList<>(pm.detachCopyAll(aliasIndex.getAliases(vulnerability))));
+            result.add(vulnerability);
         }
-        return vulnerabilities;
+        return result;
     }
 
     /**
-     * Generates partial JDOQL statement excluding suppressed vulnerabilities for this project/component
-     * and for globally suppressed vulnerabilities against the specified component.
-     * @param component the component to query on
-     * @param project the project to query on
-     * @return a partial where clause
+     * Returns the vulnerabilities of multiple components at once.
+     * <p>
+     * This is equivalent to calling {@link #getAllVulnerabilities(Component, boolean)} for each component,
+     * except that the aliases of the vulnerabilities are not populated. Regardless of the number of components,
+     * a constant number of queries (per batch of {@value #MAX_QUERY_PARAMETERS} components or vulnerabilities)
+     * is executed.
+     * @param components the components to retrieve vulnerabilities of
+     * @param includeSuppressed whether to include suppressed vulnerabilities
+     * @return the vulnerabilities, keyed by the ID of the component they affect
+     * @since 4.10.0
      */
-    @SuppressWarnings("unchecked")
-    private String generateExcludeSuppressed(Project project, Component component) {
-        // Retrieve a list of all suppressed vulnerabilities
-        final Query<Analysis> analysisQuery = pm.newQuery(Analysis.class, "project == :project && component == :component && suppressed == true");
-        final List<Analysis> analysisList = (List<Analysis>)analysisQuery.execute(project, component);
-        // Construct exclude clause based on above results
-        String excludeClause = analysisList.stream().map(analysis -> "id != " + analysis.getVulnerability().getId() + " && ").collect(Collectors.joining());
-        if (StringUtils.trimToNull(excludeClause) != null) {
-            excludeClause = " && (" + excludeClause.substring(0, excludeClause.lastIndexOf(" && ")) + ")";
+    public Map<Long, List<Vulnerability>> getAllVulnerabilities(final Collection<Component> components, final boolean includeSuppressed) {
+        final Map<Long, List<Long>> vulnIdsByComponentId = new HashMap<>();
+        final Set<Long> vulnerabilityIds = new LinkedHashSet<>();
+        final List<Long> componentIds = components.stream().map(Component::getId).distinct().toList();
+        for (final List<Long> componentIdsBatch : Lists.partition(componentIds, MAX_QUERY_PARAMETERS)) {
+            final String placeholders = String.join(", ", Collections.nCopies(componentIdsBatch.size(), "?"));
+            final List<Object> params = new ArrayList<>(componentIdsBatch.size() + 1);
+            final String sql;
+            if (includeSuppressed) {
+                sql = FINDINGS_QUERY + "WHERE \"COMPONENT\".\"ID\" IN (" + placeholders + ")";
+            } else {
+                sql = FINDINGS_QUERY + FINDINGS_QUERY_SUPPRESSED_ANALYSIS_JOIN +
+                        "WHERE \"COMPONENT\".\"ID\" IN (" + placeholders + ") AND \"ANALYSIS\".\"ID\" IS NULL";
+                params.add(true);
+            }
+            params.addAll(componentIdsBatch);
+            final Query<Object[]> query = pm.newQuery(JDOQuery.SQL_QUERY_LANGUAGE, sql);
+            query.setParameters(params.toArray());
+            for (final Object[] row : query.executeList()) {
+                final long vulnerabilityId = ((Number) row[1]).longValue();
+                vulnIdsByComponentId.computeIfAbsent(((Number) row[0]).longValue(), ignored -> new ArrayList<>()).add(vulnerabilityId);
+                vulnerabilityIds.add(vulnerabilityId);
+            }
+        }
+
+        final Map<Long, Vulnerability> vulnerabilities = new HashMap<>();
+        for (final Vulnerability vulnerability : getObjectsById(Vulnerability.class, vulnerabilityIds)) {
+            vulnerabilities.put(vulnerability.getId(), vulnerability);
+        }
+        final Map<Long, List<Vulnerability>> vulnerabilitiesByComponentId = new HashMap<>();
+        for (final Long componentId : componentIds) {
+            final List<Vulnerability> componentVulns = new ArrayList<>();
+            for (final Long vulnerabilityId : vulnIdsByComponentId.getOrDefault(componentId, Collections.emptyList())) {
+                // Vulnerabilities may have been deleted in the meantime
+                if (vulnerabilities.containsKey(vulnerabilityId)) {
+                    componentVulns.add(vulnerabilities.get(vulnerabilityId));
+                }
+            }
+            vulnerabilitiesByComponentId.put(componentId, componentVulns);
         }
-        return excludeClause;
+        return vulnerabilitiesByComponentId;
+    }
+
+    private <T> List<T> getObjectsById(final Class<T> clazz, final Collection<Long> ids) {
+        final List<T> objects = new ArrayList<>(ids.size());
+        for (final List<Long> idsBatch : Lists.partition(List.copyOf(ids), MAX_QUERY_PARAMETERS)) {
+            final Query<T> query = pm.newQuery(clazz);
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(idsBatch);
+            objects.addAll(query.executeList());
+        }
+        return objects;
     }
 
     /**
-     * Generates partial JDOQL statement excluding suppressed vulnerabilities for this project.
-     * @param project the project to query on
-     * @return a partial where clause
+     * Generates the JDOQL filter for the vulnerabilities of a component. Unless suppressed vulnerabilities
+     * are included, vulnerabilities suppressed for the project/component are excluded by their IDs.
+     * @param component the component to query on
+     * @param includeSuppressed whether to include suppressed vulnerabilities
+     * @param params the named parameters of the query, populated by this method
+     * @return the filter
      */
-    private String generateExcludeSuppressed(Project project) {
-        return generateExcludeSuppressed(project, null);
+    private String generateComponentFilter(final Component component, final boolean includeSuppressed, final Map<String, Object> params) {
+        params.put("component", component);
+        if (includeSuppressed) {
+            return "components.contains(:component)";
+        }
+        final Query<Analysis> analysisQuery = pm.newQuery(Analysis.class, "project == :project && component == :component && suppressed == true");
+        analysisQuery.setParameters(component.getProject(), component);
+        analysisQuery.setResult("vulnerability.id");
+        final List<Long> suppressedIds = analysisQuery.executeResultList(Long.class);
+        if (suppressedIds.isEmpty()) {
+            return "components.contains(:component)";
+        }
+        params.put("suppressedIds", suppressedIds);
+        return "components.contains(:component) && !:suppressedIds.contains(id)";
     }
 
     /**
@@ -493,125 +697,167 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         return projects;
     }
 
-    public synchronized VulnerabilityAlias synchronizeVulnerabilityAlias(final VulnerabilityAlias alias) {
-        return runInTransaction(() -> {
-            // Query existing aliases that match AT LEAST ONE identifier of the given alias.
-            //
-            // For each data source, we want to know the existing aliases where the respective identifier either:
-            //   1. matches, or
-            //   2. is not set (is null)
-            //
-            // Given the existing alias:
-            //   {cveId: "CVE-123", ghsaId: "GHSA-123"}
-            // The logic allows us to merge it with this incoming alias:
-            //   {cveId: "CVE-123", sonatypeId: "OSSINDEX-123"}
-            // Forming the final result of:
-            //   {cveId: "CVE-123", ghsaId: "GHSA-123", sonatypeId: "OSSINDEX-123"}
-            // Because CVE-123 aliases GHSA-123, and CVE-123 aliases OSSINDEX-123, we can infer that GHSA-123 aliases OSSINDEX-123.
-            //
-            // If the given alias has both a CVE and a GHSA ID, the final query will look like this:
-            //   (cveId == :cveId || cveId == null) && (ghsaId == :ghsaId || ghsaId == null)
-            //      && (cveId != null || ghsaId != null)
-            //
-            // Note that this logic only works for "true" aliases, not for "related" vulnerabilities.
-            // Some data sources will provide advisories, which combine multiple vulnerabilities into one,
-            // but still advertise them as aliases. See https://github.com/google/osv.dev/issues/888 for example.
-            var filter = "";
-            var mustMatchAnyFilter = "";
-            final var params = new HashMap<String, Object>();
-            if (alias.getCveId() != null) {
-                filter += "(cveId == :cveId || cveId == null)";
-                mustMatchAnyFilter += "cveId != null";
-                params.put("cveId", alias.getCveId());
-            }
-            if (alias.getSonatypeId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
-                }
-                filter += "(sonatypeId == :sonatypeId || sonatypeId == null)";
-                mustMatchAnyFilter += "sonatypeId != null";
-                params.put("sonatypeId", alias.getSonatypeId());
-            }
-            if (alias.getGhsaId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
+    public VulnerabilityAlias synchronizeVulnerabilityAlias(final VulnerabilityAlias alias) {
+        return synchronizeVulnerabilityAliases(List.of(alias)).get(0);
+    }
+
+    /**
+     * Synchronize a batch of {@link VulnerabilityAlias}es with the aliases that already exist.
+     * <p>
+     * An alias is merged with an existing alias when they share AT LEAST ONE identifier, and do not
+     * have conflicting identifiers for any data source. For example, given the existing alias:
+     *   {cveId: "CVE-123", ghsaId: "GHSA-123"}
+     * The incoming alias:
+     *   {cveId: "CVE-123", sonatypeId: "OSSINDEX-123"}
+     * Is merged to:
+     *   {cveId: "CVE-123", ghsaId: "GHSA-123", sonatypeId: "OSSINDEX-123"}
+     * Because CVE-123 aliases GHSA-123, and CVE-123 aliases OSSINDEX-123, we can infer that GHSA-123 aliases OSSINDEX-123.
+     * When multiple aliases qualify, the alias with the most matching identifiers is chosen.
+     * <p>
+     * Note that this logic only works for "true" aliases, not for "related" vulnerabilities.
+     * Some data sources will provide advisories, which combine multiple vulnerabilities into one,
+     * but still advertise them as aliases. See https://github.com/google/osv.dev/issues/888 for example.
+     * <p>
+     * All existing aliases sharing an identifier with the batch are fetched with a single query. Aliases are
+     * then merged in memory, one after another in the given order, with groups of aliases being indexed by
+     * their identifiers. The result is applied in a single transaction. Concurrent callers are only
+     * serialized when their batches share identifiers, or match existing aliases sharing identifiers.
+     *
+     * @param aliases The {@link VulnerabilityAlias}es to synchronize
+     * @return The synchronized {@link VulnerabilityAlias} for each of the given aliases, in the same order
+     * @since 4.10.0
+     */
+    public List<VulnerabilityAlias> synchronizeVulnerabilityAliases(final Collection<VulnerabilityAlias> aliases) {
+        final var identifiers = new LinkedHashSet<String>();
+        for (final VulnerabilityAlias alias : aliases) {
+            identifiers.addAll(VulnerabilityAliasIdentifier.getKeys(alias));
+        }
+        if (identifiers.isEmpty()) {
+            return new ArrayList<>(aliases);
+        }
+
+        // Merging updates existing aliases, which may have been matched through identifiers of other
+        // batches. Locks must thus cover the identifiers of all matched aliases as well. Should a match
+        // reveal identifiers that are not locked yet, locks are re-acquired for them, and existing aliases re-read.
+        final var lockedIdentifiers = new LinkedHashSet<>(identifiers);
+        while (true) {
+            final var unlockedIdentifiers = new LinkedHashSet<String>();
+            final List<VulnerabilityAlias> result = withAliasLocks(lockedIdentifiers, () -> runInTransaction(() -> {
+                // Make sure that existing aliases are read from the database, rather than from the
+                // cache of this PersistenceManager, which does not reflect merges of concurrent batches.
+                pm.evictAll(false, VulnerabilityAlias.class);
+                final List<VulnerabilityAlias> existingAliases = getAliasesSharingIdentifiers(aliases);
+                for (final VulnerabilityAlias existing : existingAliases) {
+                    for (final String identifier : VulnerabilityAliasIdentifier.getKeys(existing)) {
+                        if (!lockedIdentifiers.contains(identifier)) {
+                            unlockedIdentifiers.add(identifier);
+                        }
+                    }
                 }
-                filter += "(ghsaId == :ghsaId || ghsaId == null)";
-                mustMatchAnyFilter += "ghsaId != null";
-                params.put("ghsaId", alias.getGhsaId());
-            }
-            if (alias.getOsvId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
+                if (!unlockedIdentifiers.isEmpty()) {
+                    return null;
                 }
-                filter += "(osvId == :osvId || osvId == null)";
-                mustMatchAnyFilter += "osvId != null";
-                params.put("osvId", alias.getOsvId());
-            }
-            if (alias.getSnykId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
+
+                final var mergedAliases = new ArrayList<VulnerabilityAlias>(aliases.size());
+                final var newAliases = new ArrayList<VulnerabilityAlias>();
+                final Map<String, List<VulnerabilityAlias>> aliasesByIdentifier = new HashMap<>();
+                existingAliases.forEach(existing -> indexAlias(aliasesByIdentifier, existing));
+                for (final VulnerabilityAlias alias : aliases) {
+                    final VulnerabilityAlias bestMatch = findBestMatchingAlias(aliasesByIdentifier, alias);
+                    if (bestMatch != null) {
+                        bestMatch.copyFieldsFrom(alias);
+                        indexAlias(aliasesByIdentifier, bestMatch);
+                        mergedAliases.add(bestMatch);
+                    } else {
+                        // No matches at all; Create new alias.
+                        indexAlias(aliasesByIdentifier, alias);
+                        newAliases.add(alias);
+                        mergedAliases.add(alias);
+                    }
                 }
-                filter += "(snykId == :snykId || snykId == null)";
-                mustMatchAnyFilter += "snykId != null";
-                params.put("snykId", alias.getSnykId());
+                pm.makePersistentAll(newAliases);
+                return mergedAliases;
+            }));
+            if (result != null) {
+                return result;
             }
-            if (alias.getGsdId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
-                }
-                filter += "(gsdId == :gsdId || gsdId == null)";
-                mustMatchAnyFilter += "gsdId != null";
-                params.put("gsdId", alias.getGsdId());
+            lockedIdentifiers.addAll(unlockedIdentifiers);
+        }
+    }
+
+    private static <T> T withAliasLocks(final Collection<String> identifiers, final Supplier<T> supplier) {
+        // Locks are acquired in a consistent order by Striped#bulkGet, which prevents deadlocks
+        // between concurrent batches with overlapping identifiers.
+        final Iterable<Lock> locks = ALIAS_LOCKS.bulkGet(identifiers);
+        final var acquiredLocks = new ArrayList<Lock>();
+        try {
+            for (final Lock lock : locks) {
+                lock.lock();
+                acquiredLocks.add(lock);
             }
-            if (alias.getVulnDbId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
-                }
-                filter += "(vulnDbId == :vulnDbId || vulnDbId == null)";
-                mustMatchAnyFilter += "vulnDbId != null";
-                params.put("vulnDbId", alias.getVulnDbId());
+            return supplier.get();
+        } finally {
+            acquiredLocks.forEach(Lock::unlock);
+        }
+    }
+
+    private List<VulnerabilityAlias> getAliasesSharingIdentifiers(final Collection<VulnerabilityAlias> aliases) {
+        final var filterParts = new ArrayList<String>();
+        final var params = new HashMap<String, Object>();
+        for (final VulnerabilityAliasIdentifier identifier : VulnerabilityAliasIdentifier.values()) {
+            final Set<String> values = aliases.stream()
+                    .map(identifier::getValue)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            if (!values.isEmpty()) {
+                filterParts.add(":" + identifier.getFieldName() + "s.contains(" + identifier.getFieldName() + ")");
+                params.put(identifier.getFieldName() + "s", values);
             }
-            if (alias.getInternalId() != null) {
-                if (filter.length() > 0) {
-                    filter += " && ";
-                    mustMatchAnyFilter += " || ";
+        }
+        final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class);
+        query.setFilter(String.join(" || ", filterParts));
+        query.setNamedParameters(params);
+        return query.executeList();
+    }
+
+    private static VulnerabilityAlias findBestMatchingAlias(final Map<String, List<VulnerabilityAlias>> aliasesByIdentifier,
+                                                            final VulnerabilityAlias alias) {
+        VulnerabilityAlias bestMatch = null;
+        int bestMatchCount = 0;
+        final Set<VulnerabilityAlias> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final String identifier : VulnerabilityAliasIdentifier.getKeys(alias)) {
+            for (final VulnerabilityAlias candidate : aliasesByIdentifier.getOrDefault(identifier, Collections.emptyList())) {
+                if (candidates.add(candidate) && !hasConflictingIdentifiers(candidate, alias)) {
+                    final int matchCount = alias.computeMatches(candidate);
+                    if (bestMatch == null || matchCount > bestMatchCount) {
+                        bestMatch = candidate;
+                        bestMatchCount = matchCount;
+                    }
                 }
-                filter += "(internalId == :internalId || internalId == null)";
-                mustMatchAnyFilter += "internalId != null";
-                params.put("internalId", alias.getInternalId());
-            }
-            filter += " && (" + mustMatchAnyFilter + ")";
-            final Query<VulnerabilityAlias> query = pm.newQuery(VulnerabilityAlias.class);
-            query.setFilter(filter);
-            query.setNamedParameters(params);
-            final List<VulnerabilityAlias> candidates = query.executeList();
-            if (candidates.isEmpty()) {
-                // No matches at all; Create new alias.
-                return pm.makePersistent(alias);
             }
+        }
+        return bestMatch;
+    }
 
-            final VulnerabilityAlias bestMatch;
-            if (candidates.size() > 1) {
-                // In case there are multiple candidates, find candidate with most matching identifiers.
-                bestMatch = candidates.stream()
-                        .max(Comparator.comparingInt(alias::computeMatches))
-                        .get(); // Safe because we checked candidates for emptiness before.
-            } else {
-                bestMatch = candidates.get(0);
+    private static void indexAlias(final Map<String, List<VulnerabilityAlias>> aliasesByIdentifier, final VulnerabilityAlias alias) {
+        for (final String identifier : VulnerabilityAliasIdentifier.getKeys(alias)) {
+            final List<VulnerabilityAlias> indexed = aliasesByIdentifier.computeIfAbsent(identifier, ignored -> new ArrayList<>());
+            if (indexed.stream().noneMatch(candidate -> candidate == alias)) {
+                indexed.add(alias);
             }
-
-            bestMatch.copyFieldsFrom(alias);
-            return bestMatch;
-        });
+        }
     }
 
+    private static boolean hasConflictingIdentifiers(final VulnerabilityAlias existing, final VulnerabilityAlias alias) {
+        for (final VulnerabilityAliasIdentifier identifier : VulnerabilityAliasIdentifier.values()) {
+            final String existingValue = identifier.getValue(existing);
+            final String value = identifier.getValue(alias);
+            if (existingValue != null && value != null && !existingValue.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     @SuppressWarnings("unchecked")
     public List<VulnerabilityAlias> getVulnerabilityAliases(Vulnerability vulnerability) {
@@ -634,6 +880,18 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
             return (List<VulnerabilityAlias>)query.execute(vulnerability.getVulnId());
     }
 
+    /**
+     * Load the {@link VulnerabilityAliasIndex} of the given {@link Vulnerability}s,
+     * fetching the {@link VulnerabilityAlias}es of all of them at once.
+     *
+     * @param vulnerabilities The {@link Vulnerability}s to load aliases for
+     * @return The {@link VulnerabilityAliasIndex}
+     * @since 4.10.0
+     */
+    public VulnerabilityAliasIndex getVulnerabilityAliasIndex(final Collection<Vulnerability> vulnerabilities) {
+        return VulnerabilityAliasIndex.load(pm, vulnerabilities);
+    }
+
     /**
      * Reconcile {@link VulnerableSoftware} for a given {@link Vulnerability}.
      * <p>
@@ -818,4 +1076,50 @@ final class VulnerabilityQueryManager extends QueryManager implements IQueryMana
         query.deletePersistentAll();
     }
 
+    /**
+     * Update the EPSS score and percentile of NVD {@link Vulnerability}s, using a single batched
+     * {@code UPDATE} statement keyed by CVE ID.
+     * <p>
+     * Updates bypass the persistence layer, so {@link Vulnerability}s are evicted from the L2 cache afterwards.
+     *
+     * @param scores the {@link EpssScore}s to apply
+     * @return the number of {@link Vulnerability}s updated
+     * @since 4.10.0
+     */
+    public int updateEpssScores(final List<EpssScore> scores) {
+        if (scores.isEmpty()) {
+            return 0;
+        }
+        final int updated = runInTransaction(() -> {
+            final JDOConnection jdoConnection = pm.getDataStoreConnection();
+            try {
+                final var connection = (Connection) jdoConnection.getNativeConnection();
+                try (final PreparedStatement ps = connection.prepareStatement("""
+                        UPDATE "VULNERABILITY" SET "EPSSSCORE" = ?, "EPSSPERCENTILE" = ?
+                        WHERE "SOURCE" = ? AND "VULNID" = ?
+                        """)) {
+                    for (final EpssScore score : scores) {
+                        ps.setBigDecimal(1, score.score());
+                        ps.setBigDecimal(2, score.percentile());
+                        ps.setString(3, Vulnerability.Source.NVD.name());
+                        ps.setString(4, score.cveId());
+                        ps.addBatch();
+                    }
+                    int updateCount = 0;
+                    for (final int count : ps.executeBatch()) {
+                        // Drivers may report Statement.SUCCESS_NO_INFO instead of the actual count.
+                        updateCount += Math.max(count, 0);
+                    }
+                    return updateCount;
+                }
+            } catch (SQLException e) {
+                throw new JDODataStoreException("Failed to update EPSS scores", e);
+            } finally {
+                jdoConnection.close();
+            }
+        });
+        pm.getPersistenceManagerFactory().getDataStoreCache().evictAll(false, Vulnerability.class);
+        return updated;
+    }
+
 }
@@ -35,13 +35,38 @@ import java.util.stream.Collectors;
 public abstract class AbstractPolicyEvaluator implements PolicyEvaluator {
 
     protected QueryManager qm;
+    private PolicyEvaluationContext context;
 
     public void setQueryManager(final QueryManager qm) {
+        if (this.qm != qm) {
+            this.context = null;
+        }
         this.qm = qm;
     }
 
+    @Override
+    public void setContext(final PolicyEvaluationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Returns the {@link PolicyEvaluationContext} of the current evaluation run.
+     * <p>
+     * When no context has been set, e.g. because the evaluator is used outside of the {@link PolicyEngine},
+     * a context without any prefetched data is created for the current {@link QueryManager}.
+     *
+     * @return the {@link PolicyEvaluationContext}
+     */
+    protected PolicyEvaluationContext getContext() {
+        return context != null ? context : new PolicyEvaluationContext(qm);
+    }
+
     protected List<PolicyCondition> extractSupportedConditions(final Policy policy) {
-        if (policy == null || policy.getPolicyConditions() == null) {
+        if (policy == null) {
+            return new ArrayList<>();
+        } else if (context != null && policy.getId() != 0) {
+            return context.getConditions(policy, supportedSubject());
+        } else if (policy.getPolicyConditions() == null) {
             return new ArrayList<>();
         } else {
             return policy.getPolicyConditions().stream()
@@ -23,8 +23,6 @@ import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.model.RepositoryMetaComponent;
-import org.dependencytrack.model.RepositoryType;
-import org.dependencytrack.persistence.QueryManager;
 
 import java.time.LocalDate;
 import java.time.Period;
@@ -68,17 +66,7 @@ public class ComponentAgePolicyEvaluator extends AbstractPolicyEvaluator {
             return violations;
         }
 
-        final RepositoryType repoType = RepositoryType.resolve(component.getPurl());
-        if (RepositoryType.UNSUPPORTED == repoType) {
-            return violations;
-        }
-
-        final RepositoryMetaComponent metaComponent;
-        try (final var qm = new QueryManager()) {
-            metaComponent = qm.getRepositoryMetaComponent(repoType,
-                    component.getPurl().getNamespace(), component.getPurl().getName());
-            qm.getPersistenceManager().detachCopy(metaComponent);
-        }
+        final RepositoryMetaComponent metaComponent = getContext().getRepositoryMetaComponent(component);
         if (metaComponent == null || metaComponent.getPublished() == null) {
             return violations;
         }
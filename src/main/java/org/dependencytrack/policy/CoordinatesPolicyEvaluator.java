@@ -19,6 +19,8 @@
 package org.dependencytrack.policy;
 
 import alpine.common.logging.Logger;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Coordinates;
@@ -29,7 +31,6 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -43,6 +44,13 @@ public class CoordinatesPolicyEvaluator extends AbstractPolicyEvaluator {
     private static final Logger LOGGER = Logger.getLogger(CoordinatesPolicyEvaluator.class);
     private static final Pattern VERSION_OPERATOR_PATTERN = Pattern.compile("^(?<operator>[<>]=?|[!=]=)\\s*");
 
+    // Maximum number of distinct condition values to keep parsed coordinates for
+    private static final int CACHE_MAX_SIZE = 10_000;
+
+    private static final Cache<String, Coordinates> COORDINATES_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_MAX_SIZE)
+            .build();
+
     /**
      * {@inheritDoc}
      */
@@ -76,9 +84,9 @@ public class CoordinatesPolicyEvaluator extends AbstractPolicyEvaluator {
         final String p = StringUtils.trimToNull(part);
         if (p != null) {
             if (PolicyCondition.Operator.MATCHES == operator) {
-                return org.dependencytrack.policy.Matcher.matches(p, conditionValue);
+                return Matcher.matches(p, conditionValue);
             } else if (PolicyCondition.Operator.NO_MATCH == operator) {
-                return !org.dependencytrack.policy.Matcher.matches(p, conditionValue);
+                return !Matcher.matches(p, conditionValue);
             }
         }
         return false;
@@ -90,7 +98,7 @@ public class CoordinatesPolicyEvaluator extends AbstractPolicyEvaluator {
         } else if (conditionValue == null ^ part == null) {
             return false;
         }
-        final Matcher versionOperatorMatcher = VERSION_OPERATOR_PATTERN.matcher(conditionValue);
+        final var versionOperatorMatcher = VERSION_OPERATOR_PATTERN.matcher(conditionValue);
         if (!versionOperatorMatcher.find()) {
             // No operator provided, use default matching algorithm
             return matches(conditionOperator, conditionValue, part);
@@ -153,12 +161,40 @@ public class CoordinatesPolicyEvaluator extends AbstractPolicyEvaluator {
         if (condition.getValue() == null) {
             return new Coordinates(null, null, null);
         }
-        final JSONObject def = new JSONObject(condition.getValue());
-        return new Coordinates(
-                def.optString("group", null),
-                def.optString("name", null),
-                def.optString("version", null)
-        );
+        Coordinates coordinates = COORDINATES_CACHE.getIfPresent(condition.getValue());
+        if (coordinates == null) {
+            final JSONObject def = new JSONObject(condition.getValue());
+            coordinates = new Coordinates(
+                    def.optString("group", null),
+                    def.optString("name", null),
+                    def.optString("version", null)
+            );
+            COORDINATES_CACHE.put(condition.getValue(), coordinates);
+        }
+        return coordinates;
+    }
+
+    /**
+     * Discard the parsed coordinates of a condition value, as well as the compiled patterns
+     * of its group, name and version, e.g. because the condition has been modified.
+     * <p>
+     * This only frees memory. Entries are keyed by the condition value itself,
+     * so stale entries can never be served for a modified condition.
+     *
+     * @param conditionValue the value of a {@link PolicyCondition.Subject#COORDINATES} condition
+     * @since 4.10.0
+     */
+    public static void invalidate(final String conditionValue) {
+        if (conditionValue == null) {
+            return;
+        }
+        final Coordinates coordinates = COORDINATES_CACHE.getIfPresent(conditionValue);
+        if (coordinates != null) {
+            Matcher.invalidate(coordinates.getGroup());
+            Matcher.invalidate(coordinates.getName());
+            Matcher.invalidate(coordinates.getVersion());
+            COORDINATES_CACHE.invalidate(conditionValue);
+        }
     }
 
 }
@@ -57,7 +57,7 @@ public class CwePolicyEvaluator extends AbstractPolicyEvaluator {
             return violations;
         }
 
-        for (final Vulnerability vulnerability : qm.getAllVulnerabilities(component, false)) {
+        for (final Vulnerability vulnerability : getContext().getVulnerabilities(component)) {
             for (final PolicyCondition condition: policyConditions) {
                 LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
                 if (matches(condition.getOperator(), vulnerability.getCwes(), condition.getValue())) {
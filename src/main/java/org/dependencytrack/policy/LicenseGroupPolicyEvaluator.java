@@ -28,7 +28,6 @@ import org.dependencytrack.parser.spdx.expression.SpdxExpressionParser;
 import org.dependencytrack.parser.spdx.expression.model.SpdxExpression;
 import org.dependencytrack.parser.spdx.expression.model.SpdxExpressionOperation;
 import org.dependencytrack.parser.spdx.expression.model.SpdxOperator;
-import org.dependencytrack.persistence.QueryManager;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -100,17 +99,18 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
         }
 
         final SpdxExpression expression = getSpdxExpressionFromComponent(component);
+        final PolicyEvaluationContext context = getContext();
 
         for (final PolicyCondition condition : policyConditions) {
             LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition ("
                     + condition.getUuid() + ")");
-            final LicenseGroup lg = qm.getObjectByUuid(LicenseGroup.class, condition.getValue());
+            final LicenseGroup lg = context.getLicenseGroupByUuid(condition.getValue());
             if (lg == null) {
                 LOGGER.warn("The license group %s does not exist; Skipping evaluation of condition %s of policy %s"
                         .formatted(condition.getValue(), condition.getUuid(), policy.getName()));
                 continue;
             }
-            evaluateCondition(qm, condition, expression, lg, component, violations);
+            evaluateCondition(context, condition, expression, lg, component, violations);
         }
         return violations;
     }
@@ -154,8 +154,8 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
      * Evaluate policy condition for spdx expression and license group, and add violations to the
      * violations array.
      * 
-     * @param qm
-     *            The query manager to use for database queries
+     * @param context
+     *            The context to use for license and license group lookups
      * @param condition
      *            The condition to evaluate
      * @param expression
@@ -169,7 +169,7 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
      *            the list of violations, will be appended to in case of new violation
      * @return true if violations have been added to the list
      */
-    static boolean evaluateCondition(final QueryManager qm, final PolicyCondition condition,
+    static boolean evaluateCondition(final PolicyEvaluationContext context, final PolicyCondition condition,
             final SpdxExpression expression, final LicenseGroup lg, final Component component,
             final List<PolicyConditionViolation> violations) {
 
@@ -177,7 +177,7 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
         if (condition.getOperator() == PolicyCondition.Operator.IS) {
             // report a violation if a license IS in the license group;
             // so check whether the expression is compatible given the provided list of forbidden licenses
-            if (!canLicenseBeUsed(qm, expression, LicenseGroupType.ForbiddenLicenseList, lg)) {
+            if (!canLicenseBeUsed(context, expression, LicenseGroupType.ForbiddenLicenseList, lg)) {
                 violations.add(new PolicyConditionViolation(condition, component));
                 hasViolations = true;
             }
@@ -185,7 +185,7 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
         if (condition.getOperator() == PolicyCondition.Operator.IS_NOT) {
             // report a violation if a license IS_NOT in the license group;
             // so check whether the expression is compatible given the provided list of allowed licenses
-            if (!canLicenseBeUsed(qm, expression, LicenseGroupType.AllowedLicenseList, lg)) {
+            if (!canLicenseBeUsed(context, expression, LicenseGroupType.AllowedLicenseList, lg)) {
                 violations.add(new PolicyConditionViolation(condition, component));
                 hasViolations = true;
             }
@@ -200,8 +200,8 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
      * SPDX operator, this function calls itself recursively to determine compatibility of the
      * expression's parts.
      * 
-     * @param qm
-     *            The query manager to use for database queries
+     * @param context
+     *            The context to use for license and license group lookups
      * @param expr
      *            the spdx expression to be checked for compatibility with the license group
      * @param groupType
@@ -212,10 +212,10 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
      * @return whether the license expression is compatible with the license group under the
      *         condition
      */
-    protected static boolean canLicenseBeUsed(final QueryManager qm, final SpdxExpression expr,
+    protected static boolean canLicenseBeUsed(final PolicyEvaluationContext context, final SpdxExpression expr,
             final LicenseGroupType groupType, final LicenseGroup lg) {
         if (expr.getSpdxLicenseId() != null) {
-            License license = qm.getLicense(expr.getSpdxLicenseId());
+            License license = context.getLicense(expr.getSpdxLicenseId());
             if (groupType == LicenseGroupType.ForbiddenLicenseList) {
                 if (license == null && lg != null) {
                     // unresolved license, and forbidden list given. This is ok
@@ -230,7 +230,7 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
                     return false;
                 }
                 // license resolved and negative list given
-                return !doesLicenseGroupContainLicense(qm, lg, license);
+                return !doesLicenseGroupContainLicense(context, lg, license);
             } else if (groupType == LicenseGroupType.AllowedLicenseList) {
                 if (license == null && lg != null) {
                     // unresolved license, but list of allowed licenses given
@@ -245,7 +245,7 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
                     return true;
                 }
                 // license resolved and positive list given
-                return doesLicenseGroupContainLicense(qm, lg, license);
+                return doesLicenseGroupContainLicense(context, lg, license);
             } else {
                 // should be unreachable
                 return true;
@@ -255,23 +255,23 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
         SpdxExpressionOperation operation = expr.getOperation();
         if (operation.getOperator() == SpdxOperator.OR) {
             // any of the OR operator's arguments needs to be compatible
-            return operation.getArguments().stream().anyMatch(arg -> canLicenseBeUsed(qm, arg, groupType, lg));
+            return operation.getArguments().stream().anyMatch(arg -> canLicenseBeUsed(context, arg, groupType, lg));
         }
         if (operation.getOperator() == SpdxOperator.AND) {
             // all of the AND operator's arguments needs to be compatible
-            return operation.getArguments().stream().allMatch(arg -> canLicenseBeUsed(qm, arg, groupType, lg));
+            return operation.getArguments().stream().allMatch(arg -> canLicenseBeUsed(context, arg, groupType, lg));
         }
         if (operation.getOperator() == SpdxOperator.WITH) {
             // Transform `GPL-2.0 WITH classpath-exception` to `GPL-2.0-with-classpath-exception`
             String licenseName = operation.getArguments().get(0) + "-with-" + operation.getArguments().get(1);
             SpdxExpression license = new SpdxExpression(licenseName);
-            return canLicenseBeUsed(qm, license, groupType, lg);
+            return canLicenseBeUsed(context, license, groupType, lg);
         }
         if (operation.getOperator() == SpdxOperator.PLUS) {
             // Transform `GPL-2.0+` to `GPL-2.0 OR GPL-2.0-or-later`
             SpdxExpression arg = operation.getArguments().get(0);
-            return canLicenseBeUsed(qm, arg, groupType, lg)
-                    || canLicenseBeUsed(qm, new SpdxExpression(expr.getSpdxLicenseId() + "-or-later"), groupType, lg);
+            return canLicenseBeUsed(context, arg, groupType, lg)
+                    || canLicenseBeUsed(context, new SpdxExpression(expr.getSpdxLicenseId() + "-or-later"), groupType, lg);
         }
         // should be unreachable
         return true;
@@ -281,21 +281,21 @@ public class LicenseGroupPolicyEvaluator extends AbstractPolicyEvaluator {
      * Check if the license is contained in the license group. If this is a temporary license group,
      * don't ask the database but verify directly via the license's uuid
      * 
-     * @param qm
-     *            The query manager to use for database queries
+     * @param context
+     *            The context to use for license and license group lookups
      * @param lg
      *            The license group to check
      * @param license
      *            The license to check
      * @return Whether the license group contains the license
      */
-    protected static boolean doesLicenseGroupContainLicense(final QueryManager qm, final LicenseGroup lg,
+    protected static boolean doesLicenseGroupContainLicense(final PolicyEvaluationContext context, final LicenseGroup lg,
             final License license) {
         if (lg instanceof TemporaryLicenseGroup) {
-            // this group was created just for this license check. Check its contents directly without the QueryManager.
+            // this group was created just for this license check. Check its contents directly without the context.
             return lg.getLicenses().stream().anyMatch(groupLicense -> groupLicense.getUuid().equals(license.getUuid()));
         } else {
-            return qm.doesLicenseGroupContainLicense(lg, license);
+            return context.doesLicenseGroupContainLicense(lg, license);
         }
     }
 
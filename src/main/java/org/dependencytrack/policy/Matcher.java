@@ -18,6 +18,11 @@
  */
 package org.dependencytrack.policy;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.regex.Pattern;
+
 /**
  * Reusable methods that PolicyEvaluator implementations can extend.
  *
@@ -26,6 +31,13 @@ package org.dependencytrack.policy;
  */
 public final class Matcher {
 
+    // Maximum number of distinct condition strings to keep compiled patterns for
+    private static final int CACHE_MAX_SIZE = 10_000;
+
+    private static final Cache<String, Pattern> PATTERN_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_MAX_SIZE)
+            .build();
+
     private Matcher() {
       // Utility-class should not be instantiated
     }
@@ -33,6 +45,9 @@ public final class Matcher {
     /**
      * Check if the given value matches with the conditionString. If the
      * conditionString is not a regular expression, turn it into one.
+     * <p>
+     * The resulting {@link Pattern} is compiled once per conditionString, and reused
+     * for subsequent evaluations.
      * 
      * @param value           The value to match against
      * @param conditionString The condition that should match -- may or may not be a
@@ -46,6 +61,33 @@ public final class Matcher {
         if (value == null ^ conditionString == null) {
             return false;
         }
+        Pattern pattern = PATTERN_CACHE.getIfPresent(conditionString);
+        if (pattern == null) {
+            // Compile and put explicitly instead of using Cache#get(key, callable), so that
+            // invalid expressions surface as PatternSyntaxException rather than being wrapped.
+            pattern = compile(conditionString);
+            PATTERN_CACHE.put(conditionString, pattern);
+        }
+        return pattern.matcher(value).matches();
+    }
+
+    /**
+     * Discard the compiled {@link Pattern} of a conditionString, e.g. because the
+     * condition it belongs to has been modified.
+     * <p>
+     * This only frees memory. Patterns are keyed by the conditionString itself,
+     * so a stale {@link Pattern} can never be served for a modified condition.
+     *
+     * @param conditionString The condition to discard the compiled {@link Pattern} of
+     * @since 4.10.0
+     */
+    public static void invalidate(final String conditionString) {
+        if (conditionString != null) {
+            PATTERN_CACHE.invalidate(conditionString);
+        }
+    }
+
+    private static Pattern compile(String conditionString) {
         conditionString = conditionString.replace("*", ".*").replace("..*", ".*");
         if (!conditionString.startsWith("^") && !conditionString.startsWith(".*")) {
             conditionString = ".*" + conditionString;
@@ -53,6 +95,6 @@ public final class Matcher {
         if (!conditionString.endsWith("$") && !conditionString.endsWith(".*")) {
             conditionString += ".*";
         }
-        return value.matches(conditionString);
+        return Pattern.compile(conditionString);
     }
 }
@@ -25,11 +25,16 @@ import org.dependencytrack.model.PolicyCondition;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Tag;
+import org.dependencytrack.persistence.PolicyViolationReconciliation;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.NotificationUtil;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A lightweight policy engine that evaluates a list of components against
@@ -61,57 +66,98 @@ public class PolicyEngine {
         evaluators.add(new VersionDistancePolicyEvaluator());
     }
 
+    /**
+     * Evaluates components against all applicable policies, and reconciles their policy violations.
+     * @param components the components to evaluate
+     * @return the persistent policy violations identified for the components
+     */
     public List<PolicyViolation> evaluate(final List<Component> components) {
         LOGGER.info("Evaluating " + components.size() + " component(s) against applicable policies");
         List<PolicyViolation> violations = new ArrayList<>();
         try (final QueryManager qm = new QueryManager()) {
             final List<Policy> policies = qm.getAllPolicies();
+
+            // Resolve the applicable policies once per project, rather than once per component.
+            final List<Component> componentsFromDb = new ArrayList<>(components.size());
+            final Map<Long, List<Policy>> applicablePoliciesByProjectId = new HashMap<>();
             for (final Component component : components) {
                 final Component componentFromDb = qm.getObjectById(Component.class, component.getId());
-                violations.addAll(this.evaluate(qm, policies, componentFromDb));
+                componentsFromDb.add(componentFromDb);
+                applicablePoliciesByProjectId.computeIfAbsent(componentFromDb.getProject().getId(),
+                        projectId -> getApplicablePolicies(policies, componentFromDb.getProject()));
+            }
+
+            // Fetch the data required by the evaluators for all components at once,
+            // so that the evaluation of individual components can happen in memory.
+            final Set<Policy> applicablePolicies = new LinkedHashSet<>();
+            applicablePoliciesByProjectId.values().forEach(applicablePolicies::addAll);
+            final PolicyEvaluationContext context = PolicyEvaluationContext.compile(qm, applicablePolicies, componentsFromDb);
+            try {
+                for (final PolicyEvaluator evaluator : evaluators) {
+                    evaluator.setQueryManager(qm);
+                    evaluator.setContext(context);
+                }
+
+                for (final Component component : componentsFromDb) {
+                    violations.addAll(this.evaluate(qm, context, applicablePoliciesByProjectId.get(component.getProject().getId()), component));
+                }
+            } finally {
+                // The prefetched data is only valid for this run; don't let evaluators serve it to later ones.
+                for (final PolicyEvaluator evaluator : evaluators) {
+                    evaluator.setContext(null);
+                }
             }
         }
         LOGGER.info("Policy analysis complete");
         return violations;
     }
 
-    private List<PolicyViolation> evaluate(final QueryManager qm, final List<Policy> policies, final Component component) {
+    private List<Policy> getApplicablePolicies(final List<Policy> policies, final Project project) {
+        final List<Policy> applicablePolicies = new ArrayList<>();
+        for (final Policy policy : policies) {
+            if (policy.isGlobal() || isPolicyAssignedToProject(policy, project)
+                    || isPolicyAssignedToProjectTag(policy, project)) {
+                applicablePolicies.add(policy);
+            }
+        }
+        return applicablePolicies;
+    }
+
+    private List<PolicyViolation> evaluate(final QueryManager qm, final PolicyEvaluationContext context,
+                                           final List<Policy> policies, final Component component) {
         final List<PolicyViolation> policyViolations = new ArrayList<>();
-        final List<PolicyViolation> existingPolicyViolations = qm.detach(qm.getAllPolicyViolations(component));
         for (final Policy policy : policies) {
-            if (policy.isGlobal() || isPolicyAssignedToProject(policy, component.getProject())
-                    || isPolicyAssignedToProjectTag(policy, component.getProject())) {
-                LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy (" + policy.getUuid() + ")");
-                final List<PolicyConditionViolation> policyConditionViolations = new ArrayList<>();
-                int policyConditionsViolated = 0;
-                for (final PolicyEvaluator evaluator : evaluators) {
-                    evaluator.setQueryManager(qm);
-                    final List<PolicyConditionViolation> policyConditionViolationsFromEvaluator = evaluator.evaluate(policy, component);
-                    if (!policyConditionViolationsFromEvaluator.isEmpty()) {
-                        policyConditionViolations.addAll(policyConditionViolationsFromEvaluator);
-                        policyConditionsViolated += (int) policyConditionViolationsFromEvaluator.stream()
-                                .map(pcv -> pcv.getPolicyCondition().getId())
-                                .sorted()
-                                .distinct()
-                                .count();
-                    }
+            LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy (" + policy.getUuid() + ")");
+            final Set<PolicyCondition.Subject> subjects = context.getConditionsBySubject(policy).keySet();
+            final List<PolicyConditionViolation> policyConditionViolations = new ArrayList<>();
+            int policyConditionsViolated = 0;
+            for (final PolicyEvaluator evaluator : evaluators) {
+                if (!subjects.contains(evaluator.supportedSubject())) {
+                    continue;
                 }
-                if (Policy.Operator.ANY == policy.getOperator()) {
-                    if (policyConditionsViolated > 0) {
-                        policyViolations.addAll(createPolicyViolations(qm, policyConditionViolations));
-                    }
-                } else if (Policy.Operator.ALL == policy.getOperator() && policyConditionsViolated == policy.getPolicyConditions().size()) {
-                    policyViolations.addAll(createPolicyViolations(qm, policyConditionViolations));
+                final List<PolicyConditionViolation> policyConditionViolationsFromEvaluator = evaluator.evaluate(policy, component);
+                if (!policyConditionViolationsFromEvaluator.isEmpty()) {
+                    policyConditionViolations.addAll(policyConditionViolationsFromEvaluator);
+                    policyConditionsViolated += (int) policyConditionViolationsFromEvaluator.stream()
+                            .map(pcv -> pcv.getPolicyCondition().getId())
+                            .sorted()
+                            .distinct()
+                            .count();
                 }
             }
-        }
-        qm.reconcilePolicyViolations(component, policyViolations);
-        for (final PolicyViolation pv : qm.getAllPolicyViolations(component)) {
-            if (existingPolicyViolations.stream().noneMatch(existingViolation -> existingViolation.getId() == pv.getId())) {
-                NotificationUtil.analyzeNotificationCriteria(qm, pv);
+            if (Policy.Operator.ANY == policy.getOperator()) {
+                if (policyConditionsViolated > 0) {
+                    policyViolations.addAll(createPolicyViolations(policyConditionViolations));
+                }
+            } else if (Policy.Operator.ALL == policy.getOperator() && policyConditionsViolated == policy.getPolicyConditions().size()) {
+                policyViolations.addAll(createPolicyViolations(policyConditionViolations));
             }
         }
-        return policyViolations;
+        final PolicyViolationReconciliation reconciliation = qm.reconcilePolicyViolations(component, policyViolations);
+        for (final PolicyViolation pv : reconciliation.newViolations()) {
+            NotificationUtil.analyzeNotificationCriteria(qm, pv);
+        }
+        return reconciliation.violations();
     }
 
     private boolean isPolicyAssignedToProject(Policy policy, Project project) {
@@ -121,7 +167,7 @@ public class PolicyEngine {
         return (policy.getProjects().stream().anyMatch(p -> p.getId() == project.getId()) || (Boolean.TRUE.equals(policy.isIncludeChildren()) && isPolicyAssignedToParentProject(policy, project)));
     }
 
-    private List<PolicyViolation> createPolicyViolations(final QueryManager qm, final List<PolicyConditionViolation> pcvList) {
+    private List<PolicyViolation> createPolicyViolations(final List<PolicyConditionViolation> pcvList) {
         final List<PolicyViolation> policyViolations = new ArrayList<>();
         for (PolicyConditionViolation pcv : pcvList) {
             final PolicyViolation pv = new PolicyViolation();
@@ -129,7 +175,7 @@ public class PolicyEngine {
             pv.setPolicyCondition(pcv.getPolicyCondition());
             pv.setType(determineViolationType(pcv.getPolicyCondition().getSubject()));
             pv.setTimestamp(new Date());
-            policyViolations.add(qm.addPolicyViolationIfNotExist(pv));
+            policyViolations.add(pv);
         }
         return policyViolations;
     }
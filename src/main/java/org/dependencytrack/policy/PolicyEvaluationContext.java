@@ -0,0 +1,200 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.License;
+import org.dependencytrack.model.LicenseGroup;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.RepositoryMetaComponent;
+import org.dependencytrack.model.RepositoryType;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.persistence.QueryManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Data required by {@link PolicyEvaluator}s during a single policy evaluation run.
+ * <p>
+ * The {@link PolicyEngine} compiles a context once per run: conditions are grouped by subject once per policy,
+ * and vulnerabilities and repository metadata are fetched in bulk for all components being evaluated, so that
+ * evaluators can operate in memory. Data that has not been fetched in bulk, such as licenses and license groups,
+ * is looked up once and then reused for the remainder of the run.
+ * <p>
+ * A context must not be shared across threads, or retained beyond the lifetime of its {@link QueryManager}.
+ *
+ * @since 4.10.0
+ */
+public final class PolicyEvaluationContext {
+
+    private static final Set<PolicyCondition.Subject> VULNERABILITY_SUBJECTS = EnumSet.of(
+            PolicyCondition.Subject.CWE, PolicyCondition.Subject.SEVERITY, PolicyCondition.Subject.VULNERABILITY_ID);
+    private static final Set<PolicyCondition.Subject> REPOSITORY_META_SUBJECTS = EnumSet.of(
+            PolicyCondition.Subject.AGE, PolicyCondition.Subject.VERSION_DISTANCE);
+
+    private final QueryManager qm;
+    private final Map<Long, Map<PolicyCondition.Subject, List<PolicyCondition>>> conditionsByPolicyId = new HashMap<>();
+    private final Map<String, Optional<License>> licensesByLicenseId = new HashMap<>();
+    private final Map<String, Optional<License>> licensesByUuid = new HashMap<>();
+    private final Map<String, Optional<LicenseGroup>> licenseGroupsByUuid = new HashMap<>();
+    private final Map<Long, Set<Long>> licenseIdsByLicenseGroupId = new HashMap<>();
+    private Map<Long, List<Vulnerability>> vulnerabilitiesByComponentId;
+    private Map<Long, RepositoryMetaComponent> repositoryMetaComponentsByComponentId;
+
+    /**
+     * Creates a context that does not hold any prefetched data.
+     *
+     * @param qm The {@link QueryManager} to use
+     */
+    PolicyEvaluationContext(final QueryManager qm) {
+        this.qm = qm;
+    }
+
+    /**
+     * Creates a context for the evaluation of {@code components} against {@code policies}.
+     * <p>
+     * Vulnerabilities and repository metadata are only fetched if any of the policies has
+     * conditions that require them.
+     *
+     * @param qm         The {@link QueryManager} to use
+     * @param policies   The {@link Policy}s to evaluate
+     * @param components The {@link Component}s to evaluate
+     * @return The compiled {@link PolicyEvaluationContext}
+     */
+    static PolicyEvaluationContext compile(final QueryManager qm, final Collection<Policy> policies, final Collection<Component> components) {
+        final var context = new PolicyEvaluationContext(qm);
+        final Set<PolicyCondition.Subject> subjects = EnumSet.noneOf(PolicyCondition.Subject.class);
+        for (final Policy policy : policies) {
+            subjects.addAll(context.getConditionsBySubject(policy).keySet());
+        }
+        if (subjects.stream().anyMatch(VULNERABILITY_SUBJECTS::contains)) {
+            context.vulnerabilitiesByComponentId = qm.getAllVulnerabilities(components, false);
+        }
+        if (subjects.stream().anyMatch(REPOSITORY_META_SUBJECTS::contains)) {
+            context.repositoryMetaComponentsByComponentId = qm.getRepositoryMetaComponents(components);
+        }
+        return context;
+    }
+
+    /**
+     * @param policy The {@link Policy} to get the conditions of
+     * @return The conditions of {@code policy}, grouped by their subject
+     */
+    Map<PolicyCondition.Subject, List<PolicyCondition>> getConditionsBySubject(final Policy policy) {
+        return conditionsByPolicyId.computeIfAbsent(policy.getId(), ignored -> {
+            final Map<PolicyCondition.Subject, List<PolicyCondition>> conditionsBySubject = new EnumMap<>(PolicyCondition.Subject.class);
+            if (policy.getPolicyConditions() != null) {
+                for (final PolicyCondition condition : policy.getPolicyConditions()) {
+                    if (condition.getSubject() != null) {
+                        conditionsBySubject.computeIfAbsent(condition.getSubject(), subject -> new ArrayList<>()).add(condition);
+                    }
+                }
+            }
+            return conditionsBySubject;
+        });
+    }
+
+    /**
+     * @param policy  The {@link Policy} to get the conditions of
+     * @param subject The {@link PolicyCondition.Subject} to get the conditions for
+     * @return The conditions of {@code policy} with the given {@code subject}
+     */
+    List<PolicyCondition> getConditions(final Policy policy, final PolicyCondition.Subject subject) {
+        return new ArrayList<>(getConditionsBySubject(policy).getOrDefault(subject, List.of()));
+    }
+
+    /**
+     * @param component The {@link Component} to get the vulnerabilities of
+     * @return The non-suppressed {@link Vulnerability}s of {@code component}
+     */
+    List<Vulnerability> getVulnerabilities(final Component component) {
+        if (vulnerabilitiesByComponentId != null && vulnerabilitiesByComponentId.containsKey(component.getId())) {
+            return vulnerabilitiesByComponentId.get(component.getId());
+        }
+        return qm.getAllVulnerabilities(component, false);
+    }
+
+    /**
+     * @param component The {@link Component} to get the {@link RepositoryMetaComponent} of
+     * @return The {@link RepositoryMetaComponent} of {@code component}, or {@code null} if none exists
+     */
+    RepositoryMetaComponent getRepositoryMetaComponent(final Component component) {
+        if (component.getPurl() == null) {
+            return null;
+        }
+        if (repositoryMetaComponentsByComponentId != null) {
+            return repositoryMetaComponentsByComponentId.get(component.getId());
+        }
+        final RepositoryType repoType = RepositoryType.resolve(component.getPurl());
+        if (RepositoryType.UNSUPPORTED == repoType) {
+            return null;
+        }
+        return qm.getRepositoryMetaComponent(repoType, component.getPurl().getNamespace(), component.getPurl().getName());
+    }
+
+    /**
+     * @param licenseId The SPDX ID of the {@link License}
+     * @return The {@link License}, or {@code null} if it does not exist
+     */
+    License getLicense(final String licenseId) {
+        return licensesByLicenseId.computeIfAbsent(licenseId, ignored -> Optional.ofNullable(qm.getLicense(licenseId))).orElse(null);
+    }
+
+    /**
+     * @param uuid The UUID of the {@link License}, as referenced by {@link PolicyCondition.Subject#LICENSE} conditions
+     * @return The {@link License}, or {@code null} if it does not exist
+     */
+    License getLicenseByUuid(final String uuid) {
+        return licensesByUuid.computeIfAbsent(uuid, ignored -> Optional.ofNullable(qm.getObjectByUuid(License.class, uuid))).orElse(null);
+    }
+
+    /**
+     * @param uuid The UUID of the {@link LicenseGroup}, as referenced by {@link PolicyCondition.Subject#LICENSE_GROUP} conditions
+     * @return The {@link LicenseGroup}, or {@code null} if it does not exist
+     */
+    LicenseGroup getLicenseGroupByUuid(final String uuid) {
+        return licenseGroupsByUuid.computeIfAbsent(uuid, ignored -> Optional.ofNullable(qm.getObjectByUuid(LicenseGroup.class, uuid))).orElse(null);
+    }
+
+    /**
+     * @param licenseGroup The {@link LicenseGroup} to check
+     * @param license      The {@link License} to check
+     * @return {@code true} if {@code licenseGroup} contains {@code license}, otherwise {@code false}
+     */
+    boolean doesLicenseGroupContainLicense(final LicenseGroup licenseGroup, final License license) {
+        return licenseIdsByLicenseGroupId.computeIfAbsent(licenseGroup.getId(), ignored -> {
+            final Set<Long> licenseIds = new HashSet<>();
+            if (licenseGroup.getLicenses() != null) {
+                licenseGroup.getLicenses().forEach(groupLicense -> licenseIds.add(groupLicense.getId()));
+            }
+            return licenseIds;
+        }).contains(license.getId());
+    }
+
+}
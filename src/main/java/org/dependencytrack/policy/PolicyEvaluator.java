@@ -36,6 +36,14 @@ public interface PolicyEvaluator {
 
     void setQueryManager(final QueryManager qm);
 
+    /**
+     * Sets the {@link PolicyEvaluationContext} of the current evaluation run.
+     * @param context the context to use, or {@code null} once the run has ended
+     * @since 4.10.0
+     */
+    default void setContext(final PolicyEvaluationContext context) {
+    }
+
     /**
      * Returns the Subject for which a PolicyEvaluator is capable of analyzing.
      * @return A PolicyCondition Subject
@@ -52,7 +52,7 @@ public class VulnerabilityIdPolicyEvaluator extends AbstractPolicyEvaluator {
         if (policyConditions.isEmpty()) {
             return violations;
         }
-        for (final Vulnerability vulnerability : qm.getAllVulnerabilities(component, false)) {
+        for (final Vulnerability vulnerability : getContext().getVulnerabilities(component)) {
             for (final PolicyCondition condition: policyConditions) {
                 LOGGER.debug("Evaluating component (" + component.getUuid() + ") against policy condition (" + condition.getUuid() + ")");
                 if (PolicyCondition.Operator.IS == condition.getOperator()) {
@@ -22,6 +22,8 @@ import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.server.auth.PermissionRequired;
 import alpine.server.resources.AlpineResource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -45,8 +47,12 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Providers;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -63,6 +69,10 @@ import java.util.stream.Collectors;
 public class FindingResource extends AlpineResource {
 
     private static final Logger LOGGER = Logger.getLogger(FindingResource.class);
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
+    @Context
+    private Providers providers;
 
     @GET
     @Path("/project/{uuid}")
@@ -92,9 +102,9 @@ public class FindingResource extends AlpineResource {
                     final List<Finding> findings = qm.getFindings(project, suppressed);
                     if (source != null) {
                         final List<Finding> filteredList = findings.stream().filter(finding -> source.name().equals(finding.getVulnerability().get("source"))).collect(Collectors.toList());
-                        return Response.ok(filteredList).header(TOTAL_COUNT_HEADER, filteredList.size()).build();
+                        return Response.ok(streamFindings(filteredList)).header(TOTAL_COUNT_HEADER, filteredList.size()).build();
                     } else {
-                        return Response.ok(findings).header(TOTAL_COUNT_HEADER, findings.size()).build();
+                        return Response.ok(streamFindings(findings)).header(TOTAL_COUNT_HEADER, findings.size()).build();
                     }
                 } else {
                     return Response.status(Response.Status.FORBIDDEN).entity("Access to the specified project is forbidden").build();
@@ -105,6 +115,33 @@ public class FindingResource extends AlpineResource {
         }
     }
 
+    /**
+     * Serializes findings one by one as they are written to the response, rather than
+     * rendering the entire list in memory first.
+     * @param findings the findings to serialize
+     * @return a {@link StreamingOutput} writing the findings as JSON array
+     */
+    private StreamingOutput streamFindings(final List<Finding> findings) {
+        final ObjectMapper objectMapper = getObjectMapper();
+        return output -> {
+            try (final JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                for (final Finding finding : findings) {
+                    objectMapper.writeValue(generator, finding);
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    private ObjectMapper getObjectMapper() {
+        final ContextResolver<ObjectMapper> resolver = providers != null
+                ? providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE)
+                : null;
+        final ObjectMapper objectMapper = resolver != null ? resolver.getContext(Finding.class) : null;
+        return objectMapper != null ? objectMapper : DEFAULT_OBJECT_MAPPER;
+    }
+
     @GET
     @Path("/project/{uuid}/export")
     @Produces(MediaType.APPLICATION_JSON)
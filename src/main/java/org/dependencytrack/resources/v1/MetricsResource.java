@@ -32,6 +32,7 @@ import org.dependencytrack.auth.Permissions;
 import org.dependencytrack.event.ComponentMetricsUpdateEvent;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.PortfolioMetrics;
@@ -159,6 +160,7 @@ public class MetricsResource extends AlpineResource {
     })
     @PermissionRequired(Permissions.Constants.PORTFOLIO_MANAGEMENT)
     public Response RefreshPortfolioMetrics() {
+        MetricsDirtyTracker.getInstance().markAllDirty();
         Event.dispatch(new PortfolioMetricsUpdateEvent());
         return Response.ok().build();
     }
@@ -38,6 +38,7 @@ import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.resources.v1.vo.AffectedComponent;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 import org.dependencytrack.util.VulnerabilityUtil;
 import us.springett.cvss.Cvss;
 import us.springett.cvss.Score;
@@ -302,6 +303,7 @@ public class VulnerabilityResource extends AlpineResource {
                 qm.updateAffectedVersionAttributions(vulnerability, vsList, Vulnerability.Source.INTERNAL);
                 vulnerability.setVulnerableSoftware(vsList);
                 qm.persist(vulnerability);
+                VulnerableSoftwareIndex.getInstance().invalidate(vulnerability);
                 return Response.status(Response.Status.CREATED).entity(vulnerability).build();
             } else {
                 return Response.status(Response.Status.CONFLICT).entity("A vulnerability with the specified vulnId already exists.").build();
@@ -376,6 +378,7 @@ public class VulnerabilityResource extends AlpineResource {
                 vsList = qm.reconcileVulnerableSoftware(vulnerability, vsListOld, vsList, Vulnerability.Source.INTERNAL);
                 vulnerability.setVulnerableSoftware(vsList);
                 qm.persist(vulnerability);
+                VulnerableSoftwareIndex.getInstance().invalidate(vulnerability);
                 return Response.ok(vulnerability).build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND).entity("The vulnerability could not be found.").build();
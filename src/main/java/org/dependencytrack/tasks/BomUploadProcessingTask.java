@@ -18,21 +18,30 @@
  */
 package org.dependencytrack.tasks;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
 import alpine.notification.Notification;
 import alpine.notification.NotificationLevel;
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.binder.BaseUnits;
 import org.cyclonedx.BomParserFactory;
 import org.cyclonedx.parsers.Parser;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.BomUploadEvent;
+import org.dependencytrack.event.IndexEvent;
 import org.dependencytrack.event.NewVulnerableDependencyAnalysisEvent;
 import org.dependencytrack.event.PolicyEvaluationEvent;
 import org.dependencytrack.event.RepositoryMetaEvent;
 import org.dependencytrack.event.VulnerabilityAnalysisEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.Bom;
 import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ServiceComponent;
@@ -45,11 +54,16 @@ import org.dependencytrack.parser.cyclonedx.util.ModelConverter;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.CompressUtil;
 import org.dependencytrack.util.InternalComponentIdentificationUtil;
+
+import javax.jdo.PersistenceManager;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Subscriber task that performs processing of bill-of-material (bom)
@@ -62,6 +76,19 @@ public class BomUploadProcessingTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(BomUploadProcessingTask.class);
 
+    private final boolean batchModeEnabled;
+    private final int batchSize;
+
+    public BomUploadProcessingTask() {
+        this(Config.getInstance().getPropertyAsBoolean(ConfigKey.BOM_UPLOAD_BATCH_MODE_ENABLED),
+                Config.getInstance().getPropertyAsInt(ConfigKey.BOM_UPLOAD_BATCH_SIZE));
+    }
+
+    BomUploadProcessingTask(final boolean batchModeEnabled, final int batchSize) {
+        this.batchModeEnabled = batchModeEnabled;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -118,7 +145,11 @@ public class BomUploadProcessingTask implements Subscriber {
                         }
                         project.setExternalReferences(ModelConverter.convertBomMetadataExternalReferences(cycloneDxBom));
                         serialNumnber = (cycloneDxBom.getSerialNumber() != null) ? cycloneDxBom.getSerialNumber().replaceFirst("urn:uuid:", "") : null;
-                        components = ModelConverter.convertComponents(qm, cycloneDxBom, project);
+                        if (batchModeEnabled) {
+                            components = ModelConverter.convertComponents(qm, cycloneDxBom, project, existingProjectComponents);
+                        } else {
+                            components = ModelConverter.convertComponents(qm, cycloneDxBom, project);
+                        }
                         services = ModelConverter.convertServices(qm, cycloneDxBom, project);
                     } else {
                         LOGGER.warn("A CycloneDX BOM was uploaded but accepting CycloneDX BOMs is disabled. Aborting");
@@ -138,23 +169,33 @@ public class BomUploadProcessingTask implements Subscriber {
                         .subject(new BomConsumedOrProcessed(copyOfProject, Base64.getEncoder().encodeToString(bomBytes), bomFormat, bomSpecVersion)));
                 final Date date = new Date();
                 final Bom bom = qm.createBom(project, date, bomFormat, bomSpecVersion, bomVersion, serialNumnber);
-                for (final Component component: components) {
-                    processComponent(qm, component, flattenedComponents, newComponents);
+                if (batchModeEnabled) {
+                    processComponentsBatched(qm, components, flattenedComponents, newComponents);
+                } else {
+                    for (final Component component: components) {
+                        processComponent(qm, component, flattenedComponents, newComponents);
+                    }
                 }
                 LOGGER.info("Identified " + newComponents.size() + " new components");
                 for (final ServiceComponent service: services) {
                     processService(qm, bom, service, flattenedServices);
                 }
+                List<ComponentDependency> dependencies = null;
                 if (Bom.Format.CYCLONEDX == bomFormat) {
                     LOGGER.info("Processing CycloneDX dependency graph for project: " + event.getProjectUuid());
-                    ModelConverter.generateDependencies(cycloneDxBom, project, components);
+                    dependencies = ModelConverter.generateDependencies(cycloneDxBom, project, components);
                 }
                 LOGGER.debug("Reconciling components for project " + event.getProjectUuid());
                 qm.reconcileComponents(project, existingProjectComponents, flattenedComponents);
+                if (dependencies != null) {
+                    LOGGER.debug("Synchronizing dependency graph for project " + event.getProjectUuid());
+                    qm.synchronizeComponentDependencies(project, dependencies);
+                }
                 LOGGER.debug("Reconciling services for project " + event.getProjectUuid());
                 qm.reconcileServiceComponents(project, existingProjectServices, flattenedServices);
                 LOGGER.debug("Updating last import date for project " + event.getProjectUuid());
                 qm.updateLastBomImport(project, date, bomFormat.getFormatShortName() + " " + bomSpecVersion);
+                MetricsDirtyTracker.getInstance().markDirty(project);
                 // Instead of firing off a new VulnerabilityAnalysisEvent, chain the VulnerabilityAnalysisEvent to
                 // the BomUploadEvent so that synchronous publishing mode (Jenkins) waits until vulnerability
                 // analysis has completed. If not chained, synchronous publishing mode will return immediately upon
@@ -228,6 +269,79 @@ public class BomUploadProcessingTask implements Subscriber {
         }
     }
 
+    /**
+     * Persists the given {@link Component}s, including their children, in transactions of {@link #batchSize}.
+     * <p>
+     * In contrast to {@link #processComponent(QueryManager, Component, List, List)}, components are
+     * not refreshed individually after being persisted. Identification of internal components is
+     * expected to already have happened during conversion.
+     */
+    private void processComponentsBatched(final QueryManager qm, final List<Component> components,
+                                          final List<Component> flattenedComponents,
+                                          final List<Component> newComponents) {
+        final PersistenceManager pm = qm.getPersistenceManager();
+        for (final Component component : components) {
+            flattenComponent(component, flattenedComponents);
+        }
+
+        // Children are persisted by reachability together with their parent, possibly in an
+        // earlier batch than their own. Determine which components are new before persisting any.
+        final Set<Component> componentsToCreate = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Component component : flattenedComponents) {
+            if (component.getUuid() == null) {
+                componentsToCreate.add(component);
+            }
+        }
+
+        final long startTimeNs = System.nanoTime();
+        long peakHeapBytes = usedHeapBytes();
+        for (final List<Component> batch : Lists.partition(flattenedComponents, batchSize)) {
+            final List<Component> detachedBatch = qm.runInTransaction(() -> {
+                pm.makePersistentAll(batch);
+                pm.flush();
+                return List.copyOf(pm.detachCopyAll(batch));
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                final Component detachedComponent = detachedBatch.get(i);
+                if (componentsToCreate.contains(batch.get(i))) {
+                    newComponents.add(detachedComponent);
+                    Event.dispatch(new IndexEvent(IndexEvent.Action.CREATE, detachedComponent));
+                } else {
+                    Event.dispatch(new IndexEvent(IndexEvent.Action.UPDATE, detachedComponent));
+                }
+            }
+            peakHeapBytes = Math.max(peakHeapBytes, usedHeapBytes());
+        }
+
+        final double durationSeconds = (System.nanoTime() - startTimeNs) / 1_000_000_000.0;
+        final double componentsPerSecond = durationSeconds > 0 ? flattenedComponents.size() / durationSeconds : 0;
+        DistributionSummary.builder("bom_upload_processing_components_per_second")
+                .description("Number of components persisted per second during batched BOM processing")
+                .register(Metrics.getRegistry())
+                .record(componentsPerSecond);
+        DistributionSummary.builder("bom_upload_processing_heap_peak")
+                .description("Peak heap usage observed during batched BOM processing")
+                .baseUnit(BaseUnits.BYTES)
+                .register(Metrics.getRegistry())
+                .record(peakHeapBytes);
+        LOGGER.info("Persisted %d components in batches of %d (%.1f components/s, peak heap usage %d MiB)"
+                .formatted(flattenedComponents.size(), batchSize, componentsPerSecond, peakHeapBytes / (1024 * 1024)));
+    }
+
+    private static void flattenComponent(final Component component, final List<Component> flattenedComponents) {
+        flattenedComponents.add(component);
+        if (component.getChildren() != null) {
+            for (final Component child : component.getChildren()) {
+                flattenComponent(child, flattenedComponents);
+            }
+        }
+    }
+
+    private static long usedHeapBytes() {
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
     private void processService(final QueryManager qm, final Bom bom, ServiceComponent service,
                                   final List<ServiceComponent> flattenedServices) {
         service = qm.createServiceComponent(service, false);
@@ -38,11 +38,9 @@ import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.parser.epss.EpssParser;
 import org.dependencytrack.persistence.QueryManager;
-import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.util.zip.GZIPInputStream;
@@ -155,7 +153,7 @@ public class EpssMirrorTask implements LoggableSubscriber {
                         // Sets the last modified date to 0. Upon a successful parse, it will be set back to its original date.
                         file.setLastModified(0);
                         if (file.getName().endsWith(".gz")) {
-                            uncompress(file);
+                            parse(file);
                         }
                     }
                 } else {
@@ -184,48 +182,21 @@ public class EpssMirrorTask implements LoggableSubscriber {
     }
 
     /**
-     * Extracts a GZip file.
-     * @param file the file to extract
+     * Parses a GZip compressed EPSS file, decompressing it on the fly.
+     * @param file the file to parse
      */
-    private void uncompress(final File file) {
-        final byte[] buffer = new byte[1024];
-        GZIPInputStream gzis = null;
-        OutputStream out = null;
-        try {
-            LOGGER.info("Uncompressing " + file.getName());
-            gzis = new GZIPInputStream(Files.newInputStream(file.toPath()));
-            final File uncompressedFile = new File(file.getAbsolutePath().replaceAll(".gz", ""));
-            out = Files.newOutputStream(uncompressedFile.toPath());
-            int len;
-            while ((len = gzis.read(buffer)) > 0) {
-                out.write(buffer, 0, len);
-            }
+    private void parse(final File file) {
+        try (final InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+            LOGGER.info("Parsing " + file.getName());
             final long start = System.currentTimeMillis();
             final EpssParser parser = new EpssParser();
-            parser.parse(uncompressedFile);
+            parser.parse(in);
             file.setLastModified(start);
             final long end = System.currentTimeMillis();
             metricParseTime += end - start;
         } catch (IOException ex) {
             mirroredWithoutErrors = false;
-            LOGGER.error("An error occurred uncompressing EPSS payload", ex);
-        } finally {
-            close(gzis);
-            close(out);
-        }
-    }
-
-    /**
-     * Closes a closable object.
-     * @param object the object to close
-     */
-    private void close(final Closeable object) {
-        if (object != null) {
-            try {
-                object.close();
-            } catch (IOException e) {
-                LOGGER.warn("Error closing stream", e);
-            }
+            LOGGER.error("An error occurred parsing EPSS payload", ex);
         }
     }
 }
@@ -29,6 +29,7 @@ import com.github.packageurl.PackageURL;
 import com.github.packageurl.PackageURLBuilder;
 import io.pebbletemplates.pebble.PebbleEngine;
 import io.pebbletemplates.pebble.template.PebbleTemplate;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -52,11 +53,13 @@ import org.dependencytrack.parser.github.graphql.model.GitHubSecurityAdvisory;
 import org.dependencytrack.parser.github.graphql.model.GitHubVulnerability;
 import org.dependencytrack.parser.github.graphql.model.PageableList;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 import org.json.JSONObject;
 
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -68,6 +71,7 @@ import java.util.Set;
 import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ACCESS_TOKEN;
 import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ALIAS_SYNC_ENABLED;
 import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED;
+import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS;
 
 public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
 
@@ -76,12 +80,18 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
     private static final PebbleTemplate TEMPLATE = ENGINE.getTemplate("templates/github/securityAdvisories.peb");
     private static final String GITHUB_GRAPHQL_URL = "https://api.github.com/graphql";
 
+    private final String graphQlUrl;
     private final boolean isEnabled;
     private final boolean isAliasSyncEnabled;
     private String accessToken;
     private boolean mirroredWithoutErrors = true;
 
     public GitHubAdvisoryMirrorTask() {
+        this(GITHUB_GRAPHQL_URL);
+    }
+
+    GitHubAdvisoryMirrorTask(final String graphQlUrl) {
+        this.graphQlUrl = graphQlUrl;
         try (final QueryManager qm = new QueryManager()) {
             final ConfigProperty enabled = qm.getConfigProperty(VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED.getGroupName(), VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED.getPropertyName());
             this.isEnabled = enabled != null && Boolean.parseBoolean(enabled.getPropertyValue());
@@ -105,7 +115,7 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
                 final long start = System.currentTimeMillis();
                 LOGGER.info("Starting GitHub Advisory mirroring task");
                 try {
-                    retrieveAdvisories(null);
+                    retrieveAdvisories();
                 } catch (IOException ex) {
                     handleRequestException(LOGGER, ex);
                 }
@@ -118,13 +128,16 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
         }
     }
 
-    private String generateQueryTemplate(final String advisoriesEndCursor) {
+    String generateQueryTemplate(final String advisoriesEndCursor, final Instant updatedSince) {
         final Map<String, Object> context = new HashMap<>();
         context.put("paginationAdvisories", 100);
         context.put("paginationVulnerabilities", 10);
         if (advisoriesEndCursor != null) {
             context.put("advisoriesEndCursor", advisoriesEndCursor);
         }
+        if (updatedSince != null) {
+            context.put("updatedSince", updatedSince.toString());
+        }
         try (final Writer writer = new StringWriter()) {
             TEMPLATE.evaluate(writer, context);
             return writer.toString();
@@ -134,9 +147,69 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
         }
     }
 
-    private void retrieveAdvisories(final String advisoriesEndCursor) throws IOException {
-        final String queryTemplate = generateQueryTemplate(advisoriesEndCursor);
-        HttpPost request = new HttpPost(GITHUB_GRAPHQL_URL);
+    /**
+     * Retrieves and synchronizes all advisories that were updated since the last successful mirroring.
+     * <p>
+     * Advisories are ordered by their last update, the timestamp of the most recently updated one
+     * is recorded once all pages have been synchronized without errors.
+     */
+    private void retrieveAdvisories() throws IOException {
+        final Instant updatedSince = getLastModified();
+        if (updatedSince != null) {
+            LOGGER.info("Retrieving advisories updated since " + updatedSince);
+        }
+
+        Instant lastModified = updatedSince;
+        String advisoriesEndCursor = null;
+        boolean hasNextPage = true;
+        while (hasNextPage) {
+            final PageableList pageableList = retrieveAdvisories(advisoriesEndCursor, updatedSince);
+            if (pageableList == null) {
+                break;
+            }
+            updateDatasource(pageableList.getAdvisories());
+            for (final GitHubSecurityAdvisory advisory : pageableList.getAdvisories()) {
+                if (advisory.getUpdatedAt() != null
+                        && (lastModified == null || advisory.getUpdatedAt().toInstant().isAfter(lastModified))) {
+                    lastModified = advisory.getUpdatedAt().toInstant();
+                }
+            }
+            hasNextPage = pageableList.isHasNextPage();
+            advisoriesEndCursor = pageableList.getEndCursor();
+        }
+
+        if (mirroredWithoutErrors) {
+            if (lastModified != null && !lastModified.equals(updatedSince)) {
+                setLastModified(lastModified);
+            }
+            Notification.dispatch(new Notification()
+                    .scope(NotificationScope.SYSTEM)
+                    .group(NotificationGroup.DATASOURCE_MIRRORING)
+                    .title(NotificationConstants.Title.GITHUB_ADVISORY_MIRROR)
+                    .content("Mirroring of GitHub Advisories completed successfully")
+                    .level(NotificationLevel.INFORMATIONAL)
+            );
+        } else {
+            Notification.dispatch(new Notification()
+                    .scope(NotificationScope.SYSTEM)
+                    .group(NotificationGroup.DATASOURCE_MIRRORING)
+                    .title(NotificationConstants.Title.GITHUB_ADVISORY_MIRROR)
+                    .content("An error occurred mirroring the contents of GitHub Advisories. Check log for details.")
+                    .level(NotificationLevel.ERROR)
+            );
+        }
+    }
+
+    /**
+     * Retrieves a single page of advisories.
+     *
+     * @param advisoriesEndCursor the cursor of the previous page, or {@code null} for the first page
+     * @param updatedSince        only retrieve advisories updated since this time, or {@code null} for all advisories
+     * @return the page of advisories, or {@code null} if it could not be retrieved
+     */
+    private PageableList retrieveAdvisories(final String advisoriesEndCursor, final Instant updatedSince) throws IOException {
+        final String queryTemplate = generateQueryTemplate(advisoriesEndCursor, updatedSince);
+        HttpPost request = new HttpPost(graphQlUrl);
         request.addHeader("Authorization", "bearer " + accessToken);
         request.addHeader("content-type", "application/json");
         request.addHeader("accept", "application/json");
@@ -149,33 +222,41 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
                 LOGGER.error("An error was encountered retrieving advisories with HTTP Status : " + response.getStatusLine().getStatusCode() + " " + response.getStatusLine().getReasonPhrase());
                 LOGGER.debug(queryTemplate);
                 mirroredWithoutErrors = false;
-            } else {
-                var parser = new GitHubSecurityAdvisoryParser();
-                String responseString = EntityUtils.toString(response.getEntity());
-                var jsonObject = new JSONObject(responseString);
-                final PageableList pageableList = parser.parse(jsonObject);
-                updateDatasource(pageableList.getAdvisories());
-                if (pageableList.isHasNextPage()) {
-                    retrieveAdvisories(pageableList.getEndCursor());
-                }
+                return null;
             }
+            var parser = new GitHubSecurityAdvisoryParser();
+            String responseString = EntityUtils.toString(response.getEntity());
+            var jsonObject = new JSONObject(responseString);
+            return parser.parse(jsonObject);
+        }
+    }
 
-            if (mirroredWithoutErrors) {
-                Notification.dispatch(new Notification()
-                        .scope(NotificationScope.SYSTEM)
-                        .group(NotificationGroup.DATASOURCE_MIRRORING)
-                        .title(NotificationConstants.Title.GITHUB_ADVISORY_MIRROR)
-                        .content("Mirroring of GitHub Advisories completed successfully")
-                        .level(NotificationLevel.INFORMATIONAL)
-                );
+    private Instant getLastModified() {
+        try (final QueryManager qm = new QueryManager()) {
+            final ConfigProperty lastModified = qm.getConfigProperty(VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getGroupName(), VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyName());
+            if (lastModified == null || StringUtils.isBlank(lastModified.getPropertyValue())) {
+                return null;
+            }
+            try {
+                return Instant.ofEpochSecond(Long.parseLong(lastModified.getPropertyValue().trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid timestamp of last modified GitHub Advisory: " + lastModified.getPropertyValue() + "; Mirroring all advisories");
+                return null;
+            }
+        }
+    }
+
+    private void setLastModified(final Instant lastModified) {
+        final String value = String.valueOf(lastModified.getEpochSecond());
+        try (final QueryManager qm = new QueryManager()) {
+            final ConfigProperty property = qm.getConfigProperty(VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getGroupName(), VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyName());
+            if (property != null) {
+                qm.runInTransaction(() -> property.setPropertyValue(value));
             } else {
-                Notification.dispatch(new Notification()
-                        .scope(NotificationScope.SYSTEM)
-                        .group(NotificationGroup.DATASOURCE_MIRRORING)
-                        .title(NotificationConstants.Title.GITHUB_ADVISORY_MIRROR)
-                        .content("An error occurred mirroring the contents of GitHub Advisories. Check log for details.")
-                        .level(NotificationLevel.ERROR)
-                );
+                qm.createConfigProperty(VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getGroupName(),
+                        VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyName(), value,
+                        VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyType(),
+                        VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getDescription());
             }
         }
     }
@@ -199,18 +280,20 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
                     if (vs != null) {
                         vsList.add(vs);
                     }
-                    if (isAliasSyncEnabled) {
-                        for (Pair<String, String> identifier : advisory.getIdentifiers()) {
-                            if (identifier != null && identifier.getLeft() != null
-                                    && "CVE".equalsIgnoreCase(identifier.getLeft()) && identifier.getLeft().startsWith("CVE")) {
-                                LOGGER.debug("Updating vulnerability alias for " + advisory.getGhsaId());
-                                final VulnerabilityAlias alias = new VulnerabilityAlias();
-                                alias.setGhsaId(advisory.getGhsaId());
-                                alias.setCveId(identifier.getRight());
-                                qm.synchronizeVulnerabilityAlias(alias);
-                            }
+                }
+                if (isAliasSyncEnabled) {
+                    final var aliases = new ArrayList<VulnerabilityAlias>();
+                    for (Pair<String, String> identifier : advisory.getIdentifiers()) {
+                        if (identifier != null && identifier.getLeft() != null
+                                && "CVE".equalsIgnoreCase(identifier.getLeft()) && identifier.getLeft().startsWith("CVE")) {
+                            LOGGER.debug("Updating vulnerability alias for " + advisory.getGhsaId());
+                            final VulnerabilityAlias alias = new VulnerabilityAlias();
+                            alias.setGhsaId(advisory.getGhsaId());
+                            alias.setCveId(identifier.getRight());
+                            aliases.add(alias);
                         }
                     }
+                    qm.synchronizeVulnerabilityAliases(aliases);
                 }
                 LOGGER.debug("Updating vulnerable software for advisory: " + advisory.getGhsaId());
                 qm.persist(vsList);
@@ -218,6 +301,7 @@ public class GitHubAdvisoryMirrorTask implements LoggableSubscriber {
                 vsList = qm.reconcileVulnerableSoftware(synchronizedVulnerability, vsListOld, vsList, Vulnerability.Source.GITHUB);
                 synchronizedVulnerability.setVulnerableSoftware(vsList);
                 qm.persist(synchronizedVulnerability);
+                VulnerableSoftwareIndex.getInstance().invalidate(synchronizedVulnerability);
             }
         }
         Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Vulnerability.class));
@@ -34,6 +34,7 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.common.HttpClientPool;
 import org.dependencytrack.event.EpssMirrorEvent;
 import org.dependencytrack.event.NistMirrorEvent;
@@ -91,6 +92,9 @@ public class NistMirrorTask implements LoggableSubscriber {
     private long metricParseTime;
     private long metricDownloadTime;
 
+    // Shared by all feeds of a mirroring run, so that vulnerable software is only loaded once
+    private final NvdParser nvdParser = new NvdParser();
+
     private static final Logger LOGGER = Logger.getLogger(NistMirrorTask.class);
 
     private boolean mirroredWithoutErrors = true;
@@ -135,14 +139,15 @@ public class NistMirrorTask implements LoggableSubscriber {
             // Download JSON 1.1 year feeds in reverse order
             final String json11BaseUrl = this.nvdFeedsUrl + CVE_JSON_11_BASE_URL.replace("%d", String.valueOf(i));
             final String cve11BaseMetaUrl = this.nvdFeedsUrl + CVE_JSON_11_BASE_META.replace("%d", String.valueOf(i));
-            doDownload(json11BaseUrl, ResourceType.CVE_YEAR_DATA);
+            // Meta files are downloaded first, so that feeds which have not changed can be skipped
             doDownload(cve11BaseMetaUrl, ResourceType.CVE_META);
+            doDownload(json11BaseUrl, ResourceType.CVE_YEAR_DATA);
         }
 
         // Modified feeds must be mirrored last, otherwise we risk more recent data being
         // overwritten by old or stale data: https://github.com/DependencyTrack/dependency-track/pull/1929#issuecomment-1743579226
-        doDownload(this.nvdFeedsUrl + CVE_JSON_11_MODIFIED_URL, ResourceType.CVE_MODIFIED_DATA);
         doDownload(this.nvdFeedsUrl + CVE_JSON_11_MODIFIED_META, ResourceType.CVE_META);
+        doDownload(this.nvdFeedsUrl + CVE_JSON_11_MODIFIED_URL, ResourceType.CVE_MODIFIED_DATA);
 
         if (mirroredWithoutErrors) {
             Notification.dispatch(new Notification()
@@ -220,6 +225,12 @@ public class NistMirrorTask implements LoggableSubscriber {
                     }
                 }
             }
+            final String sha256 = readMetaSha256(filename);
+            if (sha256 != null && file.exists() && sha256.equals(readImportedSha256(file))) {
+                LOGGER.info("Retrieval of " + filename + " not necessary. Its content has not changed since it was last imported.");
+                return;
+            }
+            boolean downloaded = false;
             final long start = System.currentTimeMillis();
             LOGGER.info("Initiating download of " + url.toExternalForm());
             final HttpUriRequest request = new HttpGet(urlString);
@@ -234,6 +245,7 @@ public class NistMirrorTask implements LoggableSubscriber {
                         FileUtils.copyInputStreamToFile(in, temp);
                         Files.copy(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
                         Files.delete(temp.toPath());
+                        downloaded = true;
                         if (ResourceType.CVE_YEAR_DATA == resourceType || ResourceType.CVE_MODIFIED_DATA == resourceType) {
                             // Sets the last modified date to 0. Upon a successful parse, it will be set back to its original date.
                             File timestampFile = new File(outputDir, filename + ".ts");
@@ -267,7 +279,8 @@ public class NistMirrorTask implements LoggableSubscriber {
             }
 
             if (file.getName().endsWith(".gz")) {
-                uncompress(file, resourceType);
+                // The SHA-256 reported by the meta file only describes the feed if it has just been downloaded
+                parse(file, resourceType, downloaded ? sha256 : null);
             }
         } catch (IOException e) {
             mirroredWithoutErrors = false;
@@ -283,32 +296,105 @@ public class NistMirrorTask implements LoggableSubscriber {
     }
 
     /**
-     * Extracts a GZip file.
-     * @param file the file to extract
+     * Parses a GZip compressed feed.
+     * <p>
+     * Unless uncompressed copies of feeds are to be kept in the mirror directory,
+     * the feed is parsed straight from its compressed form.
+     *
+     * @param file the feed to parse
+     * @param resourceType the type of the feed
+     * @param sha256 the SHA-256 hash of the feed as reported by its meta file, or {@code null} if unknown
      */
-    private void uncompress(final File file, final ResourceType resourceType) {
-        final File uncompressedFile = new File(file.getAbsolutePath().replaceAll(".gz", ""));
-        try (final var gzis = new GZIPInputStream(Files.newInputStream(file.toPath()));
-             final var out = Files.newOutputStream(uncompressedFile.toPath())) {
-            LOGGER.info("Uncompressing " + file.getName());
-            IOUtils.copy(gzis, out);
-        } catch (IOException ex) {
-            mirroredWithoutErrors = false;
-            LOGGER.error("An error occurred uncompressing NVD payload", ex);
+    private void parse(final File file, final ResourceType resourceType, final String sha256) {
+        final File feedFile;
+        if (Config.getInstance().getPropertyAsBoolean(ConfigKey.NVD_MIRROR_UNCOMPRESSED_FEEDS_ENABLED)) {
+            feedFile = new File(file.getAbsolutePath().replaceAll(".gz", ""));
+            try (final var gzis = new GZIPInputStream(Files.newInputStream(file.toPath()));
+                 final var out = Files.newOutputStream(feedFile.toPath())) {
+                LOGGER.info("Uncompressing " + file.getName());
+                IOUtils.copy(gzis, out);
+            } catch (IOException ex) {
+                mirroredWithoutErrors = false;
+                LOGGER.error("An error occurred uncompressing NVD payload", ex);
+            }
+        } else {
+            feedFile = file;
         }
 
         final long start = System.currentTimeMillis();
         if (ResourceType.CVE_YEAR_DATA == resourceType || ResourceType.CVE_MODIFIED_DATA == resourceType) {
-            final NvdParser parser = new NvdParser();
-            parser.parse(uncompressedFile);
-            // Update modification time
-            File timestampFile = new File(file.getAbsolutePath() + ".ts");
-            writeTimeStampFile(timestampFile, start);
+            if (nvdParser.parse(feedFile)) {
+                // Update modification time
+                File timestampFile = new File(file.getAbsolutePath() + ".ts");
+                writeTimeStampFile(timestampFile, start);
+                if (sha256 != null) {
+                    writeImportedSha256(file, sha256);
+                }
+            } else {
+                mirroredWithoutErrors = false;
+            }
         }
         final long end = System.currentTimeMillis();
         metricParseTime += end - start;
     }
 
+    /**
+     * Reads the SHA-256 hash of a feed from its previously mirrored meta file.
+     * @param filename the name of the feed, e.g. {@code nvdcve-1.1-2022.json.gz}
+     * @return the SHA-256 hash, or {@code null} if it is not known
+     */
+    private String readMetaSha256(final String filename) {
+        if (!filename.endsWith(".json.gz")) {
+            return null;
+        }
+        final File metaFile = new File(outputDir, filename.replace(".json.gz", ".meta"));
+        if (!metaFile.exists()) {
+            return null;
+        }
+        try {
+            for (final String line : Files.readAllLines(metaFile.toPath())) {
+                if (line.startsWith("sha256:")) {
+                    return line.substring("sha256:".length()).trim().toUpperCase();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("An error occurred reading meta file " + metaFile.getName(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the SHA-256 hash of a feed as of when it was last imported successfully.
+     * @param file the feed
+     * @return the SHA-256 hash, or {@code null} if it is not known
+     */
+    private String readImportedSha256(final File file) {
+        final File sha256File = new File(file.getAbsolutePath() + ".sha256");
+        if (!sha256File.exists()) {
+            return null;
+        }
+        try {
+            return Files.readString(sha256File.toPath()).trim();
+        } catch (IOException e) {
+            LOGGER.warn("An error occurred reading " + sha256File.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Records the SHA-256 hash of a feed that has been imported successfully.
+     * @param file the feed
+     * @param sha256 the SHA-256 hash of the feed
+     */
+    private void writeImportedSha256(final File file, final String sha256) {
+        final File sha256File = new File(file.getAbsolutePath() + ".sha256");
+        try {
+            Files.writeString(sha256File.toPath(), sha256);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred writing " + sha256File.getName(), e);
+        }
+    }
+
     /**
      * Closes a closable object.
      * @param object the object to close
@@ -18,17 +18,27 @@
  */
 package org.dependencytrack.tasks;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.LoggableSubscriber;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.model.ConfigProperty;
+import alpine.model.IConfigProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.github.packageurl.MalformedPackageURLException;
 import com.github.packageurl.PackageURL;
+import com.google.common.util.concurrent.Striped;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.common.HttpClientPool;
 import org.dependencytrack.event.IndexEvent;
 import org.dependencytrack.event.OsvMirrorEvent;
@@ -43,16 +53,17 @@ import org.dependencytrack.parser.osv.OsvAdvisoryParser;
 import org.dependencytrack.parser.osv.model.OsvAdvisory;
 import org.dependencytrack.parser.osv.model.OsvAffectedPackage;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 import org.json.JSONObject;
 import us.springett.cvss.Cvss;
 import us.springett.cvss.Score;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -61,6 +72,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -69,15 +84,26 @@ import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SO
 import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GOOGLE_OSV_BASE_URL;
 import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GOOGLE_OSV_ENABLED;
 import static org.dependencytrack.model.Severity.getSeverityByLevel;
+import static org.dependencytrack.util.JsonUtil.jsonStringToTimestamp;
 import static org.dependencytrack.util.VulnerabilityUtil.normalizedCvssV2Score;
 import static org.dependencytrack.util.VulnerabilityUtil.normalizedCvssV3Score;
 
 public class OsvDownloadTask implements LoggableSubscriber {
 
     private static final Logger LOGGER = Logger.getLogger(OsvDownloadTask.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BATCH_SIZE = 100;
+    private static final Striped<Lock> ADVISORY_LOCKS = Striped.lock(64);
+
+    // Prefix of the names of the config properties holding the most recent modification
+    // timestamp of the advisories of an ecosystem that were mirrored successfully.
+    private static final String LAST_MODIFIED_PROPERTY_PREFIX = "google.osv.last.modified.epoch.seconds.";
+
     private Set<String> ecosystems;
     private String osvBaseUrl;
     private boolean aliasSyncEnabled;
+    private final boolean nvdEnabled;
+    private final boolean gitHubAdvisoriesEnabled;
 
     public OsvDownloadTask() {
         try (final QueryManager qm = new QueryManager()) {
@@ -99,33 +125,37 @@ public class OsvDownloadTask implements LoggableSubscriber {
                     this.aliasSyncEnabled = "true".equals(aliasSyncProperty.getPropertyValue());
                 }
             }
+            this.nvdEnabled = isEnabled(qm, ConfigPropertyConstants.VULNERABILITY_SOURCE_NVD_ENABLED);
+            this.gitHubAdvisoriesEnabled = isEnabled(qm, ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED);
         }
     }
 
+    private static boolean isEnabled(final QueryManager qm, final ConfigPropertyConstants toggle) {
+        final ConfigProperty property = qm.getConfigProperty(toggle.getGroupName(), toggle.getPropertyName());
+        return property != null && Boolean.parseBoolean(property.getPropertyValue());
+    }
+
     @Override
     public void inform(Event e) {
 
         if (e instanceof OsvMirrorEvent) {
 
             if (this.ecosystems != null && !this.ecosystems.isEmpty()) {
-                for (String ecosystem : this.ecosystems) {
-                    LOGGER.info("Updating datasource with Google OSV advisories for ecosystem " + ecosystem);
-                    String url = this.osvBaseUrl + URLEncoder.encode(ecosystem, StandardCharsets.UTF_8).replace("+", "%20")
-                            + "/all.zip";
-                    HttpUriRequest request = new HttpGet(url);
-                    try (final CloseableHttpResponse response = HttpClientPool.getClient().execute(request)) {
-                        final StatusLine status = response.getStatusLine();
-                        if (status.getStatusCode() == HttpStatus.SC_OK) {
-                            try (InputStream in = response.getEntity().getContent();
-                                 ZipInputStream zipInput = new ZipInputStream(in)) {
-                                unzipFolder(zipInput);
-                            }
-                        } else {
-                            LOGGER.error("Download failed : " + status.getStatusCode() + ": " + status.getReasonPhrase());
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.error("Exception while executing Http client request", ex);
-                    }
+                // Ecosystems are mirrored concurrently, each of them with its own thread.
+                final int threadPoolSize = Math.min(this.ecosystems.size(),
+                        Config.getInstance().getPropertyAsInt(ConfigKey.OSV_MIRROR_THREAD_POOL_SIZE));
+                final var threadFactory = new BasicThreadFactory.Builder()
+                        .namingPattern(OsvDownloadTask.class.getSimpleName() + "-%d")
+                        .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                        .build();
+                final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threadPoolSize), threadFactory);
+                try {
+                    CompletableFuture.allOf(this.ecosystems.stream()
+                            .map(ecosystem -> CompletableFuture.runAsync(() -> mirrorEcosystem(ecosystem), executor))
+                            .toArray(CompletableFuture[]::new)
+                    ).join();
+                } finally {
+                    executor.shutdown();
                 }
             } else {
                 LOGGER.info("Google OSV mirroring is disabled. No ecosystem selected.");
@@ -133,50 +163,161 @@ public class OsvDownloadTask implements LoggableSubscriber {
         }
     }
 
-    private void unzipFolder(ZipInputStream zipIn) throws IOException {
+    private void mirrorEcosystem(final String ecosystem) {
+        LOGGER.info("Updating datasource with Google OSV advisories for ecosystem " + ecosystem);
+        final long startTimeMs = System.currentTimeMillis();
+        final Instant lastModified = getLastModified(ecosystem);
+        String url = this.osvBaseUrl + URLEncoder.encode(ecosystem, StandardCharsets.UTF_8).replace("+", "%20")
+                + "/all.zip";
+        HttpUriRequest request = new HttpGet(url);
+        try (final CloseableHttpResponse response = HttpClientPool.getClient().execute(request)) {
+            final StatusLine status = response.getStatusLine();
+            if (status.getStatusCode() == HttpStatus.SC_OK) {
+                try (InputStream in = response.getEntity().getContent();
+                     ZipInputStream zipInput = new ZipInputStream(in)) {
+                    final Instant newLastModified = unzipFolder(zipInput, lastModified);
+                    if (newLastModified != null && !newLastModified.equals(lastModified)) {
+                        setLastModified(ecosystem, newLastModified);
+                    }
+                }
+            } else {
+                LOGGER.error("Download failed : " + status.getStatusCode() + ": " + status.getReasonPhrase());
+            }
+        } catch (Exception ex) {
+            LOGGER.error("Exception while executing Http client request", ex);
+        }
+        Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Vulnerability.class));
+        LOGGER.info("Completed mirroring of Google OSV advisories for ecosystem %s in %dms"
+                .formatted(ecosystem, System.currentTimeMillis() - startTimeMs));
+    }
 
-        BufferedReader reader = new BufferedReader(new InputStreamReader(zipIn));
-        OsvAdvisoryParser parser = new OsvAdvisoryParser();
-        ZipEntry zipEntry = zipIn.getNextEntry();
-        while (zipEntry != null) {
+    /**
+     * Synchronizes all advisories of an ecosystem's archive that have been modified since the last mirroring.
+     *
+     * @param zipIn        the archive of the ecosystem
+     * @param lastModified the most recent modification timestamp of the last mirroring, or {@code null}
+     * @return the most recent modification timestamp of all advisories in the archive,
+     * or {@code null} if not all advisories could be synchronized
+     */
+    Instant unzipFolder(final ZipInputStream zipIn, final Instant lastModified) throws IOException {
+        final OsvAdvisoryParser parser = new OsvAdvisoryParser();
+        final var batch = new ArrayList<OsvAdvisory>(BATCH_SIZE);
+        Instant mostRecentModified = lastModified;
+        boolean synchronizedWithoutErrors = true;
+        int skipped = 0;
+        ZipEntry zipEntry;
+        while ((zipEntry = zipIn.getNextEntry()) != null) {
+            if (zipEntry.isDirectory()) {
+                continue;
+            }
 
-            String line = null;
-            StringBuilder out = new StringBuilder();
-            while ((line = reader.readLine()) != null) {
-                out.append(line);
+            // Entries are small, read them completely so that their modification timestamp
+            // can be checked without building the advisory if it did not change.
+            final byte[] content = zipIn.readAllBytes();
+            final Instant modified;
+            try {
+                modified = readModified(content);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read Google OSV advisory " + zipEntry.getName() + "; Skipping", e);
+                synchronizedWithoutErrors = false;
+                continue;
+            }
+            if (lastModified != null && modified != null && !modified.isAfter(lastModified)) {
+                skipped++;
+                continue;
             }
-            JSONObject json = new JSONObject(out.toString());
-            final OsvAdvisory osvAdvisory = parser.parse(json);
+            if (modified != null && (mostRecentModified == null || modified.isAfter(mostRecentModified))) {
+                mostRecentModified = modified;
+            }
+
+            final OsvAdvisory osvAdvisory = parser.parse(new JSONObject(new String(content, StandardCharsets.UTF_8)));
             if (osvAdvisory != null) {
-                updateDatasource(osvAdvisory);
+                batch.add(osvAdvisory);
             }
-            zipEntry = zipIn.getNextEntry();
-            reader = new BufferedReader(new InputStreamReader(zipIn));
+            if (batch.size() == BATCH_SIZE) {
+                synchronizedWithoutErrors &= updateDatasource(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            synchronizedWithoutErrors &= updateDatasource(batch);
         }
-        reader.close();
+        LOGGER.debug("Skipped " + skipped + " Google OSV advisories that were not modified since " + lastModified);
+        return synchronizedWithoutErrors ? mostRecentModified : null;
     }
 
-    public void updateDatasource(final OsvAdvisory advisory) {
+    /**
+     * Reads the {@code modified} timestamp of an advisory, without parsing the advisory completely.
+     */
+    static Instant readModified(final byte[] content) throws IOException {
+        try (final JsonParser jsonParser = JSON_FACTORY.createParser(content)) {
+            if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = jsonParser.getCurrentName();
+                jsonParser.nextToken();
+                if ("modified".equals(fieldName)) {
+                    final ZonedDateTime modified = jsonStringToTimestamp(jsonParser.getValueAsString());
+                    return modified != null ? modified.toInstant() : null;
+                }
+                jsonParser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Synchronizes a batch of advisories using a single {@link QueryManager}.
+     *
+     * @param advisories the advisories to synchronize
+     * @return {@code true} if all advisories were synchronized successfully; otherwise {@code false}
+     */
+    private boolean updateDatasource(final List<OsvAdvisory> advisories) {
+        boolean synchronizedWithoutErrors = true;
+        try (QueryManager qm = new QueryManager().withL2CacheDisabled()) {
+            for (final OsvAdvisory advisory : advisories) {
+                try {
+                    updateDatasource(qm, advisory);
+                } catch (RuntimeException e) {
+                    LOGGER.error("An error occurred while synchronizing Google OSV advisory " + advisory.getId(), e);
+                    qm.ensureNoActiveTransaction();
+                    synchronizedWithoutErrors = false;
+                }
+            }
+        }
+        return synchronizedWithoutErrors;
+    }
 
+    public void updateDatasource(final OsvAdvisory advisory) {
         try (QueryManager qm = new QueryManager().withL2CacheDisabled()) {
+            updateDatasource(qm, advisory);
+        }
+        Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Vulnerability.class));
+    }
 
+    private void updateDatasource(final QueryManager qm, final OsvAdvisory advisory) {
+        // The same advisory may be part of multiple ecosystems, which are mirrored concurrently.
+        final Lock lock = ADVISORY_LOCKS.get(String.valueOf(advisory.getId()));
+        lock.lock();
+        try {
             LOGGER.debug("Synchronizing Google OSV advisory: " + advisory.getId());
             final Vulnerability vulnerability = mapAdvisoryToVulnerability(qm, advisory);
             final List<VulnerableSoftware> vsListOld = qm.detach(qm.getVulnerableSoftwareByVulnId(vulnerability.getSource(), vulnerability.getVulnId()));
             final Vulnerability existingVulnerability = qm.getVulnerabilityByVulnId(vulnerability.getSource(), vulnerability.getVulnId());;
             final Vulnerability.Source vulnerabilitySource = extractSource(advisory.getId());
-            final ConfigPropertyConstants vulnAuthoritativeSourceToggle = switch (vulnerabilitySource) {
-                case NVD -> ConfigPropertyConstants.VULNERABILITY_SOURCE_NVD_ENABLED;
-                case GITHUB -> ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED;
-                default -> VULNERABILITY_SOURCE_GOOGLE_OSV_ENABLED;
+            final boolean vulnAuthoritativeSourceEnabled = switch (vulnerabilitySource) {
+                case NVD -> nvdEnabled;
+                case GITHUB -> gitHubAdvisoriesEnabled;
+                default -> false;
             };
-            final boolean vulnAuthoritativeSourceEnabled = Boolean.valueOf(qm.getConfigProperty(vulnAuthoritativeSourceToggle.getGroupName(), vulnAuthoritativeSourceToggle.getPropertyName()).getPropertyValue());
             Vulnerability synchronizedVulnerability = existingVulnerability;
             if (shouldUpdateExistingVulnerability(existingVulnerability, vulnerabilitySource, vulnAuthoritativeSourceEnabled)) {
                synchronizedVulnerability  = qm.synchronizeVulnerability(vulnerability, false);
             }
 
             if (aliasSyncEnabled && advisory.getAliases() != null) {
+                final var vulnerabilityAliases = new ArrayList<VulnerabilityAlias>();
                 for (int i = 0; i < advisory.getAliases().size(); i++) {
                     final String alias = advisory.getAliases().get(i);
                     final VulnerabilityAlias vulnerabilityAlias = new VulnerabilityAlias();
@@ -192,14 +333,15 @@ public class OsvDownloadTask implements LoggableSubscriber {
 
                     if (alias.startsWith("CVE") && Vulnerability.Source.NVD != vulnerabilitySource) {
                         vulnerabilityAlias.setCveId(alias);
-                        qm.synchronizeVulnerabilityAlias(vulnerabilityAlias);
+                        vulnerabilityAliases.add(vulnerabilityAlias);
                     } else if (alias.startsWith("GHSA") && Vulnerability.Source.GITHUB != vulnerabilitySource) {
                         vulnerabilityAlias.setGhsaId(alias);
-                        qm.synchronizeVulnerabilityAlias(vulnerabilityAlias);
+                        vulnerabilityAliases.add(vulnerabilityAlias);
                     }
 
                     //TODO - OSV supports GSD and DLA/DSA identifiers (possibly others). Determine how to handle.
                 }
+                qm.synchronizeVulnerabilityAliases(vulnerabilityAliases);
             }
 
             List<VulnerableSoftware> vsList = new ArrayList<>();
@@ -214,8 +356,38 @@ public class OsvDownloadTask implements LoggableSubscriber {
             vsList = qm.reconcileVulnerableSoftware(synchronizedVulnerability, vsListOld, vsList, Vulnerability.Source.OSV);
             synchronizedVulnerability.setVulnerableSoftware(vsList);
             qm.persist(synchronizedVulnerability);
+            VulnerableSoftwareIndex.getInstance().invalidate(synchronizedVulnerability);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Instant getLastModified(final String ecosystem) {
+        try (final QueryManager qm = new QueryManager()) {
+            final ConfigProperty lastModified = qm.getConfigProperty(VULNERABILITY_SOURCE_GOOGLE_OSV_BASE_URL.getGroupName(), LAST_MODIFIED_PROPERTY_PREFIX + ecosystem);
+            if (lastModified == null || StringUtils.isBlank(lastModified.getPropertyValue())) {
+                return null;
+            }
+            try {
+                return Instant.ofEpochSecond(Long.parseLong(lastModified.getPropertyValue().trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid timestamp of last modified Google OSV advisory of ecosystem " + ecosystem + ": " + lastModified.getPropertyValue() + "; Mirroring all advisories");
+                return null;
+            }
+        }
+    }
+
+    private static void setLastModified(final String ecosystem, final Instant lastModified) {
+        final String value = String.valueOf(lastModified.getEpochSecond());
+        try (final QueryManager qm = new QueryManager()) {
+            final ConfigProperty property = qm.getConfigProperty(VULNERABILITY_SOURCE_GOOGLE_OSV_BASE_URL.getGroupName(), LAST_MODIFIED_PROPERTY_PREFIX + ecosystem);
+            if (property != null) {
+                qm.runInTransaction(() -> property.setPropertyValue(value));
+            } else {
+                qm.createConfigProperty(VULNERABILITY_SOURCE_GOOGLE_OSV_BASE_URL.getGroupName(), LAST_MODIFIED_PROPERTY_PREFIX + ecosystem, value,
+                        IConfigProperty.PropertyType.INTEGER, "Timestamp (in epoch seconds) of the most recently modified Google OSV advisory of ecosystem " + ecosystem + " that was mirrored successfully");
+            }
         }
-        Event.dispatch(new IndexEvent(IndexEvent.Action.COMMIT, Vulnerability.class));
     }
 
     private boolean shouldUpdateExistingVulnerability(Vulnerability existingVulnerability, Vulnerability.Source vulnerabilitySource, boolean vulnAuthoritativeSourceEnabled) {
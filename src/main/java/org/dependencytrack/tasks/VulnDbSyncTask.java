@@ -38,6 +38,7 @@ import org.dependencytrack.parser.vulndb.model.Results;
 import org.dependencytrack.parser.vulndb.model.Vendor;
 import org.dependencytrack.parser.vulndb.model.Version;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.tasks.scanners.VulnerableSoftwareIndex;
 import us.springett.parsers.cpe.Cpe;
 import us.springett.parsers.cpe.CpeParser;
 import us.springett.parsers.cpe.exceptions.CpeEncodingException;
@@ -132,6 +133,7 @@ public class VulnDbSyncTask implements LoggableSubscriber {
                     vsList = qm.reconcileVulnerableSoftware(synchronizeVulnerability, vsListOld, vsList, Vulnerability.Source.VULNDB);
                     synchronizeVulnerability.setVulnerableSoftware(vsList);
                     qm.persist(synchronizeVulnerability);
+                    VulnerableSoftwareIndex.getInstance().invalidate(synchronizeVulnerability);
                 }
             }
         }
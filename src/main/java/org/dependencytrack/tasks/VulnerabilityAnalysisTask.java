@@ -18,10 +18,17 @@
  */
 package org.dependencytrack.tasks;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
+import alpine.common.metrics.Metrics;
 import alpine.event.framework.Event;
+import alpine.event.framework.LoggableUncaughtExceptionHandler;
 import alpine.event.framework.Subscriber;
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.Counter;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.InternalAnalysisEvent;
 import org.dependencytrack.event.OssIndexAnalysisEvent;
 import org.dependencytrack.event.PortfolioVulnerabilityAnalysisEvent;
@@ -41,21 +48,37 @@ import org.dependencytrack.tasks.scanners.OssIndexAnalysisTask;
 import org.dependencytrack.tasks.scanners.ScanTask;
 import org.dependencytrack.tasks.scanners.SnykAnalysisTask;
 import org.dependencytrack.tasks.scanners.VulnDbAnalysisTask;
+import org.dependencytrack.util.NewVulnerabilityNotificationBatch;
+
+import javax.jdo.Query;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class VulnerabilityAnalysisTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(VulnerabilityAnalysisTask.class);
+    private static final int MAX_QUERY_PARAMETERS = 1000;
+    private static final ExecutorService EXECUTOR;
 
-    private final List<Component> internalCandidates = new ArrayList<>();
-    private final List<Component> ossIndexCandidates = new ArrayList<>();
-    private final List<Component> vulnDbCandidates = new ArrayList<>();
-    private final List<Component> snykCandidates = new ArrayList<>();
+    static {
+        // The number of threads used to execute analyzers concurrently is configurable.
+        // Each analyzer task holds a database connection while it is running.
+        final int threadPoolSize = Config.getInstance().getPropertyAsInt(ConfigKey.VULNERABILITY_ANALYSIS_THREAD_POOL_SIZE);
+        final var threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern(VulnerabilityAnalysisTask.class.getSimpleName() + "-%d")
+                .uncaughtExceptionHandler(new LoggableUncaughtExceptionHandler())
+                .build();
+        EXECUTOR = Executors.newFixedThreadPool(threadPoolSize, threadFactory);
+        Metrics.registerExecutorService(EXECUTOR, VulnerabilityAnalysisTask.class.getSimpleName());
+    }
 
     /**
      * {@inheritDoc}
@@ -106,22 +129,37 @@ public class VulnerabilityAnalysisTask implements Subscriber {
         final OssIndexAnalysisTask ossIndexAnalysisTask = new OssIndexAnalysisTask();
         final VulnDbAnalysisTask vulnDbAnalysisTask = new VulnDbAnalysisTask();
         final SnykAnalysisTask snykAnalysisTask = new SnykAnalysisTask();
-        for (final Component component : components) {
-            inspectComponentReadiness(component, internalAnalysisTask, internalCandidates);
-            inspectComponentReadiness(component, ossIndexAnalysisTask, ossIndexCandidates);
-            inspectComponentReadiness(component, vulnDbAnalysisTask, vulnDbCandidates);
-            inspectComponentReadiness(component, snykAnalysisTask, snykCandidates);
-        }
+        final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel = getVulnerabilityAnalysisLevel(event);
+
+        // New findings of all analyzers are collected, such that NEW_VULNERABILITY notifications
+        // can be dispatched in bulk, once the analysis is complete.
+        final var notificationBatch = new NewVulnerabilityNotificationBatch();
+        notificationBatch.run(() -> {
+            final List<Component> internalCandidates = inspectComponentReadiness(components, internalAnalysisTask, vulnerabilityAnalysisLevel);
+            final List<Component> ossIndexCandidates = inspectComponentReadiness(components, ossIndexAnalysisTask, vulnerabilityAnalysisLevel);
+            final List<Component> vulnDbCandidates = inspectComponentReadiness(components, vulnDbAnalysisTask, vulnerabilityAnalysisLevel);
+            final List<Component> snykCandidates = inspectComponentReadiness(components, snykAnalysisTask, vulnerabilityAnalysisLevel);
 
-        qm.detach(components);
+            qm.detach(components);
 
-        // Do not call individual async events when processing a known list of components.
-        // Call each analyzer task sequentially and catch any exceptions as to prevent one analyzer
-        // from interrupting the successful execution of all analyzers.
-        performAnalysis(internalAnalysisTask, new InternalAnalysisEvent(internalCandidates), internalAnalysisTask.getAnalyzerIdentity(), event);
-        performAnalysis(ossIndexAnalysisTask, new OssIndexAnalysisEvent(ossIndexCandidates), ossIndexAnalysisTask.getAnalyzerIdentity(), event);
-        performAnalysis(snykAnalysisTask, new SnykAnalysisEvent(snykCandidates), snykAnalysisTask.getAnalyzerIdentity(), event);
-        performAnalysis(vulnDbAnalysisTask, new VulnDbAnalysisEvent(vulnDbCandidates), vulnDbAnalysisTask.getAnalyzerIdentity(), event);
+            // Do not call individual async events when processing a known list of components.
+            // Execute the analyzer tasks concurrently and wait for all of them to complete, such that
+            // events chained to this task are only dispatched once the analysis is complete.
+            // Exceptions are caught as to prevent one analyzer from interrupting the successful
+            // execution of all analyzers.
+            CompletableFuture.allOf(
+                    performAnalysisAsync(internalAnalysisTask, InternalAnalysisEvent::new, internalCandidates, internalAnalysisTask.getAnalyzerIdentity(), event),
+                    performAnalysisAsync(ossIndexAnalysisTask, OssIndexAnalysisEvent::new, ossIndexCandidates, ossIndexAnalysisTask.getAnalyzerIdentity(), event),
+                    performAnalysisAsync(snykAnalysisTask, SnykAnalysisEvent::new, snykCandidates, snykAnalysisTask.getAnalyzerIdentity(), event),
+                    performAnalysisAsync(vulnDbAnalysisTask, VulnDbAnalysisEvent::new, vulnDbCandidates, vulnDbAnalysisTask.getAnalyzerIdentity(), event)
+            ).join();
+        });
+
+        try {
+            notificationBatch.dispatch(qm);
+        } catch (RuntimeException e) {
+            LOGGER.error("An unexpected error occurred dispatching notifications for newly identified vulnerabilities", e);
+        }
     }
 
     private void performPolicyEvaluation(Project project, List<Component> components) {
@@ -133,28 +171,90 @@ public class VulnerabilityAnalysisTask implements Subscriber {
         }
     }
 
-    private void inspectComponentReadiness(final Component component, final ScanTask scanTask, final List<Component> candidates) {
-        if (scanTask.isCapable(component)) {
-            if (scanTask.getClass().isAssignableFrom(CacheableScanTask.class)) {
-                final CacheableScanTask cacheableScanTask = (CacheableScanTask) scanTask;
-                if (cacheableScanTask.shouldAnalyze(component.getPurl())) {
-                    candidates.add(component);
-                } else {
-                    cacheableScanTask.applyAnalysisFromCache(component);
-                }
-            } else {
-                candidates.add(component);
-            }
+    /**
+     * Determine the components an analyzer needs to analyze.
+     * <p>
+     * For {@link CacheableScanTask}s, cached analysis results are applied in bulk for all components
+     * with a current cache entry, such that only components without one are handed to the analyzer.
+     */
+    private List<Component> inspectComponentReadiness(final List<Component> components, final ScanTask scanTask,
+                                                      final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        final List<Component> capableComponents = components.stream()
+                .filter(scanTask::isCapable)
+                .toList();
+        if (!(scanTask instanceof final CacheableScanTask cacheableScanTask) || capableComponents.isEmpty()) {
+            return new ArrayList<>(capableComponents);
         }
+
+        final List<Component> candidates;
+        try {
+            candidates = new ArrayList<>(cacheableScanTask.applyAnalysisFromCache(capableComponents, vulnerabilityAnalysisLevel));
+        } catch (RuntimeException e) {
+            LOGGER.error("An unexpected error occurred applying cached analysis results of " + scanTask.getAnalyzerIdentity(), e);
+            return new ArrayList<>(capableComponents);
+        }
+        final String analyzer = scanTask.getAnalyzerIdentity().name();
+        Counter.builder("vulnerability_analysis_cache_hits")
+                .description("Total number of components analyzed from the component analysis cache")
+                .tags("analyzer", analyzer)
+                .register(Metrics.getRegistry())
+                .increment(capableComponents.size() - candidates.size());
+        Counter.builder("vulnerability_analysis_cache_misses")
+                .description("Total number of components without current entry in the component analysis cache")
+                .tags("analyzer", analyzer)
+                .register(Metrics.getRegistry())
+                .increment(candidates.size());
+        return candidates;
+    }
+
+    private static VulnerabilityAnalysisLevel getVulnerabilityAnalysisLevel(final Event eventType) {
+        if (eventType instanceof VulnerabilityAnalysisEvent) {
+            return VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS;
+        }
+        return VulnerabilityAnalysisLevel.PERIODIC_ANALYSIS;
+    }
+
+    /**
+     * Perform the analysis of an analyzer task on the {@link #EXECUTOR}.
+     * <p>
+     * The analyzer operates on its own instances of the candidate components, attached to a
+     * {@link QueryManager} of its own, such that multiple analyzers can safely run concurrently.
+     */
+    private CompletableFuture<Void> performAnalysisAsync(final Subscriber scanTask,
+                                                         final Function<List<Component>, VulnerabilityAnalysisEvent> eventFactory,
+                                                         final List<Component> candidates, final AnalyzerIdentity analyzerIdentity,
+                                                         final Event eventType) {
+        if (candidates.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final List<Long> candidateIds = candidates.stream().map(Component::getId).toList();
+        return CompletableFuture
+                .runAsync(NewVulnerabilityNotificationBatch.propagate(() -> {
+                    try (final QueryManager qm = new QueryManager()) {
+                        performAnalysis(scanTask, eventFactory.apply(getComponents(qm, candidateIds)), analyzerIdentity, eventType);
+                    }
+                }), EXECUTOR)
+                .exceptionally(throwable -> {
+                    LOGGER.error("An unexpected error occurred performing a vulnerability analysis task", throwable);
+                    return null;
+                });
+    }
+
+    private static List<Component> getComponents(final QueryManager qm, final List<Long> ids) {
+        final var components = new ArrayList<Component>(ids.size());
+        for (final List<Long> idsBatch : Lists.partition(ids, MAX_QUERY_PARAMETERS)) {
+            final Query<Component> query = qm.getPersistenceManager().newQuery(Component.class);
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(idsBatch);
+            components.addAll(query.executeList());
+        }
+        return components;
     }
 
     private void performAnalysis(final Subscriber scanTask, final VulnerabilityAnalysisEvent event,
                                  final AnalyzerIdentity analyzerIdentity, final Event eventType) {
         Instant start = Instant.now();
-        event.setVulnerabilityAnalysisLevel(VulnerabilityAnalysisLevel.PERIODIC_ANALYSIS);
-        if (eventType instanceof VulnerabilityAnalysisEvent) {
-            event.setVulnerabilityAnalysisLevel(VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
-        }
+        event.setVulnerabilityAnalysisLevel(getVulnerabilityAnalysisLevel(eventType));
         if (CollectionUtils.isNotEmpty(event.getComponents())) {
             // Clear the transient cache result for each component.
             // Each analyzer will have its own result. Therefore, we do not want to mix them.
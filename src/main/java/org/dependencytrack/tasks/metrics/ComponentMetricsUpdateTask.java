@@ -35,6 +35,7 @@ import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.persistence.VulnerabilityAliasIndex;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
@@ -79,8 +80,10 @@ public class ComponentMetricsUpdateTask implements Subscriber {
                 throw new NoSuchElementException("Component " + uuid + " does not exist");
             }
 
+            final List<Vulnerability> vulnerabilities = getVulnerabilities(pm, component);
+            final VulnerabilityAliasIndex aliasIndex = qm.getVulnerabilityAliasIndex(vulnerabilities);
             final Set<String> aliasesSeen = new HashSet<>();
-            for (final Vulnerability vulnerability : getVulnerabilities(pm, component)) {
+            for (final Vulnerability vulnerability : vulnerabilities) {
                 // Quick pre-flight check whether we already encountered an alias of this particular vulnerability
                 final String alias = vulnerability.getSource() + "|" + vulnerability.getVulnId();
                 if (aliasesSeen.contains(alias)) {
@@ -88,8 +91,8 @@ public class ComponentMetricsUpdateTask implements Subscriber {
                     continue;
                 }
 
-                // Fetch all aliases for this vulnerability and consider all of them as "seen"
-                qm.getVulnerabilityAliases(vulnerability).stream()
+                // Consider all direct aliases of this vulnerability as "seen"
+                aliasIndex.getAliases(vulnerability).stream()
                         .map(VulnerabilityAlias::getAllBySource)
                         .flatMap(vulnIdsBySource -> vulnIdsBySource.entrySet().stream())
                         .map(vulnIdBySource -> vulnIdBySource.getKey() + "|" + vulnIdBySource.getValue())
@@ -18,15 +18,19 @@
  */
 package org.dependencytrack.tasks.metrics;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.common.util.SystemUtil;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.dependencytrack.event.CallbackEvent;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
-import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.metrics.Metrics;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
+import org.dependencytrack.model.Component;
 import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
@@ -34,10 +38,21 @@ import org.dependencytrack.persistence.QueryManager;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A {@link Subscriber} task that updates portfolio metrics.
@@ -47,7 +62,8 @@ import java.util.concurrent.TimeUnit;
 public class PortfolioMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(PortfolioMetricsUpdateTask.class);
-    private static final long BATCH_SIZE = SystemUtil.getCpuCores();
+    private static final int PARALLELISM = SystemUtil.getCpuCores();
+    private static final int MAX_QUERY_PARAMETERS = 1000;
 
     @Override
     public void inform(final Event e) {
@@ -64,89 +80,96 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
         LOGGER.info("Executing portfolio metrics update");
         final var counters = new Counters();
 
+        final MetricsDirtyTracker.DirtyState dirtyState;
+        if (Config.getInstance().getPropertyAsBoolean(ConfigKey.METRICS_INCREMENTAL_UPDATE_ENABLED)) {
+            dirtyState = MetricsDirtyTracker.getInstance().drain(
+                    Duration.ofHours(Config.getInstance().getPropertyAsInt(ConfigKey.METRICS_FULL_UPDATE_INTERVAL_HOURS)));
+        } else {
+            dirtyState = new MetricsDirtyTracker.DirtyState(true, Collections.emptySet());
+        }
+        if (dirtyState.allDirty()) {
+            LOGGER.debug("Updating metrics of all projects");
+        } else {
+            LOGGER.debug("Updating metrics of " + dirtyState.projectIds().size() + " projects marked as dirty");
+        }
+
         try (final var qm = new QueryManager()) {
             final PersistenceManager pm = qm.getPersistenceManager();
 
-            LOGGER.debug("Fetching first " + BATCH_SIZE + " projects");
-            List<Project> activeProjects = fetchNextActiveProjectsPage(pm, null);
+            LOGGER.debug("Fetching active projects");
+            final List<Project> activeProjects = fetchActiveProjects(pm);
+            Map<Long, ProjectMetrics> latestMetricsByProjectId = fetchMostRecentProjectMetrics(pm);
 
-            while (!activeProjects.isEmpty()) {
-                final long firstId = activeProjects.get(0).getId();
-                final long lastId = activeProjects.get(activeProjects.size() - 1).getId();
-                final int batchCount = activeProjects.size();
-
-                final var countDownLatch = new CountDownLatch(batchCount);
+            // Projects without any metrics must be calculated, regardless of whether they are dirty.
+            final var dirtyProjects = new ArrayList<Project>();
+            final var cleanProjectMetrics = new ArrayList<ProjectMetrics>();
+            for (final Project project : activeProjects) {
+                final ProjectMetrics metrics = latestMetricsByProjectId.get(project.getId());
+                if (metrics == null || dirtyState.isDirty(project)) {
+                    dirtyProjects.add(project);
+                } else {
+                    cleanProjectMetrics.add(metrics);
+                }
+            }
 
-                for (final Project project : activeProjects) {
-                    LOGGER.debug("Dispatching metrics update event for project " + project.getUuid());
-                    final var callbackEvent = new CallbackEvent(countDownLatch::countDown);
-                    Event.dispatch(new ProjectMetricsUpdateEvent(project.getUuid())
-                            .onSuccess(callbackEvent)
-                            .onFailure(callbackEvent));
+            if (!cleanProjectMetrics.isEmpty()) {
+                LOGGER.debug("Skipping metrics updates for " + cleanProjectMetrics.size() + " unchanged projects");
+                for (final List<ProjectMetrics> batch : Lists.partition(cleanProjectMetrics, MAX_QUERY_PARAMETERS)) {
+                    qm.runInTransaction(() -> batch.forEach(metrics -> metrics.setLastOccurrence(counters.measuredAt)));
                 }
+            }
+
+            if (!dirtyProjects.isEmpty()) {
+                updateProjectMetrics(pm, dirtyProjects);
+                latestMetricsByProjectId = fetchMostRecentProjectMetrics(pm);
+            }
 
-                LOGGER.debug("Waiting for metrics updates for projects " + firstId + "-" + lastId + " to complete");
-                if (!countDownLatch.await(15, TimeUnit.MINUTES)) {
-                    // Depending on the system load, it may take a while for the queued events
-                    // to be processed. And depending on how large the projects are, it may take a
-                    // while for the processing of the respective event to complete.
-                    // It is unlikely though that either of these situations causes a block for
-                    // over 15 minutes. If that happens, the system is under-resourced.
-                    LOGGER.warn("Updating metrics for projects " + firstId + "-" + lastId +
-                            " took longer than expected (15m); Proceeding with potentially stale data");
+            for (final Project project : activeProjects) {
+                LOGGER.debug("Processing latest metrics for project " + project.getUuid());
+                final ProjectMetrics metrics = latestMetricsByProjectId.get(project.getId());
+                if (metrics == null) {
+                    // The project metrics calculation task failed, or the project has been
+                    // deleted after the update being scheduled. Either way, nothing we can
+                    // do anything about.
+                    LOGGER.debug("No metrics found for project " + project.getUuid() + " - skipping");
+                    continue;
                 }
-                LOGGER.debug("Completed metrics updates for projects " + firstId + "-" + lastId);
-
-                for (final Project project : activeProjects) {
-                    LOGGER.debug("Processing latest metrics for project " + project.getUuid());
-                    final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
-                    if (metrics == null) {
-                        // The project metrics calculation task failed, or the project has been
-                        // deleted after the event being dispatched. Either way, nothing we can
-                        // do anything about.
-                        LOGGER.debug("No metrics found for project " + project.getUuid() + " - skipping");
-                        continue;
-                    }
 
-                    counters.critical += metrics.getCritical();
-                    counters.high += metrics.getHigh();
-                    counters.medium += metrics.getMedium();
-                    counters.low += metrics.getLow();
-                    counters.unassigned += metrics.getUnassigned();
-                    counters.vulnerabilities += metrics.getVulnerabilities();
-
-                    counters.findingsTotal += metrics.getFindingsTotal();
-                    counters.findingsAudited += metrics.getFindingsAudited();
-                    counters.findingsUnaudited += metrics.getFindingsUnaudited();
-                    counters.suppressions += metrics.getSuppressed();
-                    counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
-
-                    counters.projects++;
-                    if (metrics.getVulnerabilities() > 0) {
-                        counters.vulnerableProjects++;
-                    }
-                    counters.components += metrics.getComponents();
-                    counters.vulnerableComponents += metrics.getVulnerableComponents();
-
-                    counters.policyViolationsFail += metrics.getPolicyViolationsFail();
-                    counters.policyViolationsWarn += metrics.getPolicyViolationsWarn();
-                    counters.policyViolationsInfo += metrics.getPolicyViolationsInfo();
-                    counters.policyViolationsTotal += metrics.getPolicyViolationsTotal();
-                    counters.policyViolationsAudited += metrics.getPolicyViolationsAudited();
-                    counters.policyViolationsUnaudited += metrics.getPolicyViolationsUnaudited();
-                    counters.policyViolationsSecurityTotal += metrics.getPolicyViolationsSecurityTotal();
-                    counters.policyViolationsSecurityAudited += metrics.getPolicyViolationsSecurityAudited();
-                    counters.policyViolationsSecurityUnaudited += metrics.getPolicyViolationsSecurityUnaudited();
-                    counters.policyViolationsLicenseTotal += metrics.getPolicyViolationsLicenseTotal();
-                    counters.policyViolationsLicenseAudited += metrics.getPolicyViolationsLicenseAudited();
-                    counters.policyViolationsLicenseUnaudited += metrics.getPolicyViolationsLicenseUnaudited();
-                    counters.policyViolationsOperationalTotal += metrics.getPolicyViolationsOperationalTotal();
-                    counters.policyViolationsOperationalAudited += metrics.getPolicyViolationsOperationalAudited();
-                    counters.policyViolationsOperationalUnaudited += metrics.getPolicyViolationsOperationalUnaudited();
+                counters.critical += metrics.getCritical();
+                counters.high += metrics.getHigh();
+                counters.medium += metrics.getMedium();
+                counters.low += metrics.getLow();
+                counters.unassigned += metrics.getUnassigned();
+                counters.vulnerabilities += metrics.getVulnerabilities();
+
+                counters.findingsTotal += metrics.getFindingsTotal();
+                counters.findingsAudited += metrics.getFindingsAudited();
+                counters.findingsUnaudited += metrics.getFindingsUnaudited();
+                counters.suppressions += metrics.getSuppressed();
+                counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+
+                counters.projects++;
+                if (metrics.getVulnerabilities() > 0) {
+                    counters.vulnerableProjects++;
                 }
+                counters.components += metrics.getComponents();
+                counters.vulnerableComponents += metrics.getVulnerableComponents();
 
-                LOGGER.debug("Fetching next " + BATCH_SIZE + " projects");
-                activeProjects = fetchNextActiveProjectsPage(pm, lastId);
+                counters.policyViolationsFail += metrics.getPolicyViolationsFail();
+                counters.policyViolationsWarn += metrics.getPolicyViolationsWarn();
+                counters.policyViolationsInfo += metrics.getPolicyViolationsInfo();
+                counters.policyViolationsTotal += metrics.getPolicyViolationsTotal();
+                counters.policyViolationsAudited += metrics.getPolicyViolationsAudited();
+                counters.policyViolationsUnaudited += metrics.getPolicyViolationsUnaudited();
+                counters.policyViolationsSecurityTotal += metrics.getPolicyViolationsSecurityTotal();
+                counters.policyViolationsSecurityAudited += metrics.getPolicyViolationsSecurityAudited();
+                counters.policyViolationsSecurityUnaudited += metrics.getPolicyViolationsSecurityUnaudited();
+                counters.policyViolationsLicenseTotal += metrics.getPolicyViolationsLicenseTotal();
+                counters.policyViolationsLicenseAudited += metrics.getPolicyViolationsLicenseAudited();
+                counters.policyViolationsLicenseUnaudited += metrics.getPolicyViolationsLicenseUnaudited();
+                counters.policyViolationsOperationalTotal += metrics.getPolicyViolationsOperationalTotal();
+                counters.policyViolationsOperationalAudited += metrics.getPolicyViolationsOperationalAudited();
+                counters.policyViolationsOperationalUnaudited += metrics.getPolicyViolationsOperationalUnaudited();
             }
 
             qm.runInTransaction(() -> {
@@ -166,19 +189,158 @@ public class PortfolioMetricsUpdateTask implements Subscriber {
                 DurationFormatUtils.formatDuration(new Date().getTime() - counters.measuredAt.getTime(), "mm:ss:SS"));
     }
 
-    private List<Project> fetchNextActiveProjectsPage(final PersistenceManager pm, final Long lastId) throws Exception {
-        try (final Query<Project> query = pm.newQuery(Project.class)) {
-            if (lastId == null) {
-                query.setFilter("(active == null || active == true)");
-            } else {
-                query.setFilter("(active == null || active == true) && id < :lastId");
-                query.setParameters(lastId);
+    /**
+     * Update metrics of the given {@link Project}s.
+     * <p>
+     * Projects are processed by a work-stealing pool, such that a new project is picked up as soon as
+     * the update of a previous project completed. Larger projects are scheduled first, so that they do not
+     * end up being the only projects still in progress at the end of the update.
+     *
+     * @param pm       The {@link PersistenceManager} to use
+     * @param projects The {@link Project}s to update metrics for
+     */
+    private void updateProjectMetrics(final PersistenceManager pm, final List<Project> projects) throws Exception {
+        final Map<Long, Long> componentCountByProjectId = fetchComponentCounts(pm);
+        final List<Project> orderedProjects = projects.stream()
+                .sorted(Comparator.comparingLong((Project project) -> componentCountByProjectId.getOrDefault(project.getId(), 0L)).reversed())
+                .toList();
+
+        final Timer timer = Timer.builder("metrics_project_update")
+                .description("Duration of project metrics updates performed as part of portfolio metrics updates")
+                .publishPercentileHistogram()
+                .register(alpine.common.metrics.Metrics.getRegistry());
+        final var dbPermits = new Semaphore(getDatabasePermits());
+        final var completed = new AtomicInteger();
+        final Set<Long> updatedProjectIds = ConcurrentHashMap.newKeySet();
+
+        LOGGER.debug("Updating metrics of " + orderedProjects.size() + " projects with a parallelism of " + PARALLELISM);
+        final ExecutorService executor = Executors.newWorkStealingPool(PARALLELISM);
+        try {
+            for (final Project project : orderedProjects) {
+                executor.execute(() -> {
+                    try {
+                        dbPermits.acquire();
+                        try {
+                            timer.record(() -> {
+                                try {
+                                    ProjectMetricsUpdateTask.updateMetrics(project.getUuid());
+                                    updatedProjectIds.add(project.getId());
+                                } catch (Exception ex) {
+                                    LOGGER.error("An unexpected error occurred while updating metrics for project " + project.getUuid(), ex);
+                                }
+                            });
+                        } finally {
+                            dbPermits.release();
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        completed.incrementAndGet();
+                    }
+                });
             }
+        } finally {
+            executor.shutdown();
+        }
+
+        int lastCompleted = completed.get();
+        while (!executor.awaitTermination(15, TimeUnit.MINUTES)) {
+            // Large projects may take a while to complete, which is fine as long as progress is made.
+            // If not a single project update completed within 15 minutes, the system is under-resourced.
+            final int currentCompleted = completed.get();
+            if (currentCompleted == lastCompleted) {
+                LOGGER.warn("Updating metrics of " + (orderedProjects.size() - currentCompleted) + " projects made no progress for 15m; " +
+                        "Proceeding with potentially stale data");
+                // Interrupt the stalled updates, so that they do not overlap with the next scheduled run
+                executor.shutdownNow();
+                break;
+            }
+            LOGGER.debug("Updated metrics of " + currentCompleted + "/" + orderedProjects.size() + " projects so far");
+            lastCompleted = currentCompleted;
+        }
+
+        // Projects whose update failed, was interrupted, or never started must be retried
+        // with the next run, rather than staying stale until the next full update.
+        for (final Project project : orderedProjects) {
+            if (!updatedProjectIds.contains(project.getId())) {
+                MetricsDirtyTracker.getInstance().markDirty(project.getId());
+            }
+        }
+    }
+
+    /**
+     * Determine how many project metrics updates may access the database concurrently.
+     * <p>
+     * Only half of the connection pool is made available, so that the remaining connections
+     * can still serve the REST API and other tasks while the portfolio metrics update is running.
+     * Metrics updates use both the transactional and the non-transactional pool, so the smaller
+     * of the two is what limits them.
+     *
+     * @return The number of permits
+     */
+    static int getDatabasePermits() {
+        final Config config = Config.getInstance();
+        if (!config.getPropertyAsBoolean(Config.AlpineKey.DATABASE_POOL_ENABLED)) {
+            return PARALLELISM;
+        }
+        final int poolSize = Math.min(
+                getDatabasePoolMaxSize(config, Config.AlpineKey.DATABASE_POOL_TX_MAX_SIZE),
+                getDatabasePoolMaxSize(config, Config.AlpineKey.DATABASE_POOL_NONTX_MAX_SIZE));
+        return Math.max(1, Math.min(PARALLELISM, poolSize / 2));
+    }
+
+    /**
+     * Resolve the maximum size of a connection pool the same way Alpine does when creating it,
+     * i.e. using the pool-specific size if configured, and the generic size otherwise.
+     */
+    @SuppressWarnings("deprecation")
+    private static int getDatabasePoolMaxSize(final Config config, final Config.AlpineKey poolKey) {
+        if (config.getProperty(poolKey) != null) {
+            return config.getPropertyAsInt(poolKey);
+        }
+        return config.getPropertyAsInt(Config.AlpineKey.DATABASE_POOL_MAX_SIZE);
+    }
+
+    private List<Project> fetchActiveProjects(final PersistenceManager pm) throws Exception {
+        try (final Query<Project> query = pm.newQuery(Project.class)) {
+            query.setFilter("(active == null || active == true)");
             query.setOrdering("id DESC");
-            query.range(0, BATCH_SIZE);
             query.getFetchPlan().setGroup(Project.FetchGroup.METRICS_UPDATE.name());
             return List.copyOf(query.executeList());
         }
     }
 
+    private Map<Long, Long> fetchComponentCounts(final PersistenceManager pm) throws Exception {
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setResult("project.id, count(id)");
+            query.setGrouping("project.id");
+            final var componentCountByProjectId = new HashMap<Long, Long>();
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                componentCountByProjectId.put((Long) row[0], (Long) row[1]);
+            }
+            return componentCountByProjectId;
+        }
+    }
+
+    private Map<Long, ProjectMetrics> fetchMostRecentProjectMetrics(final PersistenceManager pm) throws Exception {
+        final List<Long> metricsIds;
+        try (final Query<ProjectMetrics> query = pm.newQuery(ProjectMetrics.class)) {
+            query.setResult("max(id)");
+            query.setGrouping("project.id");
+            metricsIds = List.copyOf(query.executeResultList(Long.class));
+        }
+
+        final Map<Long, ProjectMetrics> metricsByProjectId = new HashMap<>();
+        for (final List<Long> metricsIdsBatch : Lists.partition(metricsIds, MAX_QUERY_PARAMETERS)) {
+            try (final Query<ProjectMetrics> query = pm.newQuery(ProjectMetrics.class)) {
+                query.setFilter(":ids.contains(id)");
+                query.setParameters(metricsIdsBatch);
+                for (final ProjectMetrics metrics : query.executeList()) {
+                    metricsByProjectId.put(metrics.getProject().getId(), metrics);
+                }
+            }
+        }
+        return metricsByProjectId;
+    }
+
 }
@@ -0,0 +1,300 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.metrics;
+
+import com.google.common.collect.Lists;
+import org.dependencytrack.metrics.Metrics;
+import org.dependencytrack.model.Analysis;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Severity;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.ViolationAnalysisState;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.persistence.VulnerabilityAliasIndex;
+import org.dependencytrack.util.VulnerabilityUtil;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * Calculates the {@link Counters} of all {@link Component}s of a {@link Project} at once.
+ * <p>
+ * As opposed to {@link ComponentMetricsUpdateTask}, which issues multiple queries per component,
+ * the number of queries executed here does not depend on the number of components in the project.
+ * Values are aggregated in the database where possible, and in memory otherwise.
+ *
+ * @since 4.10.0
+ */
+final class ProjectMetricsCalculator {
+
+    /**
+     * Maximum number of parameters to include in a single query.
+     * Kept well below the parameter limits of the supported database systems.
+     */
+    private static final int MAX_QUERY_PARAMETERS = 1000;
+
+    private final PersistenceManager pm;
+    private final Project project;
+
+    ProjectMetricsCalculator(final PersistenceManager pm, final Project project) {
+        this.pm = pm;
+        this.project = project;
+    }
+
+    /**
+     * Calculate the {@link Counters} of all {@link Component}s in the {@link Project}.
+     *
+     * @param componentIds IDs of the {@link Component}s to calculate {@link Counters} for
+     * @return The calculated {@link Counters}, keyed by {@link Component} ID
+     * @throws Exception When querying the database failed
+     */
+    Map<Long, Counters> calculate(final Collection<Long> componentIds) throws Exception {
+        final Map<Long, Counters> countersByComponentId = new HashMap<>();
+        for (final Long componentId : componentIds) {
+            countersByComponentId.put(componentId, new Counters());
+        }
+
+        countVulnerabilities(countersByComponentId);
+        countAnalyses(countersByComponentId);
+        countPolicyViolations(countersByComponentId);
+        countAuditedPolicyViolations(countersByComponentId);
+
+        for (final Counters counters : countersByComponentId.values()) {
+            counters.findingsTotal = counters.vulnerabilities;
+            counters.findingsUnaudited = counters.findingsTotal - counters.findingsAudited;
+            counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+
+            counters.policyViolationsLicenseUnaudited = counters.policyViolationsLicenseTotal - counters.policyViolationsLicenseAudited;
+            counters.policyViolationsOperationalUnaudited = counters.policyViolationsOperationalTotal - counters.policyViolationsOperationalAudited;
+            counters.policyViolationsSecurityUnaudited = counters.policyViolationsSecurityTotal - counters.policyViolationsSecurityAudited;
+            counters.policyViolationsAudited = counters.policyViolationsLicenseAudited +
+                    counters.policyViolationsOperationalAudited +
+                    counters.policyViolationsSecurityAudited;
+            counters.policyViolationsUnaudited = counters.policyViolationsTotal - counters.policyViolationsAudited;
+        }
+
+        return countersByComponentId;
+    }
+
+    /**
+     * Fetch the most recent {@link DependencyMetrics} of all {@link Component}s in the {@link Project}.
+     * <p>
+     * Metrics are only ever appended, so the most recent metrics of a component are those with the highest ID.
+     *
+     * @return The most recent {@link DependencyMetrics}, keyed by {@link Component} ID
+     * @throws Exception When querying the database failed
+     */
+    Map<Long, DependencyMetrics> getMostRecentDependencyMetrics() throws Exception {
+        final List<Long> metricsIds;
+        try (final Query<DependencyMetrics> query = pm.newQuery(DependencyMetrics.class)) {
+            query.setFilter("project == :project");
+            query.setParameters(project);
+            query.setResult("max(id)");
+            query.setGrouping("component.id");
+            metricsIds = List.copyOf(query.executeResultList(Long.class));
+        }
+
+        final Map<Long, DependencyMetrics> metricsByComponentId = new HashMap<>();
+        for (final List<Long> metricsIdsBatch : Lists.partition(metricsIds, MAX_QUERY_PARAMETERS)) {
+            try (final Query<DependencyMetrics> query = pm.newQuery(DependencyMetrics.class)) {
+                query.setFilter(":ids.contains(id)");
+                query.setParameters(metricsIdsBatch);
+                for (final DependencyMetrics metrics : query.executeList()) {
+                    metricsByComponentId.put(metrics.getComponent().getId(), metrics);
+                }
+            }
+        }
+        return metricsByComponentId;
+    }
+
+    private void countVulnerabilities(final Map<Long, Counters> countersByComponentId) throws Exception {
+        final List<FindingProjection> findings;
+        try (final Query<Component> query = pm.newQuery(Component.class)) {
+            query.setFilter("project == :project && vulnerabilities.contains(vuln)");
+            query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+            query.setParameters(project);
+            query.setResult("""
+                    id, vuln.id, vuln.source, vuln.vulnId, vuln.severity, vuln.cvssV2BaseScore, vuln.cvssV3BaseScore,
+                    vuln.owaspRRLikelihoodScore, vuln.owaspRRTechnicalImpactScore, vuln.owaspRRBusinessImpactScore
+                    """);
+            query.setOrdering("id ASC, vuln.id ASC");
+            findings = query.executeResultList(Object[].class).stream()
+                    .map(FindingProjection::of)
+                    .toList();
+        }
+        if (findings.isEmpty()) {
+            return;
+        }
+
+        final Set<List<Long>> suppressedFindings = new HashSet<>();
+        try (final Query<Analysis> query = pm.newQuery(Analysis.class)) {
+            query.setFilter("component.project == :project && suppressed == true");
+            query.setParameters(project);
+            query.setResult("component.id, vulnerability.id");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                suppressedFindings.add(List.of((Long) row[0], (Long) row[1]));
+            }
+        }
+
+        final Map<String, Set<String>> vulnIdsBySource = new HashMap<>();
+        for (final FindingProjection finding : findings) {
+            vulnIdsBySource.computeIfAbsent(finding.source(), ignored -> new HashSet<>()).add(finding.vulnId());
+        }
+        final VulnerabilityAliasIndex aliasIndex = VulnerabilityAliasIndex.load(pm, vulnIdsBySource);
+
+        long currentComponentId = -1;
+        final Set<String> aliasesSeen = new HashSet<>();
+        for (final FindingProjection finding : findings) {
+            final Counters counters = countersByComponentId.get(finding.componentId());
+            if (counters == null || suppressedFindings.contains(List.of(finding.componentId(), finding.vulnerabilityId()))) {
+                continue;
+            }
+            if (finding.componentId() != currentComponentId) {
+                currentComponentId = finding.componentId();
+                aliasesSeen.clear();
+            }
+
+            // Skip vulnerabilities if an alias of them has already been counted for the same component
+            final String vulnKey = finding.source() + "|" + finding.vulnId();
+            if (aliasesSeen.contains(vulnKey)) {
+                continue;
+            }
+            for (final VulnerabilityAlias alias : aliasIndex.getAliases(finding.source(), finding.vulnId())) {
+                alias.getAllBySource().forEach((source, vulnId) -> aliasesSeen.add(source + "|" + vulnId));
+            }
+
+            counters.vulnerabilities++;
+
+            final Severity severity = VulnerabilityUtil.getSeverity(finding.severity(), finding.cvssV2BaseScore(), finding.cvssV3BaseScore(),
+                    finding.owaspRRLikelihoodScore(), finding.owaspRRTechnicalImpactScore(), finding.owaspRRBusinessImpactScore());
+            switch (severity) {
+                case CRITICAL -> counters.critical++;
+                case HIGH -> counters.high++;
+                case MEDIUM -> counters.medium++;
+                case LOW, INFO -> counters.low++;
+                case UNASSIGNED -> counters.unassigned++;
+            }
+        }
+    }
+
+    private void countAnalyses(final Map<Long, Counters> countersByComponentId) throws Exception {
+        try (final Query<Analysis> query = pm.newQuery(Analysis.class)) {
+            query.setFilter("component.project == :project");
+            query.setParameters(project);
+            query.setResult("component.id, suppressed, analysisState, count(this)");
+            query.setGrouping("component.id, suppressed, analysisState");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Counters counters = countersByComponentId.get((Long) row[0]);
+                if (counters == null) {
+                    continue;
+                }
+
+                final int count = toIntExact((Long) row[3]);
+                if (Boolean.TRUE.equals(row[1])) {
+                    counters.suppressions += count;
+                } else if (row[2] != null && row[2] != AnalysisState.NOT_SET && row[2] != AnalysisState.IN_TRIAGE) {
+                    counters.findingsAudited += count;
+                }
+            }
+        }
+    }
+
+    private void countPolicyViolations(final Map<Long, Counters> countersByComponentId) throws Exception {
+        try (final Query<PolicyViolation> query = pm.newQuery(PolicyViolation.class)) {
+            query.setFilter("component.project == :project && (analysis == null || analysis.suppressed == false)");
+            query.setParameters(project);
+            query.setResult("component.id, type, policyCondition.policy.violationState, count(this)");
+            query.setGrouping("component.id, type, policyCondition.policy.violationState");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Counters counters = countersByComponentId.get((Long) row[0]);
+                if (counters == null) {
+                    continue;
+                }
+
+                final int count = toIntExact((Long) row[3]);
+                counters.policyViolationsTotal += count;
+
+                switch ((PolicyViolation.Type) row[1]) {
+                    case LICENSE -> counters.policyViolationsLicenseTotal += count;
+                    case OPERATIONAL -> counters.policyViolationsOperationalTotal += count;
+                    case SECURITY -> counters.policyViolationsSecurityTotal += count;
+                }
+
+                switch ((Policy.ViolationState) row[2]) {
+                    case FAIL -> counters.policyViolationsFail += count;
+                    case WARN -> counters.policyViolationsWarn += count;
+                    case INFO -> counters.policyViolationsInfo += count;
+                }
+            }
+        }
+    }
+
+    private void countAuditedPolicyViolations(final Map<Long, Counters> countersByComponentId) throws Exception {
+        try (final Query<ViolationAnalysis> query = pm.newQuery(ViolationAnalysis.class)) {
+            query.setFilter("""
+                    component.project == :project &&
+                    suppressed == false &&
+                    analysisState != :notSet
+                    """);
+            query.setParameters(project, ViolationAnalysisState.NOT_SET);
+            query.setResult("component.id, policyViolation.type, count(this)");
+            query.setGrouping("component.id, policyViolation.type");
+            for (final Object[] row : query.executeResultList(Object[].class)) {
+                final Counters counters = countersByComponentId.get((Long) row[0]);
+                if (counters == null) {
+                    continue;
+                }
+
+                final int count = toIntExact((Long) row[2]);
+                switch ((PolicyViolation.Type) row[1]) {
+                    case LICENSE -> counters.policyViolationsLicenseAudited += count;
+                    case OPERATIONAL -> counters.policyViolationsOperationalAudited += count;
+                    case SECURITY -> counters.policyViolationsSecurityAudited += count;
+                }
+            }
+        }
+    }
+
+    private record FindingProjection(long componentId, long vulnerabilityId, String source, String vulnId,
+                                     Object severity, BigDecimal cvssV2BaseScore, BigDecimal cvssV3BaseScore,
+                                     BigDecimal owaspRRLikelihoodScore, BigDecimal owaspRRTechnicalImpactScore,
+                                     BigDecimal owaspRRBusinessImpactScore) {
+
+        private static FindingProjection of(final Object[] row) {
+            return new FindingProjection((Long) row[0], (Long) row[1], (String) row[2], (String) row[3], row[4],
+                    (BigDecimal) row[5], (BigDecimal) row[6], (BigDecimal) row[7], (BigDecimal) row[8], (BigDecimal) row[9]);
+        }
+
+    }
+
+}
@@ -21,10 +21,12 @@ package org.dependencytrack.tasks.metrics;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.metrics.Metrics;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.ProjectMetrics;
 import org.dependencytrack.persistence.QueryManager;
@@ -33,6 +35,7 @@ import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
@@ -44,6 +47,7 @@ import java.util.UUID;
 public class ProjectMetricsUpdateTask implements Subscriber {
 
     private static final Logger LOGGER = Logger.getLogger(ProjectMetricsUpdateTask.class);
+    private static final int COMPONENTS_BATCH_SIZE = 500;
 
     @Override
     public void inform(final Event e) {
@@ -58,7 +62,7 @@ public class ProjectMetricsUpdateTask implements Subscriber {
         }
     }
 
-    private void updateMetrics(final UUID uuid) throws Exception {
+    static void updateMetrics(final UUID uuid) throws Exception {
         final var counters = new Counters();
 
         try (final QueryManager qm = new QueryManager()) {
@@ -69,63 +73,33 @@ public class ProjectMetricsUpdateTask implements Subscriber {
                 throw new NoSuchElementException("Project " + uuid + " does not exist");
             }
 
-            LOGGER.debug("Fetching first components page for project " + uuid);
-            List<Component> components = fetchNextComponentsPage(pm, project, null);
-
-            while (!components.isEmpty()) {
-                for (final Component component : components) {
-                    final Counters componentCounters;
-                    try {
-                        componentCounters = ComponentMetricsUpdateTask.updateMetrics(component.getUuid());
-                    } catch (NoSuchElementException ex) {
-                        // This will happen when a component or its associated project have been deleted after the
-                        // task started. Instead of splurging the log with to-be-expected errors, we just log it
-                        // with DEBUG, and ignore it otherwise.
-                        LOGGER.debug("Couldn't update metrics of component " + component.getUuid() + " because the component was not found", ex);
-                        continue;
-                    } catch (Exception ex) {
-                        LOGGER.error("An unexpected error occurred while updating metrics of component " + component.getUuid(), ex);
-                        continue;
+            LOGGER.debug("Fetching components of project " + uuid);
+            final List<Component> components = fetchComponents(pm, project);
+
+            LOGGER.debug("Calculating metrics of " + components.size() + " components of project " + uuid);
+            final var calculator = new ProjectMetricsCalculator(pm, project);
+            final Map<Long, Counters> countersByComponentId = calculator.calculate(components.stream().map(Component::getId).toList());
+            final Map<Long, DependencyMetrics> latestMetricsByComponentId = calculator.getMostRecentDependencyMetrics();
+
+            for (final List<Component> batch : Lists.partition(components, COMPONENTS_BATCH_SIZE)) {
+                qm.runInTransaction(() -> {
+                    for (final Component component : batch) {
+                        final Counters componentCounters = countersByComponentId.get(component.getId());
+                        final DependencyMetrics latestMetrics = latestMetricsByComponentId.get(component.getId());
+                        if (!componentCounters.hasChanged(latestMetrics)) {
+                            latestMetrics.setLastOccurrence(componentCounters.measuredAt);
+                        } else {
+                            pm.makePersistent(componentCounters.createComponentMetrics(component));
+                        }
+
+                        if (component.getLastInheritedRiskScore() == null ||
+                                component.getLastInheritedRiskScore() != componentCounters.inheritedRiskScore) {
+                            component.setLastInheritedRiskScore(componentCounters.inheritedRiskScore);
+                        }
+
+                        addComponentCounters(counters, componentCounters);
                     }
-
-                    counters.critical += componentCounters.critical;
-                    counters.high += componentCounters.high;
-                    counters.medium += componentCounters.medium;
-                    counters.low += componentCounters.low;
-                    counters.unassigned += componentCounters.unassigned;
-                    counters.vulnerabilities += componentCounters.vulnerabilities;
-
-                    counters.findingsTotal += componentCounters.findingsTotal;
-                    counters.findingsAudited += componentCounters.findingsAudited;
-                    counters.findingsUnaudited += componentCounters.findingsUnaudited;
-                    counters.suppressions += componentCounters.suppressions;
-                    counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
-
-                    counters.components++;
-                    if (componentCounters.vulnerabilities > 0) {
-                        counters.vulnerableComponents += 1;
-                    }
-
-                    counters.policyViolationsFail += componentCounters.policyViolationsFail;
-                    counters.policyViolationsWarn += componentCounters.policyViolationsWarn;
-                    counters.policyViolationsInfo += componentCounters.policyViolationsInfo;
-                    counters.policyViolationsTotal += componentCounters.policyViolationsTotal;
-                    counters.policyViolationsAudited += componentCounters.policyViolationsAudited;
-                    counters.policyViolationsUnaudited += componentCounters.policyViolationsUnaudited;
-                    counters.policyViolationsSecurityTotal += componentCounters.policyViolationsSecurityTotal;
-                    counters.policyViolationsSecurityAudited += componentCounters.policyViolationsSecurityAudited;
-                    counters.policyViolationsSecurityUnaudited += componentCounters.policyViolationsSecurityUnaudited;
-                    counters.policyViolationsLicenseTotal += componentCounters.policyViolationsLicenseTotal;
-                    counters.policyViolationsLicenseAudited += componentCounters.policyViolationsLicenseAudited;
-                    counters.policyViolationsLicenseUnaudited += componentCounters.policyViolationsLicenseUnaudited;
-                    counters.policyViolationsOperationalTotal += componentCounters.policyViolationsOperationalTotal;
-                    counters.policyViolationsOperationalAudited += componentCounters.policyViolationsOperationalAudited;
-                    counters.policyViolationsOperationalUnaudited += componentCounters.policyViolationsOperationalUnaudited;
-                }
-
-                LOGGER.debug("Fetching next components page for project " + uuid);
-                final long lastId = components.get(components.size() - 1).getId();
-                components = fetchNextComponentsPage(pm, project, lastId);
+                });
             }
 
             qm.runInTransaction(() -> {
@@ -151,20 +125,49 @@ public class ProjectMetricsUpdateTask implements Subscriber {
                 DurationFormatUtils.formatDuration(new Date().getTime() - counters.measuredAt.getTime(), "mm:ss:SS"));
     }
 
-    private List<Component> fetchNextComponentsPage(final PersistenceManager pm, final Project project, final Long lastId) throws Exception {
+    private static List<Component> fetchComponents(final PersistenceManager pm, final Project project) throws Exception {
         try (final Query<Component> query = pm.newQuery(Component.class)) {
-            if (lastId == null) {
-                query.setFilter("project == :project");
-                query.setParameters(project);
-            } else {
-                query.setFilter("project == :project && id < :lastId");
-                query.setParameters(project, lastId);
-            }
-            query.setOrdering("id DESC");
-            query.setRange(0, 500);
+            query.setFilter("project == :project");
+            query.setParameters(project);
             query.getFetchPlan().setGroup(Component.FetchGroup.METRICS_UPDATE.name());
             return List.copyOf(query.executeList());
         }
     }
 
+    private static void addComponentCounters(final Counters counters, final Counters componentCounters) {
+        counters.critical += componentCounters.critical;
+        counters.high += componentCounters.high;
+        counters.medium += componentCounters.medium;
+        counters.low += componentCounters.low;
+        counters.unassigned += componentCounters.unassigned;
+        counters.vulnerabilities += componentCounters.vulnerabilities;
+
+        counters.findingsTotal += componentCounters.findingsTotal;
+        counters.findingsAudited += componentCounters.findingsAudited;
+        counters.findingsUnaudited += componentCounters.findingsUnaudited;
+        counters.suppressions += componentCounters.suppressions;
+        counters.inheritedRiskScore = Metrics.inheritedRiskScore(counters.critical, counters.high, counters.medium, counters.low, counters.unassigned);
+
+        counters.components++;
+        if (componentCounters.vulnerabilities > 0) {
+            counters.vulnerableComponents += 1;
+        }
+
+        counters.policyViolationsFail += componentCounters.policyViolationsFail;
+        counters.policyViolationsWarn += componentCounters.policyViolationsWarn;
+        counters.policyViolationsInfo += componentCounters.policyViolationsInfo;
+        counters.policyViolationsTotal += componentCounters.policyViolationsTotal;
+        counters.policyViolationsAudited += componentCounters.policyViolationsAudited;
+        counters.policyViolationsUnaudited += componentCounters.policyViolationsUnaudited;
+        counters.policyViolationsSecurityTotal += componentCounters.policyViolationsSecurityTotal;
+        counters.policyViolationsSecurityAudited += componentCounters.policyViolationsSecurityAudited;
+        counters.policyViolationsSecurityUnaudited += componentCounters.policyViolationsSecurityUnaudited;
+        counters.policyViolationsLicenseTotal += componentCounters.policyViolationsLicenseTotal;
+        counters.policyViolationsLicenseAudited += componentCounters.policyViolationsLicenseAudited;
+        counters.policyViolationsLicenseUnaudited += componentCounters.policyViolationsLicenseUnaudited;
+        counters.policyViolationsOperationalTotal += componentCounters.policyViolationsOperationalTotal;
+        counters.policyViolationsOperationalAudited += componentCounters.policyViolationsOperationalAudited;
+        counters.policyViolationsOperationalUnaudited += componentCounters.policyViolationsOperationalUnaudited;
+    }
+
 }
@@ -24,11 +24,11 @@ import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.persistence.QueryManager;
 import org.dependencytrack.util.ComponentVersion;
+import org.dependencytrack.util.CpeAttributeMatcher;
 import org.dependencytrack.util.NotificationUtil;
-import us.springett.parsers.cpe.Cpe;
 import us.springett.parsers.cpe.values.LogicalValue;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+
+import javax.jdo.JDOObjectNotFoundException;
 import java.util.List;
 
 /**
@@ -65,6 +65,39 @@ public abstract class AbstractVulnerableSoftwareAnalysisTask extends BaseCompone
         }
     }
 
+    /**
+     * Analyzes the targetVersion against a list of {@link VulnerableSoftwareIndex.Match}es.
+     * For every match, every vulnerability associated with it will be applied to the specified component.
+     * <p>
+     * Vulnerabilities are only loaded from the database when the version of the {@link VulnerableSoftware}
+     * actually matches.
+     *
+     * @param qm the QueryManager to use
+     * @param matches a list of candidates as returned by the {@link VulnerableSoftwareIndex}
+     * @param targetVersion the version of the component
+     * @param component the component being analyzed
+     */
+    protected void analyzeIndexedVersionRange(final QueryManager qm, final List<VulnerableSoftwareIndex.Match> matches,
+                                              final String targetVersion, final String targetUpdate, final Component component,
+                                              final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        for (final VulnerableSoftwareIndex.Match match : matches) {
+            final VulnerableSoftware vs = match.vulnerableSoftware();
+            if (compareVersions(vs, targetVersion) && compareUpdate(vs, targetUpdate)) {
+                for (final Long vulnerabilityId : match.vulnerabilityIds()) {
+                    final Vulnerability vulnerability;
+                    try {
+                        vulnerability = qm.getObjectById(Vulnerability.class, vulnerabilityId);
+                    } catch (JDOObjectNotFoundException e) {
+                        // The vulnerability has been deleted since the index was last refreshed.
+                        continue;
+                    }
+                    NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
+                    qm.addVulnerability(vulnerability, component, this.getAnalyzerIdentity());
+                }
+            }
+        }
+    }
+
     /**
      * Evaluates the target against the version and version range checks:
      * versionEndExcluding, versionStartExcluding versionEndIncluding, and
@@ -92,50 +125,30 @@ public abstract class AbstractVulnerableSoftwareAnalysisTask extends BaseCompone
         // Check for CPE wilcards first, before comparing versions
         // Modified from original by Steve Springett
         // Added null check: vs.getVersion() != null as purl sources that use version ranges may not have version populated.
-        if (!result && vs.getVersion() != null && compareAttributes(vs.getVersion(), targetVersion)) {
+        if (!result && vs.getVersion() != null && CpeAttributeMatcher.matches(vs.getVersion(), targetVersion)) {
             return true;
         }
 
-        final ComponentVersion target = new ComponentVersion(targetVersion);
+        final ComponentVersion target = ComponentVersion.of(targetVersion);
         if (result && vs.getVersionEndExcluding() != null && !vs.getVersionEndExcluding().isEmpty()) {
-            final ComponentVersion endExcluding = new ComponentVersion(vs.getVersionEndExcluding());
+            final ComponentVersion endExcluding = ComponentVersion.of(vs.getVersionEndExcluding());
             result = endExcluding.compareTo(target) > 0;
         }
         if (result && vs.getVersionStartExcluding() != null && !vs.getVersionStartExcluding().isEmpty()) {
-            final ComponentVersion startExcluding = new ComponentVersion(vs.getVersionStartExcluding());
+            final ComponentVersion startExcluding = ComponentVersion.of(vs.getVersionStartExcluding());
             result = startExcluding.compareTo(target) < 0;
         }
         if (result && vs.getVersionEndIncluding() != null && !vs.getVersionEndIncluding().isEmpty()) {
-            final ComponentVersion endIncluding = new ComponentVersion(vs.getVersionEndIncluding());
+            final ComponentVersion endIncluding = ComponentVersion.of(vs.getVersionEndIncluding());
             result &= endIncluding.compareTo(target) >= 0;
         }
         if (result && vs.getVersionStartIncluding() != null && !vs.getVersionStartIncluding().isEmpty()) {
-            final ComponentVersion startIncluding = new ComponentVersion(vs.getVersionStartIncluding());
+            final ComponentVersion startIncluding = ComponentVersion.of(vs.getVersionStartIncluding());
             result &= startIncluding.compareTo(target) <= 0;
         }
         return result;
     }
 
-    private static final Method COMPARE_ATTRIBUTES_METHOD;
-
-    static {
-        try {
-            // Workaround for the fact that Cpe#compareAttributes has protected visibility.
-            COMPARE_ATTRIBUTES_METHOD = Cpe.class.getDeclaredMethod("compareAttributes", String.class, String.class);
-            COMPARE_ATTRIBUTES_METHOD.setAccessible(true);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException("Failed to access compareAttributes method of %s".formatted(Cpe.class.getName()), e);
-        }
-    }
-
-    private static boolean compareAttributes(String left, String right) {
-        try {
-            return (Boolean) COMPARE_ATTRIBUTES_METHOD.invoke(null, left, right);
-        } catch (InvocationTargetException | IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
      * Evaluates the target update against the vulnerable software. The update
      * field is optional and if the value is ANY (*), then it will return true.
@@ -163,6 +176,6 @@ public abstract class AbstractVulnerableSoftwareAnalysisTask extends BaseCompone
         if (vs.getUpdate() == null || targetUpdate == null) {
             return false;
         }
-        return compareAttributes(vs.getUpdate(), targetUpdate);
+        return CpeAttributeMatcher.matches(vs.getUpdate(), targetUpdate);
     }
 }
@@ -39,7 +39,11 @@ import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonNumber;
 import javax.json.JsonObject;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * A base class that has logic common or useful to all classes that extend it.
@@ -65,17 +69,8 @@ public abstract class BaseComponentAnalyzerTask implements ScanTask {
 
     protected boolean isCacheCurrent(Vulnerability.Source source, String targetHost, String target) {
         try (QueryManager qm = new QueryManager()) {
-            boolean isCacheCurrent = false;
-            ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
-            long cacheValidityPeriod = Long.parseLong(cacheClearPeriod.getPropertyValue());
             ComponentAnalysisCache cac = qm.getComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target);
-            if (cac != null) {
-                final Date now = new Date();
-                if (now.getTime() > cac.getLastOccurrence().getTime()) {
-                    final long delta = now.getTime() - cac.getLastOccurrence().getTime();
-                    isCacheCurrent = delta <= cacheValidityPeriod;
-                }
-            }
+            final boolean isCacheCurrent = isCacheCurrent(cac, getCacheValidityPeriod(qm), new Date());
             if (isCacheCurrent) {
                 LOGGER.debug("Cache is current. Skipping analysis. (source: " + source + " / targetHost: " + targetHost + " / target: " + target);
             } else {
@@ -90,20 +85,78 @@ public abstract class BaseComponentAnalyzerTask implements ScanTask {
         try (QueryManager qm = new QueryManager()) {
             final ComponentAnalysisCache cac = qm.getComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(), target);
             if (cac != null) {
-                final JsonObject result = cac.getResult();
-                if (result != null) {
-                    final JsonArray vulns = result.getJsonArray("vulnIds");
-                    if (vulns != null) {
-                        for (JsonNumber vulnId : vulns.getValuesAs(JsonNumber.class)) {
-                            final Vulnerability vulnerability;
-                            vulnerability = qm.getObjectById(Vulnerability.class, vulnId.longValue());
-                            final Component c = qm.getObjectByUuid(Component.class, component.getUuid());
-                            if (c == null) continue;
-                            if (vulnerability != null) {
-                                NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
-                                qm.addVulnerability(vulnerability, c, analyzerIdentity);
-                            }
-                        }
+                applyAnalysisFromCache(qm, cac, component, analyzerIdentity, vulnerabilityAnalysisLevel);
+            }
+        }
+    }
+
+    /**
+     * Applies cached analysis results to all components with a current cache entry.
+     * <p>
+     * Cache entries of all components are resolved in bulk, rather than querying the cache once per component.
+     *
+     * @param source                     the {@link Vulnerability.Source} of the analyzer
+     * @param targetHost                 the target host the analyzer caches results for
+     * @param components                 the components to apply cached analysis results to
+     * @param targetFunction             function to determine the cache target of a component
+     * @param analyzerIdentity           the {@link AnalyzerIdentity} of the analyzer
+     * @param vulnerabilityAnalysisLevel the {@link VulnerabilityAnalysisLevel}
+     * @return the components without a current cache entry, which need to be analyzed
+     * @since 4.10.0
+     */
+    protected List<Component> applyAnalysisFromCache(final Vulnerability.Source source, final String targetHost,
+                                                     final List<Component> components, final Function<Component, String> targetFunction,
+                                                     final AnalyzerIdentity analyzerIdentity, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        if (components.isEmpty()) {
+            return components;
+        }
+        final var componentsToAnalyze = new ArrayList<Component>();
+        try (QueryManager qm = new QueryManager()) {
+            final long cacheValidityPeriod = getCacheValidityPeriod(qm);
+            final Map<String, ComponentAnalysisCache> cachesByTarget = qm.getComponentAnalysisCaches(
+                    ComponentAnalysisCache.CacheType.VULNERABILITY, targetHost, source.name(),
+                    components.stream().map(targetFunction).toList());
+            final Date now = new Date();
+            for (final Component component : components) {
+                final ComponentAnalysisCache cac = cachesByTarget.get(targetFunction.apply(component));
+                if (isCacheCurrent(cac, cacheValidityPeriod, now)) {
+                    applyAnalysisFromCache(qm, cac, component, analyzerIdentity, vulnerabilityAnalysisLevel);
+                } else {
+                    componentsToAnalyze.add(component);
+                }
+            }
+        }
+        LOGGER.debug("Applied cached analysis results to " + (components.size() - componentsToAnalyze.size())
+                + " of " + components.size() + " components (source: " + source + " / targetHost: " + targetHost + ")");
+        return componentsToAnalyze;
+    }
+
+    private long getCacheValidityPeriod(final QueryManager qm) {
+        final ConfigProperty cacheClearPeriod = qm.getConfigProperty(ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(), ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName());
+        return Long.parseLong(cacheClearPeriod.getPropertyValue());
+    }
+
+    private static boolean isCacheCurrent(final ComponentAnalysisCache cac, final long cacheValidityPeriod, final Date now) {
+        if (cac != null && now.getTime() > cac.getLastOccurrence().getTime()) {
+            final long delta = now.getTime() - cac.getLastOccurrence().getTime();
+            return delta <= cacheValidityPeriod;
+        }
+        return false;
+    }
+
+    private void applyAnalysisFromCache(final QueryManager qm, final ComponentAnalysisCache cac, final Component component,
+                                        final AnalyzerIdentity analyzerIdentity, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        final JsonObject result = cac.getResult();
+        if (result != null) {
+            final JsonArray vulns = result.getJsonArray("vulnIds");
+            if (vulns != null && !vulns.isEmpty()) {
+                final Component c = qm.getObjectByUuid(Component.class, component.getUuid());
+                if (c == null) return;
+                for (JsonNumber vulnId : vulns.getValuesAs(JsonNumber.class)) {
+                    final Vulnerability vulnerability = qm.getObjectById(Vulnerability.class, vulnId.longValue());
+                    if (vulnerability != null) {
+                        NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, vulnerabilityAnalysisLevel);
+                        qm.addVulnerability(vulnerability, c, analyzerIdentity);
                     }
                 }
             }
@@ -20,6 +20,9 @@ package org.dependencytrack.tasks.scanners;
 
 import com.github.packageurl.PackageURL;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+
+import java.util.List;
 
 public interface CacheableScanTask extends ScanTask {
 
@@ -39,4 +42,14 @@ public interface CacheableScanTask extends ScanTask {
      */
     void applyAnalysisFromCache(final Component component);
 
+    /**
+     * Analyzes all specified components that have a current result in the local
+     * {@link org.dependencytrack.model.ComponentAnalysisCache}. Cache entries are resolved in bulk.
+     * @param components the Components to analyze from cache
+     * @param vulnerabilityAnalysisLevel the {@link VulnerabilityAnalysisLevel} of the analysis
+     * @return the Components without a current cache entry, which need to be analyzed
+     * @since 4.10.0
+     */
+    List<Component> applyAnalysisFromCache(final List<Component> components, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel);
+
 }
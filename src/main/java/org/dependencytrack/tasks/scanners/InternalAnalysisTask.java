@@ -18,9 +18,11 @@
  */
 package org.dependencytrack.tasks.scanners;
 
+import alpine.Config;
 import alpine.common.logging.Logger;
 import alpine.event.framework.Event;
 import alpine.event.framework.Subscriber;
+import org.dependencytrack.common.ConfigKey;
 import org.dependencytrack.event.InternalAnalysisEvent;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ConfigPropertyConstants;
@@ -49,6 +51,15 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
     }
 
     private VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel;
+    private final boolean indexEnabled;
+
+    public InternalAnalysisTask() {
+        this(Config.getInstance().getPropertyAsBoolean(ConfigKey.SCANNER_INTERNAL_INDEX_ENABLED));
+    }
+
+    InternalAnalysisTask(final boolean indexEnabled) {
+        this.indexEnabled = indexEnabled;
+    }
 
     /**
      * {@inheritDoc}
@@ -83,17 +94,26 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
      * @param components a list of Components
      */
     public void analyze(final List<Component> components) {
+        boolean useIndex = indexEnabled;
+        if (useIndex) {
+            try {
+                VulnerableSoftwareIndex.getInstance().refresh();
+            } catch (Exception e) {
+                LOGGER.error("Failed to refresh the vulnerable software index; Falling back to database queries", e);
+                useIndex = false;
+            }
+        }
         try (QueryManager qm = new QueryManager()) {
             LOGGER.info("Analyzing " + components.size() + " component(s)");
             for (final Component c : components) {
                 final Component component = qm.getObjectByUuid(Component.class, c.getUuid()); // Refresh component and attach to current pm.
                 if (component == null) continue;
-                versionRangeAnalysis(qm, component);
+                versionRangeAnalysis(qm, component, useIndex);
             }
         }
     }
 
-    private void versionRangeAnalysis(final QueryManager qm, final Component component) {
+    private void versionRangeAnalysis(final QueryManager qm, final Component component, final boolean useIndex) {
         final boolean fuzzyEnabled = super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_ENABLED) &&
                 (!component.isInternal() || !super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_EXCLUDE_INTERNAL));
         final boolean excludeComponentsWithPurl = super.isEnabled(ConfigPropertyConstants.SCANNER_INTERNAL_FUZZY_EXCLUDE_PURL);
@@ -138,10 +158,17 @@ public class InternalAnalysisTask extends AbstractVulnerableSoftwareAnalysisTask
             }
         }
 
-        if (parsedCpe != null) {
-            vsList = qm.getAllVulnerableSoftware(parsedCpe.getPart().getAbbreviation(), parsedCpe.getVendor(), parsedCpe.getProduct(), component.getPurl());
+        final String cpePart = parsedCpe != null ? parsedCpe.getPart().getAbbreviation() : null;
+        final String cpeVendor = parsedCpe != null ? parsedCpe.getVendor() : null;
+        final String cpeProduct = parsedCpe != null ? parsedCpe.getProduct() : null;
+        if (useIndex) {
+            final List<VulnerableSoftwareIndex.Match> matches = VulnerableSoftwareIndex.getInstance().find(cpePart, cpeVendor, cpeProduct, component.getPurl());
+            if (!matches.isEmpty() || !fuzzyEnabled) {
+                super.analyzeIndexedVersionRange(qm, matches, componentVersion, componentUpdate, component, vulnerabilityAnalysisLevel);
+                return;
+            }
         } else {
-            vsList = qm.getAllVulnerableSoftware(null, null, null, component.getPurl());
+            vsList = qm.getAllVulnerableSoftware(cpePart, cpeVendor, cpeProduct, component.getPurl());
         }
 
         if (fuzzyEnabled && vsList.isEmpty()) {
@@ -68,8 +68,6 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Subscriber task that performs an analysis of component using Sonatype OSS Index REST API.
@@ -186,18 +184,32 @@ public class OssIndexAnalysisTask extends BaseComponentAnalyzerTask implements C
         applyAnalysisFromCache(Vulnerability.Source.OSSINDEX, API_BASE_URL, component.getPurl().toString(), component, getAnalyzerIdentity(), vulnerabilityAnalysisLevel);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Component> applyAnalysisFromCache(final List<Component> components, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        // Internal components are never submitted to OSS Index, so they must not receive its cached results either
+        final List<Component> externalComponents = components.stream()
+                .filter(component -> !component.isInternal())
+                .toList();
+        if (!super.isEnabled(ConfigPropertyConstants.SCANNER_OSSINDEX_ENABLED)) {
+            return externalComponents;
+        }
+        return applyAnalysisFromCache(Vulnerability.Source.OSSINDEX, API_BASE_URL, externalComponents,
+                component -> component.getPurl().toString(), getAnalyzerIdentity(), vulnerabilityAnalysisLevel);
+    }
+
     /**
      * Analyzes a list of Components.
      *
      * @param components a list of Components
      */
     public void analyze(final List<Component> components) {
-        Map<Boolean, List<Component>> componentsPartitionByCacheValidity = components.stream()
+        final List<Component> capableComponents = components.stream()
                 .filter(component -> !component.isInternal() && isCapable(component))
-                .collect(Collectors.partitioningBy(component -> isCacheCurrent(Vulnerability.Source.OSSINDEX, API_BASE_URL, component.getPurl().toString())));
-        List<Component> componentWithValidAnalysisFromCache = componentsPartitionByCacheValidity.get(true);
-        componentWithValidAnalysisFromCache.forEach(component -> applyAnalysisFromCache(Vulnerability.Source.OSSINDEX, API_BASE_URL, component.getPurl().toString(), component, getAnalyzerIdentity(), vulnerabilityAnalysisLevel));
-        List<Component> componentWithInvalidAnalysisFromCache = componentsPartitionByCacheValidity.get(false);
+                .toList();
+        final List<Component> componentWithInvalidAnalysisFromCache = applyAnalysisFromCache(capableComponents, vulnerabilityAnalysisLevel);
         final Pageable<Component> paginatedComponents = new Pageable<>(Config.getInstance().getPropertyAsInt(ConfigKey.OSSINDEX_REQUEST_MAX_PURL), componentWithInvalidAnalysisFromCache);
         while (!paginatedComponents.isPaginationComplete()) {
             final List<String> coordinates = new ArrayList<>();
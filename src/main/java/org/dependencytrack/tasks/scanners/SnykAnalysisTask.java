@@ -58,6 +58,7 @@ import org.dependencytrack.notification.NotificationScope;
 import org.dependencytrack.parser.snyk.SnykParser;
 import org.dependencytrack.parser.snyk.model.SnykError;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.util.NewVulnerabilityNotificationBatch;
 import org.dependencytrack.util.NotificationUtil;
 import org.dependencytrack.util.RoundRobinAccessor;
 import org.json.JSONArray;
@@ -230,16 +231,11 @@ public class SnykAnalysisTask extends BaseComponentAnalyzerTask implements Cache
      */
     @Override
     public void analyze(final List<Component> components) {
-        final var countDownLatch = new CountDownLatch(components.size());
-        for (final Component component : components) {
-            if (isCacheCurrent(Vulnerability.Source.SNYK, apiBaseUrl, component.getPurl().getCoordinates())) {
-                applyAnalysisFromCache(component);
-                countDownLatch.countDown();
-                continue;
-            }
-
+        final List<Component> componentsToAnalyze = applyAnalysisFromCache(components, vulnerabilityAnalysisLevel);
+        final var countDownLatch = new CountDownLatch(componentsToAnalyze.size());
+        for (final Component component : componentsToAnalyze) {
             CompletableFuture
-                    .runAsync(() -> analyzeComponent(component), EXECUTOR)
+                    .runAsync(NewVulnerabilityNotificationBatch.propagate(() -> analyzeComponent(component)), EXECUTOR)
                     .whenComplete((result, exception) -> {
                         countDownLatch.countDown();
 
@@ -298,6 +294,20 @@ public class SnykAnalysisTask extends BaseComponentAnalyzerTask implements Cache
                         component.getPurl().getCoordinates(), component, getAnalyzerIdentity(), vulnerabilityAnalysisLevel));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Component> applyAnalysisFromCache(final List<Component> components, final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        if (!super.isEnabled(ConfigPropertyConstants.SCANNER_SNYK_ENABLED)) {
+            return components;
+        }
+        return getApiBaseUrl()
+                .map(baseUrl -> applyAnalysisFromCache(Vulnerability.Source.SNYK, baseUrl, components,
+                        component -> component.getPurl().getCoordinates(), getAnalyzerIdentity(), vulnerabilityAnalysisLevel))
+                .orElse(List.of());
+    }
+
     private void analyzeComponent(final Component component) {
         final String encodedPurl = URLEncoder.encode(component.getPurl().getCoordinates(), StandardCharsets.UTF_8);
         final String requestUrl = "%s/rest/orgs/%s/packages/%s/issues?version=%s" .formatted(apiBaseUrl, apiOrgId, encodedPurl, apiVersion);
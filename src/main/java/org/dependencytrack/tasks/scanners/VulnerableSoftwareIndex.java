@@ -0,0 +1,367 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.common.logging.Logger;
+import com.github.packageurl.PackageURL;
+import com.google.common.collect.Lists;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.persistence.QueryManager;
+import us.springett.parsers.cpe.values.LogicalValue;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index of {@link VulnerableSoftware}, keyed by CPE vendor and product,
+ * as well as by Package URL type, namespace, and name.
+ * <p>
+ * The index allows the {@link InternalAnalysisTask} to identify candidate {@link VulnerableSoftware}s
+ * for a component without querying the database. Matching follows the same rules as
+ * {@link QueryManager#getAllVulnerableSoftware(String, String, String, PackageURL)}.
+ * <p>
+ * The index is loaded lazily upon first use. Tasks modifying the {@link VulnerableSoftware}s of a
+ * {@link Vulnerability} must {@link #invalidate(Vulnerability)} it, so that its associations are
+ * reloaded during the next {@link #refresh()}.
+ *
+ * @since 4.10.0
+ */
+public final class VulnerableSoftwareIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(VulnerableSoftwareIndex.class);
+    private static final VulnerableSoftwareIndex INSTANCE = new VulnerableSoftwareIndex();
+    private static final int PAGE_SIZE = 5000;
+    private static final int MAX_QUERY_PARAMETERS = 1000;
+    private static final String WILDCARD = LogicalValue.ANY.getAbbreviation();
+    private static final String NA = LogicalValue.NA.getAbbreviation();
+
+    // Only attributes relevant for matching are loaded.
+    private static final String SOFTWARE_RESULT = """
+            id, part, vendor, product, version, this.update, versionEndExcluding, versionEndIncluding,
+            versionStartExcluding, versionStartIncluding, purlType, purlNamespace, purlName""";
+
+    /**
+     * Vendor and product are normalized to lower case, because CPE matching is case-insensitive,
+     * and the database query the index replaces compared them using case-insensitive collations.
+     */
+    private record CpeKey(String vendor, String product) {
+
+        private static CpeKey of(final String vendor, final String product) {
+            return new CpeKey(vendor.toLowerCase(), product.toLowerCase());
+        }
+
+    }
+
+    private record PurlKey(String type, String namespace, String name) {
+    }
+
+    /**
+     * A {@link VulnerableSoftware} candidate, along with the IDs of the {@link Vulnerability}s affecting it.
+     *
+     * @param vulnerableSoftware A transient {@link VulnerableSoftware}, holding only attributes relevant for matching
+     * @param vulnerabilityIds   IDs of the {@link Vulnerability}s associated with the {@link VulnerableSoftware}
+     */
+    public record Match(VulnerableSoftware vulnerableSoftware, List<Long> vulnerabilityIds) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, VulnerableSoftware> softwareById = new HashMap<>();
+    private final Map<Long, Set<Long>> vulnerabilityIdsBySoftwareId = new HashMap<>();
+    private final Map<Long, Set<Long>> softwareIdsByVulnerabilityId = new HashMap<>();
+    private final Map<CpeKey, List<VulnerableSoftware>> softwareByCpe = new HashMap<>();
+    private final Map<PurlKey, List<VulnerableSoftware>> softwareByPurl = new HashMap<>();
+    private final Set<Long> staleVulnerabilityIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    VulnerableSoftwareIndex() { }
+
+    public static VulnerableSoftwareIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Mark the {@link VulnerableSoftware}s of a given {@link Vulnerability} as stale.
+     * <p>
+     * This is a no-op when the index has not been loaded yet.
+     *
+     * @param vulnerability The {@link Vulnerability} whose {@link VulnerableSoftware}s have changed
+     */
+    public void invalidate(final Vulnerability vulnerability) {
+        if (loaded && vulnerability != null && vulnerability.getId() > 0) {
+            staleVulnerabilityIds.add(vulnerability.getId());
+        }
+    }
+
+    /**
+     * Load the index if it has not been loaded yet, otherwise reload
+     * associations of all {@link Vulnerability}s marked as stale.
+     */
+    public void refresh() throws Exception {
+        if (loaded && staleVulnerabilityIds.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try (final var qm = new QueryManager()) {
+            if (!loaded) {
+                // Changes happening while the index is loading are picked up by the next refresh.
+                loaded = true;
+                staleVulnerabilityIds.clear();
+                load(qm.getPersistenceManager());
+            } else {
+                final var vulnerabilityIds = new ArrayList<Long>();
+                for (final Long vulnerabilityId : staleVulnerabilityIds) {
+                    if (staleVulnerabilityIds.remove(vulnerabilityId)) {
+                        vulnerabilityIds.add(vulnerabilityId);
+                    }
+                }
+                reload(qm.getPersistenceManager(), vulnerabilityIds);
+            }
+        } catch (Exception e) {
+            // Force a full load upon next refresh, rather than operating on partial data.
+            clear();
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fetch all {@link VulnerableSoftware}s matching the given CPE part, vendor, product, or Package URL.
+     *
+     * @param cpePart    The part attribute of the target CPE
+     * @param cpeVendor  The vendor attribute of the target CPE
+     * @param cpeProduct The product attribute of the target CPE
+     * @param purl       The Package URL
+     * @return A {@link List} of all matching {@link VulnerableSoftware}s
+     * @see QueryManager#getAllVulnerableSoftware(String, String, String, PackageURL)
+     */
+    public List<Match> find(final String cpePart, final String cpeVendor, final String cpeProduct, final PackageURL purl) {
+        lock.readLock().lock();
+        try {
+            final var softwareById = new LinkedHashMap<Long, VulnerableSoftware>();
+
+            if (cpePart != null && cpeVendor != null && cpeProduct != null) {
+                final List<String> vendors = getCandidateValues(cpeVendor);
+                final List<String> products = getCandidateValues(cpeProduct);
+                final var candidates = new ArrayList<VulnerableSoftware>();
+                if (vendors == null || products == null) {
+                    // Target contains ANY, so all sources need to be considered.
+                    softwareByCpe.values().forEach(candidates::addAll);
+                } else {
+                    for (final String vendor : vendors) {
+                        for (final String product : products) {
+                            candidates.addAll(softwareByCpe.getOrDefault(CpeKey.of(vendor, product), List.of()));
+                        }
+                    }
+                }
+                for (final VulnerableSoftware vs : candidates) {
+                    if (matchesCpeAttribute(vs.getPart(), cpePart)
+                            && matchesCpeAttribute(vs.getVendor(), cpeVendor)
+                            && matchesCpeAttribute(vs.getProduct(), cpeProduct)) {
+                        softwareById.put(vs.getId(), vs);
+                    }
+                }
+            }
+
+            if (purl != null) {
+                final var key = new PurlKey(purl.getType(), purl.getNamespace(), purl.getName());
+                for (final VulnerableSoftware vs : softwareByPurl.getOrDefault(key, List.of())) {
+                    softwareById.put(vs.getId(), vs);
+                }
+            }
+
+            final var matches = new ArrayList<Match>(softwareById.size());
+            for (final VulnerableSoftware vs : softwareById.values()) {
+                matches.add(new Match(vs, List.copyOf(vulnerabilityIdsBySoftwareId.getOrDefault(vs.getId(), Set.of()))));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Discard all data, such that the index is loaded again upon next {@link #refresh()}.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            softwareById.clear();
+            vulnerabilityIdsBySoftwareId.clear();
+            softwareIdsByVulnerabilityId.clear();
+            softwareByCpe.clear();
+            softwareByPurl.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(final PersistenceManager pm) throws Exception {
+        LOGGER.info("Loading vulnerable software index");
+        final long startTimeMs = System.currentTimeMillis();
+
+        long lastId = 0;
+        List<VulnerableSoftware> page;
+        do {
+            try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+                query.setFilter("id > :lastId");
+                query.setParameters(lastId);
+                query.setResult(SOFTWARE_RESULT);
+                query.setOrdering("id ASC");
+                query.setRange(0, PAGE_SIZE);
+                page = query.executeResultList(Object[].class).stream()
+                        .map(VulnerableSoftwareIndex::toVulnerableSoftware)
+                        .toList();
+            }
+            if (page.isEmpty()) {
+                break;
+            }
+
+            page.forEach(this::add);
+            final long firstId = page.get(0).getId();
+            lastId = page.get(page.size() - 1).getId();
+
+            try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+                query.setFilter("id >= :firstId && id <= :lastId && vulnerabilities.contains(vuln)");
+                query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+                query.setParameters(firstId, lastId);
+                query.setResult("id, vuln.id");
+                query.executeResultList(Object[].class).forEach(row -> associate((Long) row[0], (Long) row[1]));
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        LOGGER.info("Loaded %d vulnerable software into index in %dms"
+                .formatted(softwareById.size(), System.currentTimeMillis() - startTimeMs));
+    }
+
+    private void reload(final PersistenceManager pm, final Collection<Long> vulnerabilityIds) throws Exception {
+        LOGGER.debug("Reloading vulnerable software of " + vulnerabilityIds.size() + " vulnerabilities");
+        for (final Long vulnerabilityId : vulnerabilityIds) {
+            for (final Long softwareId : softwareIdsByVulnerabilityId.getOrDefault(vulnerabilityId, Set.of())) {
+                final Set<Long> softwareVulnerabilityIds = vulnerabilityIdsBySoftwareId.get(softwareId);
+                if (softwareVulnerabilityIds != null) {
+                    softwareVulnerabilityIds.remove(vulnerabilityId);
+                }
+            }
+            softwareIdsByVulnerabilityId.remove(vulnerabilityId);
+        }
+
+        for (final List<Long> vulnerabilityIdsBatch : Lists.partition(List.copyOf(vulnerabilityIds), MAX_QUERY_PARAMETERS)) {
+            final List<Object[]> associations;
+            try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+                query.setFilter(":ids.contains(vuln.id) && vulnerabilities.contains(vuln)");
+                query.declareVariables("org.dependencytrack.model.Vulnerability vuln");
+                query.setParameters(vulnerabilityIdsBatch);
+                query.setResult("id, vuln.id");
+                associations = List.copyOf(query.executeResultList(Object[].class));
+            }
+
+            final List<Long> unknownSoftwareIds = associations.stream()
+                    .map(row -> (Long) row[0])
+                    .filter(softwareId -> !softwareById.containsKey(softwareId))
+                    .distinct()
+                    .toList();
+            for (final List<Long> softwareIdsBatch : Lists.partition(unknownSoftwareIds, MAX_QUERY_PARAMETERS)) {
+                try (final Query<VulnerableSoftware> query = pm.newQuery(VulnerableSoftware.class)) {
+                    query.setFilter(":ids.contains(id)");
+                    query.setParameters(softwareIdsBatch);
+                    query.setResult(SOFTWARE_RESULT);
+                    query.executeResultList(Object[].class).stream()
+                            .map(VulnerableSoftwareIndex::toVulnerableSoftware)
+                            .forEach(this::add);
+                }
+            }
+
+            associations.forEach(row -> associate((Long) row[0], (Long) row[1]));
+        }
+    }
+
+    private void add(final VulnerableSoftware vs) {
+        softwareById.put(vs.getId(), vs);
+        if (vs.getPart() != null && vs.getVendor() != null && vs.getProduct() != null) {
+            softwareByCpe.computeIfAbsent(CpeKey.of(vs.getVendor(), vs.getProduct()), ignored -> new ArrayList<>()).add(vs);
+        }
+        if (vs.getPurlType() != null) {
+            softwareByPurl.computeIfAbsent(new PurlKey(vs.getPurlType(), vs.getPurlNamespace(), vs.getPurlName()), ignored -> new ArrayList<>()).add(vs);
+        }
+    }
+
+    private void associate(final long softwareId, final long vulnerabilityId) {
+        if (!softwareById.containsKey(softwareId)) {
+            return;
+        }
+        vulnerabilityIdsBySoftwareId.computeIfAbsent(softwareId, ignored -> new HashSet<>()).add(vulnerabilityId);
+        softwareIdsByVulnerabilityId.computeIfAbsent(vulnerabilityId, ignored -> new HashSet<>()).add(softwareId);
+    }
+
+    /**
+     * @param target The target CPE attribute
+     * @return The source attribute values that may match the target, or {@code null} when any value may match
+     */
+    private static List<String> getCandidateValues(final String target) {
+        if (WILDCARD.equals(target)) {
+            return null;
+        } else if (NA.equals(target)) {
+            return List.of(WILDCARD, NA);
+        }
+        return List.of(WILDCARD, target);
+    }
+
+    private static boolean matchesCpeAttribute(final String source, final String target) {
+        if (WILDCARD.equals(target)) {
+            return source != null;
+        } else if (NA.equals(target)) {
+            return WILDCARD.equals(source) || NA.equals(source);
+        }
+        return WILDCARD.equals(source) || target.equalsIgnoreCase(source);
+    }
+
+    private static VulnerableSoftware toVulnerableSoftware(final Object[] row) {
+        final var vs = new VulnerableSoftware();
+        vs.setId((Long) row[0]);
+        vs.setPart((String) row[1]);
+        vs.setVendor((String) row[2]);
+        vs.setProduct((String) row[3]);
+        vs.setVersion((String) row[4]);
+        vs.setUpdate((String) row[5]);
+        vs.setVersionEndExcluding((String) row[6]);
+        vs.setVersionEndIncluding((String) row[7]);
+        vs.setVersionStartExcluding((String) row[8]);
+        vs.setVersionStartIncluding((String) row[9]);
+        vs.setPurlType((String) row[10]);
+        vs.setPurlNamespace((String) row[11]);
+        vs.setPurlName((String) row[12]);
+        return vs;
+    }
+
+}
@@ -33,11 +33,15 @@ import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
 import org.datanucleus.store.schema.SchemaAwareStoreManager;
 import org.dependencytrack.RequirementsVerifier;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.upgrade.v4100.v4100Updater;
 
 import javax.jdo.JDOHelper;
 import javax.jdo.PersistenceManager;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
@@ -52,9 +56,10 @@ public class UpgradeInitializer implements ServletContextListener {
     @Override
     public void contextInitialized(final ServletContextEvent event) {
         LOGGER.info("Initializing upgrade framework");
+        VersionComparator currentVersion = null;
         try {
             final UpgradeMetaProcessor ump = new UpgradeMetaProcessor();
-            final VersionComparator currentVersion = ump.getSchemaVersion();
+            currentVersion = ump.getSchemaVersion();
             ump.close();
             if (currentVersion != null && currentVersion.isOlderThan(new VersionComparator("4.0.0"))) {
                 LOGGER.error("Unable to upgrade Dependency-Track versions prior to v4.0.0. Please refer to documentation for migration details. Halting.");
@@ -65,6 +70,14 @@ public class UpgradeInitializer implements ServletContextListener {
             Runtime.getRuntime().halt(-1);
         }
 
+        if (currentVersion != null) {
+            try (final Connection connection = createConnection()) {
+                executePreSchemaUpgrades(connection, currentVersion);
+            } catch (Exception e) {
+                LOGGER.error("An error occurred performing pre-schema upgrade processing", e);
+            }
+        }
+
         try (final JDOPersistenceManagerFactory pmf = createPersistenceManagerFactory()) {
             // Ensure that the UpgradeMetaProcessor and SchemaVersion tables are created NOW, not dynamically at runtime.
             final PersistenceNucleusContext ctx = pmf.getNucleusContext();
@@ -96,6 +109,47 @@ public class UpgradeInitializer implements ServletContextListener {
         /* Intentionally blank to satisfy interface */
     }
 
+    /**
+     * Execute upgrades that must happen before the schema of the current model is generated,
+     * because generating it would otherwise fail on existing data.
+     * <p>
+     * Schema generation happens as soon as the {@link javax.jdo.PersistenceManagerFactory} for upgrades
+     * is created, and thus before any {@link alpine.server.upgrade.UpgradeItem} is executed.
+     *
+     * @param connection     The {@link Connection} to use for executing queries
+     * @param currentVersion The schema version of the existing database
+     * @throws Exception When executing a query failed
+     */
+    static void executePreSchemaUpgrades(final Connection connection, final VersionComparator currentVersion) throws Exception {
+        if (!currentVersion.isOlderThan(new VersionComparator("4.10.0"))) {
+            return;
+        }
+
+        // The unique constraint on POLICYVIOLATION can only be created once duplicates are removed.
+        connection.setAutoCommit(false);
+        try {
+            v4100Updater.removeDuplicatePolicyViolations(connection);
+            connection.commit();
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a plain JDBC {@link Connection} to the database, to be used before any
+     * {@link javax.jdo.PersistenceManagerFactory} exists.
+     *
+     * @return A {@link Connection}
+     * @throws SQLException When the connection could not be established
+     */
+    private static Connection createConnection() throws SQLException {
+        return DriverManager.getConnection(
+                Config.getInstance().getProperty(Config.AlpineKey.DATABASE_URL),
+                Config.getInstance().getProperty(Config.AlpineKey.DATABASE_USERNAME),
+                Config.getInstance().getPropertyOrFile(Config.AlpineKey.DATABASE_PASSWORD));
+    }
+
     /**
      * Create a new, dedicated {@link javax.jdo.PersistenceManagerFactory} to be used for schema
      * generation and execution of schema upgrades.
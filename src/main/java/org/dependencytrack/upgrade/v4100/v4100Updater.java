@@ -0,0 +1,111 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.upgrade.v4100;
+
+import alpine.common.logging.Logger;
+import alpine.persistence.AlpineQueryManager;
+import alpine.server.upgrade.AbstractUpgradeItem;
+import com.google.common.collect.Lists;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class v4100Updater extends AbstractUpgradeItem {
+
+    private static final Logger LOGGER = Logger.getLogger(v4100Updater.class);
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    @Override
+    public String getSchemaVersion() {
+        return "4.10.0";
+    }
+
+    @Override
+    public void executeUpgrade(final AlpineQueryManager qm, final Connection connection) throws Exception {
+        removeDuplicatePolicyViolations(connection);
+    }
+
+    /**
+     * Policy violations are now unique per type, component, and policy condition.
+     * Remove duplicates that may have been created by concurrent policy evaluations before,
+     * keeping the oldest violation of each, so that the unique constraint can be created.
+     * <p>
+     * The constraint is created during schema generation, which precedes the execution of upgrade items.
+     * This is thus primarily invoked by {@link org.dependencytrack.upgrade.UpgradeInitializer} before schema
+     * generation. Running it again as part of this upgrade item covers cases where that failed, such that
+     * the constraint is created upon next startup.
+     *
+     * @param connection The {@link Connection} to use for executing queries
+     * @throws Exception When executing a query failed
+     */
+    public static void removeDuplicatePolicyViolations(final Connection connection) throws Exception {
+        LOGGER.info("Removing duplicate policy violations");
+        final List<Long> duplicateIds = new ArrayList<>();
+        try (final Statement stmt = connection.createStatement();
+             final ResultSet rs = stmt.executeQuery("""
+                     SELECT "PV"."ID" FROM "POLICYVIOLATION" "PV"
+                     WHERE EXISTS (
+                         SELECT 1 FROM "POLICYVIOLATION" "OTHER"
+                         WHERE "OTHER"."TYPE" = "PV"."TYPE"
+                             AND "OTHER"."COMPONENT_ID" = "PV"."COMPONENT_ID"
+                             AND "OTHER"."POLICYCONDITION_ID" = "PV"."POLICYCONDITION_ID"
+                             AND "OTHER"."ID" < "PV"."ID"
+                     )
+                     """)) {
+            while (rs.next()) {
+                duplicateIds.add(rs.getLong(1));
+            }
+        }
+        if (duplicateIds.isEmpty()) {
+            return;
+        }
+
+        LOGGER.info("Deleting %d duplicate policy violations, along with their analysis trail".formatted(duplicateIds.size()));
+        try (final PreparedStatement deleteComments = connection.prepareStatement("""
+                     DELETE FROM "VIOLATIONANALYSISCOMMENT" WHERE "VIOLATIONANALYSIS_ID" IN (
+                         SELECT "ID" FROM "VIOLATIONANALYSIS" WHERE "POLICYVIOLATION_ID" = ?
+                     )
+                     """);
+             final PreparedStatement deleteAnalyses = connection.prepareStatement("""
+                     DELETE FROM "VIOLATIONANALYSIS" WHERE "POLICYVIOLATION_ID" = ?
+                     """);
+             final PreparedStatement deleteViolations = connection.prepareStatement("""
+                     DELETE FROM "POLICYVIOLATION" WHERE "ID" = ?
+                     """)) {
+            for (final List<Long> idsBatch : Lists.partition(duplicateIds, DELETE_BATCH_SIZE)) {
+                for (final Long id : idsBatch) {
+                    deleteComments.setLong(1, id);
+                    deleteComments.addBatch();
+                    deleteAnalyses.setLong(1, id);
+                    deleteAnalyses.addBatch();
+                    deleteViolations.setLong(1, id);
+                    deleteViolations.addBatch();
+                }
+                deleteComments.executeBatch();
+                deleteAnalyses.executeBatch();
+                deleteViolations.executeBatch();
+            }
+        }
+    }
+
+}
@@ -18,7 +18,11 @@
  */
 package org.dependencytrack.util;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.vdurmont.semver4j.Semver;
+import com.vdurmont.semver4j.SemverException;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import java.util.List;
@@ -92,6 +96,33 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
     // Well-known labels denoting unstable versions
     protected static final Pattern UNSTABLE_LABELS_PATTERN = Pattern.compile("[\\.-](dev|atlassian|preview|next|canary|snapshot|a|alpha|b|beta|rc|cr|m|mr|ea).*", Pattern.CASE_INSENSITIVE);
 
+    // Maximum number of distinct version strings to keep parsed versions for
+    private static final int CACHE_MAX_SIZE = 10_000;
+
+    // Interned versions, keyed by version string. Every cached instance holds on to
+    // its parsed representation, so that each version string is only parsed once.
+    private static final LoadingCache<String, ComponentVersion> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_MAX_SIZE)
+            .build(CacheLoader.from((String version) -> new ComponentVersion(version)));
+
+    /**
+     * Get a {@link ComponentVersion} for a version string.
+     * <p>
+     * Instances are interned in a bounded cache, so that repeated comparisons of the
+     * same version (e.g. the bounds of vulnerable version ranges) do not need to parse
+     * the version string over and over again.
+     *
+     * @param version the version string
+     * @return a (possibly shared) {@link ComponentVersion} for the version string
+     * @since 4.10.0
+     */
+    public static ComponentVersion of(final String version) {
+        if (version == null) {
+            return new ComponentVersion();
+        }
+        return CACHE.getUnchecked(version);
+    }
+
     /**
      * Parse two version strings  and compare the versions using {@link ComponentVersion}
      *
@@ -101,8 +132,8 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
      * @see ComponentVersion#compareTo
      */
     public static int compareVersions(String v1string, String v2string) {
-        ComponentVersion v1 = new ComponentVersion(v1string);
-        ComponentVersion v2 = new ComponentVersion(v2string);
+        ComponentVersion v1 = ComponentVersion.of(v1string);
+        ComponentVersion v2 = ComponentVersion.of(v2string);
         return v1.compareTo(v2);
     }
 
@@ -216,6 +247,11 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
      */
     private String version;
 
+    /**
+     * The parsed version, populated lazily on first comparison
+     */
+    private ParsedVersion parsed;
+
     /**
      * Constructor for a empty DependencyVersion.
      */
@@ -289,64 +325,70 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
         if (this.getVersion() == null || "".equals(this.getVersion())) {
             return -1;
         }
-        final var v1string = getVersion();
-        final var v2string = version.getVersion();
-        final var v1UbuntuMatcher = UBUNTU_RELEASE_PATTERN.matcher(v1string);
-        final var v2UbuntuMatcher = UBUNTU_RELEASE_PATTERN.matcher(v2string);
-        if (v1UbuntuMatcher.matches() || v2UbuntuMatcher.matches()) {
-            return compareUbuntuVersions(v1string, v2string, v1UbuntuMatcher, v2UbuntuMatcher);
+        final ParsedVersion v1 = parsed();
+        final ParsedVersion v2 = version.parsed();
+        if (v1.ubuntu() != null || v2.ubuntu() != null) {
+            return compareUbuntuVersions(v1, v2);
+        }
+
+        if (v1.debian() != null || v2.debian() != null) {
+            return compareDebianVersions(v1.debian(), v2.debian());
         }
 
-        final var v1DebianMatcher = DEBIAN_RELEASE_PATTERN.matcher(v1string);
-        final var v2DebianMatcher = DEBIAN_RELEASE_PATTERN.matcher(v2string);
-        if (v1DebianMatcher.matches() || v2DebianMatcher.matches()) {
-            return compareDebianVersions(v1DebianMatcher, v2DebianMatcher);
+        if (v1.isSemVer() && v2.isSemVer()) {
+            return compareSemver(v1, v2);
         }
+        return compareNonSemverVersions(v1.strippedNonSemver(), v2.strippedNonSemver());
+    }
 
-        if (ComponentVersion.isSemVer(v1string) && ComponentVersion.isSemVer(v2string)) {
-            return compareSemver(v1string, v2string);
+    /**
+     * Get the parsed representation of this version, parsing the version string on first access.
+     * <p>
+     * {@link ParsedVersion} is immutable, so concurrent first accesses may at worst parse
+     * the same version string more than once.
+     *
+     * @return the {@link ParsedVersion}
+     */
+    private ParsedVersion parsed() {
+        ParsedVersion result = parsed;
+        if (result == null) {
+            result = ParsedVersion.parse(version);
+            parsed = result;
         }
-        return compareNonSemverVersions(stripLeadingV(v1string), stripLeadingV(v2string));
+        return result;
     }
 
-    private int compareDebianVersions(final String v1string, final String v2string) {
-        final var v1DebianMatcher = DEBIAN_RELEASE_PATTERN.matcher(v1string);
-        final var v2DebianMatcher = DEBIAN_RELEASE_PATTERN.matcher(v2string);
-        if (v1DebianMatcher.matches() || v2DebianMatcher.matches()) {
-            return compareDebianVersions(v1DebianMatcher, v2DebianMatcher);
+    private static int compareDebianVersions(final ParsedVersion v1, final ParsedVersion v2) {
+        if (v1.debian() != null || v2.debian() != null) {
+            return compareDebianVersions(v1.debian(), v2.debian());
         }
-        if (ComponentVersion.isSemVer(v1string) && ComponentVersion.isSemVer(v2string)) {
-            return compareSemver(v1string, v2string);
+        if (v1.isSemVer() && v2.isSemVer()) {
+            return compareSemver(v1, v2);
         }
-        return compareNonSemverVersions(v1string, v2string);
+        return compareNonSemverVersions(v1.nonSemver(), v2.nonSemver());
     }
 
-    private int compareDebianVersions(final Matcher v1matcher, final Matcher v2matcher) {
+    private static int compareDebianVersions(final DebianParts v1parts, final DebianParts v2parts) {
         // compare epoch part
-        final var epoch1 = getEpoch(v1matcher);
-        final var epoch2 = getEpoch(v2matcher);
+        final var epoch1 = v1parts != null ? getEpoch(v1parts.epoch()) : "0";
+        final var epoch2 = v2parts != null ? getEpoch(v2parts.epoch()) : "0";
 
         final var epochCompare = Integer.compare(Integer.parseInt(epoch1),Integer.parseInt(epoch2));
         if (epochCompare == 0) {
-            final var version1 = v1matcher.matches() ? v1matcher.group("version") : null;
-            final var version2 = v2matcher.matches() ? v2matcher.group("version") : null;
-            if (version1 == null) {
+            if (v1parts == null) {
                 return -1; // 1debian > 1
             }
-            if (version2 == null) {
+            if (v2parts == null) {
                 return 1; // 1 < 1debian
             }
-            final var versionCompare = compareNonSemverVersions(version1, version2);
+            final var versionCompare = compareNonSemverVersions(nonSemver(v1parts.version()), nonSemver(v2parts.version()));
             if (versionCompare == 0) {
                 // compare os version
-                final String osVersion1 = v1matcher.group("os");
-                final String osVersion2 = v2matcher.group("os");
-
-                final var osVersionCompare = compareNonSemverVersions(osVersion1, osVersion2);
+                final var osVersionCompare = compareNonSemverVersions(nonSemver(v1parts.os()), nonSemver(v2parts.os()));
                 if (osVersionCompare == 0 ) {
                     // compare DFSG
-                    final String dfsg1 = v1matcher.matches() ? getDFSG(v1matcher) : null;
-                    final String dfsg2 = v2matcher.matches() ? getDFSG(v2matcher) : null;
+                    final String dfsg1 = v1parts.dfsg();
+                    final String dfsg2 = v2parts.dfsg();
                     if (dfsg1 == null) {
                         if (dfsg2 == null) {
                             return 0;
@@ -368,34 +410,28 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
         return epochCompare;
     }
 
-    private String getEpoch(final Matcher v1matcher) {
-        final var epoch1 = v1matcher.matches() && v1matcher.group("epoch") != null ? v1matcher.group("epoch") : "0";
-        return epoch1;
+    private static String getEpoch(final String epoch) {
+        return epoch != null ? epoch : "0";
     }
 
-    private String getDFSG(Matcher matcher) {
-        final var group3 = matcher.group(3);
-        final var group5 = matcher.group(5);
-        return group5 != null ? group5 : group3;
-    }
-
-    private int compareUbuntuVersions(final String v1string, final String v2string, final Matcher v1matcher,
-            final Matcher v2matcher) {
-        final var epoch1 = getEpoch(v1matcher);
-        final var epoch2 = getEpoch(v2matcher);
+    private static int compareUbuntuVersions(final ParsedVersion v1, final ParsedVersion v2) {
+        final UbuntuParts v1parts = v1.ubuntu();
+        final UbuntuParts v2parts = v2.ubuntu();
+        final var epoch1 = v1parts != null ? getEpoch(v1parts.epoch()) : "0";
+        final var epoch2 = v2parts != null ? getEpoch(v2parts.epoch()) : "0";
 
         final var epochCompare = Integer.compare(Integer.parseInt(epoch1),Integer.parseInt(epoch2));
         if (epochCompare == 0) {
             // https://wiki.ubuntu.com/AutoStatic/PackagingVersioningScheme
-            final var debianVersion1 = v1matcher.matches() ? v1matcher.group("version") : v1string;
-            final var debianVersion2 = v2matcher.matches() ? v2matcher.group("version") : v2string;
+            final var debianVersion1 = v1parts != null ? of(v1parts.version()).parsed() : v1;
+            final var debianVersion2 = v2parts != null ? of(v2parts.version()).parsed() : v2;
             final var debianVersionCompare = compareDebianVersions(debianVersion1, debianVersion2);
             if (debianVersionCompare == 0) {
                 // compare os versions
-                final var osVersion1 = v1matcher.matches() ? v1matcher.group("os") : null;
-                final var osVersion2 = v2matcher.matches() ? v2matcher.group("os") : null;
+                final var osVersion1 = v1parts != null ? v1parts.os() : null;
+                final var osVersion2 = v2parts != null ? v2parts.os() : null;
                 if (osVersion1 == null && osVersion2 == null) {
-                    return comparePPA(v1matcher, v2matcher);
+                    return comparePPA(v1parts, v2parts);
                 }
                 if (osVersion1 == null) {
                     return -1; // 1ubuntu > 1
@@ -405,7 +441,7 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
                 }
                 final var osVersionCopare = new ComparableVersion(osVersion1).compareTo(new ComparableVersion(osVersion2));
                 if (osVersionCopare == 0) {
-                    return comparePPA(v1matcher, v2matcher);
+                    return comparePPA(v1parts, v2parts);
                 }
                 // different ubuntu versions might be incompatible, but this is
                 // not taken in consideration here
@@ -416,15 +452,12 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
         return epochCompare;
     }
 
-    private int compareSemver(String version1, String version2) {
-        // Defaults to STRICT mode
-        Semver semver1 = new Semver(version1);
-        Semver semver2 = new Semver(version2);
-        return semver1.compareTo(semver2);
+    private static int compareSemver(final ParsedVersion version1, final ParsedVersion version2) {
+        return version1.semver().compareTo(version2.semver());
     }
 
     /**
-     * Compare two non-semver version strings using {@link ComparableVersion}. First
+     * Compare two non-semver versions using {@link ComparableVersion}. First
      * compare the version parts, since {@link ComparableVersion} not alwasy returns correct
      * results (for example 1.0.10b-1 < 1.0.10-1). Only compare the version labels when
      * the version parts are equal.
@@ -434,11 +467,11 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
      * @return < 0 if version1 is the lowest, > 0 when version1 is the highest, 0 when equal.
      * @see ComparableVersion#compareTo
      */
-    private int compareNonSemverVersions(String version1, String version2) {
+    private static int compareNonSemverVersions(final NonSemverParts version1, final NonSemverParts version2) {
         if ((version1 == null) && (version2 == null)) {
             return 0;
         }
-        if ((version1 != null) && version1.equals(version2)) {
+        if ((version1 != null) && version2 != null && version1.value().equals(version2.value())) {
             return 0;
         }
         if (version1 == null) {
@@ -448,30 +481,27 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
             return -1;
         }
 
-        Matcher v1matcher = NONSEMVER_VERSIONS_PATTERN.matcher(version1);
-        Matcher v2matcher = NONSEMVER_VERSIONS_PATTERN.matcher(version2);
-
-        if (v1matcher.matches() && v2matcher.matches()) {
+        if (version1.matches() && version2.matches()) {
             // compare epoch part
-            final var epoch1 = v1matcher.matches() && v1matcher.group("epoch") != null ? v1matcher.group("epoch") : "0";
-            final var epoch2 = v2matcher.matches() && v2matcher.group("epoch") != null ? v2matcher.group("epoch") : "0";
+            final var epoch1 = getEpoch(version1.epoch());
+            final var epoch2 = getEpoch(version2.epoch());
 
             final var epochCompare = Integer.compare(Integer.parseInt(epoch1),Integer.parseInt(epoch2));
             if (epochCompare == 0) {
-                final var v1 = v1matcher.group("version");
-                final var v2 = v2matcher.group("version");
-                final var versionCompare = new ComparableVersion(v1).compareTo(new ComparableVersion(v2));
+                final var versionCompare = version1.version().compareTo(version2.version());
                 if (versionCompare == 0) {
-                    final var v1label = v1matcher.group("label");
-                    final var v2label = v2matcher.group("label");
-                    return compareVersionLabels(v1label, v2label);
+                    return compareVersionLabels(version1.label(), version2.label());
                 }
                 return versionCompare;
             }
             return epochCompare;
         }
         // unrecofnised versions, fallback to ComparableVersion
-        return new ComparableVersion(stripLeadingV(version1)).compareTo(new ComparableVersion(stripLeadingV(version2)));
+        return version1.fallback().compareTo(version2.fallback());
+    }
+
+    private static NonSemverParts nonSemver(final String version) {
+        return version != null ? of(version).parsed().nonSemver() : null;
     }
 
     /**
@@ -483,7 +513,7 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
      * @return < 0 if label1 is the lowest, > 0 when label1 is the highest, 0 when equal.
      * @see ComparableVersion#compareTo
      */
-    private int compareVersionLabels(String label1, String label2) {
+    private static int compareVersionLabels(String label1, String label2) {
         if ((label1 == null) && (label2 == null)) {
             return 0;
         }
@@ -535,16 +565,16 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
     /**
      * Compare PPA parts of two versions using {@link ComparableVersion}
      *
-     * @param v1matcher regex matcher for first version
-     * @param v2matcher regex matcher for second version
+     * @param v1parts Ubuntu parts of the first version, or {@code null} when it is no Ubuntu version
+     * @param v2parts Ubuntu parts of the second version, or {@code null} when it is no Ubuntu version
      *
      * @return < 0 if label1 is the lowest, > 0 when label1 is the highest, 0 when equal.
      * @see ComparableVersion#compareTo
      */
-    private int comparePPA(final Matcher v1matcher, final Matcher v2matcher) {
+    private static int comparePPA(final UbuntuParts v1parts, final UbuntuParts v2parts) {
         // compare ppa
-        final String ppa1 = v1matcher.matches() ? getPPA(v1matcher) : null;
-        final String ppa2 = v2matcher.matches() ? getPPA(v2matcher) : null;
+        final String ppa1 = v1parts != null ? v1parts.ppa() : null;
+        final String ppa2 = v2parts != null ? v2parts.ppa() : null;
         if (ppa1 == null) {
             if (ppa2 == null) {
                 return 0;
@@ -557,19 +587,6 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
         return new ComparableVersion(ppa1).compareTo(new ComparableVersion(ppa2));
     }
 
-    /**
-     * Extract PPA part of a version. Depending of the version string, this
-     * might be group 5 or group 4
-     *
-     * @param matcher regex matcher for the version
-     * @return group 5 or group 4, when group 5 is 0
-     */
-    private String getPPA(Matcher matcher) {
-        final var group4 = matcher.group(4);
-        final var group5 = matcher.group(5);
-        return group5 != null ? group5 : group4;
-    }
-
     /**
      * remove the 'v' sign when a version string starts with it
      * @param version  version string
@@ -582,4 +599,96 @@ public class ComponentVersion implements Comparable<ComponentVersion> {
         return version.toLowerCase().startsWith("v") ? version.substring(1) : version;
     }
 
+    /**
+     * Parts of an Ubuntu version.
+     */
+    private record UbuntuParts(String epoch, String version, String os, String ppa) {
+    }
+
+    /**
+     * Parts of a Debian version.
+     */
+    private record DebianParts(String epoch, String version, String os, String dfsg) {
+    }
+
+    /**
+     * Parts of a non-semver version, as matched by {@link #NONSEMVER_VERSIONS_PATTERN}.
+     *
+     * @param value    the version string
+     * @param matches  whether the version string matched {@link #NONSEMVER_VERSIONS_PATTERN}
+     * @param fallback the {@link ComparableVersion} to compare with when either version is not recognised
+     */
+    private record NonSemverParts(String value, boolean matches, String epoch, ComparableVersion version,
+                                  String label, ComparableVersion fallback) {
+
+        private static NonSemverParts parse(final String value) {
+            final Matcher matcher = NONSEMVER_VERSIONS_PATTERN.matcher(value);
+            final var fallback = new ComparableVersion(stripLeadingV(value));
+            if (matcher.matches()) {
+                return new NonSemverParts(value, true, matcher.group("epoch"),
+                        new ComparableVersion(matcher.group("version")), matcher.group("label"), fallback);
+            }
+            return new NonSemverParts(value, false, null, null, null, fallback);
+        }
+
+    }
+
+    /**
+     * Immutable representation of a version string, tokenized once so that it can
+     * be compared to other versions without matching any regular expressions.
+     *
+     * @param value             the version string
+     * @param ubuntu            the Ubuntu parts, or {@code null} when the version is no Ubuntu version
+     * @param debian            the Debian parts, or {@code null} when the version is no Debian version
+     * @param isSemVer          whether the version string denotes a SemVer version
+     * @param semver            the {@link Semver}, or {@code null} when the version is no (valid) SemVer version
+     * @param nonSemver         the non-semver parts of the version string
+     * @param strippedNonSemver the non-semver parts of the version string without leading 'v'
+     */
+    private record ParsedVersion(String value, UbuntuParts ubuntu, DebianParts debian, boolean isSemVer, Semver semver,
+                                 NonSemverParts nonSemver, NonSemverParts strippedNonSemver) {
+
+        private static ParsedVersion parse(final String value) {
+            UbuntuParts ubuntu = null;
+            final Matcher ubuntuMatcher = UBUNTU_RELEASE_PATTERN.matcher(value);
+            if (ubuntuMatcher.matches()) {
+                // Depending on the version string, the PPA part is either group 5 or group 4
+                final String ppa = ubuntuMatcher.group(5) != null ? ubuntuMatcher.group(5) : ubuntuMatcher.group(4);
+                ubuntu = new UbuntuParts(ubuntuMatcher.group("epoch"), ubuntuMatcher.group("version"), ubuntuMatcher.group("os"), ppa);
+            }
+
+            DebianParts debian = null;
+            final Matcher debianMatcher = DEBIAN_RELEASE_PATTERN.matcher(value);
+            if (debianMatcher.matches()) {
+                // Depending on the version string, the DFSG part is either group 5 or group 3
+                final String dfsg = debianMatcher.group(5) != null ? debianMatcher.group(5) : debianMatcher.group(3);
+                debian = new DebianParts(debianMatcher.group("epoch"), debianMatcher.group("version"), debianMatcher.group("os"), dfsg);
+            }
+
+            final boolean isSemVer = ComponentVersion.isSemVer(value);
+            Semver semver = null;
+            if (isSemVer) {
+                try {
+                    // Defaults to STRICT mode
+                    semver = new Semver(value);
+                } catch (SemverException e) {
+                    // e.g. numbers exceeding the integer range, will fail once compared
+                }
+            }
+
+            final NonSemverParts nonSemver = NonSemverParts.parse(value);
+            final String strippedValue = stripLeadingV(value);
+            final NonSemverParts strippedNonSemver = strippedValue.equals(value) ? nonSemver : NonSemverParts.parse(strippedValue);
+
+            return new ParsedVersion(value, ubuntu, debian, isSemVer, semver, nonSemver, strippedNonSemver);
+        }
+
+        @Override
+        public Semver semver() {
+            // Versions that could not be parsed as SemVer must fail the comparison
+            return semver != null ? semver : new Semver(value);
+        }
+
+    }
+
 }
@@ -0,0 +1,200 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import us.springett.parsers.cpe.values.LogicalValue;
+
+import java.util.Arrays;
+
+/**
+ * Matches a target CPE attribute against a source CPE attribute, following the attribute
+ * comparison relations of NISTIR 7696 (CPE Name Matching), Table 6-2.
+ * <p>
+ * This is a reflection-free equivalent of {@code Cpe#compareAttributes}. Wildcards of the source
+ * attribute ({@code *} for any sequence of characters, {@code ?} for any single character, and
+ * {@code \} quoting the following character, which targets are expected to quote as well) are compiled once, so that matching does not
+ * involve any regular expressions.
+ *
+ * @since 4.10.0
+ */
+public final class CpeAttributeMatcher {
+
+    private static final String ANY = LogicalValue.ANY.getAbbreviation();
+    private static final String NA = LogicalValue.NA.getAbbreviation();
+
+    // Maximum number of distinct source attributes to keep compiled matchers for
+    private static final int CACHE_MAX_SIZE = 10_000;
+
+    private static final LoadingCache<String, CpeAttributeMatcher> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_MAX_SIZE)
+            .build(CacheLoader.from(CpeAttributeMatcher::new));
+
+    // Tokens of a compiled source attribute
+    private static final char LITERAL = 'L';
+    private static final char ANY_CHARACTER = '?';
+    private static final char ANY_SEQUENCE = '*';
+
+    private final String source;
+
+    /**
+     * Kind of each token ({@link #LITERAL}, {@link #ANY_CHARACTER} or {@link #ANY_SEQUENCE}),
+     * or {@code null} when the source attribute does not contain any wildcards.
+     */
+    private final char[] tokenKinds;
+
+    /**
+     * Lower-cased character of each {@link #LITERAL} token.
+     */
+    private final char[] tokenChars;
+
+    private CpeAttributeMatcher(final String source) {
+        this.source = source;
+        if (ANY.equals(source) || NA.equals(source) || !containsWildcard(source)) {
+            this.tokenKinds = null;
+            this.tokenChars = null;
+            return;
+        }
+
+        final var kinds = new char[source.length()];
+        final var chars = new char[source.length()];
+        int length = 0;
+        for (int i = 0; i < source.length(); i++) {
+            final char c = source.charAt(i);
+            if (c == '*') {
+                // Consecutive wildcards are equivalent to a single one
+                if (length > 0 && kinds[length - 1] == ANY_SEQUENCE) {
+                    continue;
+                }
+                kinds[length++] = ANY_SEQUENCE;
+            } else if (c == '?') {
+                kinds[length++] = ANY_CHARACTER;
+            } else {
+                if (c == '\\' && i + 1 < source.length()) {
+                    // Targets are well-formed as well, so the quoting backslash has to be matched literally
+                    kinds[length] = LITERAL;
+                    chars[length++] = c;
+                    i++;
+                }
+                kinds[length] = LITERAL;
+                chars[length++] = Character.toLowerCase(source.charAt(i));
+            }
+        }
+        this.tokenKinds = Arrays.copyOf(kinds, length);
+        this.tokenChars = Arrays.copyOf(chars, length);
+    }
+
+    /**
+     * Get a {@link CpeAttributeMatcher} for a source attribute.
+     * <p>
+     * Matchers are interned in a bounded cache, so that the source attributes of
+     * {@link org.dependencytrack.model.VulnerableSoftware} are only compiled once.
+     *
+     * @param source the source attribute, e.g. the version of a {@link org.dependencytrack.model.VulnerableSoftware}
+     * @return a (possibly shared) {@link CpeAttributeMatcher}
+     */
+    public static CpeAttributeMatcher of(final String source) {
+        if (source == null) {
+            throw new IllegalArgumentException("source must not be null");
+        }
+        return CACHE.getUnchecked(source);
+    }
+
+    /**
+     * Compare a source and a target CPE attribute.
+     *
+     * @param source the source attribute
+     * @param target the target attribute
+     * @return <code>true</code> if the target matches the source; otherwise <code>false</code>
+     */
+    public static boolean matches(final String source, final String target) {
+        return of(source).matches(target);
+    }
+
+    /**
+     * Compare a target CPE attribute against the source attribute of this matcher.
+     *
+     * @param target the target attribute
+     * @return <code>true</code> if the target matches the source; otherwise <code>false</code>
+     */
+    public boolean matches(final String target) {
+        // The numbers below refer to the relations of NISTIR 7696, Table 6-2
+        if (source.equalsIgnoreCase(target)) {
+            // 1 6 9
+            return true;
+        } else if (ANY.equals(source)) {
+            // 2 3 4
+            return true;
+        } else if (NA.equals(source)) {
+            // 5 7 8
+            return ANY.equals(target);
+        } else if (NA.equals(target)) {
+            // 12 15
+            return false;
+        } else if (ANY.equals(target)) {
+            // 13 16
+            return true;
+        }
+        // 10 11 14 17
+        return tokenKinds != null && target != null && matchesWildcards(target);
+    }
+
+    private boolean matchesWildcards(final String target) {
+        int t = 0;
+        int p = 0;
+        // Positions to resume from when the most recent ANY_SEQUENCE needs to consume another character
+        int backtrackToken = -1;
+        int backtrackTarget = -1;
+        while (t < target.length()) {
+            if (p < tokenKinds.length && (tokenKinds[p] == ANY_CHARACTER
+                    || (tokenKinds[p] == LITERAL && tokenChars[p] == Character.toLowerCase(target.charAt(t))))) {
+                p++;
+                t++;
+            } else if (p < tokenKinds.length && tokenKinds[p] == ANY_SEQUENCE) {
+                backtrackToken = ++p;
+                backtrackTarget = t;
+            } else if (backtrackToken >= 0) {
+                p = backtrackToken;
+                t = ++backtrackTarget;
+            } else {
+                return false;
+            }
+        }
+        while (p < tokenKinds.length && tokenKinds[p] == ANY_SEQUENCE) {
+            p++;
+        }
+        return p == tokenKinds.length;
+    }
+
+    private static boolean containsWildcard(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '*' || c == '?') {
+                return true;
+            } else if (c == '\\') {
+                // Skip the quoted character
+                i++;
+            }
+        }
+        return false;
+    }
+
+}
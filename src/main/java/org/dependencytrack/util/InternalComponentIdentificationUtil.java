@@ -24,6 +24,7 @@ import org.dependencytrack.model.Component;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.persistence.QueryManager;
 
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
@@ -39,6 +40,44 @@ public final class InternalComponentIdentificationUtil {
         return isInternalGroup(component.getGroup(), qm) || isInternalName(component.getName(), qm);
     }
 
+    /**
+     * Returns a {@link Predicate} that determines whether a {@link Component} is internal.
+     * <p>
+     * Unlike {@link #isInternalComponent(Component, QueryManager)}, the configured regular expressions
+     * are fetched and compiled only once, making the predicate suitable for evaluating large
+     * amounts of components in bulk.
+     *
+     * @param qm The {@link QueryManager} to use for fetching the configuration
+     * @return A {@link Predicate} evaluating to {@code true} for internal components
+     * @since 4.10.0
+     */
+    public static Predicate<Component> internalComponentPredicate(final QueryManager qm) {
+        final Pattern groupsPattern = compileRegexProperty(qm, ConfigPropertyConstants.INTERNAL_COMPONENTS_GROUPS_REGEX);
+        final Pattern namesPattern = compileRegexProperty(qm, ConfigPropertyConstants.INTERNAL_COMPONENTS_NAMES_REGEX);
+        if (groupsPattern == null && namesPattern == null) {
+            return component -> false;
+        }
+
+        return component -> matches(groupsPattern, component.getGroup()) || matches(namesPattern, component.getName());
+    }
+
+    private static Pattern compileRegexProperty(final QueryManager qm, final ConfigPropertyConstants propertyConstant) {
+        final ConfigProperty property = qm.getConfigProperty(propertyConstant.getGroupName(), propertyConstant.getPropertyName());
+        if (property == null || StringUtils.trimToNull(property.getPropertyValue()) == null) {
+            return null;
+        }
+
+        return Pattern.compile(StringUtils.trimToNull(property.getPropertyValue()));
+    }
+
+    private static boolean matches(final Pattern pattern, final String value) {
+        if (pattern == null || StringUtils.trimToNull(value) == null) {
+            return false;
+        }
+
+        return pattern.matcher(value).matches();
+    }
+
     private static boolean isInternalGroup(final String group, final QueryManager qm) {
         if (StringUtils.trimToNull(group) == null) {
             return false;
@@ -0,0 +1,126 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+import org.dependencytrack.notification.NotificationGroup;
+import org.dependencytrack.persistence.QueryManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the new findings of a vulnerability analysis run, such that {@link NotificationGroup#NEW_VULNERABILITY}
+ * notifications can be dispatched for all of them at once when the analysis completes.
+ * <p>
+ * While a batch is bound to the current thread, {@link NotificationUtil#analyzeNotificationCriteria(QueryManager,
+ * Vulnerability, Component, VulnerabilityAnalysisLevel)} merely records new findings in it, instead of resolving
+ * the affected projects and dispatching a notification for every single finding. Analyzers that hand off work to
+ * threads of their own can carry the batch over to them using {@link #propagate(Runnable)}.
+ *
+ * @since 4.10.0
+ */
+public final class NewVulnerabilityNotificationBatch {
+
+    private static final ThreadLocal<NewVulnerabilityNotificationBatch> CURRENT = new ThreadLocal<>();
+
+    record Finding(long componentId, long vulnerabilityId) {
+    }
+
+    private final Map<Finding, VulnerabilityAnalysisLevel> findings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Get the {@link NewVulnerabilityNotificationBatch} bound to the current thread.
+     *
+     * @return The bound {@link NewVulnerabilityNotificationBatch}, or {@code null} if none is bound
+     */
+    static NewVulnerabilityNotificationBatch current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Execute a {@link Runnable} with this batch bound to the current thread.
+     *
+     * @param runnable The {@link Runnable} to execute
+     */
+    public void run(final Runnable runnable) {
+        final NewVulnerabilityNotificationBatch previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            runnable.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Wrap a {@link Runnable} such that it is executed with the batch bound to the calling thread,
+     * regardless of the thread it is eventually executed on.
+     *
+     * @param runnable The {@link Runnable} to wrap
+     * @return The wrapped {@link Runnable}, or {@code runnable} itself if no batch is bound to the calling thread
+     */
+    public static Runnable propagate(final Runnable runnable) {
+        final NewVulnerabilityNotificationBatch batch = CURRENT.get();
+        if (batch == null) {
+            return runnable;
+        }
+        return () -> batch.run(runnable);
+    }
+
+    /**
+     * Record a new finding.
+     * <p>
+     * When the same finding is recorded more than once, e.g. because multiple analyzers identified it,
+     * only the first {@link VulnerabilityAnalysisLevel} is retained.
+     *
+     * @param component                  The affected {@link Component}
+     * @param vulnerability              The identified {@link Vulnerability}
+     * @param vulnerabilityAnalysisLevel The {@link VulnerabilityAnalysisLevel} of the analysis
+     */
+    void add(final Component component, final Vulnerability vulnerability,
+             final VulnerabilityAnalysisLevel vulnerabilityAnalysisLevel) {
+        findings.putIfAbsent(new Finding(component.getId(), vulnerability.getId()), vulnerabilityAnalysisLevel);
+    }
+
+    /**
+     * Dispatch {@link NotificationGroup#NEW_VULNERABILITY} notifications for all findings recorded so far,
+     * and reset the batch.
+     *
+     * @param qm The {@link QueryManager} to use
+     */
+    public void dispatch(final QueryManager qm) {
+        final Map<Finding, VulnerabilityAnalysisLevel> findingsToDispatch;
+        synchronized (findings) {
+            findingsToDispatch = new LinkedHashMap<>(findings);
+            findings.clear();
+        }
+        if (!findingsToDispatch.isEmpty()) {
+            NotificationUtil.dispatchNewVulnerabilityNotifications(qm, findingsToDispatch);
+        }
+    }
+
+}
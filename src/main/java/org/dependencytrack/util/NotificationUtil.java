@@ -21,6 +21,7 @@ package org.dependencytrack.util;
 import alpine.model.ConfigProperty;
 import alpine.notification.Notification;
 import alpine.notification.NotificationLevel;
+import com.google.common.collect.Lists;
 import org.apache.commons.io.FileUtils;
 import org.dependencytrack.model.Analysis;
 import org.dependencytrack.model.Component;
@@ -51,8 +52,10 @@ import org.dependencytrack.notification.vo.VexConsumedOrProcessed;
 import org.dependencytrack.notification.vo.ViolationAnalysisDecisionChange;
 import org.dependencytrack.parser.common.resolver.CweResolver;
 import org.dependencytrack.persistence.QueryManager;
+import org.dependencytrack.persistence.VulnerabilityAliasIndex;
 
 import javax.jdo.FetchPlan;
+import javax.jdo.Query;
 import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
@@ -62,15 +65,24 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public final class NotificationUtil {
 
+    /**
+     * Maximum number of IDs to include in a single query.
+     */
+    private static final int MAX_QUERY_PARAMETERS = 1000;
+
     /**
      * Private constructor.
      */
@@ -81,6 +93,12 @@ public final class NotificationUtil {
             // Component did not previously contain this vulnerability. It could be a newly discovered vulnerability
             // against an existing component, or it could be a newly added (and vulnerable) component. Either way,
             // it warrants a Notification be dispatched.
+            final NewVulnerabilityNotificationBatch batch = NewVulnerabilityNotificationBatch.current();
+            if (batch != null) {
+                // Affected projects are resolved for the entire batch once the analysis completes.
+                batch.add(component, vulnerability, vulnerabilityAnalysisLevel);
+                return;
+            }
             final Map<Long,Project> affectedProjects = new HashMap<>();
             final List<Component> components = qm.matchIdentity(new ComponentIdentity(component));
             for (final Component c : components) {
@@ -104,6 +122,88 @@ public final class NotificationUtil {
         }
     }
 
+    /**
+     * Dispatches {@link NotificationGroup#NEW_VULNERABILITY} notifications for the findings of a
+     * {@link NewVulnerabilityNotificationBatch}.
+     * <p>
+     * Components, vulnerabilities, their aliases and the affected projects are resolved for all findings
+     * at once, rather than per finding. Findings whose component or vulnerability has been deleted in the
+     * meantime are skipped.
+     * @param qm the QueryManager to use
+     * @param findings the new findings, with the {@link VulnerabilityAnalysisLevel} they were identified at
+     */
+    static void dispatchNewVulnerabilityNotifications(final QueryManager qm,
+                                                      final Map<NewVulnerabilityNotificationBatch.Finding, VulnerabilityAnalysisLevel> findings) {
+        final Set<Long> componentIds = new HashSet<>();
+        final Set<Long> vulnerabilityIds = new HashSet<>();
+        for (final NewVulnerabilityNotificationBatch.Finding finding : findings.keySet()) {
+            componentIds.add(finding.componentId());
+            vulnerabilityIds.add(finding.vulnerabilityId());
+        }
+        final List<Component> components = getObjectsById(qm, Component.class, componentIds);
+        final List<Vulnerability> vulnerabilities = getObjectsById(qm, Vulnerability.class, vulnerabilityIds);
+
+        final Map<Long, Set<Long>> affectedProjectIds = qm.getAffectedProjectIds(components);
+        final Set<Long> projectIds = new HashSet<>();
+        affectedProjectIds.values().forEach(projectIds::addAll);
+        final Map<Long, Project> detachedProjects = new HashMap<>();
+        for (final Project project : qm.detach(getObjectsById(qm, Project.class, projectIds))) {
+            detachedProjects.put(project.getId(), project);
+        }
+
+        // The title refers to the project of the attached component, which is lost during the detach below.
+        final Map<Long, Project> componentProjects = new HashMap<>();
+        for (final Component component : components) {
+            componentProjects.put(component.getId(), component.getProject());
+        }
+        final Map<Long, Component> detachedComponents = new HashMap<>();
+        for (final Component component : qm.detach(components)) {
+            detachedComponents.put(component.getId(), component);
+        }
+
+        final VulnerabilityAliasIndex aliasIndex = qm.getVulnerabilityAliasIndex(vulnerabilities);
+        final Map<Long, Vulnerability> detachedVulns = new HashMap<>();
+        for (final Vulnerability detachedVuln : qm.detach(vulnerabilities)) {
+            // Aliases are lost during the detach above
+            detachedVuln.setAliases(qm.detach(aliasIndex.getAliases(detachedVuln)));
+            detachedVulns.put(detachedVuln.getId(), detachedVuln);
+        }
+
+        for (final Map.Entry<NewVulnerabilityNotificationBatch.Finding, VulnerabilityAnalysisLevel> entry : findings.entrySet()) {
+            final Component detachedComponent = detachedComponents.get(entry.getKey().componentId());
+            final Vulnerability detachedVuln = detachedVulns.get(entry.getKey().vulnerabilityId());
+            if (detachedComponent == null || detachedVuln == null) {
+                continue;
+            }
+            final Set<Project> affectedProjects = new HashSet<>();
+            for (final Long projectId : affectedProjectIds.getOrDefault(detachedComponent.getId(), Collections.emptySet())) {
+                if (detachedProjects.containsKey(projectId)) {
+                    affectedProjects.add(detachedProjects.get(projectId));
+                }
+            }
+
+            Notification.dispatch(new Notification()
+                    .scope(NotificationScope.PORTFOLIO)
+                    .group(NotificationGroup.NEW_VULNERABILITY)
+                    .title(generateNotificationTitle(NotificationConstants.Title.NEW_VULNERABILITY, componentProjects.get(detachedComponent.getId())))
+                    .level(NotificationLevel.INFORMATIONAL)
+                    .content(generateNotificationContent(detachedVuln))
+                    .subject(new NewVulnerabilityIdentified(detachedVuln, detachedComponent, affectedProjects, entry.getValue()))
+            );
+        }
+    }
+
+    private static <T> List<T> getObjectsById(final QueryManager qm, final Class<T> clazz, final Collection<Long> ids) {
+        final List<T> objects = new ArrayList<>(ids.size());
+        for (final List<Long> idsBatch : Lists.partition(List.copyOf(ids), MAX_QUERY_PARAMETERS)) {
+            final Query<T> query = qm.getPersistenceManager().newQuery(clazz);
+            query.setFilter(":ids.contains(id)");
+            query.setParameters(idsBatch);
+            objects.addAll(query.executeList());
+        }
+        return objects;
+    }
+
     public static void analyzeNotificationCriteria(final QueryManager qm, Component component) {
         List<Vulnerability> vulnerabilities = qm.getAllVulnerabilities(component, false);
         if (vulnerabilities != null && !vulnerabilities.isEmpty()) {
@@ -0,0 +1,60 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.metrics;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsDirtyTrackerTest {
+
+    @Test
+    public void testDrain() {
+        final var tracker = new MetricsDirtyTracker();
+
+        // All projects are dirty initially
+        MetricsDirtyTracker.DirtyState state = tracker.drain(Duration.ofDays(1));
+        assertThat(state.allDirty()).isTrue();
+        assertThat(state.projectIds()).isEmpty();
+
+        tracker.markDirty(1);
+        tracker.markDirty(2);
+        state = tracker.drain(Duration.ofDays(1));
+        assertThat(state.allDirty()).isFalse();
+        assertThat(state.projectIds()).containsExactlyInAnyOrder(1L, 2L);
+
+        state = tracker.drain(Duration.ofDays(1));
+        assertThat(state.allDirty()).isFalse();
+        assertThat(state.projectIds()).isEmpty();
+
+        tracker.markAllDirty();
+        assertThat(tracker.drain(Duration.ofDays(1)).allDirty()).isTrue();
+    }
+
+    @Test
+    public void testDrainAfterFullUpdateInterval() {
+        final var tracker = new MetricsDirtyTracker();
+        tracker.drain(Duration.ofDays(1));
+
+        assertThat(tracker.drain(Duration.ZERO).allDirty()).isTrue();
+    }
+
+}
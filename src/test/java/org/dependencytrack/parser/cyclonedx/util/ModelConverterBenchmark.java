@@ -0,0 +1,139 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.cyclonedx.util;
+
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Dependency;
+import org.cyclonedx.model.Metadata;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to convert the dependency graph of a generated CycloneDX BOM
+ * using {@link ModelConverter#generateDependencies(Bom, Project, List)}.
+ * <p>
+ * Every component of the BOM depends on the next {@code fanOut} components, resulting in a dense graph.
+ * {@code lookupLinearScan} is a baseline that only resolves the dependency of every component
+ * by scanning the dependencies of the BOM, as was done before they were indexed by bom-ref.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.parser.cyclonedx.util.ModelConverterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelConverterBenchmark {
+
+    @Param({"20000"})
+    private int components;
+
+    @Param({"10"})
+    private int fanOut;
+
+    private final Project project = new Project();
+    private final List<Component> componentList = new ArrayList<>();
+    private Bom bom;
+
+    @Setup
+    public void setUp() {
+        project.setUuid(UUID.randomUUID());
+        project.setName("acme-app");
+
+        final var metadataComponent = new org.cyclonedx.model.Component();
+        metadataComponent.setBomRef("acme-app");
+        final var metadata = new Metadata();
+        metadata.setComponent(metadataComponent);
+
+        bom = new Bom();
+        bom.setMetadata(metadata);
+        bom.setDependencies(new ArrayList<>());
+
+        final var rootDependency = new Dependency("acme-app");
+        rootDependency.setDependencies(new ArrayList<>());
+        bom.getDependencies().add(rootDependency);
+
+        for (int i = 0; i < components; i++) {
+            final var component = new Component();
+            component.setUuid(UUID.randomUUID());
+            component.setGroup("org.acme");
+            component.setName("component-" + i);
+            component.setVersion("1.0." + i);
+            component.setBomRef("pkg:maven/org.acme/component-" + i + "@1.0." + i);
+            componentList.add(component);
+            if (i < fanOut) {
+                rootDependency.getDependencies().add(new Dependency(component.getBomRef()));
+            }
+        }
+
+        for (int i = 0; i < components; i++) {
+            final var dependency = new Dependency(componentList.get(i).getBomRef());
+            dependency.setDependencies(new ArrayList<>());
+            for (int j = i + 1; j <= i + fanOut && j < components; j++) {
+                dependency.getDependencies().add(new Dependency(componentList.get(j).getBomRef()));
+            }
+            bom.getDependencies().add(dependency);
+        }
+    }
+
+    @Benchmark
+    public void generateDependencies(final Blackhole blackhole) {
+        blackhole.consume(ModelConverter.generateDependencies(bom, project, componentList));
+    }
+
+    @Benchmark
+    public void lookupLinearScan(final Blackhole blackhole) {
+        for (final Component component : componentList) {
+            for (final Dependency dependency : bom.getDependencies()) {
+                if (component.getBomRef().equals(dependency.getRef())) {
+                    blackhole.consume(dependency);
+                    break;
+                }
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ModelConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
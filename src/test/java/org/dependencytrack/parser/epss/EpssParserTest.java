@@ -0,0 +1,70 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.epss;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Vulnerability;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EpssParserTest extends PersistenceCapableTest {
+
+    @Test
+    public void testParse() throws Exception {
+        final var vuln = new Vulnerability();
+        vuln.setVulnId("CVE-2023-0001");
+        vuln.setSource(Vulnerability.Source.NVD);
+        qm.createVulnerability(vuln, false);
+
+        final var otherSourceVuln = new Vulnerability();
+        otherSourceVuln.setVulnId("CVE-2023-0001");
+        otherSourceVuln.setSource(Vulnerability.Source.GITHUB);
+        qm.createVulnerability(otherSourceVuln, false);
+
+        final String csv = """
+                #model_version:v2023.03.01,score_date:2023-10-16T00:00:00+0000
+                cve,epss,percentile
+                CVE-2023-0001,0.00043,0.07392
+                CVE-2023-0002,0.00050,0.17000
+                CVE-2023-0003,invalid,0.17000
+                """;
+        new EpssParser().parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        qm.getPersistenceManager().refreshAll(vuln, otherSourceVuln);
+        assertThat(vuln.getEpssScore()).isEqualByComparingTo(new BigDecimal("0.00043"));
+        assertThat(vuln.getEpssPercentile()).isEqualByComparingTo(new BigDecimal("0.07392"));
+        assertThat(otherSourceVuln.getEpssScore()).isNull();
+        assertThat(otherSourceVuln.getEpssPercentile()).isNull();
+    }
+
+    @Test
+    public void testParseLine() {
+        assertThat(EpssParser.parseLine("CVE-2023-0001,0.00043,0.07392"))
+                .isEqualTo(new EpssScore("CVE-2023-0001", new BigDecimal("0.00043"), new BigDecimal("0.07392")));
+        assertThat(EpssParser.parseLine("cve,epss,percentile")).isNull();
+        assertThat(EpssParser.parseLine("#model_version:v2023.03.01")).isNull();
+        assertThat(EpssParser.parseLine("CVE-2023-0001,0.00043")).isNull();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.nvd;
+
+import alpine.Config;
+import alpine.server.persistence.PersistenceManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to import an NVD data feed into an empty database,
+ * using different numbers of worker threads.
+ * <p>
+ * By default, the sample feed of the unit tests is imported. To import a complete yearly feed
+ * instead, specify its (uncompressed) location with {@code -Dnvd.feed=/path/to/nvdcve-1.1-2022.json}.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.parser.nvd.NvdParserBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NvdParserBenchmark {
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private File feed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config.enableUnitTests();
+        feed = new File(System.getProperty("nvd.feed", "src/test/resources/unit/nvd/nvdcve-1.1-sample.json"));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        // Start every import with an empty in-memory database
+        PersistenceManagerFactory.tearDown();
+    }
+
+    @Benchmark
+    public void parse() {
+        new NvdParser(threads).parse(feed);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NvdParserBenchmark.class.getSimpleName())
+                .jvmArgsAppend("-Dnvd.feed=" + System.getProperty("nvd.feed", "src/test/resources/unit/nvd/nvdcve-1.1-sample.json"))
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.parser.nvd;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NvdParserTest extends PersistenceCapableTest {
+
+    private static final File SAMPLE_FEED = Paths.get("src/test/resources/unit/nvd/nvdcve-1.1-sample.json").toFile();
+
+    @Test
+    public void testParse() {
+        assertThat(new NvdParser(2).parse(SAMPLE_FEED)).isTrue();
+
+        final Vulnerability flashVuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, "CVE-2015-0312", true);
+        assertThat(flashVuln).isNotNull();
+        assertThat(flashVuln.getCvssV2BaseScore()).isEqualByComparingTo("10.0");
+        assertThat(flashVuln.getVulnerableSoftware()).satisfiesExactly(vs -> {
+            assertThat(vs.getCpe23()).isEqualTo("cpe:2.3:a:adobe:flash_player:*:*:*:*:*:*:*:*");
+            assertThat(vs.getVersionEndIncluding()).isEqualTo("13.0.0.262");
+        });
+
+        final Vulnerability log4ShellVuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, "CVE-2021-44228", true);
+        assertThat(log4ShellVuln).isNotNull();
+        assertThat(log4ShellVuln.getCvssV3BaseScore()).isEqualByComparingTo("10.0");
+        assertThat(log4ShellVuln.getVulnerableSoftware()).hasSize(2);
+
+        final Vulnerability incompleteFixVuln = qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, "CVE-2021-45046", true);
+        assertThat(incompleteFixVuln).isNotNull();
+        assertThat(incompleteFixVuln.getVulnerableSoftware()).hasSize(2);
+
+        // The vulnerable software shared by CVE-2021-44228 and CVE-2021-45046 must only exist once.
+        assertThat(qm.getVulnerableSoftware().getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    public void testParseIsIdempotent() {
+        new NvdParser(2).parse(SAMPLE_FEED);
+        final long vulnerableSoftwareIdOfFirstParse = getLog4jVulnerableSoftware().getId();
+
+        // A new parser instance loads the existing vulnerable software from the database.
+        new NvdParser(2).parse(SAMPLE_FEED);
+
+        assertThat(qm.getVulnerableSoftware().getTotal()).isEqualTo(4);
+        assertThat(getLog4jVulnerableSoftware().getId()).isEqualTo(vulnerableSoftwareIdOfFirstParse);
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, "CVE-2021-44228", true)
+                .getVulnerableSoftware()).hasSize(2);
+    }
+
+    @Test
+    public void testParseCompressed() throws Exception {
+        final Path compressedFeed = Files.createTempFile("nvdcve-1.1-sample", ".json.gz");
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedFeed))) {
+            Files.copy(SAMPLE_FEED.toPath(), out);
+        }
+        final File renamedFeed = compressedFeed.resolveSibling("nvdcve-1.1-sample.json.gz").toFile();
+        Files.move(compressedFeed, renamedFeed.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        try {
+            assertThat(new NvdParser(2).parse(renamedFeed)).isTrue();
+        } finally {
+            Files.delete(renamedFeed.toPath());
+        }
+
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, "CVE-2021-44228", true)
+                .getVulnerableSoftware()).hasSize(2);
+        assertThat(qm.getVulnerableSoftware().getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    public void testParseWithFailingWorker() throws Exception {
+        // Enough batches to fill the queue many times over, should the failed worker stop draining it.
+        final Path feed = Files.createTempFile("nvdcve-1.1-failing", ".json");
+        final var feedContent = new StringJoiner(",", "{\"CVE_Items\":[", "]}");
+        for (int i = 0; i < 5_000; i++) {
+            feedContent.add("{\"cve\":{}}");
+        }
+        Files.writeString(feed, feedContent.toString());
+
+        final var processedBatches = new AtomicInteger();
+        final var parser = new NvdParser(2, batch -> {
+            processedBatches.incrementAndGet();
+            throw new AssertionError("Worker failure");
+        });
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Boolean> result = executor.submit(() -> parser.parse(feed.toFile()));
+            assertThat(result.get(30, TimeUnit.SECONDS)).isFalse();
+        } finally {
+            executor.shutdownNow();
+            Files.delete(feed);
+        }
+
+        // Workers stop processing batches once one of them has failed.
+        assertThat(processedBatches.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void testParseWithFailingCveItem() throws Exception {
+        final var objectMapper = new ObjectMapper();
+        final var feedContent = (ObjectNode) objectMapper.readTree(SAMPLE_FEED);
+        ((ArrayNode) feedContent.get("CVE_Items")).addObject().putObject("cve");
+        final Path feed = Files.createTempFile("nvdcve-1.1-failing-item", ".json");
+        objectMapper.writeValue(feed.toFile(), feedContent);
+
+        try {
+            // The feed must not be reported as processed completely, so that it is not skipped on the next mirror.
+            assertThat(new NvdParser(2).parse(feed.toFile())).isFalse();
+        } finally {
+            Files.delete(feed);
+        }
+
+        // The remaining CVE items are processed regardless.
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.NVD, "CVE-2021-44228", true)
+                .getVulnerableSoftware()).hasSize(2);
+    }
+
+    private VulnerableSoftware getLog4jVulnerableSoftware() {
+        return qm.getVulnerableSoftwareByCpe23("cpe:2.3:a:apache:log4j:*:*:*:*:*:*:*:*",
+                "2.15.0", null, null, "2.13.0");
+    }
+
+}
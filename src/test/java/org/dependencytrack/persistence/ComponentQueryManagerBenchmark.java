@@ -0,0 +1,94 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.model.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to determine the components to delete when reconciling
+ * the components of a project, using {@link ComponentQueryManager#getComponentsMarkedForDeletion(List, List)}.
+ * <p>
+ * Every tenth component is a root with nine children, and every hundredth component is removed.
+ * Comparing the results for different numbers of components shows whether the runtime grows linearly.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.persistence.ComponentQueryManagerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ComponentQueryManagerBenchmark {
+
+    @Param({"5000", "50000"})
+    private int components;
+
+    private final List<Component> existingComponents = new ArrayList<>();
+    private final List<Component> keptComponents = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        Component parent = null;
+        for (int i = 0; i < components; i++) {
+            final var component = new Component();
+            component.setId(i);
+            component.setParent(i % 10 == 0 ? null : parent);
+            component.setName("component-" + i);
+            existingComponents.add(component);
+            if (i % 100 != 0) {
+                keptComponents.add(component);
+            }
+            if (i % 10 == 0) {
+                parent = component;
+            }
+        }
+    }
+
+    @Benchmark
+    public void getComponentsMarkedForDeletion(final Blackhole blackhole) {
+        blackhole.consume(ComponentQueryManager.getComponentsMarkedForDeletion(existingComponents, keptComponents));
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ComponentQueryManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
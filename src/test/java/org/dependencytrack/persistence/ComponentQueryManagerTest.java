@@ -0,0 +1,218 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Analysis;
+import org.dependencytrack.model.AnalysisComment;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
+import org.dependencytrack.model.DependencyMetrics;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComponentQueryManagerTest extends PersistenceCapableTest {
+
+    @Test
+    public void testReconcileComponents() {
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        final var parentComponent = new Component();
+        parentComponent.setProject(project);
+        parentComponent.setName("acme-lib-a");
+        qm.createComponent(parentComponent, false);
+
+        final var childComponent = new Component();
+        childComponent.setProject(project);
+        childComponent.setParent(parentComponent);
+        childComponent.setName("acme-lib-b");
+        qm.createComponent(childComponent, false);
+
+        final var keptComponent = new Component();
+        keptComponent.setProject(project);
+        keptComponent.setName("acme-lib-c");
+        qm.createComponent(keptComponent, false);
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("INT-001");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        qm.createVulnerability(vulnerability, false);
+        qm.addVulnerability(vulnerability, parentComponent, AnalyzerIdentity.INTERNAL_ANALYZER);
+        qm.addVulnerability(vulnerability, keptComponent, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final Analysis analysis = qm.makeAnalysis(parentComponent, vulnerability, AnalysisState.NOT_AFFECTED, null, null, null, false);
+        qm.makeAnalysisComment(analysis, "Not affected", "Jane Doe");
+
+        final var metrics = new DependencyMetrics();
+        metrics.setProject(project);
+        metrics.setComponent(childComponent);
+        metrics.setFirstOccurrence(new Date());
+        metrics.setLastOccurrence(new Date());
+        qm.persist(metrics);
+
+        qm.reconcileComponents(project, qm.getAllComponents(project), List.of(keptComponent));
+
+        assertThat(qm.getAllComponents(project)).satisfiesExactly(component ->
+                assertThat(component.getName()).isEqualTo("acme-lib-c"));
+        assertThat(getAll(Analysis.class)).isEmpty();
+        assertThat(getAll(AnalysisComment.class)).isEmpty();
+        assertThat(getAll(DependencyMetrics.class)).isEmpty();
+        assertThat(getAll(FindingAttribution.class)).satisfiesExactly(attribution ->
+                assertThat(attribution.getComponent().getName()).isEqualTo("acme-lib-c"));
+
+        qm.getPersistenceManager().refresh(vulnerability);
+        assertThat(vulnerability.getComponents()).satisfiesExactly(component ->
+                assertThat(component.getName()).isEqualTo("acme-lib-c"));
+    }
+
+    @Test
+    public void testReconcileComponentsDeletesComponentDependencies() {
+        final Project project = qm.createProject("acme-app", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a");
+        final Component componentB = createComponent(project, "acme-lib-b");
+        final Component componentC = createComponent(project, "acme-lib-c");
+        qm.synchronizeComponentDependencies(project, List.of(
+                new ComponentDependency(project, null, componentA),
+                new ComponentDependency(project, componentA, componentB),
+                new ComponentDependency(project, componentB, componentC),
+                new ComponentDependency(project, null, componentC)));
+
+        qm.reconcileComponents(project, qm.getAllComponents(project), List.of(componentA, componentC));
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(getComponentDependencies(project)).containsExactlyInAnyOrder(
+                "acme-app -> acme-lib-a",
+                "acme-app -> acme-lib-c"
+        );
+    }
+
+    @Test
+    public void testRecursivelyDeleteComponentDeletesComponentDependencies() {
+        final Project project = qm.createProject("acme-app", null, "1.0", null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a");
+        final Component componentB = createComponent(project, "acme-lib-b");
+        final Component componentC = createComponent(project, "acme-lib-c");
+        qm.synchronizeComponentDependencies(project, List.of(
+                new ComponentDependency(project, null, componentA),
+                new ComponentDependency(project, componentA, componentB),
+                new ComponentDependency(project, componentB, componentC),
+                new ComponentDependency(project, null, componentC)));
+
+        qm.recursivelyDelete(componentB, false);
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).hasSize(2);
+        assertThat(getComponentDependencies(project)).containsExactlyInAnyOrder(
+                "acme-app -> acme-lib-a",
+                "acme-app -> acme-lib-c"
+        );
+    }
+
+    @Test
+    public void testGetComponentsMarkedForDeletion() {
+        final Component componentA = createTransientComponent(1, null);
+        final Component componentB = createTransientComponent(2, componentA);
+        final Component componentC = createTransientComponent(3, componentB);
+        final Component componentD = createTransientComponent(4, null);
+        final Component componentE = createTransientComponent(5, componentD);
+
+        final List<List<Component>> markedForDeletion = ComponentQueryManager.getComponentsMarkedForDeletion(
+                List.of(componentA, componentB, componentC, componentD, componentE), List.of(componentD, componentC));
+
+        // Removed components take their children with them, even if the children are still present
+        assertThat(markedForDeletion).satisfiesExactly(
+                level -> assertThat(level).containsExactlyInAnyOrder(componentA, componentE),
+                level -> assertThat(level).containsExactly(componentB),
+                level -> assertThat(level).containsExactly(componentC)
+        );
+    }
+
+    @Test
+    public void testGetComponentsMarkedForDeletionWithLargeHierarchy() {
+        final int numComponents = 50_000;
+        final var existingComponents = new ArrayList<Component>(numComponents);
+        final var components = new ArrayList<Component>(numComponents);
+        Component parent = null;
+        for (int i = 0; i < numComponents; i++) {
+            // Every tenth component is a root, followed by nine of its children
+            final Component component = createTransientComponent(i, i % 10 == 0 ? null : parent);
+            existingComponents.add(component);
+            if (i % 100 != 0) {
+                components.add(component);
+            }
+            if (i % 10 == 0) {
+                parent = component;
+            }
+        }
+
+        final List<List<Component>> markedForDeletion = ComponentQueryManager.getComponentsMarkedForDeletion(existingComponents, components);
+
+        // Every hundredth component is removed, taking its nine children with it
+        assertThat(markedForDeletion).satisfiesExactly(
+                level -> assertThat(level)
+                        .hasSize(numComponents / 100)
+                        .allSatisfy(component -> {
+                            assertThat(component.getId() % 100).isZero();
+                            assertThat(component.getParent()).isNull();
+                        }),
+                level -> assertThat(level)
+                        .hasSize(numComponents / 100 * 9)
+                        .doesNotHaveDuplicates()
+                        .allSatisfy(component -> assertThat(component.getParent().getId() % 100).isZero())
+        );
+    }
+
+    private <T> List<T> getAll(final Class<T> clazz) {
+        return qm.getPersistenceManager().newQuery(clazz).executeList();
+    }
+
+    private List<String> getComponentDependencies(final Project project) {
+        return getAll(ComponentDependency.class).stream()
+                .filter(dependency -> dependency.getProject().getId() == project.getId())
+                .map(dependency -> (dependency.getParent() != null ? dependency.getParent().getName() : project.getName())
+                        + " -> " + dependency.getChild().getName())
+                .toList();
+    }
+
+    private Component createComponent(final Project project, final String name) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        return qm.createComponent(component, false);
+    }
+
+    private static Component createTransientComponent(final long id, final Component parent) {
+        final var component = new Component();
+        component.setId(id);
+        component.setParent(parent);
+        component.setName("component-" + id);
+        return component;
+    }
+
+}
@@ -19,11 +19,22 @@
 package org.dependencytrack.persistence;
 
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
+import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
 import org.junit.Test;
 
+import javax.jdo.PersistenceManager;
+import java.time.Duration;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,4 +58,113 @@ public class PolicyQueryManagerTest extends PersistenceCapableTest {
         assertThat(qm.getObjectById(Policy.class, policy2.getId()).getProjects()).isEmpty();
     }
 
+    @Test
+    public void testReconcilePolicyViolations() {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition conditionA = qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        final PolicyCondition conditionB = qm.createPolicyCondition(policy, PolicyCondition.Subject.PACKAGE_URL, PolicyCondition.Operator.MATCHES, "pkg:maven");
+
+        // Identical violations are only created once.
+        final PolicyViolationReconciliation created = qm.reconcilePolicyViolations(component, List.of(
+                createViolation(component, conditionA), createViolation(component, conditionA)));
+        assertThat(created.newViolations()).satisfiesExactly(violation -> assertThat(violation.getPolicyCondition().getId()).isEqualTo(conditionA.getId()));
+        final PolicyViolation violationA = created.newViolations().get(0);
+        assertThat(created.violations()).containsExactly(violationA, violationA);
+
+        // Violations that exist already are kept, and violations that were not identified again are removed.
+        final PolicyViolationReconciliation reconciled = qm.reconcilePolicyViolations(component, List.of(
+                createViolation(component, conditionA), createViolation(component, conditionB)));
+        assertThat(reconciled.newViolations()).satisfiesExactly(violation -> assertThat(violation.getPolicyCondition().getId()).isEqualTo(conditionB.getId()));
+        assertThat(reconciled.violations()).satisfiesExactly(
+                violation -> {
+                    assertThat(violation.getId()).isEqualTo(violationA.getId());
+                    assertThat(violation.getTimestamp()).isEqualTo(violationA.getTimestamp());
+                },
+                violation -> assertThat(violation.getId()).isEqualTo(reconciled.newViolations().get(0).getId()));
+        assertThat(qm.reconcilePolicyViolations(component, List.of(createViolation(component, conditionB))).newViolations()).isEmpty();
+        assertThat(qm.getAllPolicyViolations(component)).satisfiesExactly(
+                violation -> assertThat(violation.getPolicyCondition().getId()).isEqualTo(conditionB.getId()));
+    }
+
+    @Test
+    public void testReconcilePolicyViolationsWithConcurrentlyCreatedViolation() throws Exception {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+
+        // Insert a violation with the same identity in a transaction that is still open,
+        // so that it is not visible to the reconciliation, but conflicts with its insert.
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (final var concurrentQm = new QueryManager()) {
+            final PersistenceManager concurrentPm = concurrentQm.getPersistenceManager();
+            concurrentPm.currentTransaction().begin();
+            final PolicyViolation concurrentViolation = concurrentPm.makePersistent(createViolation(
+                    concurrentQm.getObjectById(Component.class, component.getId()),
+                    concurrentQm.getObjectById(PolicyCondition.class, condition.getId())));
+            concurrentPm.flush();
+
+            final Future<PolicyViolationReconciliation> future = executor.submit(() -> {
+                try (final var reconcileQm = new QueryManager()) {
+                    final Component reconcileComponent = reconcileQm.getObjectById(Component.class, component.getId());
+                    return reconcileQm.reconcilePolicyViolations(reconcileComponent, List.of(createViolation(
+                            reconcileComponent, reconcileQm.getObjectById(PolicyCondition.class, condition.getId()))));
+                }
+            });
+            Thread.sleep(200);
+            concurrentPm.currentTransaction().commit();
+
+            // The insert of the duplicate is rejected, and the repeated reconciliation adopts the existing violation.
+            final PolicyViolationReconciliation reconciliation = future.get(30, TimeUnit.SECONDS);
+            assertThat(reconciliation.newViolations()).isEmpty();
+            assertThat(reconciliation.violations()).satisfiesExactly(
+                    violation -> assertThat(violation.getId()).isEqualTo(concurrentViolation.getId()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllPolicyViolations(component)).hasSize(1);
+    }
+
+    @Test
+    public void testDeletePolicyMarksProjectsDirty() {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final Project otherProject = qm.createProject("ACME Example", null, "2.0", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition condition = qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        qm.reconcilePolicyViolations(component, List.of(createViolation(component, condition)));
+
+        // Discard the dirty state caused by the new violation, so that only the deletion is observed.
+        MetricsDirtyTracker.getInstance().drain(Duration.ofDays(1));
+
+        qm.deletePolicy(policy);
+
+        assertThat(qm.getAllPolicyViolations(component)).isEmpty();
+        final MetricsDirtyTracker.DirtyState dirtyState = MetricsDirtyTracker.getInstance().drain(Duration.ofDays(1));
+        assertThat(dirtyState.projectIds()).contains(project.getId());
+        assertThat(dirtyState.projectIds()).doesNotContain(otherProject.getId());
+    }
+
+    private static PolicyViolation createViolation(final Component component, final PolicyCondition condition) {
+        final var violation = new PolicyViolation();
+        violation.setType(PolicyViolation.Type.OPERATIONAL);
+        violation.setComponent(component);
+        violation.setPolicyCondition(condition);
+        violation.setTimestamp(new Date());
+        return violation;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
+import org.dependencytrack.model.Project;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectQueryManagerTest extends PersistenceCapableTest {
+
+    @Test
+    public void testRecursivelyDeleteDeletesComponentDependencies() {
+        final Project project = createProjectWithDependencyGraph("acme-app", "1.0.0");
+        final Project otherProject = createProjectWithDependencyGraph("acme-other-app", "1.0.0");
+
+        qm.recursivelyDelete(project, false);
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getProject("acme-app", "1.0.0")).isNull();
+        assertThat(getAll(ComponentDependency.class)).allSatisfy(dependency ->
+                assertThat(dependency.getProject().getId()).isEqualTo(otherProject.getId()));
+        assertThat(getComponentDependencies(otherProject)).containsExactlyInAnyOrder(
+                "acme-other-app -> acme-lib-a",
+                "acme-lib-a -> acme-lib-b"
+        );
+    }
+
+    @Test
+    public void testCloneCopiesComponentDependencies() {
+        final Project project = createProjectWithDependencyGraph("acme-app", "1.0.0");
+
+        final Project clonedProject = qm.clone(project.getUuid(), "1.1.0", false, false, true, true, false, false);
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(getComponentDependencies(clonedProject)).containsExactlyInAnyOrder(
+                "acme-app -> acme-lib-a",
+                "acme-lib-a -> acme-lib-b"
+        );
+        assertThat(getAll(ComponentDependency.class))
+                .filteredOn(dependency -> dependency.getProject().getId() == clonedProject.getId())
+                .allSatisfy(dependency -> {
+                    assertThat(dependency.getChild().getProject().getId()).isEqualTo(clonedProject.getId());
+                    if (dependency.getParent() != null) {
+                        assertThat(dependency.getParent().getProject().getId()).isEqualTo(clonedProject.getId());
+                    }
+                });
+        assertThat(getComponentDependencies(project)).containsExactlyInAnyOrder(
+                "acme-app -> acme-lib-a",
+                "acme-lib-a -> acme-lib-b"
+        );
+    }
+
+    private Project createProjectWithDependencyGraph(final String name, final String version) {
+        final Project project = qm.createProject(name, null, version, null, null, null, true, false);
+        final Component componentA = createComponent(project, "acme-lib-a");
+        final Component componentB = createComponent(project, "acme-lib-b");
+        qm.synchronizeComponentDependencies(project, List.of(
+                new ComponentDependency(project, null, componentA),
+                new ComponentDependency(project, componentA, componentB)));
+        return project;
+    }
+
+    private Component createComponent(final Project project, final String name) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setName(name);
+        return qm.createComponent(component, false);
+    }
+
+    private List<String> getComponentDependencies(final Project project) {
+        return getAll(ComponentDependency.class).stream()
+                .filter(dependency -> dependency.getProject().getId() == project.getId())
+                .map(dependency -> (dependency.getParent() != null ? dependency.getParent().getName() : project.getName())
+                        + " -> " + dependency.getChild().getName())
+                .toList();
+    }
+
+    private <T> List<T> getAll(final Class<T> clazz) {
+        return qm.getPersistenceManager().newQuery(clazz).executeList();
+    }
+
+}
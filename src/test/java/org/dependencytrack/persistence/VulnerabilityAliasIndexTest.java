@@ -0,0 +1,84 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerabilityAliasIndexTest extends PersistenceCapableTest {
+
+    @Test
+    public void testAliases() {
+        final Vulnerability vulnA = createVulnerability("INTERNAL-001", Vulnerability.Source.INTERNAL);
+        final Vulnerability vulnB = createVulnerability("GHSA-002", Vulnerability.Source.GITHUB);
+        final Vulnerability vulnC = createVulnerability("SONATYPE-003", Vulnerability.Source.OSSINDEX);
+        final Vulnerability vulnD = createVulnerability("VULNDB-004", Vulnerability.Source.VULNDB);
+
+        // Make A an alias of C
+        final var aliasAtoC = new VulnerabilityAlias();
+        aliasAtoC.setInternalId(vulnA.getVulnId());
+        aliasAtoC.setSonatypeId(vulnC.getVulnId());
+        qm.persist(aliasAtoC);
+
+        // Make A also an alias of D
+        final var aliasAtoD = new VulnerabilityAlias();
+        aliasAtoD.setInternalId(vulnA.getVulnId());
+        aliasAtoD.setVulnDbId(vulnD.getVulnId());
+        qm.persist(aliasAtoD);
+
+        final VulnerabilityAliasIndex index = qm.getVulnerabilityAliasIndex(List.of(vulnA, vulnB, vulnC, vulnD));
+
+        assertThat(index.getAliases(vulnA)).hasSize(2);
+        assertThat(index.getAliases(vulnA)).hasSameSizeAs(qm.getVulnerabilityAliases(vulnA));
+        assertThat(index.getAliases(vulnB)).isEmpty();
+        assertThat(index.getAliases(vulnC)).satisfiesExactly(alias -> {
+            assertThat(alias.getInternalId()).isEqualTo("INTERNAL-001");
+            assertThat(alias.getSonatypeId()).isEqualTo("SONATYPE-003");
+        });
+        assertThat(index.getAliases(vulnD)).satisfiesExactly(alias -> {
+            assertThat(alias.getInternalId()).isEqualTo("INTERNAL-001");
+            assertThat(alias.getVulnDbId()).isEqualTo("VULNDB-004");
+        });
+
+        // Aliases are not transitive: C and D only share A, but do not alias each other.
+        assertThat(index.getAliases(vulnC)).noneMatch(alias -> vulnD.getVulnId().equals(alias.getVulnDbId()));
+        assertThat(index.getAliases(vulnD)).noneMatch(alias -> vulnC.getVulnId().equals(alias.getSonatypeId()));
+    }
+
+    @Test
+    public void testEmpty() {
+        final VulnerabilityAliasIndex index = qm.getVulnerabilityAliasIndex(List.of());
+
+        assertThat(index.getAliases(Vulnerability.Source.NVD.name(), "CVE-123")).isEmpty();
+    }
+
+    private Vulnerability createVulnerability(final String vulnId, final Vulnerability.Source source) {
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId(vulnId);
+        vulnerability.setSource(source);
+        return qm.createVulnerability(vulnerability, false);
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.persistence;
+
+import alpine.Config;
+import alpine.server.persistence.PersistenceManagerFactory;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time it takes to list the vulnerabilities of a project via
+ * {@link QueryManager#getVulnerabilities(Project, boolean)}, and via the previous
+ * approach of querying the vulnerabilities (and aliases) of every component individually.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.persistence.VulnerabilityQueryManagerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VulnerabilityQueryManagerBenchmark {
+
+    @Param({"5000"})
+    private int components;
+
+    private long projectId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config.enableUnitTests();
+        try (final QueryManager qm = new QueryManager()) {
+            final Project project = qm.createProject("Benchmark", null, "1.0", null, null, null, true, false);
+            projectId = project.getId();
+
+            final var vulnerabilities = new ArrayList<Vulnerability>();
+            for (int i = 0; i < components / 10; i++) {
+                final var vulnerability = new Vulnerability();
+                vulnerability.setVulnId("INT-" + i);
+                vulnerability.setSource(Vulnerability.Source.INTERNAL);
+                vulnerabilities.add(qm.createVulnerability(vulnerability, false));
+            }
+
+            for (int i = 0; i < components; i++) {
+                final var component = new Component();
+                component.setProject(project);
+                component.setName("component-" + i);
+                component.setVersion("1.0." + i);
+                qm.createComponent(component, false);
+
+                // Every component is affected by two vulnerabilities, one of every tenth component is suppressed
+                final Vulnerability vulnA = vulnerabilities.get(i % vulnerabilities.size());
+                final Vulnerability vulnB = vulnerabilities.get((i + 1) % vulnerabilities.size());
+                qm.addVulnerability(vulnA, component, AnalyzerIdentity.INTERNAL_ANALYZER);
+                qm.addVulnerability(vulnB, component, AnalyzerIdentity.INTERNAL_ANALYZER);
+                if (i % 10 == 0) {
+                    qm.makeAnalysis(component, vulnB, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        PersistenceManagerFactory.tearDown();
+    }
+
+    @Benchmark
+    public void getVulnerabilities(final Blackhole blackhole) {
+        try (final QueryManager qm = new QueryManager()) {
+            final Project project = qm.getObjectById(Project.class, projectId);
+            blackhole.consume(qm.getVulnerabilities(project, false));
+        }
+    }
+
+    @Benchmark
+    public void getVulnerabilitiesPerComponent(final Blackhole blackhole) {
+        try (final QueryManager qm = new QueryManager()) {
+            final Project project = qm.getObjectById(Project.class, projectId);
+            final var result = new ArrayList<Vulnerability>();
+            for (final Component component : qm.getAllComponents(project)) {
+                final List<Vulnerability> componentVulns = new ArrayList<>(qm.getPersistenceManager().detachCopyAll(
+                        qm.getAllVulnerabilities(component, false)));
+                for (final Vulnerability componentVuln : componentVulns) {
+                    componentVuln.setComponents(Collections.singletonList(qm.getPersistenceManager().detachCopy(component)));
+                    componentVuln.setAliases(new ArrayList<>(qm.getPersistenceManager().detachCopyAll(qm.getVulnerabilityAliases(componentVuln))));
+                }
+                result.addAll(componentVulns);
+            }
+            blackhole.consume(result);
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VulnerabilityQueryManagerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -21,7 +21,13 @@ package org.dependencytrack.persistence;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.AnalysisState;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.FindingAttribution;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
 import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -31,6 +37,11 @@ import javax.jdo.Query;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static java.util.Collections.singletonList;
@@ -38,14 +49,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.dependencytrack.persistence.VulnerabilityQueryManagerTest.SynchronizeVulnerabilityAliasTest.VulnerabilityAliasBuilder.anAlias;
 
 @RunWith(Suite.class)
-@SuiteClasses(VulnerabilityQueryManagerTest.SynchronizeVulnerabilityAliasTest.class)
+@SuiteClasses({
+        VulnerabilityQueryManagerTest.SynchronizeVulnerabilityAliasTest.class,
+        VulnerabilityQueryManagerTest.GetVulnerabilitiesTest.class,
+        VulnerabilityQueryManagerTest.AddVulnerabilityTest.class
+})
 public class VulnerabilityQueryManagerTest {
 
     @RunWith(JUnitParamsRunner.class)
     public static class SynchronizeVulnerabilityAliasTest extends PersistenceCapableTest {
 
         @Test
-        @SuppressWarnings({"unchecked", "resource", "JUnitMalformedDeclaration"})
+        @SuppressWarnings("JUnitMalformedDeclaration")
         @Parameters(method = "synchronizeVulnerabilityAliasTestParams")
         public void synchronizeVulnerabilityAliasTest(final String description,
                                                       final List<VulnerabilityAlias> reportedAliases,
@@ -54,6 +69,22 @@ public class VulnerabilityQueryManagerTest {
                 qm.synchronizeVulnerabilityAlias(reportedAlias);
             }
 
+            assertAliases(description, expectedAliases);
+        }
+
+        @Test
+        @SuppressWarnings("JUnitMalformedDeclaration")
+        @Parameters(method = "synchronizeVulnerabilityAliasTestParams")
+        public void synchronizeVulnerabilityAliasesTest(final String description,
+                                                        final List<VulnerabilityAlias> reportedAliases,
+                                                        final List<VulnerabilityAlias> expectedAliases) {
+            qm.synchronizeVulnerabilityAliases(reportedAliases);
+
+            assertAliases(description, expectedAliases);
+        }
+
+        @SuppressWarnings({"unchecked", "resource"})
+        private void assertAliases(final String description, final List<VulnerabilityAlias> expectedAliases) {
             final var aliasAsserts = new ArrayList<Consumer<VulnerabilityAlias>>();
             for (final VulnerabilityAlias expectedAlias : expectedAliases) {
                 aliasAsserts.add(alias -> {
@@ -656,4 +687,121 @@ public class VulnerabilityQueryManagerTest {
 
     }
 
-}
\ No newline at end of file
+    public static class GetVulnerabilitiesTest extends PersistenceCapableTest {
+
+        @Test
+        public void getVulnerabilitiesByProjectTest() {
+            final Project project = qm.createProject("Project A", null, null, null, null, null, true, false);
+            final Project otherProject = qm.createProject("Project B", null, null, null, null, null, true, false);
+            final Component componentA = createComponent(project, "acme-a");
+            final Component componentB = createComponent(project, "acme-b");
+            final Component componentC = createComponent(otherProject, "acme-c");
+            final Vulnerability vulnA = createVulnerability("INT-1");
+            final Vulnerability vulnB = createVulnerability("INT-2");
+            final Vulnerability vulnC = createVulnerability("INT-3");
+            qm.addVulnerability(vulnA, componentA, AnalyzerIdentity.INTERNAL_ANALYZER);
+            qm.addVulnerability(vulnB, componentA, AnalyzerIdentity.INTERNAL_ANALYZER);
+            qm.addVulnerability(vulnA, componentB, AnalyzerIdentity.INTERNAL_ANALYZER);
+            qm.addVulnerability(vulnC, componentB, AnalyzerIdentity.INTERNAL_ANALYZER);
+            qm.addVulnerability(vulnB, componentC, AnalyzerIdentity.INTERNAL_ANALYZER);
+            qm.makeAnalysis(componentB, vulnC, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+            // Suppressions of other components must not have any effect
+            qm.makeAnalysis(componentC, vulnB, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+
+            final var alias = new VulnerabilityAlias();
+            alias.setInternalId("INT-1");
+            alias.setCveId("CVE-123");
+            qm.persist(alias);
+
+            assertThat(qm.getVulnerabilities(project, false)).satisfiesExactly(
+                    vuln -> assertFinding(vuln, "INT-1", componentA, 1),
+                    vuln -> assertFinding(vuln, "INT-2", componentA, 0),
+                    vuln -> assertFinding(vuln, "INT-1", componentB, 1)
+            );
+            assertThat(qm.getVulnerabilities(project, true)).satisfiesExactly(
+                    vuln -> assertFinding(vuln, "INT-1", componentA, 1),
+                    vuln -> assertFinding(vuln, "INT-2", componentA, 0),
+                    vuln -> assertFinding(vuln, "INT-1", componentB, 1),
+                    vuln -> assertFinding(vuln, "INT-3", componentB, 0)
+            );
+            assertThat(qm.getVulnerabilities(otherProject, false)).isEmpty();
+            assertThat(qm.getAllVulnerabilities(componentB, false)).extracting(Vulnerability::getVulnId).containsExactly("INT-1");
+            assertThat(qm.getAllVulnerabilities(componentB, true)).extracting(Vulnerability::getVulnId).containsExactlyInAnyOrder("INT-1", "INT-3");
+        }
+
+        private static void assertFinding(final Vulnerability vuln, final String vulnId, final Component component, final int aliases) {
+            assertThat(vuln.getVulnId()).isEqualTo(vulnId);
+            assertThat(vuln.getComponents()).extracting(Component::getUuid).containsExactly(component.getUuid());
+            assertThat(vuln.getAliases()).hasSize(aliases);
+        }
+
+        private Component createComponent(final Project project, final String name) {
+            final var component = new Component();
+            component.setProject(project);
+            component.setName(name);
+            return qm.createComponent(component, false);
+        }
+
+        private Vulnerability createVulnerability(final String vulnId) {
+            final var vulnerability = new Vulnerability();
+            vulnerability.setVulnId(vulnId);
+            vulnerability.setSource(Vulnerability.Source.INTERNAL);
+            return qm.createVulnerability(vulnerability, false);
+        }
+
+    }
+
+    public static class AddVulnerabilityTest extends PersistenceCapableTest {
+
+        @Test
+        public void addVulnerabilityConcurrentlyTest() throws Exception {
+            final Project project = qm.createProject("Project A", null, null, null, null, null, true, false);
+            final var vulnerability = new Vulnerability();
+            vulnerability.setVulnId("CVE-2023-12345");
+            vulnerability.setSource(Vulnerability.Source.NVD);
+            final Vulnerability persistentVulnerability = qm.createVulnerability(vulnerability, false);
+            final List<Component> components = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                final var component = new Component();
+                component.setProject(project);
+                component.setName("acme-" + i);
+                components.add(qm.createComponent(component, false));
+            }
+            final List<Component> detachedComponents = qm.detach(components);
+            final Vulnerability detachedVulnerability = qm.detach(Vulnerability.class, persistentVulnerability.getId());
+
+            // Two analyzers, each with its own QueryManager, report the same finding for every component at once
+            final var barrier = new CyclicBarrier(2);
+            final ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (final AnalyzerIdentity analyzerIdentity : List.of(AnalyzerIdentity.INTERNAL_ANALYZER, AnalyzerIdentity.OSSINDEX_ANALYZER)) {
+                    futures.add(executor.submit(() -> {
+                        try (final var analyzerQm = new QueryManager()) {
+                            barrier.await();
+                            for (final Component component : detachedComponents) {
+                                analyzerQm.addVulnerability(detachedVulnerability, component, analyzerIdentity);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (final Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            qm.getPersistenceManager().evictAll();
+            for (final Component component : components) {
+                assertThat(qm.getAllVulnerabilities(component)).extracting(Vulnerability::getVulnId).containsExactly("CVE-2023-12345");
+                final Query<FindingAttribution> query = qm.getPersistenceManager().newQuery(FindingAttribution.class, "component == :component");
+                query.setParameters(component);
+                assertThat(query.executeList()).hasSize(1);
+            }
+        }
+
+    }
+
+}
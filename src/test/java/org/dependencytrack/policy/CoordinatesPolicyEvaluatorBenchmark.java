@@ -0,0 +1,137 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.policy;
+
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to evaluate components against a policy with
+ * {@link PolicyCondition.Subject#COORDINATES} conditions.
+ * <p>
+ * {@code evaluate} uses the {@link CoordinatesPolicyEvaluator}, which compiles the patterns of each condition once.
+ * {@code evaluateUncompiled} is a baseline that compiles a pattern for every component and condition pair.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.policy.CoordinatesPolicyEvaluatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CoordinatesPolicyEvaluatorBenchmark {
+
+    @Param({"1000"})
+    private int components;
+
+    @Param({"100"})
+    private int conditions;
+
+    private final CoordinatesPolicyEvaluator evaluator = new CoordinatesPolicyEvaluator();
+    private final List<Component> componentList = new ArrayList<>();
+    private final List<String[]> coordinatesList = new ArrayList<>();
+    private Policy policy;
+
+    @Setup
+    public void setUp() {
+        policy = new Policy();
+        policy.setName("Benchmark Policy");
+        policy.setOperator(Policy.Operator.ANY);
+        policy.setPolicyConditions(new ArrayList<>());
+        for (int i = 0; i < conditions; i++) {
+            final String group = "org.acme." + i % 10 + "*";
+            final String name = "^component-" + i + "$";
+            final var condition = new PolicyCondition();
+            condition.setPolicy(policy);
+            condition.setSubject(PolicyCondition.Subject.COORDINATES);
+            condition.setOperator(PolicyCondition.Operator.MATCHES);
+            condition.setValue("""
+                    {"group": "%s", "name": "%s", "version": "1.*"}
+                    """.formatted(group, name));
+            policy.getPolicyConditions().add(condition);
+            coordinatesList.add(new String[]{group, name, "1.*"});
+        }
+
+        for (int i = 0; i < components; i++) {
+            final var component = new Component();
+            component.setGroup("org.acme." + i % 10 + ".sub");
+            component.setName("component-" + i % conditions);
+            component.setVersion("1." + i % 5);
+            componentList.add(component);
+        }
+    }
+
+    @Benchmark
+    public void evaluate(final Blackhole blackhole) {
+        for (final Component component : componentList) {
+            blackhole.consume(evaluator.evaluate(policy, component));
+        }
+    }
+
+    @Benchmark
+    public void evaluateUncompiled(final Blackhole blackhole) {
+        for (final Component component : componentList) {
+            for (final String[] coordinates : coordinatesList) {
+                blackhole.consume(matchesUncompiled(component.getGroup(), coordinates[0])
+                        && matchesUncompiled(component.getName(), coordinates[1])
+                        && matchesUncompiled(component.getVersion(), coordinates[2]));
+            }
+        }
+    }
+
+    // Equivalent of Matcher#matches, without reusing compiled patterns
+    private static boolean matchesUncompiled(final String value, String conditionString) {
+        conditionString = conditionString.replace("*", ".*").replace("..*", ".*");
+        if (!conditionString.startsWith("^") && !conditionString.startsWith(".*")) {
+            conditionString = ".*" + conditionString;
+        }
+        if (!conditionString.endsWith("$") && !conditionString.endsWith(".*")) {
+            conditionString += ".*";
+        }
+        return value.matches(conditionString);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CoordinatesPolicyEvaluatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
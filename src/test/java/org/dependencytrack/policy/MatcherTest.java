@@ -21,6 +21,8 @@ package org.dependencytrack.policy;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.regex.PatternSyntaxException;
+
 public class MatcherTest {
 
     @Test
@@ -54,4 +56,17 @@ public class MatcherTest {
         Assert.assertTrue(Matcher.matches("something", "^some.*"));
         Assert.assertTrue(Matcher.matches("something", ".*thing$"));
     }
+
+    @Test
+    public void checkCachedPattern() {
+        Assert.assertTrue(Matcher.matches("something", "^some"));
+        Assert.assertFalse(Matcher.matches("nothing", "^some"));
+        Matcher.invalidate("^some");
+        Assert.assertTrue(Matcher.matches("something", "^some"));
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void checkInvalidRegex() {
+        Matcher.matches("something", "some(");
+    }
 }
@@ -24,6 +24,7 @@ import alpine.notification.NotificationService;
 import alpine.notification.Subscriber;
 import alpine.notification.Subscription;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.LicenseGroup;
@@ -109,6 +110,32 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         Assert.assertEquals(1, violations.size());
     }
 
+    @Test
+    public void evaluateReturnsPersistentViolations() {
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.SEVERITY, PolicyCondition.Operator.IS, Severity.CRITICAL.name());
+        final Project project = qm.createProject("My Project", null, "1", null, null, null, true, false);
+        final var component = new Component();
+        component.setName("Test Component");
+        component.setVersion("1.0");
+        component.setProject(project);
+        qm.persist(component);
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("12345");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        vulnerability.setSeverity(Severity.CRITICAL);
+        qm.persist(vulnerability);
+        qm.addVulnerability(vulnerability, component, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final List<PolicyViolation> violations = new PolicyEngine().evaluate(List.of(component));
+        assertThat(violations).satisfiesExactly(violation -> assertThat(violation.getId()).isNotZero());
+
+        // Re-evaluating returns the violation that exists already, rather than a new one.
+        assertThat(new PolicyEngine().evaluate(List.of(component))).satisfiesExactly(
+                violation -> assertThat(violation.getId()).isEqualTo(violations.get(0).getId()));
+        assertThat(qm.getAllPolicyViolations(component)).hasSize(1);
+    }
+
     @Test
     public void noTagMatchPolicyLimitedToTag() {
         Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
@@ -187,6 +214,43 @@ public class PolicyEngineTest extends PersistenceCapableTest {
         Assert.assertEquals(0, violations.size());
     }
 
+    @Test
+    public void evaluateMultipleComponentsTest() {
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        qm.createPolicyCondition(policy, PolicyCondition.Subject.SEVERITY, PolicyCondition.Operator.IS, Severity.CRITICAL.name());
+        final Tag tag = qm.createTag("Tag 1");
+        policy.setTags(List.of(tag));
+        final Project projectA = qm.createProject("Project A", null, "1", List.of(tag), null, null, true, false);
+        final Project projectB = qm.createProject("Project B", null, "1", null, null, null, true, false);
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("12345");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        vulnerability.setSeverity(Severity.CRITICAL);
+        qm.persist(vulnerability);
+
+        final List<Component> components = new ArrayList<>();
+        for (final Project project : List.of(projectA, projectA, projectA, projectB)) {
+            final var component = new Component();
+            component.setName("Test Component " + components.size());
+            component.setVersion("1.0");
+            component.setProject(project);
+            qm.persist(component);
+            components.add(component);
+        }
+        // Component 0 is vulnerable, component 1 has a suppressed finding, component 2 is not vulnerable,
+        // and component 3 is vulnerable, but part of a project the policy is not applicable to.
+        qm.addVulnerability(vulnerability, components.get(0), AnalyzerIdentity.INTERNAL_ANALYZER);
+        qm.addVulnerability(vulnerability, components.get(1), AnalyzerIdentity.INTERNAL_ANALYZER);
+        qm.makeAnalysis(components.get(1), vulnerability, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+        qm.addVulnerability(vulnerability, components.get(3), AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final List<PolicyViolation> violations = new PolicyEngine().evaluate(components);
+        assertThat(violations).satisfiesExactly(
+                violation -> assertThat(violation.getComponent().getId()).isEqualTo(components.get(0).getId())
+        );
+    }
+
     @Test
     public void determineViolationTypeTest() {
         PolicyCondition policyCondition = new PolicyCondition();
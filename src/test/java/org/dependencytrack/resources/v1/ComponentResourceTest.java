@@ -26,6 +26,7 @@ import com.github.packageurl.PackageURL;
 import org.apache.http.HttpStatus;
 import org.dependencytrack.ResourceTest;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.RepositoryMetaComponent;
@@ -693,6 +694,72 @@ public class ComponentResourceTest extends ResourceTest {
         Assert.assertThrows(NullPointerException.class, () -> json.get(finalComponent2_1_1_1.getUuid().toString()).asJsonObject().asJsonObject());
     }
 
+    @Test
+    public void getDependencyGraphForComponentWithComponentDependenciesTest() {
+        Project project = qm.createProject("Acme Application", null, null, null, null, null, true, false);
+
+        Component component1 = new Component();
+        component1.setProject(project);
+        component1.setName("Component1");
+        component1 = qm.createComponent(component1, false);
+
+        Component component1_1 = new Component();
+        component1_1.setProject(project);
+        component1_1.setName("Component1_1");
+        component1_1 = qm.createComponent(component1_1, false);
+
+        Component component1_1_1 = new Component();
+        component1_1_1.setProject(project);
+        component1_1_1.setName("Component1_1_1");
+        component1_1_1 = qm.createComponent(component1_1_1, false);
+
+        Component component2 = new Component();
+        component2.setProject(project);
+        component2.setName("Component2");
+        component2 = qm.createComponent(component2, false);
+
+        Component component2_1 = new Component();
+        component2_1.setProject(project);
+        component2_1.setName("Component2_1");
+        component2_1 = qm.createComponent(component2_1, false);
+
+        Component component2_1_1 = new Component();
+        component2_1_1.setProject(project);
+        component2_1_1.setName("Component2_1_1");
+        component2_1_1 = qm.createComponent(component2_1_1, false);
+
+        Component component2_1_1_1 = new Component();
+        component2_1_1_1.setProject(project);
+        component2_1_1_1.setName("Component2_1_1_1");
+        component2_1_1_1 = qm.createComponent(component2_1_1_1, false);
+
+        // Component1_1_1 is reachable via Component1 and via Component2_1
+        project.setDirectDependencies("[{\"uuid\":\"" + component1.getUuid() + "\"}, {\"uuid\":\"" + component2.getUuid() + "\"}]");
+        qm.synchronizeComponentDependencies(project, List.of(
+                new ComponentDependency(project, null, component1),
+                new ComponentDependency(project, null, component2),
+                new ComponentDependency(project, component1, component1_1),
+                new ComponentDependency(project, component1_1, component1_1_1),
+                new ComponentDependency(project, component2, component2_1),
+                new ComponentDependency(project, component2_1, component1_1_1),
+                new ComponentDependency(project, component2_1, component2_1_1),
+                new ComponentDependency(project, component2_1_1, component2_1_1_1)));
+
+        Response response = target(V1_COMPONENT + "/project/" + project.getUuid() + "/dependencyGraph/" + component1_1_1.getUuid())
+                .request().header(X_API_KEY, apiKey).get();
+        JsonObject json = parseJsonObject(response);
+        Assert.assertEquals(200, response.getStatus(), 0);
+
+        Assert.assertTrue(json.get(component1.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertTrue(json.get(component1_1.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertFalse(json.get(component1_1_1.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertTrue(json.get(component2.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertTrue(json.get(component2_1.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertFalse(json.get(component2_1_1.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertFalse(json.get(component2_1_1_1.getUuid().toString()).asJsonObject().getBoolean("expandDependencyGraph"));
+        Assert.assertEquals(2, json.get(component2_1.getUuid().toString()).asJsonObject().getJsonArray("dependencyGraph").size());
+    }
+
     @Test
     public void getDependencyGraphForComponentTestWithRepositoryMetaData() {
         Project project = qm.createProject("Acme Application", null, null, null, null, null, true, false);
@@ -22,10 +22,12 @@ import alpine.Config;
 import alpine.server.filters.ApiFilter;
 import alpine.server.filters.AuthenticationFilter;
 import org.dependencytrack.ResourceTest;
+import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.RepositoryMetaComponent;
 import org.dependencytrack.model.RepositoryType;
 import org.dependencytrack.persistence.CweImporter;
@@ -300,6 +302,50 @@ public class FindingResourceTest extends ResourceTest {
         Assert.assertEquals("3.0.0", json.getJsonObject(2).getJsonObject("component").getString("latestVersion"));
     }
 
+    @Test
+    public void getFindingsByProjectWithAliasesAndSuppressionTest() {
+        Project p1 = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+        Component c1 = createComponent(p1, "Component A", "1.0");
+        Vulnerability v1 = new Vulnerability();
+        v1.setVulnId("Vuln-1");
+        v1.setSource(Vulnerability.Source.INTERNAL);
+        v1.setSeverity(Severity.CRITICAL);
+        v1.setDescription("Description of Vuln-1");
+        v1.setRecommendation("Recommendation of Vuln-1");
+        v1 = qm.createVulnerability(v1, false);
+        Vulnerability v2 = createVulnerability("Vuln-2", Severity.HIGH);
+        qm.addVulnerability(v1, c1, AnalyzerIdentity.NONE);
+        qm.addVulnerability(v2, c1, AnalyzerIdentity.NONE);
+        qm.makeAnalysis(c1, v2, AnalysisState.FALSE_POSITIVE, null, null, null, true);
+
+        final var alias = new VulnerabilityAlias();
+        alias.setInternalId("Vuln-1");
+        alias.setCveId("CVE-2023-0001");
+        qm.persist(alias);
+
+        Response response = target(V1_FINDING + "/project/" + p1.getUuid().toString()).request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(200, response.getStatus(), 0);
+        Assert.assertEquals(String.valueOf(1), response.getHeaderString(TOTAL_COUNT_HEADER));
+        JsonArray json = parseJsonArray(response);
+        Assert.assertEquals(1, json.size());
+        JsonObject vulnerability = json.getJsonObject(0).getJsonObject("vulnerability");
+        Assert.assertEquals("Vuln-1", vulnerability.getString("vulnId"));
+        Assert.assertEquals("Description of Vuln-1", vulnerability.getString("description"));
+        Assert.assertEquals("Recommendation of Vuln-1", vulnerability.getString("recommendation"));
+        Assert.assertEquals(1, vulnerability.getJsonArray("aliases").size());
+        Assert.assertEquals("CVE-2023-0001", vulnerability.getJsonArray("aliases").getJsonObject(0).getString("cveId"));
+
+        response = target(V1_FINDING + "/project/" + p1.getUuid().toString()).queryParam("suppressed", true).request()
+                .header(X_API_KEY, apiKey)
+                .get(Response.class);
+        Assert.assertEquals(200, response.getStatus(), 0);
+        Assert.assertEquals(String.valueOf(2), response.getHeaderString(TOTAL_COUNT_HEADER));
+        json = parseJsonArray(response);
+        Assert.assertEquals(2, json.size());
+    }
+
     @Test
     public void getFindingsByProjectWithComponentLatestVersionWithoutRepositoryMetaComponent() {
         Project p1 = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
@@ -33,6 +33,7 @@ import org.dependencytrack.event.VulnerabilityAnalysisEvent;
 import org.dependencytrack.model.Bom;
 import org.dependencytrack.model.Classifier;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentDependency;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.License;
 import org.dependencytrack.model.Project;
@@ -48,6 +49,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.jdo.Query;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -338,4 +340,274 @@ public class BomUploadProcessingTaskTest extends PersistenceCapableTest {
         });
     }
 
+    @Test
+    public void informWithBatchModeTest() throws Exception {
+        EventService.getInstance().subscribe(VulnerabilityAnalysisEvent.class, VulnerabilityAnalysisTask.class);
+        EventService.getInstance().subscribe(NewVulnerableDependencyAnalysisEvent.class, NewVulnerableDependencyAnalysisTask.class);
+
+        final Project project = qm.createProject("Acme Example", null, "1.0", null, null, null, true, false);
+
+        final var vs = new VulnerableSoftware();
+        vs.setPurlType("maven");
+        vs.setPurlNamespace("com.example");
+        vs.setPurlName("xmlutil");
+        vs.setVersion("1.0.0");
+        vs.setVulnerable(true);
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("INT-001");
+        vulnerability.setSource(Vulnerability.Source.INTERNAL);
+        vulnerability.setSeverity(Severity.HIGH);
+        vulnerability.setVulnerableSoftware(List.of(vs));
+        qm.createVulnerability(vulnerability, false);
+
+        final byte[] bomBytes = Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource("bom-1.xml").toURI()));
+
+        new BomUploadProcessingTask(true, 10).inform(new BomUploadEvent(project.getUuid(), bomBytes));
+        assertConditionWithTimeout(() -> NOTIFICATIONS.size() >= 5, Duration.ofSeconds(5));
+        qm.getPersistenceManager().refresh(project);
+        assertThat(project.getClassifier()).isEqualTo(Classifier.APPLICATION);
+        assertThat(project.getLastBomImport()).isNotNull();
+
+        assertThat(qm.getAllComponents(project)).satisfiesExactly(component -> {
+            assertThat(component.getGroup()).isEqualTo("com.example");
+            assertThat(component.getName()).isEqualTo("xmlutil");
+            assertThat(component.getVersion()).isEqualTo("1.0.0");
+            assertThat(component.getPurl().canonicalize()).isEqualTo("pkg:maven/com.example/xmlutil@1.0.0?packaging=jar");
+            assertThat(qm.getAllVulnerabilities(component)).hasSize(1);
+        });
+        assertThat(NOTIFICATIONS).satisfiesExactly(
+                n -> assertThat(n.getGroup()).isEqualTo(NotificationGroup.PROJECT_CREATED.name()),
+                n -> assertThat(n.getGroup()).isEqualTo(NotificationGroup.BOM_CONSUMED.name()),
+                n -> assertThat(n.getGroup()).isEqualTo(NotificationGroup.BOM_PROCESSED.name()),
+                n -> assertThat(n.getGroup()).isEqualTo(NotificationGroup.NEW_VULNERABILITY.name()),
+                n -> assertThat(n.getGroup()).isEqualTo(NotificationGroup.NEW_VULNERABLE_DEPENDENCY.name())
+        );
+    }
+
+    @Test
+    public void informWithBatchModeAndExistingComponentsTest() throws Exception {
+        final var project = new Project();
+        project.setName("acme-app");
+        qm.persist(project);
+
+        final byte[] firstBomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 1,
+                  "components": [
+                    {
+                      "type": "library",
+                      "group": "com.acme",
+                      "name": "acme-lib-a",
+                      "version": "1.0.0",
+                      "purl": "pkg:maven/com.acme/acme-lib-a@1.0.0",
+                      "components": [
+                        {
+                          "type": "library",
+                          "group": "com.acme",
+                          "name": "acme-lib-a-child",
+                          "version": "1.0.0"
+                        }
+                      ]
+                    },
+                    {
+                      "type": "library",
+                      "group": "com.acme",
+                      "name": "acme-lib-b",
+                      "version": "1.0.0",
+                      "purl": "pkg:maven/com.acme/acme-lib-b@1.0.0"
+                    },
+                    {
+                      "type": "library",
+                      "group": "com.acme",
+                      "name": "acme-lib-c",
+                      "version": "1.0.0"
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask(true, 2).inform(new BomUploadEvent(project.getUuid(), firstBomBytes));
+        assertConditionWithTimeout(() -> NOTIFICATIONS.size() >= 2, Duration.ofSeconds(5));
+
+        final List<Component> firstComponents = qm.getAllComponents(project);
+        assertThat(firstComponents).hasSize(4);
+        assertThat(firstComponents).anySatisfy(component -> {
+            assertThat(component.getName()).isEqualTo("acme-lib-a-child");
+            assertThat(component.getParent()).isNotNull();
+            assertThat(component.getParent().getName()).isEqualTo("acme-lib-a");
+        });
+        final Component firstComponentB = firstComponents.stream()
+                .filter(component -> "acme-lib-b".equals(component.getName()))
+                .findAny()
+                .orElseThrow();
+
+        NOTIFICATIONS.clear();
+
+        // acme-lib-b is matched by its PURL, acme-lib-c is removed, and acme-lib-d is added.
+        final byte[] secondBomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 2,
+                  "components": [
+                    {
+                      "type": "library",
+                      "group": "com.acme",
+                      "name": "acme-lib-b",
+                      "version": "1.0.0",
+                      "description": "Updated description",
+                      "purl": "pkg:maven/com.acme/acme-lib-b@1.0.0"
+                    },
+                    {
+                      "type": "library",
+                      "group": "com.acme",
+                      "name": "acme-lib-d",
+                      "version": "1.0.0"
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask(true, 2).inform(new BomUploadEvent(project.getUuid(), secondBomBytes));
+        assertConditionWithTimeout(() -> NOTIFICATIONS.size() >= 2, Duration.ofSeconds(5));
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).satisfiesExactlyInAnyOrder(
+                component -> {
+                    assertThat(component.getName()).isEqualTo("acme-lib-b");
+                    assertThat(component.getUuid()).isEqualTo(firstComponentB.getUuid());
+                    assertThat(component.getDescription()).isEqualTo("Updated description");
+                },
+                component -> assertThat(component.getName()).isEqualTo("acme-lib-d")
+        );
+    }
+
+    @Test
+    public void informWithBomContainingDependencyGraphTest() throws Exception {
+        final var project = new Project();
+        project.setName("acme-app");
+        qm.persist(project);
+
+        final byte[] firstBomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 1,
+                  "metadata": {
+                    "component": {
+                      "type": "application",
+                      "bom-ref": "acme-app",
+                      "name": "acme-app"
+                    }
+                  },
+                  "components": [
+                    {
+                      "type": "library",
+                      "bom-ref": "acme-lib-a",
+                      "name": "acme-lib-a",
+                      "version": "1.0.0"
+                    },
+                    {
+                      "type": "library",
+                      "bom-ref": "acme-lib-b",
+                      "name": "acme-lib-b",
+                      "version": "1.0.0"
+                    },
+                    {
+                      "type": "library",
+                      "bom-ref": "acme-lib-c",
+                      "name": "acme-lib-c",
+                      "version": "1.0.0"
+                    }
+                  ],
+                  "dependencies": [
+                    {
+                      "ref": "acme-app",
+                      "dependsOn": ["acme-lib-a", "acme-lib-b"]
+                    },
+                    {
+                      "ref": "acme-lib-a",
+                      "dependsOn": ["acme-lib-c"]
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), firstBomBytes));
+        assertConditionWithTimeout(() -> NOTIFICATIONS.size() >= 2, Duration.ofSeconds(5));
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).hasSize(3);
+        assertThat(getComponentDependencies(project)).containsExactlyInAnyOrder(
+                "acme-app -> acme-lib-a",
+                "acme-app -> acme-lib-b",
+                "acme-lib-a -> acme-lib-c"
+        );
+
+        NOTIFICATIONS.clear();
+
+        // acme-lib-c is removed, together with the edge leading to it.
+        final byte[] secondBomBytes = """
+                {
+                  "bomFormat": "CycloneDX",
+                  "specVersion": "1.4",
+                  "version": 2,
+                  "metadata": {
+                    "component": {
+                      "type": "application",
+                      "bom-ref": "acme-app",
+                      "name": "acme-app"
+                    }
+                  },
+                  "components": [
+                    {
+                      "type": "library",
+                      "bom-ref": "acme-lib-a",
+                      "name": "acme-lib-a",
+                      "version": "1.0.0"
+                    },
+                    {
+                      "type": "library",
+                      "bom-ref": "acme-lib-b",
+                      "name": "acme-lib-b",
+                      "version": "1.0.0"
+                    }
+                  ],
+                  "dependencies": [
+                    {
+                      "ref": "acme-app",
+                      "dependsOn": ["acme-lib-a", "acme-lib-b"]
+                    },
+                    {
+                      "ref": "acme-lib-a",
+                      "dependsOn": ["acme-lib-b"]
+                    }
+                  ]
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        new BomUploadProcessingTask().inform(new BomUploadEvent(project.getUuid(), secondBomBytes));
+        assertConditionWithTimeout(() -> NOTIFICATIONS.size() >= 2, Duration.ofSeconds(5));
+
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllComponents(project)).hasSize(2);
+        assertThat(getComponentDependencies(project)).containsExactlyInAnyOrder(
+                "acme-app -> acme-lib-a",
+                "acme-app -> acme-lib-b",
+                "acme-lib-a -> acme-lib-b"
+        );
+    }
+
+    private List<String> getComponentDependencies(final Project project) {
+        final Query<ComponentDependency> query = qm.getPersistenceManager().newQuery(ComponentDependency.class, "project == :project");
+        query.setParameters(project);
+        return query.executeList().stream()
+                .map(dependency -> (dependency.getParent() != null ? dependency.getParent().getName() : project.getName())
+                        + " -> " + dependency.getChild().getName())
+                .toList();
+    }
+
 }
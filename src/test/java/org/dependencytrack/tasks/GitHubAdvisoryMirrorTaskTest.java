@@ -19,8 +19,10 @@
 package org.dependencytrack.tasks;
 
 import alpine.model.IConfigProperty;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import org.apache.commons.lang3.tuple.Pair;
 import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.event.GitHubAdvisoryMirrorEvent;
 import org.dependencytrack.model.AffectedVersionAttribution;
 import org.dependencytrack.model.ConfigPropertyConstants;
 import org.dependencytrack.model.Severity;
@@ -30,16 +32,32 @@ import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.parser.github.graphql.model.GitHubSecurityAdvisory;
 import org.dependencytrack.parser.github.graphql.model.GitHubVulnerability;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Rule;
 import org.junit.Test;
 
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.List;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class GitHubAdvisoryMirrorTaskTest extends PersistenceCapableTest {
 
+    @Rule
+    public WireMockRule wireMock = new WireMockRule(options().dynamicPort());
+
     @Test
     public void testUpdateDatasource() {
         qm.createConfigProperty(
@@ -250,4 +268,119 @@ public class GitHubAdvisoryMirrorTaskTest extends PersistenceCapableTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGenerateQueryTemplate() {
+        final var task = new GitHubAdvisoryMirrorTask();
+
+        assertThat(task.generateQueryTemplate(null, null))
+                .doesNotContain("after:")
+                .doesNotContain("updatedSince:");
+        assertThat(task.generateQueryTemplate("Y3Vyc29yOnYyOpK5", Instant.ofEpochSecond(1660176000)))
+                .contains("after: \"Y3Vyc29yOnYyOpK5\"")
+                .contains("updatedSince: \"2022-08-11T00:00:00Z\"");
+    }
+
+    @Test
+    public void testMirrorAdvisoriesUpdatedSinceLastModified() {
+        enableMirroring();
+        setLastModified("1660176000");
+        stubFor(post(urlPathEqualTo("/graphql")).atPriority(2)
+                .willReturn(okJson(createPage("cursor-1", true, createAdvisory("GHSA-0000-0000-0001", "2022-08-12T00:00:00Z")))));
+        stubFor(post(urlPathEqualTo("/graphql")).atPriority(1)
+                .withRequestBody(containing("cursor-1"))
+                .willReturn(okJson(createPage("cursor-2", false, createAdvisory("GHSA-0000-0000-0002", "2022-08-13T00:00:00Z")))));
+
+        new GitHubAdvisoryMirrorTask(wireMock.baseUrl() + "/graphql").inform(new GitHubAdvisoryMirrorEvent());
+
+        // Every page is requested with the recorded timestamp as updatedSince.
+        verify(2, postRequestedFor(urlPathEqualTo("/graphql"))
+                .withRequestBody(containing("updatedSince"))
+                .withRequestBody(containing("2022-08-11T00:00:00Z")));
+        assertThat(qm.getVulnerabilityByVulnId(Source.GITHUB, "GHSA-0000-0000-0001")).isNotNull();
+        assertThat(qm.getVulnerabilityByVulnId(Source.GITHUB, "GHSA-0000-0000-0002")).isNotNull();
+
+        // Once all pages have been processed, the most recent update of the last page is recorded.
+        assertThat(getLastModified()).isEqualTo(String.valueOf(Instant.parse("2022-08-13T00:00:00Z").getEpochSecond()));
+    }
+
+    @Test
+    public void testMirrorAdvisoriesWithFailingPage() {
+        enableMirroring();
+        setLastModified("1660176000");
+        stubFor(post(urlPathEqualTo("/graphql")).atPriority(2)
+                .willReturn(okJson(createPage("cursor-1", true, createAdvisory("GHSA-0000-0000-0001", "2022-08-12T00:00:00Z")))));
+        stubFor(post(urlPathEqualTo("/graphql")).atPriority(1)
+                .withRequestBody(containing("cursor-1"))
+                .willReturn(aResponse().withStatus(502)));
+
+        new GitHubAdvisoryMirrorTask(wireMock.baseUrl() + "/graphql").inform(new GitHubAdvisoryMirrorEvent());
+
+        // The first page has been synchronized, but the timestamp must not advance past advisories
+        // of the failed page, so that they are retrieved again by the next mirroring.
+        verify(2, postRequestedFor(urlPathEqualTo("/graphql")));
+        assertThat(qm.getVulnerabilityByVulnId(Source.GITHUB, "GHSA-0000-0000-0001")).isNotNull();
+        assertThat(getLastModified()).isEqualTo("1660176000");
+    }
+
+    private void enableMirroring() {
+        qm.createConfigProperty(
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED.getGroupName(),
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED.getPropertyName(),
+                "true",
+                IConfigProperty.PropertyType.BOOLEAN,
+                null
+        );
+        qm.createConfigProperty(
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ACCESS_TOKEN.getGroupName(),
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ACCESS_TOKEN.getPropertyName(),
+                "accessToken",
+                IConfigProperty.PropertyType.STRING,
+                null
+        );
+    }
+
+    private void setLastModified(final String epochSeconds) {
+        qm.createConfigProperty(
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getGroupName(),
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyName(),
+                epochSeconds,
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyType(),
+                null
+        );
+    }
+
+    private String getLastModified() {
+        qm.getPersistenceManager().evictAll();
+        return qm.getConfigProperty(
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getGroupName(),
+                ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_LAST_MODIFIED_EPOCH_SECONDS.getPropertyName()
+        ).getPropertyValue();
+    }
+
+    private static String createPage(final String endCursor, final boolean hasNextPage, final JSONObject... advisories) {
+        return new JSONObject()
+                .put("data", new JSONObject()
+                        .put("securityAdvisories", new JSONObject()
+                                .put("totalCount", advisories.length)
+                                .put("pageInfo", new JSONObject()
+                                        .put("hasNextPage", hasNextPage)
+                                        .put("hasPreviousPage", false)
+                                        .put("startCursor", "")
+                                        .put("endCursor", endCursor))
+                                .put("nodes", new JSONArray(advisories))))
+                .toString();
+    }
+
+    private static JSONObject createAdvisory(final String ghsaId, final String updatedAt) {
+        return new JSONObject()
+                .put("databaseId", 1)
+                .put("id", ghsaId)
+                .put("ghsaId", ghsaId)
+                .put("severity", "HIGH")
+                .put("publishedAt", "2022-03-12T00:00:00Z")
+                .put("updatedAt", updatedAt)
+                .put("identifiers", new JSONArray())
+                .put("vulnerabilities", new JSONObject().put("edges", new JSONArray()));
+    }
+
+}
@@ -34,13 +34,20 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.dependencytrack.model.ConfigPropertyConstants.VULNERABILITY_SOURCE_GITHUB_ADVISORIES_ENABLED;
@@ -651,6 +658,51 @@ public class OsvDownloadTaskTest extends PersistenceCapableTest {
         Assert.assertEquals(Severity.CRITICAL, vulnerability.getSeverity());
     }
 
+    @Test
+    public void testUnzipFolder() throws Exception {
+        final var task = new OsvDownloadTask();
+        try (final var zipIn = new ZipInputStream(new ByteArrayInputStream(createArchive(
+                "src/test/resources/unit/osv.jsons/osv-GHSA-77rv-6vfw-x4gc.json",
+                "src/test/resources/unit/osv.jsons/osv-severity-test-ecosystem-cvss.json")))) {
+            assertThat(task.unzipFolder(zipIn, null)).isEqualTo(Instant.parse("2022-06-20T12:19:49Z"));
+        }
+
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.GITHUB, "GHSA-77rv-6vfw-x4gc")).isNotNull();
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.OSV, "RUSTSEC-2022-0025")).isNotNull();
+    }
+
+    @Test
+    public void testUnzipFolderSkipsAdvisoriesNotModifiedSinceLastMirroring() throws Exception {
+        final var task = new OsvDownloadTask();
+        try (final var zipIn = new ZipInputStream(new ByteArrayInputStream(createArchive(
+                "src/test/resources/unit/osv.jsons/osv-GHSA-77rv-6vfw-x4gc.json",
+                "src/test/resources/unit/osv.jsons/osv-severity-test-ecosystem-cvss.json")))) {
+            assertThat(task.unzipFolder(zipIn, Instant.parse("2022-06-10T00:00:00Z"))).isEqualTo(Instant.parse("2022-06-20T12:19:49Z"));
+        }
+
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.GITHUB, "GHSA-77rv-6vfw-x4gc")).isNull();
+        assertThat(qm.getVulnerabilityByVulnId(Vulnerability.Source.OSV, "RUSTSEC-2022-0025")).isNotNull();
+    }
+
+    @Test
+    public void testReadModified() throws Exception {
+        assertThat(OsvDownloadTask.readModified(Files.readAllBytes(Paths.get("src/test/resources/unit/osv.jsons/osv-GHSA-77rv-6vfw-x4gc.json"))))
+                .isEqualTo(Instant.parse("2022-06-09T07:01:32.587163Z"));
+        assertThat(OsvDownloadTask.readModified("{\"id\": \"OSV-2021-60\"}".getBytes(StandardCharsets.UTF_8))).isNull();
+    }
+
+    private static byte[] createArchive(final String... filePaths) throws IOException {
+        final var out = new ByteArrayOutputStream();
+        try (final var zipOut = new ZipOutputStream(out)) {
+            for (final String filePath : filePaths) {
+                zipOut.putNextEntry(new ZipEntry(Paths.get(filePath).getFileName().toString()));
+                zipOut.write(Files.readAllBytes(Paths.get(filePath)));
+                zipOut.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
     private void prepareJsonObject(String filePath) throws IOException {
         // parse OSV json file to Advisory object
         String jsonString = new String(Files.readAllBytes(Paths.get(filePath)));
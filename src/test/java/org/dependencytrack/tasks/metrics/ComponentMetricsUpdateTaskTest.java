@@ -329,4 +329,50 @@ public class ComponentMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTes
         assertThat(component.getLastInheritedRiskScore()).isEqualTo(8.0);
     }
 
+    @Test
+    public void testUpdateMetricsWithSharedAliases() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        var vulnC = new Vulnerability();
+        vulnC.setVulnId("SONATYPE-003");
+        vulnC.setSource(Vulnerability.Source.OSSINDEX);
+        vulnC.setSeverity(Severity.MEDIUM);
+        vulnC = qm.createVulnerability(vulnC, false);
+        qm.addVulnerability(vulnC, component, AnalyzerIdentity.NONE);
+
+        var vulnD = new Vulnerability();
+        vulnD.setVulnId("VULNDB-004");
+        vulnD.setSource(Vulnerability.Source.VULNDB);
+        vulnD.setSeverity(Severity.LOW);
+        vulnD = qm.createVulnerability(vulnD, false);
+        qm.addVulnerability(vulnD, component, AnalyzerIdentity.NONE);
+
+        // C and D both alias INTERNAL-001, which the component is not affected by
+        final var aliasAtoC = new VulnerabilityAlias();
+        aliasAtoC.setInternalId("INTERNAL-001");
+        aliasAtoC.setSonatypeId(vulnC.getVulnId());
+        qm.persist(aliasAtoC);
+
+        final var aliasAtoD = new VulnerabilityAlias();
+        aliasAtoD.setInternalId("INTERNAL-001");
+        aliasAtoD.setVulnDbId(vulnD.getVulnId());
+        qm.persist(aliasAtoD);
+
+        // Expectation is that both C and D are counted, because they do not alias each other directly.
+        new ComponentMetricsUpdateTask().inform(new ComponentMetricsUpdateEvent(component.getUuid()));
+
+        final DependencyMetrics metrics = qm.getMostRecentDependencyMetrics(component);
+        assertThat(metrics.getMedium()).isEqualTo(1); // SONATYPE-003
+        assertThat(metrics.getLow()).isEqualTo(1); // VULNDB-004
+        assertThat(metrics.getVulnerabilities()).isEqualTo(2);
+        assertThat(metrics.getFindingsTotal()).isEqualTo(2);
+    }
+
 }
\ No newline at end of file
@@ -18,17 +18,22 @@
  */
 package org.dependencytrack.tasks.metrics;
 
+import alpine.common.metrics.Metrics;
+import alpine.common.util.SystemUtil;
 import alpine.event.framework.EventService;
+import io.micrometer.core.instrument.Timer;
 import net.jcip.annotations.NotThreadSafe;
 import org.dependencytrack.event.CallbackEvent;
 import org.dependencytrack.event.PortfolioMetricsUpdateEvent;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
+import org.dependencytrack.metrics.MetricsDirtyTracker;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.PortfolioMetrics;
 import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ProjectMetrics;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
@@ -36,8 +41,11 @@ import org.dependencytrack.tasks.CallbackTask;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.contrib.java.lang.system.EnvironmentVariables;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 
@@ -46,6 +54,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @NotThreadSafe
 public class PortfolioMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest {
 
+    @Rule
+    public EnvironmentVariables environmentVariables = new EnvironmentVariables();
+
     @BeforeClass
     public static void setUpClass() {
         EventService.getInstance().subscribe(ProjectMetricsUpdateEvent.class, ProjectMetricsUpdateTask.class);
@@ -274,4 +285,105 @@ public class PortfolioMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTes
         assertThat(componentSuppressed.getLastInheritedRiskScore()).isZero();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUpdateMetricsSkipsCleanProjects() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+        var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        component = qm.createComponent(component, false);
+
+        // Record initial metrics, and start with a clean slate afterwards.
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+        assertThat(qm.getMostRecentPortfolioMetrics().getVulnerabilities()).isZero();
+
+        var vuln = new Vulnerability();
+        vuln.setVulnId("INTERNAL-001");
+        vuln.setSource(Vulnerability.Source.INTERNAL);
+        vuln.setSeverity(Severity.HIGH);
+        vuln = qm.createVulnerability(vuln, false);
+        qm.addVulnerability(vuln, component, AnalyzerIdentity.NONE);
+
+        // Discard the dirty state caused by the new finding, so that the project is considered clean.
+        MetricsDirtyTracker.getInstance().drain(Duration.ofDays(1));
+
+        final ProjectMetrics projectMetrics = qm.getMostRecentProjectMetrics(project);
+        final var beforeSecondRun = new Date();
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+
+        // Metrics of the clean project must not have been recalculated, but still be marked as current.
+        assertThat(qm.getMostRecentPortfolioMetrics().getVulnerabilities()).isZero();
+        qm.getPersistenceManager().refresh(projectMetrics);
+        assertThat(projectMetrics.getVulnerabilities()).isZero();
+        assertThat(projectMetrics.getLastOccurrence()).isAfterOrEqualTo(beforeSecondRun);
+
+        MetricsDirtyTracker.getInstance().markDirty(project);
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+
+        assertThat(qm.getMostRecentPortfolioMetrics().getVulnerabilities()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdateMetricsRecordsProjectUpdateDurations() {
+        for (int i = 0; i < 3; i++) {
+            final var project = new Project();
+            project.setName("acme-app-" + i);
+            qm.createProject(project, List.of(), false);
+        }
+
+        final Timer timer = Metrics.getRegistry().timer("metrics_project_update");
+        final long countBefore = timer.count();
+
+        MetricsDirtyTracker.getInstance().markAllDirty();
+        new PortfolioMetricsUpdateTask().inform(new PortfolioMetricsUpdateEvent());
+
+        assertThat(qm.getMostRecentPortfolioMetrics().getProjects()).isEqualTo(3);
+        assertThat(timer.count() - countBefore).isEqualTo(3);
+    }
+
+    @Test
+    public void testGetDatabasePermitsWithPoolingDisabled() {
+        environmentVariables.set("ALPINE_DATABASE_POOL_ENABLED", "false");
+        environmentVariables.set("ALPINE_DATABASE_POOL_MAX_SIZE", "2");
+
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(SystemUtil.getCpuCores());
+    }
+
+    @Test
+    public void testGetDatabasePermitsWithPoolMaxSize() {
+        environmentVariables.set("ALPINE_DATABASE_POOL_ENABLED", "true");
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_MAX_SIZE", "1000");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(SystemUtil.getCpuCores());
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_MAX_SIZE", "4");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(Math.min(SystemUtil.getCpuCores(), 2));
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_MAX_SIZE", "1");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetDatabasePermitsWithPoolSpecificMaxSize() {
+        environmentVariables.set("ALPINE_DATABASE_POOL_ENABLED", "true");
+        environmentVariables.set("ALPINE_DATABASE_POOL_MAX_SIZE", "1000");
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_TX_MAX_SIZE", "4");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(Math.min(SystemUtil.getCpuCores(), 2));
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_TX_MAX_SIZE", null);
+        environmentVariables.set("ALPINE_DATABASE_POOL_NONTX_MAX_SIZE", "4");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(Math.min(SystemUtil.getCpuCores(), 2));
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_MAX_SIZE", "4");
+        environmentVariables.set("ALPINE_DATABASE_POOL_TX_MAX_SIZE", "1000");
+        environmentVariables.set("ALPINE_DATABASE_POOL_NONTX_MAX_SIZE", "1000");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(SystemUtil.getCpuCores());
+
+        environmentVariables.set("ALPINE_DATABASE_POOL_TX_MAX_SIZE", "1");
+        assertThat(PortfolioMetricsUpdateTask.getDatabasePermits()).isEqualTo(1);
+    }
+
+}
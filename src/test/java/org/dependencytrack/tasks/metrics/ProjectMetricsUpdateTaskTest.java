@@ -21,6 +21,7 @@ package org.dependencytrack.tasks.metrics;
 import org.dependencytrack.event.ProjectMetricsUpdateEvent;
 import org.dependencytrack.model.AnalysisState;
 import org.dependencytrack.model.Component;
+import org.dependencytrack.model.DependencyMetrics;
 import org.dependencytrack.model.Policy;
 import org.dependencytrack.model.PolicyViolation;
 import org.dependencytrack.model.Project;
@@ -28,6 +29,7 @@ import org.dependencytrack.model.ProjectMetrics;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.ViolationAnalysisState;
 import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
 import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
 import org.junit.Test;
 
@@ -243,4 +245,67 @@ public class ProjectMetricsUpdateTaskTest extends AbstractMetricsUpdateTaskTest
         assertThat(componentSuppressed.getLastInheritedRiskScore()).isZero();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUpdateMetricsWithDuplicateAliases() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, List.of(), false);
+
+        var vulnA = new Vulnerability();
+        vulnA.setVulnId("INTERNAL-001");
+        vulnA.setSource(Vulnerability.Source.INTERNAL);
+        vulnA.setSeverity(Severity.HIGH);
+        vulnA = qm.createVulnerability(vulnA, false);
+
+        var vulnB = new Vulnerability();
+        vulnB.setVulnId("GHSA-002");
+        vulnB.setSource(Vulnerability.Source.GITHUB);
+        vulnB.setSeverity(Severity.MEDIUM);
+        vulnB = qm.createVulnerability(vulnB, false);
+
+        // Make A an alias of B
+        final var aliasAtoB = new VulnerabilityAlias();
+        aliasAtoB.setInternalId(vulnA.getVulnId());
+        aliasAtoB.setGhsaId(vulnB.getVulnId());
+        qm.persist(aliasAtoB);
+
+        // Create a component affected by both A and B.
+        var componentA = new Component();
+        componentA.setProject(project);
+        componentA.setName("acme-lib-a");
+        componentA = qm.createComponent(componentA, false);
+        qm.addVulnerability(vulnA, componentA, AnalyzerIdentity.NONE);
+        qm.addVulnerability(vulnB, componentA, AnalyzerIdentity.NONE);
+
+        // Create a component affected only by B.
+        var componentB = new Component();
+        componentB.setProject(project);
+        componentB.setName("acme-lib-b");
+        componentB = qm.createComponent(componentB, false);
+        qm.addVulnerability(vulnB, componentB, AnalyzerIdentity.NONE);
+
+        new ProjectMetricsUpdateTask().inform(new ProjectMetricsUpdateEvent(project.getUuid()));
+
+        // Aliases must only be de-duplicated within the same component.
+        final DependencyMetrics componentAMetrics = qm.getMostRecentDependencyMetrics(componentA);
+        assertThat(componentAMetrics.getVulnerabilities()).isEqualTo(1);
+        assertThat(componentAMetrics.getHigh()).isEqualTo(1);
+        assertThat(componentAMetrics.getMedium()).isZero();
+
+        final DependencyMetrics componentBMetrics = qm.getMostRecentDependencyMetrics(componentB);
+        assertThat(componentBMetrics.getVulnerabilities()).isEqualTo(1);
+        assertThat(componentBMetrics.getHigh()).isZero();
+        assertThat(componentBMetrics.getMedium()).isEqualTo(1);
+
+        final ProjectMetrics metrics = qm.getMostRecentProjectMetrics(project);
+        assertThat(metrics.getComponents()).isEqualTo(2);
+        assertThat(metrics.getVulnerableComponents()).isEqualTo(2);
+        assertThat(metrics.getVulnerabilities()).isEqualTo(2);
+        assertThat(metrics.getHigh()).isEqualTo(1);
+        assertThat(metrics.getMedium()).isEqualTo(1);
+        assertThat(metrics.getFindingsTotal()).isEqualTo(2);
+        assertThat(metrics.getFindingsUnaudited()).isEqualTo(2);
+        assertThat(metrics.getInheritedRiskScore()).isEqualTo(8.0);
+    }
+
+}
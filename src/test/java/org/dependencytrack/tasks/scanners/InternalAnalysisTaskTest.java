@@ -80,4 +80,53 @@ public class InternalAnalysisTaskTest extends PersistenceCapableTest {
         assertThat(vulnerabilities.getList(Vulnerability.class).get(0).getVulnId()).isEqualTo("CVE-2020-23904");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testAnalyzeWithIndex() {
+        var project = new Project();
+        project.setName("acme-app");
+        project = qm.createProject(project, Collections.emptyList(), false);
+        var component = new Component();
+        component.setProject(project);
+        component.setName("github.com/tidwall/gjson");
+        component.setVersion("v1.6.0");
+        component.setPurl("pkg:golang/github.com/tidwall/gjson@v1.6.0?type=module");
+        component = qm.createComponent(component, false);
+
+        var vulnerableSoftware = new VulnerableSoftware();
+        vulnerableSoftware.setPurlType("golang");
+        vulnerableSoftware.setPurlNamespace("github.com/tidwall");
+        vulnerableSoftware.setPurlName("gjson");
+        vulnerableSoftware.setVersionEndExcluding("1.6.5");
+        vulnerableSoftware.setVulnerable(true);
+        vulnerableSoftware = qm.persist(vulnerableSoftware);
+
+        var vulnerableSoftwareFixed = new VulnerableSoftware();
+        vulnerableSoftwareFixed.setPurlType("golang");
+        vulnerableSoftwareFixed.setPurlNamespace("github.com/tidwall");
+        vulnerableSoftwareFixed.setPurlName("gjson");
+        vulnerableSoftwareFixed.setVersionEndExcluding("1.5.0");
+        vulnerableSoftwareFixed.setVulnerable(true);
+        vulnerableSoftwareFixed = qm.persist(vulnerableSoftwareFixed);
+
+        var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("GHSA-wjm3-fq3r-5x46");
+        vulnerability.setSource(Vulnerability.Source.GITHUB);
+        vulnerability.setVulnerableSoftware(List.of(vulnerableSoftware));
+        qm.createVulnerability(vulnerability, false);
+
+        var vulnerabilityFixed = new Vulnerability();
+        vulnerabilityFixed.setVulnId("GHSA-xxxx-xxxx-xxxx");
+        vulnerabilityFixed.setSource(Vulnerability.Source.GITHUB);
+        vulnerabilityFixed.setVulnerableSoftware(List.of(vulnerableSoftwareFixed));
+        qm.createVulnerability(vulnerabilityFixed, false);
+
+        // The index is shared, but the database is not retained across tests.
+        VulnerableSoftwareIndex.getInstance().clear();
+        new InternalAnalysisTask(true).analyze(List.of(component));
+
+        final PaginatedResult vulnerabilities = qm.getVulnerabilities(component);
+        assertThat(vulnerabilities.getTotal()).isEqualTo(1);
+        assertThat(vulnerabilities.getList(Vulnerability.class).get(0).getVulnId()).isEqualTo("GHSA-wjm3-fq3r-5x46");
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import alpine.model.IConfigProperty;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.ComponentAnalysisCache;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.json.Json;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.dependencytrack.model.ConfigPropertyConstants.SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD;
+import static org.dependencytrack.model.ConfigPropertyConstants.SCANNER_OSSINDEX_ENABLED;
+
+public class OssIndexAnalysisTaskTest extends PersistenceCapableTest {
+
+    @Before
+    public void setUp() {
+        qm.createConfigProperty(SCANNER_OSSINDEX_ENABLED.getGroupName(),
+                SCANNER_OSSINDEX_ENABLED.getPropertyName(),
+                "true",
+                IConfigProperty.PropertyType.BOOLEAN,
+                "ossindex");
+        qm.createConfigProperty(SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getGroupName(),
+                SCANNER_ANALYSIS_CACHE_VALIDITY_PERIOD.getPropertyName(),
+                "86400",
+                IConfigProperty.PropertyType.STRING,
+                "cache");
+    }
+
+    @Test
+    public void testApplyAnalysisFromCacheExcludesInternalComponents() {
+        final var project = new Project();
+        project.setName("acme-app");
+        qm.persist(project);
+
+        final var externalComponent = new Component();
+        externalComponent.setProject(project);
+        externalComponent.setName("jackson-databind");
+        externalComponent.setPurl("pkg:maven/com.fasterxml.jackson.core/jackson-databind@2.9.8");
+        qm.persist(externalComponent);
+
+        final var internalComponent = new Component();
+        internalComponent.setProject(project);
+        internalComponent.setName("jackson-databind");
+        internalComponent.setPurl("pkg:maven/com.fasterxml.jackson.core/jackson-databind@2.9.8");
+        internalComponent.setInternal(true);
+        qm.persist(internalComponent);
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("CVE-2019-12086");
+        vulnerability.setSource(Vulnerability.Source.NVD);
+        qm.persist(vulnerability);
+
+        qm.updateComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, "https://ossindex.sonatype.org/api/v3/component-report",
+                Vulnerability.Source.OSSINDEX.name(), "pkg:maven/com.fasterxml.jackson.core/jackson-databind@2.9.8", new Date(),
+                Json.createObjectBuilder()
+                        .add("vulnIds", Json.createArrayBuilder().add(vulnerability.getId()))
+                        .build());
+
+        final List<Component> componentsToAnalyze = new OssIndexAnalysisTask().applyAnalysisFromCache(
+                List.of(externalComponent, internalComponent), VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+        assertThat(componentsToAnalyze).isEmpty();
+
+        qm.getPersistenceManager().refreshAll(externalComponent, internalComponent);
+        assertThat(qm.getAllVulnerabilities(externalComponent)).hasSize(1);
+        assertThat(qm.getAllVulnerabilities(internalComponent)).isEmpty();
+    }
+
+}
@@ -37,6 +37,7 @@ import org.dependencytrack.model.ComponentAnalysisCache;
 import org.dependencytrack.model.Project;
 import org.dependencytrack.model.Severity;
 import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
 import org.dependencytrack.model.VulnerableSoftware;
 import org.dependencytrack.notification.NotificationGroup;
 import org.dependencytrack.notification.NotificationScope;
@@ -167,6 +168,44 @@ public class SnykAnalysisTaskTest extends PersistenceCapableTest {
         assertThat(new SnykAnalysisTask().shouldAnalyze(new PackageURL("pkg:maven/com.fasterxml.woodstox/woodstox-core@5.0.0?foo=bar#baz"))).isTrue();
     }
 
+    @Test
+    public void testApplyAnalysisFromCache() throws Exception {
+        final var project = new Project();
+        project.setName("acme-app");
+        qm.persist(project);
+
+        final var cachedComponent = new Component();
+        cachedComponent.setProject(project);
+        cachedComponent.setName("woodstox-core");
+        cachedComponent.setPurl("pkg:maven/com.fasterxml.woodstox/woodstox-core@5.0.0?foo=bar#baz");
+        qm.persist(cachedComponent);
+
+        final var uncachedComponent = new Component();
+        uncachedComponent.setProject(project);
+        uncachedComponent.setName("woodstox-core");
+        uncachedComponent.setPurl("pkg:maven/com.fasterxml.woodstox/woodstox-core@6.4.0");
+        qm.persist(uncachedComponent);
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("SNYK-JAVA-COMFASTERXMLWOODSTOX-3091135");
+        vulnerability.setSource(Vulnerability.Source.SNYK);
+        qm.persist(vulnerability);
+
+        qm.updateComponentAnalysisCache(ComponentAnalysisCache.CacheType.VULNERABILITY, "http://localhost:1080",
+                Vulnerability.Source.SNYK.name(), "pkg:maven/com.fasterxml.woodstox/woodstox-core@5.0.0", new Date(),
+                Json.createObjectBuilder()
+                        .add("vulnIds", Json.createArrayBuilder().add(vulnerability.getId()))
+                        .build());
+
+        final List<Component> componentsToAnalyze = new SnykAnalysisTask().applyAnalysisFromCache(
+                List.of(cachedComponent, uncachedComponent), VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+        assertThat(componentsToAnalyze).containsExactly(uncachedComponent);
+
+        qm.getPersistenceManager().refreshAll(cachedComponent, uncachedComponent);
+        assertThat(qm.getAllVulnerabilities(cachedComponent)).hasSize(1);
+        assertThat(qm.getAllVulnerabilities(uncachedComponent)).isEmpty();
+    }
+
     @Test
     public void testAnalyzeWithRateLimiting() {
         mockServer
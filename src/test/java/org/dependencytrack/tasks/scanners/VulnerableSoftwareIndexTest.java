@@ -0,0 +1,133 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.tasks.scanners;
+
+import com.github.packageurl.PackageURL;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerableSoftware;
+import org.dependencytrack.parser.nvd.ModelConverter;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VulnerableSoftwareIndexTest extends PersistenceCapableTest {
+
+    @Test
+    public void testFind() throws Exception {
+        final VulnerableSoftware vsCpe = qm.persist(ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:a:acme:acme-lib:*:*:*:*:*:*:*:*"));
+        final VulnerableSoftware vsCpeWildcard = qm.persist(ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:a:*:acme-lib:*:*:*:*:*:*:*:*"));
+        final VulnerableSoftware vsCpeOther = qm.persist(ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:a:acme:other-lib:*:*:*:*:*:*:*:*"));
+
+        final var vsPurl = new VulnerableSoftware();
+        vsPurl.setPurlType("maven");
+        vsPurl.setPurlNamespace("com.acme");
+        vsPurl.setPurlName("acme-lib");
+        vsPurl.setVersionEndExcluding("1.2.3");
+        vsPurl.setVulnerable(true);
+        qm.persist(vsPurl);
+
+        final Vulnerability vuln = createVulnerability("CVE-123", List.of(vsCpe, vsCpeWildcard, vsCpeOther, vsPurl));
+
+        final var index = new VulnerableSoftwareIndex();
+        index.refresh();
+
+        assertThat(index.find("a", "acme", "acme-lib", new PackageURL("pkg:maven/com.acme/acme-lib@1.0.0"))).satisfiesExactlyInAnyOrder(
+                match -> assertThat(match.vulnerableSoftware().getId()).isEqualTo(vsCpe.getId()),
+                match -> assertThat(match.vulnerableSoftware().getId()).isEqualTo(vsCpeWildcard.getId()),
+                match -> {
+                    assertThat(match.vulnerableSoftware().getId()).isEqualTo(vsPurl.getId());
+                    assertThat(match.vulnerableSoftware().getVersionEndExcluding()).isEqualTo("1.2.3");
+                    assertThat(match.vulnerabilityIds()).containsOnly(vuln.getId());
+                }
+        );
+
+        // Target vendor ANY matches all sources with the given product.
+        assertThat(index.find("a", "*", "other-lib", null)).satisfiesExactly(
+                match -> assertThat(match.vulnerableSoftware().getId()).isEqualTo(vsCpeOther.getId()));
+
+        assertThat(index.find("o", "acme", "acme-lib", null)).isEmpty();
+        assertThat(index.find(null, null, null, new PackageURL("pkg:npm/acme-lib@1.0.0"))).isEmpty();
+    }
+
+    @Test
+    public void testFindIgnoresCase() throws Exception {
+        final VulnerableSoftware vsLowerCase = qm.persist(ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:a:acme:acme-lib:*:*:*:*:*:*:*:*"));
+
+        final var vsMixedCase = new VulnerableSoftware();
+        vsMixedCase.setPart("a");
+        vsMixedCase.setVendor("Acme");
+        vsMixedCase.setProduct("Acme-Lib");
+        vsMixedCase.setVulnerable(true);
+        qm.persist(vsMixedCase);
+
+        createVulnerability("CVE-123", List.of(vsLowerCase, vsMixedCase));
+
+        final var index = new VulnerableSoftwareIndex();
+        index.refresh();
+
+        assertThat(index.find("a", "acme", "acme-lib", null)).hasSize(2);
+        assertThat(index.find("A", "ACME", "ACME-LIB", null)).hasSize(2);
+        assertThat(index.find("a", "*", "Acme-Lib", null)).hasSize(2);
+    }
+
+    @Test
+    public void testRefreshInvalidated() throws Exception {
+        final VulnerableSoftware vsA = qm.persist(ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:a:acme:acme-lib:1.0.0:*:*:*:*:*:*:*"));
+        final Vulnerability vuln = createVulnerability("CVE-123", List.of(vsA));
+
+        final var index = new VulnerableSoftwareIndex();
+        index.refresh();
+        assertThat(index.find("a", "acme", "acme-lib", null)).hasSize(1);
+
+        // Replace the vulnerable software of the vulnerability, as a mirroring task would.
+        final VulnerableSoftware vsB = qm.persist(ModelConverter.convertCpe23UriToVulnerableSoftware("cpe:2.3:a:acme:acme-lib:2.0.0:*:*:*:*:*:*:*"));
+        vuln.setVulnerableSoftware(List.of(vsB));
+        qm.persist(vuln);
+
+        // Changes are not visible until the vulnerability is invalidated.
+        index.refresh();
+        assertThat(index.find("a", "acme", "acme-lib", null)).satisfiesExactly(
+                match -> assertThat(match.vulnerabilityIds()).containsOnly(vuln.getId()));
+
+        index.invalidate(vuln);
+        index.refresh();
+        assertThat(index.find("a", "acme", "acme-lib", null)).satisfiesExactlyInAnyOrder(
+                match -> {
+                    assertThat(match.vulnerableSoftware().getId()).isEqualTo(vsA.getId());
+                    assertThat(match.vulnerabilityIds()).isEmpty();
+                },
+                match -> {
+                    assertThat(match.vulnerableSoftware().getId()).isEqualTo(vsB.getId());
+                    assertThat(match.vulnerabilityIds()).containsOnly(vuln.getId());
+                }
+        );
+    }
+
+    private Vulnerability createVulnerability(final String vulnId, final List<VulnerableSoftware> vsList) {
+        final var vuln = new Vulnerability();
+        vuln.setVulnId(vulnId);
+        vuln.setSource(Vulnerability.Source.NVD);
+        vuln.setVulnerableSoftware(vsList);
+        return qm.createVulnerability(vuln, false);
+    }
+
+}
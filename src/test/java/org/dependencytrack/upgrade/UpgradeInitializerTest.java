@@ -0,0 +1,113 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.upgrade;
+
+import alpine.common.util.VersionComparator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+public class UpgradeInitializerTest {
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        // A database as left behind by a previous version: Without the unique constraint on
+        // POLICYVIOLATION, and before DataNucleus had a chance to generate the current schema.
+        connection = DriverManager.getConnection("jdbc:h2:mem:upgrade-initializer-test");
+        executeUpdate("""
+                CREATE TABLE "POLICYVIOLATION" ("ID" BIGINT PRIMARY KEY, "TYPE" VARCHAR(255),
+                    "COMPONENT_ID" BIGINT, "POLICYCONDITION_ID" BIGINT)
+                """);
+        executeUpdate("""
+                CREATE TABLE "VIOLATIONANALYSIS" ("ID" BIGINT PRIMARY KEY, "POLICYVIOLATION_ID" BIGINT)
+                """);
+        executeUpdate("""
+                CREATE TABLE "VIOLATIONANALYSISCOMMENT" ("ID" BIGINT PRIMARY KEY, "VIOLATIONANALYSIS_ID" BIGINT)
+                """);
+        executeUpdate("""
+                INSERT INTO "POLICYVIOLATION" VALUES (1, 'OPERATIONAL', 1, 1), (2, 'OPERATIONAL', 1, 1),
+                    (3, 'OPERATIONAL', 1, 1), (4, 'OPERATIONAL', 1, 2), (5, 'LICENSE', 1, 1)
+                """);
+        executeUpdate("""
+                INSERT INTO "VIOLATIONANALYSIS" VALUES (1, 1), (2, 2), (4, 4)
+                """);
+        executeUpdate("""
+                INSERT INTO "VIOLATIONANALYSISCOMMENT" VALUES (1, 1), (2, 2), (4, 4)
+                """);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executeUpdate("DROP ALL OBJECTS");
+        connection.close();
+    }
+
+    @Test
+    public void testExecutePreSchemaUpgradesRemovesDuplicatePolicyViolations() throws Exception {
+        UpgradeInitializer.executePreSchemaUpgrades(connection, new VersionComparator("4.9.1"));
+
+        // The oldest violation of each identity is kept, along with its analysis trail.
+        assertThat(queryIds("POLICYVIOLATION")).containsExactlyInAnyOrder(1L, 4L, 5L);
+        assertThat(queryIds("VIOLATIONANALYSIS")).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(queryIds("VIOLATIONANALYSISCOMMENT")).containsExactlyInAnyOrder(1L, 4L);
+
+        // Schema generation is now able to create the unique constraint.
+        assertThatNoException().isThrownBy(() -> executeUpdate("""
+                CREATE UNIQUE INDEX "POLICYVIOLATION_COMPOSITE_IDX"
+                    ON "POLICYVIOLATION" ("TYPE", "COMPONENT_ID", "POLICYCONDITION_ID")
+                """));
+    }
+
+    @Test
+    public void testExecutePreSchemaUpgradesWithCurrentSchemaVersion() throws Exception {
+        UpgradeInitializer.executePreSchemaUpgrades(connection, new VersionComparator("4.10.0"));
+
+        assertThat(queryIds("POLICYVIOLATION")).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+    }
+
+    private void executeUpdate(final String sql) throws Exception {
+        try (final Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    private List<Long> queryIds(final String table) throws Exception {
+        final var ids = new ArrayList<Long>();
+        try (final Statement stmt = connection.createStatement();
+             final ResultSet rs = stmt.executeQuery("SELECT \"ID\" FROM \"%s\"".formatted(table))) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+}
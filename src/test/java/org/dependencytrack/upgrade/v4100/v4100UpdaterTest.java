@@ -0,0 +1,107 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.upgrade.v4100;
+
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Policy;
+import org.dependencytrack.model.PolicyCondition;
+import org.dependencytrack.model.PolicyViolation;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.ViolationAnalysis;
+import org.dependencytrack.model.ViolationAnalysisComment;
+import org.dependencytrack.model.ViolationAnalysisState;
+import org.junit.Test;
+
+import javax.jdo.datastore.JDOConnection;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class v4100UpdaterTest extends PersistenceCapableTest {
+
+    @Test
+    public void testRemoveDuplicatePolicyViolations() throws Exception {
+        final Project project = qm.createProject("ACME Example", null, "1.0", null, null, null, true, false);
+        final var component = new Component();
+        component.setProject(project);
+        component.setName("acme-lib");
+        qm.createComponent(component, false);
+        final Policy policy = qm.createPolicy("Test Policy", Policy.Operator.ANY, Policy.ViolationState.INFO);
+        final PolicyCondition conditionA = qm.createPolicyCondition(policy, PolicyCondition.Subject.VERSION, PolicyCondition.Operator.NUMERIC_EQUAL, "1.0");
+        final PolicyCondition conditionB = qm.createPolicyCondition(policy, PolicyCondition.Subject.PACKAGE_URL, PolicyCondition.Operator.MATCHES, "pkg:maven");
+
+        // Duplicates could only be created before the unique constraint existed.
+        executeUpdate("""
+                ALTER TABLE "POLICYVIOLATION" DROP CONSTRAINT IF EXISTS "POLICYVIOLATION_COMPOSITE_IDX"
+                """);
+        executeUpdate("""
+                DROP INDEX IF EXISTS "POLICYVIOLATION_COMPOSITE_IDX"
+                """);
+
+        final PolicyViolation oldestViolation = qm.persist(createViolation(component, conditionA));
+        final PolicyViolation duplicateViolation = qm.persist(createViolation(component, conditionA));
+        qm.persist(createViolation(component, conditionA));
+        final PolicyViolation otherViolation = qm.persist(createViolation(component, conditionB));
+        for (final PolicyViolation violation : List.of(oldestViolation, duplicateViolation, otherViolation)) {
+            final ViolationAnalysis analysis = qm.makeViolationAnalysis(component, violation, ViolationAnalysisState.APPROVED, false);
+            qm.makeViolationAnalysisComment(analysis, "Comment on violation " + violation.getId(), "Jane Doe");
+        }
+
+        final JDOConnection jdoConnection = qm.getPersistenceManager().getDataStoreConnection();
+        try {
+            new v4100Updater().executeUpgrade(qm, (Connection) jdoConnection.getNativeConnection());
+        } finally {
+            jdoConnection.close();
+        }
+
+        // The oldest violation of each identity is kept, along with its analysis trail.
+        qm.getPersistenceManager().evictAll();
+        assertThat(qm.getAllPolicyViolations(component)).extracting(PolicyViolation::getId)
+                .containsExactlyInAnyOrder(oldestViolation.getId(), otherViolation.getId());
+        assertThat(qm.getPersistenceManager().newQuery(ViolationAnalysis.class).executeList())
+                .extracting(analysis -> analysis.getPolicyViolation().getId())
+                .containsExactlyInAnyOrder(oldestViolation.getId(), otherViolation.getId());
+        assertThat(qm.getPersistenceManager().newQuery(ViolationAnalysisComment.class).executeList())
+                .extracting(ViolationAnalysisComment::getComment)
+                .containsExactlyInAnyOrder("Comment on violation " + oldestViolation.getId(), "Comment on violation " + otherViolation.getId());
+    }
+
+    private void executeUpdate(final String sql) throws Exception {
+        final JDOConnection jdoConnection = qm.getPersistenceManager().getDataStoreConnection();
+        try (final Statement stmt = ((Connection) jdoConnection.getNativeConnection()).createStatement()) {
+            stmt.executeUpdate(sql);
+        } finally {
+            jdoConnection.close();
+        }
+    }
+
+    private static PolicyViolation createViolation(final Component component, final PolicyCondition condition) {
+        final var violation = new PolicyViolation();
+        violation.setType(PolicyViolation.Type.OPERATIONAL);
+        violation.setComponent(component);
+        violation.setPolicyCondition(condition);
+        violation.setTimestamp(new Date());
+        return violation;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of version range comparisons using freshly parsed
+ * {@link ComponentVersion}s, and using interned {@link ComponentVersion}s.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.util.ComponentVersionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentVersionBenchmark {
+
+    // Versions of components being analyzed
+    private static final String[] TARGET_VERSIONS = {
+            "1.2.3", "2.14.1", "2.17.0", "5.3.18", "1.0.10b-1", "3.0.0-rc.1", "v1.8.2",
+            "2:1.0.2g-1ubuntu4.20", "1.1.1n-0+deb11u3", "2.9.10.8", "9.4.43.v20210629", "42.2.5.jre7"
+    };
+
+    // Bounds of vulnerable version ranges, as they are commonly found in vulnerability databases
+    private static final String[][] VERSION_RANGES = {
+            {"2.0.0", "2.15.0"}, {"2.0.0", "2.17.1"}, {"5.3.0", "5.3.20"}, {"1.0.0", "1.0.10"},
+            {"3.0.0", "3.0.7"}, {"1.8.0", "1.8.3"}, {"2:1.0.2", "2:1.0.2g-1ubuntu4.21"},
+            {"1.1.1", "1.1.1n-0+deb11u4"}, {"2.9.0", "2.9.10.8"}, {"9.4.0", "9.4.44"}, {"42.0.0", "42.2.26"}
+    };
+
+    @Benchmark
+    public void compareUncached(final Blackhole blackhole) {
+        for (final String targetVersion : TARGET_VERSIONS) {
+            final var target = new ComponentVersion(targetVersion);
+            for (final String[] range : VERSION_RANGES) {
+                blackhole.consume(new ComponentVersion(range[0]).compareTo(target) <= 0
+                        && new ComponentVersion(range[1]).compareTo(target) > 0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void compareCached(final Blackhole blackhole) {
+        for (final String targetVersion : TARGET_VERSIONS) {
+            final var target = ComponentVersion.of(targetVersion);
+            for (final String[] range : VERSION_RANGES) {
+                blackhole.consume(ComponentVersion.of(range[0]).compareTo(target) <= 0
+                        && ComponentVersion.of(range[1]).compareTo(target) > 0);
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ComponentVersionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -516,4 +516,12 @@ public class ComponentVersionTest {
         Assert.assertEquals(highestVersion, ComponentVersion.findHighestVersion(list));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testOfInternsVersions() {
+        Assert.assertSame(ComponentVersion.of("1.2.3"), ComponentVersion.of("1.2.3"));
+        Assert.assertEquals(new ComponentVersion("1.2.3"), ComponentVersion.of("1.2.3"));
+        Assert.assertNull(ComponentVersion.of(null).getVersion());
+        Assert.assertTrue(ComponentVersion.of("2:1.0.2g-1ubuntu4.21").compareTo(ComponentVersion.of("2:1.0.2g-1ubuntu4.20")) > 0);
+    }
+
+}
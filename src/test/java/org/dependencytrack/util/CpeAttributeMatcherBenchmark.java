@@ -0,0 +1,96 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import us.springett.parsers.cpe.Cpe;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of CPE attribute matching via reflective invocation of
+ * {@code Cpe#compareAttributes}, and via {@link CpeAttributeMatcher}.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.dependencytrack.util.CpeAttributeMatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CpeAttributeMatcherBenchmark {
+
+    // Versions and updates of components being analyzed
+    private static final String[] TARGET_ATTRIBUTES = {
+            "1.2.3", "2.14.1", "5.3.18", "1.0.10b", "*", "-", "sp1", "update_2", "9.4.43"
+    };
+
+    // Versions and updates of vulnerable software, as they are commonly found in vulnerability databases
+    private static final String[] SOURCE_ATTRIBUTES = {
+            "*", "-", "1.2.3", "2.14.0", "5.3.*", "1.0.1?b", "SP1", "update_*", "9.4.4*", "2.*.1"
+    };
+
+    private Method compareAttributesMethod;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        compareAttributesMethod = Cpe.class.getDeclaredMethod("compareAttributes", String.class, String.class);
+        compareAttributesMethod.setAccessible(true);
+    }
+
+    @Benchmark
+    public void matchReflective(final Blackhole blackhole) throws ReflectiveOperationException {
+        for (final String target : TARGET_ATTRIBUTES) {
+            for (final String source : SOURCE_ATTRIBUTES) {
+                blackhole.consume((Boolean) compareAttributesMethod.invoke(null, source, target));
+            }
+        }
+    }
+
+    @Benchmark
+    public void matchCompiled(final Blackhole blackhole) {
+        for (final String target : TARGET_ATTRIBUTES) {
+            for (final String source : SOURCE_ATTRIBUTES) {
+                blackhole.consume(CpeAttributeMatcher.matches(source, target));
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CpeAttributeMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
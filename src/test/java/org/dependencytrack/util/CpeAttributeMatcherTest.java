@@ -0,0 +1,71 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import us.springett.parsers.cpe.Cpe;
+
+import java.lang.reflect.Method;
+
+public class CpeAttributeMatcherTest {
+
+    private static final String[][] ATTRIBUTES = {
+            {"1.0.0", "1.0.0"}, {"1.0.0", "1.0.1"}, {"ABC", "abc"},
+            {"*", "1.0.0"}, {"*", "-"}, {"*", "*"},
+            {"-", "1.0.0"}, {"-", "-"}, {"-", "*"},
+            {"1.0.0", "-"}, {"1.0.0", "*"},
+            {"1.0.*", "1.0.3"}, {"1.0.*", "1.0"}, {"1.0.*", "1.1.0"}, {"1.*.3", "1.22.3"}, {"*.0", "2.0"},
+            {"1.?", "1.2"}, {"1.?", "1.22"}, {"?.?", "1.2"}, {"1.?*", "1.2.3"}, {"**1", "11"},
+            {"1\\*", "1*"}, {"1\\*", "12"}, {"1\\?*", "1?2"}, {"1\\?*", "1\\?2"}, {"1\\*?", "1\\*2"},
+            {"SP*", "sp1"}, {"a*b*c", "aXbYbc"}, {"a*b*c", "aXbYcd"},
+            {"1.0.*", "-"}, {"1.0.*", "*"}
+    };
+
+    @Test
+    public void testMatches() {
+        Assert.assertTrue(CpeAttributeMatcher.matches("1.0.0", "1.0.0"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("*", "1.0.0"));
+        Assert.assertFalse(CpeAttributeMatcher.matches("-", "1.0.0"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("1.0.0", "*"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("-", "*"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("1.0.*", "1.0.10"));
+        Assert.assertFalse(CpeAttributeMatcher.matches("1.0.*", "1.1.0"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("1.?", "1.2"));
+        Assert.assertFalse(CpeAttributeMatcher.matches("1.?", "1.22"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("1\\*", "1\\*"));
+        Assert.assertFalse(CpeAttributeMatcher.matches("1\\*", "1*"));
+        Assert.assertTrue(CpeAttributeMatcher.matches("1\\?*", "1\\?2"));
+        Assert.assertFalse(CpeAttributeMatcher.matches("1\\*", "12"));
+        Assert.assertFalse(CpeAttributeMatcher.matches("1.*", null));
+        Assert.assertSame(CpeAttributeMatcher.of("1.0.*"), CpeAttributeMatcher.of("1.0.*"));
+    }
+
+    @Test
+    public void testMatchesLikeCpeCompareAttributes() throws Exception {
+        final Method compareAttributes = Cpe.class.getDeclaredMethod("compareAttributes", String.class, String.class);
+        compareAttributes.setAccessible(true);
+        for (final String[] attributes : ATTRIBUTES) {
+            Assert.assertEquals(attributes[0] + " / " + attributes[1],
+                    compareAttributes.invoke(null, attributes[0], attributes[1]),
+                    CpeAttributeMatcher.matches(attributes[0], attributes[1]));
+        }
+    }
+
+}
@@ -30,6 +30,22 @@ public class InternalComponentIdentificationUtilTest {
     @Before
     public void setUp() {
         queryManagerMock = mock(QueryManager.class);
+
+        final ConfigProperty groupConfigProperty = new ConfigProperty();
+        groupConfigProperty.setPropertyValue(groupsRegexProperty);
+
+        final ConfigProperty nameConfigProperty = new ConfigProperty();
+        nameConfigProperty.setPropertyValue(namesRegexProperty);
+
+        doReturn(groupConfigProperty).when(queryManagerMock)
+                .getConfigProperty(
+                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_GROUPS_REGEX.getGroupName()),
+                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_GROUPS_REGEX.getPropertyName()));
+
+        doReturn(nameConfigProperty).when(queryManagerMock)
+                .getConfigProperty(
+                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_NAMES_REGEX.getGroupName()),
+                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_NAMES_REGEX.getPropertyName()));
     }
 
     @Parameterized.Parameters(name = "[{index}] groupsRegexProperty={0} componentGroup={1} " +
@@ -73,27 +89,20 @@ public class InternalComponentIdentificationUtilTest {
 
     @Test
     public void testIsInternal() {
-        final ConfigProperty groupConfigProperty = new ConfigProperty();
-        groupConfigProperty.setPropertyValue(groupsRegexProperty);
-
-        final ConfigProperty nameConfigProperty = new ConfigProperty();
-        nameConfigProperty.setPropertyValue(namesRegexProperty);
-
-        doReturn(groupConfigProperty).when(queryManagerMock)
-                .getConfigProperty(
-                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_GROUPS_REGEX.getGroupName()),
-                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_GROUPS_REGEX.getPropertyName()));
+        final Component component = new Component();
+        component.setGroup(componentGroup);
+        component.setName(componentName);
 
-        doReturn(nameConfigProperty).when(queryManagerMock)
-                .getConfigProperty(
-                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_NAMES_REGEX.getGroupName()),
-                        eq(ConfigPropertyConstants.INTERNAL_COMPONENTS_NAMES_REGEX.getPropertyName()));
+        assertEquals(shouldBeInternal, InternalComponentIdentificationUtil.isInternalComponent(component, queryManagerMock));
+    }
 
+    @Test
+    public void testInternalComponentPredicate() {
         final Component component = new Component();
         component.setGroup(componentGroup);
         component.setName(componentName);
 
-        assertEquals(shouldBeInternal, InternalComponentIdentificationUtil.isInternalComponent(component, queryManagerMock));
+        assertEquals(shouldBeInternal, InternalComponentIdentificationUtil.internalComponentPredicate(queryManagerMock).test(component));
     }
 
 }
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Dependency-Track.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ * Copyright (c) Steve Springett. All Rights Reserved.
+ */
+package org.dependencytrack.util;
+
+import alpine.notification.Notification;
+import alpine.notification.NotificationService;
+import alpine.notification.Subscriber;
+import alpine.notification.Subscription;
+import org.dependencytrack.PersistenceCapableTest;
+import org.dependencytrack.model.Component;
+import org.dependencytrack.model.Project;
+import org.dependencytrack.model.Vulnerability;
+import org.dependencytrack.model.VulnerabilityAlias;
+import org.dependencytrack.model.VulnerabilityAnalysisLevel;
+import org.dependencytrack.notification.NotificationGroup;
+import org.dependencytrack.notification.vo.NewVulnerabilityIdentified;
+import org.dependencytrack.tasks.scanners.AnalyzerIdentity;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class NewVulnerabilityNotificationBatchTest extends PersistenceCapableTest {
+
+    public static class NotificationSubscriber implements Subscriber {
+
+        @Override
+        public void inform(final Notification notification) {
+            NOTIFICATIONS.add(notification);
+        }
+
+    }
+
+    private static final ConcurrentLinkedQueue<Notification> NOTIFICATIONS = new ConcurrentLinkedQueue<>();
+
+    @BeforeClass
+    public static void setUpClass() {
+        NotificationService.getInstance().subscribe(new Subscription(NotificationSubscriber.class));
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        NotificationService.getInstance().unsubscribe(new Subscription(NotificationSubscriber.class));
+    }
+
+    @Before
+    public void setUp() {
+        NOTIFICATIONS.clear();
+    }
+
+    @After
+    public void tearDown() {
+        NOTIFICATIONS.clear();
+    }
+
+    @Test
+    public void testDispatch() {
+        final Project projectA = qm.createProject("Project A", null, "1.0", null, null, null, true, false);
+        final Project projectB = qm.createProject("Project B", null, "1.0", null, null, null, true, false);
+        final Project projectC = qm.createProject("Project C", null, "1.0", null, null, null, true, false);
+        final Project projectD = qm.createProject("Project D", null, "1.0", null, null, null, true, false);
+        final Component component = createComponent(projectA, "1.0", "pkg:maven/com.acme/acme-lib@1.0");
+        createComponent(projectB, "1.0", "pkg:maven/com.acme/acme-lib@1.0");
+        createComponent(projectC, "1.0", "pkg:maven/com.acme/acme-lib@1.0?type=jar");
+        createComponent(projectD, "2.0", "pkg:maven/com.acme/acme-lib@2.0");
+
+        final var vulnerability = new Vulnerability();
+        vulnerability.setVulnId("CVE-123");
+        vulnerability.setSource(Vulnerability.Source.NVD);
+        qm.createVulnerability(vulnerability, false);
+        final var existingVulnerability = new Vulnerability();
+        existingVulnerability.setVulnId("CVE-456");
+        existingVulnerability.setSource(Vulnerability.Source.NVD);
+        qm.createVulnerability(existingVulnerability, false);
+        qm.addVulnerability(existingVulnerability, component, AnalyzerIdentity.INTERNAL_ANALYZER);
+
+        final var alias = new VulnerabilityAlias();
+        alias.setCveId("CVE-123");
+        alias.setGhsaId("GHSA-123");
+        qm.persist(alias);
+
+        final var batch = new NewVulnerabilityNotificationBatch();
+        batch.run(() -> {
+            NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+            NotificationUtil.analyzeNotificationCriteria(qm, existingVulnerability, component, VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+
+            // New findings of other threads are recorded in the same batch.
+            CompletableFuture.runAsync(NewVulnerabilityNotificationBatch.propagate(() ->
+                    NotificationUtil.analyzeNotificationCriteria(qm, vulnerability, component, VulnerabilityAnalysisLevel.PERIODIC_ANALYSIS))).join();
+        });
+        assertThat(NewVulnerabilityNotificationBatch.current()).isNull();
+
+        batch.dispatch(qm);
+
+        await("Notification dispatch")
+                .atMost(Duration.ofSeconds(5))
+                .pollInterval(Duration.ofMillis(50))
+                .untilAsserted(() -> assertThat(NOTIFICATIONS).isNotEmpty());
+        assertThat(NOTIFICATIONS).satisfiesExactly(notification -> {
+            assertThat(notification.getGroup()).isEqualTo(NotificationGroup.NEW_VULNERABILITY.name());
+            assertThat(notification.getTitle()).contains("Project A");
+            assertThat(notification.getSubject()).isInstanceOf(NewVulnerabilityIdentified.class);
+            final var subject = (NewVulnerabilityIdentified) notification.getSubject();
+            assertThat(subject.getVulnerability().getVulnId()).isEqualTo("CVE-123");
+            assertThat(subject.getVulnerability().getAliases()).satisfiesExactly(
+                    vulnAlias -> assertThat(vulnAlias.getGhsaId()).isEqualTo("GHSA-123"));
+            assertThat(subject.getComponent().getUuid()).isEqualTo(component.getUuid());
+            assertThat(subject.getAffectedProjects()).extracting(Project::getUuid)
+                    .containsExactlyInAnyOrder(projectA.getUuid(), projectB.getUuid(), projectC.getUuid());
+            assertThat(subject.getVulnerabilityAnalysisLevel()).isEqualTo(VulnerabilityAnalysisLevel.BOM_UPLOAD_ANALYSIS);
+        });
+    }
+
+    @Test
+    public void testDispatchEmpty() {
+        new NewVulnerabilityNotificationBatch().dispatch(qm);
+
+        assertThat(NOTIFICATIONS).isEmpty();
+    }
+
+    private Component createComponent(final Project project, final String version, final String purl) {
+        final var component = new Component();
+        component.setProject(project);
+        component.setGroup("com.acme");
+        component.setName("acme-lib");
+        component.setVersion(version);
+        component.setPurl(purl);
+        return qm.createComponent(component, false);
+    }
+
+}